@@ -5,11 +5,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.serpstat.domains.utils.VersionUtils;
 import io.modelcontextprotocol.server.McpServer;
 import io.modelcontextprotocol.server.McpSyncServer;
-import io.modelcontextprotocol.server.transport.HttpServletSseServerTransportProvider;
 import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
 
 import com.serpstat.core.ToolRegistry;
 import com.serpstat.core.SerpstatApiClient;
+import com.serpstat.core.SerpstatApiClientConfig;
 
 import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
@@ -23,8 +23,10 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
 
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.servlet.FilterHolder;
@@ -40,14 +42,22 @@ public class SerpstatMcpServer {
     private static final String HOST_ENV = "SERPSTAT_MCP_HOST";
     private static final String PORT_ENV = "SERPSTAT_MCP_PORT";
     private static final String BASE_URL_ENV = "SERPSTAT_MCP_BASE_URL";
+    private static final String CACHE_DIR_ENV = "SERPSTAT_CACHE_DIR";
+    private static final String CACHE_MAX_MB_ENV = "SERPSTAT_CACHE_MAX_MB";
+    private static final String CACHE_MEMORY_MB_ENV = "SERPSTAT_CACHE_MEMORY_MB";
+    private static final String CREDIT_BUDGET_ENV = "SERPSTAT_CREDIT_BUDGET";
+    private static final String SESSION_CREDIT_BUDGET_ENV = "SERPSTAT_SESSION_CREDIT_BUDGET";
     private static final String DEFAULT_HOST = "0.0.0.0";
     private static final int DEFAULT_PORT = 8080;
     private static final String MESSAGE_ENDPOINT = "/messages";
     private static final String EVENTS_ENDPOINT = "/sse";
     private static final String RELATIVE_BASE_URL_VALUE = "relative";
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    private static final String KEEP_ALIVE_SECONDS = "60";
 
     private final String apiToken;
     private McpSyncServer mcpServer;
+    private SerpstatApiClient apiClient;
     private Server server;
 
     public SerpstatMcpServer(String apiToken) {
@@ -71,6 +81,13 @@ public class SerpstatMcpServer {
         }
 
 
+        // The JDK HTTP client reads its idle connection timeout from this JVM-wide property when its first
+        // instance is created. Below the usual 75 s server-side keep-alive, a request never goes out on a
+        // connection Serpstat already dropped; the JDK default is 20 min. A value given with -D wins.
+        if (System.getProperty(KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_PROPERTY, KEEP_ALIVE_SECONDS);
+        }
+
         SerpstatMcpServer server = new SerpstatMcpServer(apiToken);
 
         try {
@@ -88,12 +105,9 @@ public class SerpstatMcpServer {
         String defaultBaseUrl = String.format("http://%s:%d", host, port);
         String baseUrl = resolveBaseUrl(defaultBaseUrl);
 
-        var transportProvider = HttpServletSseServerTransportProvider.builder()
-                .objectMapper(new ObjectMapper())
-                .baseUrl(baseUrl)
-                .messageEndpoint(MESSAGE_ENDPOINT)
-                .sseEndpoint(EVENTS_ENDPOINT)
-                .build();
+        // Clients connecting with their own Serpstat token become tenants with their own limits and cache share
+        var transportProvider = new TenantSseTransportProvider(new ObjectMapper(), baseUrl,
+                MESSAGE_ENDPOINT, EVENTS_ENDPOINT);
 
         this.server = new Server(new InetSocketAddress(host, port));
         ServletContextHandler context = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
@@ -107,7 +121,11 @@ public class SerpstatMcpServer {
         this.server.start();
 
         // Create API client
-        SerpstatApiClient apiClient = new SerpstatApiClient(apiToken);
+        List<String> apiTokens = resolveApiTokens();
+        if (apiTokens.size() > 1) {
+            System.err.printf("🔑 Sending calls with %d API tokens%n", apiTokens.size());
+        }
+        this.apiClient = new SerpstatApiClient(apiTokens, resolveClientConfig());
 
         // Create a tool registry and automatically register all tools
         ToolRegistry toolRegistry = new ToolRegistry(apiClient);
@@ -169,6 +187,92 @@ public class SerpstatMcpServer {
         } catch (Exception e) {
             System.err.println("❌ Error during MCP shutdown: " + e.getMessage());
         }
+
+        if (apiClient != null) {
+            apiClient.close();
+            System.err.println("💾 API client caches flushed.");
+        }
+    }
+
+    /**
+     * SERPSTAT_API_TOKEN may hold several comma-separated tokens; calls are spread over all of them
+     */
+    private List<String> resolveApiTokens() {
+        List<String> tokens = Arrays.stream(apiToken.split(","))
+                .map(String::trim)
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+        return tokens.isEmpty() ? List.of(apiToken) : tokens;
+    }
+
+    private SerpstatApiClientConfig resolveClientConfig() {
+        SerpstatApiClientConfig.SerpstatApiClientConfigBuilder config = SerpstatApiClientConfig.builder();
+
+        String cacheDir = System.getenv(CACHE_DIR_ENV);
+        if (cacheDir != null && !cacheDir.isBlank()) {
+            config.diskCacheDirectory(Path.of(cacheDir.trim()));
+            System.err.printf("💾 Persistent response cache enabled at %s (env %s)%n", cacheDir.trim(), CACHE_DIR_ENV);
+        }
+
+        Long diskMaxBytes = resolveMegabytes(CACHE_MAX_MB_ENV);
+        if (diskMaxBytes != null) {
+            config.diskCacheMaxBytes(diskMaxBytes);
+        }
+
+        Long memoryMaxBytes = resolveMegabytes(CACHE_MEMORY_MB_ENV);
+        if (memoryMaxBytes != null) {
+            config.memoryCacheMaxBytes(memoryMaxBytes);
+        }
+
+        Long creditBudget = resolveCredits(CREDIT_BUDGET_ENV);
+        if (creditBudget != null) {
+            config.creditBudget(creditBudget);
+            System.err.printf("💳 Credit budget: %d credits (env %s)%n", creditBudget, CREDIT_BUDGET_ENV);
+        }
+
+        Long sessionCreditBudget = resolveCredits(SESSION_CREDIT_BUDGET_ENV);
+        if (sessionCreditBudget != null) {
+            config.sessionCreditBudget(sessionCreditBudget);
+            System.err.printf("💳 Credit budget per session: %d credits (env %s)%n",
+                    sessionCreditBudget, SESSION_CREDIT_BUDGET_ENV);
+        }
+
+        return config.build();
+    }
+
+    private Long resolveMegabytes(String envName) {
+        String value = System.getenv(envName);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            long megabytes = Long.parseLong(value.trim());
+            if (megabytes > 0) {
+                return megabytes * 1024 * 1024;
+            }
+            System.err.printf("⚠️  %s must be positive. Using the default size cap.%n", envName);
+        } catch (NumberFormatException e) {
+            System.err.printf("⚠️  Invalid size '%s' in %s. Using the default size cap.%n", value, envName);
+        }
+        return null;
+    }
+
+    private Long resolveCredits(String envName) {
+        String value = System.getenv(envName);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            long credits = Long.parseLong(value.trim());
+            if (credits > 0) {
+                return credits;
+            }
+            System.err.printf("⚠️  %s must be positive. Running without this budget.%n", envName);
+        } catch (NumberFormatException e) {
+            System.err.printf("⚠️  Invalid credit count '%s' in %s. Running without this budget.%n", value, envName);
+        }
+        return null;
     }
 
     private String resolveHost() {
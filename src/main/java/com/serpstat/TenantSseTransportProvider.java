@@ -0,0 +1,177 @@
+package com.serpstat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serpstat.core.TenantContext;
+import io.modelcontextprotocol.server.transport.HttpServletSseServerTransportProvider;
+import io.modelcontextprotocol.spec.McpServerSession;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * SSE transport that gives every MCP session a tenant. A client opening {@code /sse} with its own
+ * Serpstat API token(s) in the {@value #TOKEN_HEADER} header (comma-separated for several, at most
+ * {@value #MAX_TOKENS}) becomes the tenant of those tokens for the whole session: its tool calls run
+ * with that {@link TenantContext} bound, so they use the tenant's tokens, rate limits, budgets and
+ * cache share. Sessions opened without a token use the server's token. Tokens are not taken from the
+ * query string, where access logs and proxies would record them.
+ */
+final class TenantSseTransportProvider extends HttpServletSseServerTransportProvider {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String TOKEN_HEADER = "X-Serpstat-Token";
+    static final int MAX_TOKENS = 10;
+
+    private static final String SESSION_PARAMETER = "sessionId";
+    private static final String SCHEDULE_HOOK = TenantSseTransportProvider.class.getName();
+
+    private final Map<String, TenantContext> sessionTenants = new ConcurrentHashMap<>();
+    // The tenant of the SSE connection being opened on this thread, while its session is created
+    private final ThreadLocal<Connection> connecting = new ThreadLocal<>();
+
+    @SuppressWarnings("try")
+    TenantSseTransportProvider(ObjectMapper objectMapper, String baseUrl, String messageEndpoint,
+                               String sseEndpoint) {
+        super(objectMapper, baseUrl, messageEndpoint, sseEndpoint);
+        // Tool handlers run on Reactor workers: carry the tenant of the posting thread over to them
+        Schedulers.onScheduleHook(SCHEDULE_HOOK, task -> {
+            TenantContext tenant = TenantContext.current();
+            if (tenant == null) {
+                return task;
+            }
+            return () -> {
+                try (TenantContext.Scope ignored = tenant.bind()) {
+                    task.run();
+                }
+            };
+        });
+    }
+
+    @Override
+    public void setSessionFactory(McpServerSession.Factory sessionFactory) {
+        super.setSessionFactory(transport -> {
+            McpServerSession session = sessionFactory.create(transport);
+            Connection connection = connecting.get();
+            if (connection != null) {
+                connection.sessionId = session.getId();
+                sessionTenants.put(session.getId(), connection.tenant);
+            }
+            return session;
+        });
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        TenantContext tenant = resolveTenant(request);
+        if (tenant == null) {
+            super.doGet(request, response);
+            return;
+        }
+        Connection connection = new Connection(tenant);
+        connecting.set(connection);
+        try {
+            super.doGet(request, response);
+        } finally {
+            connecting.remove();
+        }
+        if (connection.sessionId != null && request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new SessionEnd(connection.sessionId));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String sessionId = request.getParameter(SESSION_PARAMETER);
+        TenantContext tenant = sessionId == null ? null : sessionTenants.get(sessionId);
+        if (tenant == null) {
+            super.doPost(request, response);
+            return;
+        }
+        try (TenantContext.Scope ignored = tenant.bind()) {
+            super.doPost(request, response);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        Schedulers.resetOnScheduleHook(SCHEDULE_HOOK);
+        sessionTenants.clear();
+        super.destroy();
+    }
+
+    int getTenantSessionCount() {
+        return sessionTenants.size();
+    }
+
+    /**
+     * The tenant of the token(s) a client connects with, or null when it sent none
+     */
+    static TenantContext resolveTenant(HttpServletRequest request) {
+        String value = request.getHeader(TOKEN_HEADER);
+        if (value == null) {
+            return null;
+        }
+        List<String> tokens = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .limit(MAX_TOKENS)
+                .toList();
+        return tokens.isEmpty() ? null : TenantContext.of(tokens);
+    }
+
+    private static final class Connection {
+        private final TenantContext tenant;
+        private String sessionId;
+
+        private Connection(TenantContext tenant) {
+            this.tenant = tenant;
+        }
+    }
+
+    /**
+     * Forgets the tenant of a session once its SSE stream ends
+     */
+    private final class SessionEnd implements AsyncListener {
+        private final String sessionId;
+
+        private SessionEnd(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            sessionTenants.remove(sessionId);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            sessionTenants.remove(sessionId);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            sessionTenants.remove(sessionId);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Still the same session
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.serpstat.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD control of the upstream request rate. While Serpstat answers quickly and without errors and
+ * callers actually use the current rate, it grows by a fixed step each second; on HTTP 429, a 5xx
+ * or a latency spike it is cut by a factor, at most once per cool-down so one burst of rejections
+ * counts as one signal. A {@code Retry-After} from Serpstat additionally pauses the limiter.
+ */
+public class AdaptiveRateController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveRateController.class);
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double ADDITIVE_STEP = 1.0;
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double LATENCY_SPIKE_FACTOR = 3.0;
+    private static final long LATENCY_SPIKE_FLOOR = TimeUnit.SECONDS.toNanos(2);
+    private static final int LATENCY_WARMUP_SAMPLES = 20;
+    private static final double LATENCY_SMOOTHING = 0.1;
+    private static final double UTILIZATION_TO_GROW = 0.8;
+
+    private final RateLimiter rateLimiter;
+    private final SerpstatApiMetrics metrics;
+    private final double minRate;
+    private final double maxRate;
+    private final LongSupplier clock;
+
+    private double rate;
+    private double reportedRate;
+    private long periodStart;
+    private int periodSuccesses;
+    private long lastDecrease;
+    private double latencyEwma;
+    private int latencySamples;
+
+    public AdaptiveRateController(RateLimiter rateLimiter, SerpstatApiMetrics metrics,
+                                  double minRate, double maxRate) {
+        this(rateLimiter, metrics, minRate, maxRate, System::nanoTime);
+    }
+
+    AdaptiveRateController(RateLimiter rateLimiter, SerpstatApiMetrics metrics,
+                           double minRate, double maxRate, LongSupplier clock) {
+        if (!(minRate > 0) || maxRate < minRate) {
+            throw new IllegalArgumentException("Need 0 < minRate <= maxRate");
+        }
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.clock = clock;
+        this.rate = Math.max(minRate, Math.min(maxRate, rateLimiter.getRate()));
+        this.periodStart = clock.getAsLong();
+        this.lastDecrease = periodStart - SECOND;
+        apply();
+    }
+
+    /**
+     * A 200 response arrived after {@code latency}
+     */
+    public synchronized void onSuccess(Duration latency) {
+        long now = clock.getAsLong();
+        long latencyNanos = latency.toNanos();
+        if (isLatencySpike(latencyNanos)) {
+            decrease(now, "latency spike of " + latency.toMillis() + " ms");
+            return;
+        }
+        latencyEwma = latencySamples == 0
+                ? latencyNanos
+                : latencyEwma + LATENCY_SMOOTHING * (latencyNanos - latencyEwma);
+        latencySamples++;
+
+        periodSuccesses++;
+        long elapsed = now - periodStart;
+        if (elapsed >= SECOND) {
+            // Grow only when the current rate is actually being used, not while idle
+            double used = periodSuccesses * (double) SECOND / elapsed;
+            if (used >= rate * UTILIZATION_TO_GROW && now - lastDecrease >= SECOND && rate < maxRate) {
+                rate = Math.min(maxRate, rate + ADDITIVE_STEP);
+                apply();
+            }
+            periodStart = now;
+            periodSuccesses = 0;
+        }
+    }
+
+    /**
+     * Serpstat rejected a call with HTTP 429; {@code retryAfter} may be null
+     */
+    public synchronized void onThrottled(Duration retryAfter) {
+        metrics.recordThrottledResponse();
+        if (retryAfter != null && !retryAfter.isNegative() && !retryAfter.isZero()) {
+            rateLimiter.pauseFor(retryAfter);
+        }
+        decrease(clock.getAsLong(), "HTTP 429");
+    }
+
+    /**
+     * Serpstat failed a call with a 5xx status
+     */
+    public synchronized void onServerError(int statusCode) {
+        decrease(clock.getAsLong(), "HTTP " + statusCode);
+    }
+
+    /**
+     * Current target rate in requests per second
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    private boolean isLatencySpike(long latencyNanos) {
+        return latencySamples >= LATENCY_WARMUP_SAMPLES
+                && latencyNanos > Math.max(LATENCY_SPIKE_FLOOR, latencyEwma * LATENCY_SPIKE_FACTOR);
+    }
+
+    private void decrease(long now, String reason) {
+        // Calls already in flight when the first signal arrived report the same congestion
+        long coolDown = Math.max(SECOND, (long) latencyEwma);
+        if (now - lastDecrease < coolDown) {
+            return;
+        }
+        lastDecrease = now;
+        double previous = rate;
+        rate = Math.max(minRate, rate * DECREASE_FACTOR);
+        periodStart = now;
+        periodSuccesses = 0;
+        apply();
+        log.info("Upstream rate cut from {} to {} req/s after {}", round(previous), round(rate), reason);
+    }
+
+    private void apply() {
+        rateLimiter.setRate(rate);
+        metrics.adjustEffectiveRate(rate - reportedRate);
+        reportedRate = rate;
+    }
+
+    /**
+     * Parses a Retry-After header: delay in seconds or an HTTP date. Null when absent or malformed.
+     */
+    static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            // Not delta-seconds; try an HTTP date
+        }
+        try {
+            ZonedDateTime retryAt = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -57,11 +57,15 @@ public abstract class BaseToolHandler {
      *         </ul>
      */
 
+    @SuppressWarnings("try")
     protected CallToolResult handleToolCall(McpSyncServerExchange exchange,
             Map<String, Object> arguments,
             String methodName,
             ToolExecutor executor) {
-        try {
+        // Credits the tool spends count against its own budget and that of the calling session. Tool
+        // calls are interactive; tools that fan out bind the BULK lane around their extra calls.
+        try (CreditBudgetManager.Scope budget = CreditBudgetManager.bind(sessionOf(exchange), methodName);
+             RequestScheduler.Scope scheduling = RequestScheduler.bind(RequestScheduler.Lane.INTERACTIVE)) {
 
             logInfo(exchange, "Starting " + methodName + " request");
 
@@ -87,6 +91,14 @@ public abstract class BaseToolHandler {
         }
     }
 
+    /**
+     * The client info object the MCP session was initialized with is the same instance for every
+     * call of that session, so it identifies the session
+     */
+    private static Object sessionOf(McpSyncServerExchange exchange) {
+        return exchange == null ? null : exchange.getClientInfo();
+    }
+
     protected void logInfo(McpSyncServerExchange exchange, String message) {
         if (exchange == null)
             return;
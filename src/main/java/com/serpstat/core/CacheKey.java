@@ -0,0 +1,295 @@
+package com.serpstat.core;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonical, order-insensitive cache key for a Serpstat API call.
+ * <p>
+ * The key is a 128-bit hash of the method name and its parameters, built in one pass without
+ * serializing the params to a String:
+ * <ul>
+ *     <li>map entries are hashed independently and combined commutatively, which gives the same
+ *     result as sorting the keys but without copying them;</li>
+ *     <li>set-like list parameters ({@link #SET_LIKE_PARAMS}) are order-insensitive, so
+ *     {@code ["a.com","b.com"]} and {@code ["b.com","a.com"]} share an entry;</li>
+ *     <li>top-level parameters the API defaults ({@link #DEFAULT_PARAMS}) hash the same whether
+ *     they are omitted or passed explicitly, and {@code null} values count as omitted;</li>
+ *     <li>integral numbers hash the same regardless of their boxed type.</li>
+ * </ul>
+ */
+public final class CacheKey {
+
+    /**
+     * List parameters whose element order does not change the Serpstat response
+     */
+    static final Set<String> SET_LIKE_PARAMS = Set.of(
+            "domains", "keywords", "minusKeywords", "minus_keywords", "minus_domains");
+
+    /**
+     * Top-level parameters and the value Serpstat assumes when they are omitted
+     */
+    static final Map<String, Object> DEFAULT_PARAMS = Map.of(
+            "se", "g_us",
+            "page", 1);
+
+    private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private static final long TAG_NULL = 1;
+    private static final long TAG_STRING = 2;
+    private static final long TAG_INTEGRAL = 3;
+    private static final long TAG_DECIMAL = 4;
+    private static final long TAG_BOOLEAN = 5;
+    private static final long TAG_LIST = 6;
+    private static final long TAG_SET = 7;
+    private static final long TAG_MAP = 8;
+    private static final long TAG_OTHER = 9;
+
+    private static final ConcurrentMap<String, long[]> METHOD_PREFIXES = new ConcurrentHashMap<>();
+
+    private final String method;
+    private final long high;
+    private final long low;
+
+    CacheKey(String method, long high, long low) {
+        this.method = method;
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Builds the canonical key for a call
+     */
+    public static CacheKey of(String method, Map<String, Object> params) {
+        Hasher hasher = new Hasher();
+        long[] prefix = METHOD_PREFIXES.computeIfAbsent(method, CacheKey::methodPrefix);
+        hasher.h1 = prefix[0];
+        hasher.h2 = prefix[1];
+        hasher.length = prefix[2];
+        hasher.putParams(params == null ? Map.of() : params);
+        hasher.finish();
+        return new CacheKey(method, hasher.h1, hasher.h2);
+    }
+
+    /**
+     * Hasher state after absorbing the method name; method names are a small fixed set
+     */
+    private static long[] methodPrefix(String method) {
+        Hasher hasher = new Hasher();
+        hasher.putString(method);
+        return new long[]{hasher.h1, hasher.h2, hasher.length};
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheKey other)) {
+            return false;
+        }
+        return high == other.high && low == other.low && method.equals(other.method);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return method + ":" + String.format("%016x%016x", high, low);
+    }
+
+    /**
+     * Streaming 128-bit hasher (two Murmur3-style lanes). Nested maps and sets are hashed
+     * entry by entry into the same two lanes, saving and restoring them on the stack.
+     */
+    private static final class Hasher {
+        private static final long C1 = 0x87C37B91114253D5L;
+        private static final long C2 = 0x4CF5AD432745937FL;
+
+        long h1 = SEED_1;
+        long h2 = SEED_2;
+        long length;
+
+        void putLong(long k) {
+            // Lanes are independent while streaming so both can run in parallel; finish() mixes them
+            h1 = Long.rotateLeft(h1 ^ (k * C1), 27) * 5 + 0x52DCE729;
+            h2 = Long.rotateLeft(h2 ^ (k * C2), 31) * 5 + 0x38495AB5;
+            length++;
+        }
+
+        void putString(String s) {
+            int chars = s.length();
+            putLong(TAG_STRING << 32 | chars);
+            int i = 0;
+            for (; i + 4 <= chars; i += 4) {
+                putLong(s.charAt(i)
+                        | (long) s.charAt(i + 1) << 16
+                        | (long) s.charAt(i + 2) << 32
+                        | (long) s.charAt(i + 3) << 48);
+            }
+            long tail = 0;
+            for (int shift = 0; i < chars; i++, shift += 16) {
+                tail |= (long) s.charAt(i) << shift;
+            }
+            putLong(tail);
+        }
+
+        void putParams(Map<String, Object> params) {
+            putMap(params, true);
+        }
+
+        private void putMap(Map<?, ?> map, boolean withDefaults) {
+            long sum1 = 0;
+            long sum2 = 0;
+            long count = 0;
+            long saved1 = h1;
+            long saved2 = h2;
+            long savedLength = length;
+
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getValue() == null) {
+                    continue;
+                }
+                resetEntry();
+                putEntry(String.valueOf(entry.getKey()), entry.getValue());
+                sum1 += h1;
+                sum2 += h2;
+                count++;
+            }
+            if (withDefaults) {
+                for (Map.Entry<String, Object> entry : DEFAULT_PARAMS.entrySet()) {
+                    if (map.get(entry.getKey()) == null) {
+                        resetEntry();
+                        putEntry(entry.getKey(), entry.getValue());
+                        sum1 += h1;
+                        sum2 += h2;
+                        count++;
+                    }
+                }
+            }
+
+            h1 = saved1;
+            h2 = saved2;
+            length = savedLength;
+            putLong(TAG_MAP);
+            putLong(count);
+            putLong(sum1);
+            putLong(sum2);
+        }
+
+        private void putEntry(String key, Object value) {
+            putString(key);
+            if (SET_LIKE_PARAMS.contains(key) && value instanceof Collection<?> collection) {
+                putUnordered(collection);
+            } else {
+                putValue(value);
+            }
+            finish();
+        }
+
+        private void putValue(Object value) {
+            if (value == null) {
+                putLong(TAG_NULL);
+            } else if (value instanceof String s) {
+                putString(s);
+            } else if (value instanceof Integer || value instanceof Long
+                    || value instanceof Short || value instanceof Byte) {
+                putLong(TAG_INTEGRAL);
+                putLong(((Number) value).longValue());
+            } else if (value instanceof Number number) {
+                double d = number.doubleValue();
+                if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 0x1p63) {
+                    putLong(TAG_INTEGRAL);
+                    putLong((long) d);
+                } else {
+                    putLong(TAG_DECIMAL);
+                    putLong(Double.doubleToLongBits(d));
+                }
+            } else if (value instanceof Boolean b) {
+                putLong(TAG_BOOLEAN);
+                putLong(b ? 1 : 0);
+            } else if (value instanceof Map<?, ?> map) {
+                putMap(map, false);
+            } else if (value instanceof List<?> list) {
+                putLong(TAG_LIST);
+                putLong(list.size());
+                for (Object item : list) {
+                    putValue(item);
+                }
+            } else if (value instanceof Collection<?> collection) {
+                putUnordered(collection);
+            } else {
+                putLong(TAG_OTHER);
+                putString(value.toString());
+            }
+        }
+
+        private void putUnordered(Collection<?> items) {
+            long sum1 = 0;
+            long sum2 = 0;
+            long saved1 = h1;
+            long saved2 = h2;
+            long savedLength = length;
+            for (Object item : items) {
+                resetEntry();
+                putValue(item);
+                finish();
+                sum1 += h1;
+                sum2 += h2;
+            }
+            h1 = saved1;
+            h2 = saved2;
+            length = savedLength;
+            putLong(TAG_SET);
+            putLong(items.size());
+            putLong(sum1);
+            putLong(sum2);
+        }
+
+        private void resetEntry() {
+            h1 = SEED_1;
+            h2 = SEED_2;
+            length = 0;
+        }
+
+        void finish() {
+            h1 ^= length;
+            h2 ^= length;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix64(h1);
+            h2 = fmix64(h2);
+            h1 += h2;
+            h2 += h1;
+        }
+
+        private static long fmix64(long k) {
+            k ^= k >>> 33;
+            k *= 0xFF51AFD7ED558CCDL;
+            k ^= k >>> 33;
+            k *= 0xC4CEB9FE1A85EC53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
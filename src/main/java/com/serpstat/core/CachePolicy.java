@@ -0,0 +1,114 @@
+package com.serpstat.core;
+
+import java.time.Duration;
+
+/**
+ * How long responses of one API method stay cached.
+ * A policy without a TTL keeps entries until they are invalidated or evicted for space.
+ * A policy with a refresh interval (stale-while-revalidate) keeps serving an entry once it is older
+ * than that interval, while a single background call refreshes it; the TTL stays the hard limit.
+ */
+public final class CachePolicy {
+
+    private static final CachePolicy UNTIL_INVALIDATED = new CachePolicy(null, null);
+
+    private final Duration ttl;
+    private final Duration refreshAfter;
+
+    private CachePolicy(Duration ttl, Duration refreshAfter) {
+        this.ttl = ttl;
+        this.refreshAfter = refreshAfter;
+    }
+
+    public static CachePolicy expireAfter(Duration ttl) {
+        if (ttl == null || ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must be a non-negative duration");
+        }
+        return new CachePolicy(ttl, null);
+    }
+
+    public static CachePolicy untilInvalidated() {
+        return UNTIL_INVALIDATED;
+    }
+
+    /**
+     * Time to live, or null when entries never expire on their own
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public boolean expires() {
+        return ttl != null;
+    }
+
+    /**
+     * Copy of this policy that serves entries older than {@code refreshAfter} while refreshing them
+     * in the background. Must be shorter than the TTL, otherwise entries expire before they go stale.
+     */
+    public CachePolicy refreshAfter(Duration refreshAfter) {
+        if (refreshAfter == null || refreshAfter.isNegative()) {
+            throw new IllegalArgumentException("refreshAfter must be a non-negative duration");
+        }
+        if (ttl != null && refreshAfter.compareTo(ttl) >= 0) {
+            throw new IllegalArgumentException("refreshAfter must be shorter than the ttl " + ttl);
+        }
+        return new CachePolicy(ttl, refreshAfter);
+    }
+
+    /**
+     * Soft TTL after which entries are refreshed in the background, or null when refresh is off
+     */
+    public Duration getRefreshAfter() {
+        return refreshAfter;
+    }
+
+    /**
+     * Whether an entry written at {@code writtenAtMillis} is past its soft TTL
+     */
+    public boolean isStale(long writtenAtMillis, long nowMillis) {
+        return refreshAfter != null && nowMillis - writtenAtMillis >= refreshAfter.toMillis();
+    }
+
+    /**
+     * Remaining lifetime in nanoseconds of an entry written at {@code writtenAtMillis}, saturated to
+     * {@link Long#MAX_VALUE} for entries that never expire
+     */
+    public long remainingNanos(long writtenAtMillis, long nowMillis) {
+        if (ttl == null) {
+            return Long.MAX_VALUE;
+        }
+        long ageMillis = Math.max(0, nowMillis - writtenAtMillis);
+        return Math.max(0, saturatedNanos(ttl) - Duration.ofMillis(ageMillis).toNanos());
+    }
+
+    /**
+     * Absolute expiry time in epoch millis for an entry written at {@code writtenAtMillis}
+     */
+    public long expiresAtMillis(long writtenAtMillis) {
+        if (ttl == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Math.addExact(writtenAtMillis, ttl.toMillis());
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        String expiry = ttl == null ? "until invalidated" : "ttl=" + ttl;
+        return refreshAfter == null
+                ? "CachePolicy[" + expiry + "]"
+                : "CachePolicy[" + expiry + ", refreshAfter=" + refreshAfter + "]";
+    }
+}
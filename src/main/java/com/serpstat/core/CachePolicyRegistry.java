@@ -0,0 +1,50 @@
+package com.serpstat.core;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache policies keyed by Serpstat API method name, with a fallback for methods not listed.
+ * <p>
+ * Defaults follow how fast the underlying data changes: credit stats go stale in seconds,
+ * regional and historical domain data changes at most daily (and is refreshed in the background
+ * after 6 hours, so repeat analyses never wait for it), and the project list, which only changes
+ * when the user edits it, is refreshed in the background after 5 minutes and kept at most 30, so
+ * edits made outside the server show up without anyone invalidating it
+ * ({@link SerpstatApiClient#invalidate(String)} still drops it at once).
+ */
+public class CachePolicyRegistry {
+
+    public static final CachePolicy DEFAULT_POLICY = CachePolicy.expireAfter(Duration.ofMinutes(60));
+
+    private final Map<String, CachePolicy> policies = new ConcurrentHashMap<>();
+    private final CachePolicy fallback;
+
+    public CachePolicyRegistry(CachePolicy fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Registry with the built-in per-method policies
+     */
+    public static CachePolicyRegistry defaults() {
+        return new CachePolicyRegistry(DEFAULT_POLICY)
+                .register("SerpstatLimitsProcedure.getStats", CachePolicy.expireAfter(Duration.ofSeconds(30)))
+                .register("SerpstatDomainProcedure.getRegionsCount", CachePolicy.expireAfter(Duration.ofHours(12))
+                        .refreshAfter(Duration.ofHours(6)))
+                .register("SerpstatDomainProcedure.getDomainsHistory", CachePolicy.expireAfter(Duration.ofHours(12))
+                        .refreshAfter(Duration.ofHours(6)))
+                .register("ProjectProcedure.getProjects", CachePolicy.expireAfter(Duration.ofMinutes(30))
+                        .refreshAfter(Duration.ofMinutes(5)));
+    }
+
+    public CachePolicyRegistry register(String method, CachePolicy policy) {
+        policies.put(method, policy);
+        return this;
+    }
+
+    public CachePolicy policyFor(String method) {
+        return policies.getOrDefault(method, fallback);
+    }
+}
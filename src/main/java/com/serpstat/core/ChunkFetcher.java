@@ -0,0 +1,154 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Runs a Serpstat method that takes a list parameter capped per call (domains, keywords) over a list
+ * of any length. The list is split into chunks the API accepts, the chunks go out at once as
+ * {@link RequestScheduler.Lane#BULK} calls, each cached like any other call (per entity for the
+ * methods in {@link EntitySplitRegistry}), and their {@code data} arrays are merged in list order
+ * into one response. Chunks are independent, so a failed chunk does
+ * not spoil the others: its items are listed in {@code summary_info.failed_items} instead.
+ */
+public final class ChunkFetcher {
+
+    private final SerpstatApiClient apiClient;
+
+    public ChunkFetcher(SerpstatApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+
+    /**
+     * Receives a note each time a chunk has arrived
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onChunk(int chunksFetched, int chunksTotal, int rowsFetched);
+    }
+
+    /**
+     * Calls {@code method} once per {@code chunkSize} items of the {@code listParam} list, other
+     * parameters as given. Its {@code summary_info} is that of the chunks, with the lowest
+     * {@code left_lines} seen, plus {@code chunks_fetched} and, when chunks failed, {@code failed_items}
+     * and {@code incomplete} with the first reason.
+     *
+     * @throws SerpstatApiException when every chunk fails
+     */
+    @SuppressWarnings("try")
+    public SerpstatApiResponse fetch(String method, Map<String, Object> params, String listParam, int chunkSize,
+                                     ProgressListener progress) throws SerpstatApiException {
+        List<?> items = (List<?>) params.get(listParam);
+        if (items.size() <= chunkSize) {
+            return apiClient.callMethod(method, params);
+        }
+
+        int chunks = (items.size() + chunkSize - 1) / chunkSize;
+        BlockingQueue<Integer> arrived = new LinkedBlockingQueue<>();
+        List<CompletableFuture<SerpstatApiResponse>> calls = new ArrayList<>(chunks);
+        try (RequestScheduler.Scope bulk = RequestScheduler.bind(RequestScheduler.Lane.BULK)) {
+            for (int i = 0; i < chunks; i++) {
+                Map<String, Object> chunkParams = new HashMap<>(params);
+                chunkParams.put(listParam, new ArrayList<>(
+                        items.subList(i * chunkSize, Math.min(items.size(), (i + 1) * chunkSize))));
+                int index = i;
+                CompletableFuture<SerpstatApiResponse> call = apiClient.callMethodAsync(method, chunkParams);
+                calls.add(call);
+                call.whenComplete((response, error) -> arrived.add(index));
+            }
+        }
+
+        SerpstatApiResponse[] responses = new SerpstatApiResponse[chunks];
+        Throwable firstFailure = null;
+        int fetched = 0;
+        int rows = 0;
+        try {
+            for (int remaining = chunks; remaining > 0; remaining--) {
+                int index = arrived.take();
+                try {
+                    responses[index] = calls.get(index).join();
+                } catch (CompletionException e) {
+                    if (firstFailure == null) {
+                        firstFailure = e.getCause() == null ? e : e.getCause();
+                    }
+                    continue;
+                }
+                fetched++;
+                rows += rowsOf(responses[index]).size();
+                progress.onChunk(fetched, chunks, rows);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SerpstatApiException("Request failed: interrupted while fetching chunks", e);
+        }
+        if (fetched == 0) {
+            throw firstFailure instanceof SerpstatApiException apiException
+                    ? apiException
+                    : new SerpstatApiException("Request failed: " + firstFailure.getMessage(), firstFailure);
+        }
+        return merge(method, params, listParam, chunkSize, responses, fetched, firstFailure);
+    }
+
+    private static SerpstatApiResponse merge(String method, Map<String, Object> params, String listParam,
+                                             int chunkSize, SerpstatApiResponse[] responses, int fetched,
+                                             Throwable firstFailure) {
+        List<?> items = (List<?>) params.get(listParam);
+        ArrayNode merged = JsonNodeFactory.instance.arrayNode();
+        ArrayNode failedItems = JsonNodeFactory.instance.arrayNode();
+        ObjectNode summary = null;
+        long leftLines = Long.MAX_VALUE;
+        long timestamp = Long.MAX_VALUE;
+        for (int i = 0; i < responses.length; i++) {
+            SerpstatApiResponse response = responses[i];
+            if (response == null) {
+                items.subList(i * chunkSize, Math.min(items.size(), (i + 1) * chunkSize))
+                        .forEach(item -> failedItems.add(String.valueOf(item)));
+                continue;
+            }
+            // Rows are added as they are, not copied: nothing here changes them
+            merged.addAll(rowsOf(response));
+            timestamp = Math.min(timestamp, response.getTimestamp());
+            JsonNode chunkSummary = response.getResult() == null ? null : response.getResult().get("summary_info");
+            if (chunkSummary instanceof ObjectNode chunkSummaryObject) {
+                if (summary == null) {
+                    summary = chunkSummaryObject.deepCopy();
+                }
+                if (chunkSummary.has("left_lines")) {
+                    leftLines = Math.min(leftLines, chunkSummary.get("left_lines").asLong());
+                }
+            }
+        }
+
+        if (summary == null) {
+            summary = JsonNodeFactory.instance.objectNode();
+        }
+        if (leftLines != Long.MAX_VALUE) {
+            summary.put("left_lines", leftLines);
+        }
+        summary.put("chunks_fetched", fetched);
+        if (firstFailure != null) {
+            summary.set("failed_items", failedItems);
+            summary.put("incomplete", failedItems.size() + " items failed: " + firstFailure.getMessage());
+        }
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        result.set("data", merged);
+        result.set("summary_info", summary);
+        return new SerpstatApiResponse(result, method, params, timestamp);
+    }
+
+    private static ArrayNode rowsOf(SerpstatApiResponse response) {
+        JsonNode data = response.getResult() == null ? null : response.getResult().get("data");
+        return data instanceof ArrayNode rows ? rows : JsonNodeFactory.instance.arrayNode();
+    }
+}
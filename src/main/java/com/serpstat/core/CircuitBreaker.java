@@ -0,0 +1,129 @@
+package com.serpstat.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Fails calls to one Serpstat endpoint fast while it is down.
+ * After {@code failureThreshold} consecutive upstream failures (transport errors, timeouts, 5xx) the
+ * circuit opens and calls are rejected without going upstream. Once {@code openDuration} has passed
+ * a single probe call is let through (half-open): its success closes the circuit, its failure opens
+ * it for another period. Answers that prove Serpstat is up, JSON-RPC errors and 429s included, count
+ * as successes.
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String endpoint;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final SerpstatApiMetrics metrics;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String endpoint, int failureThreshold, Duration openDuration, SerpstatApiMetrics metrics) {
+        this(endpoint, failureThreshold, openDuration, metrics, System::nanoTime);
+    }
+
+    CircuitBreaker(String endpoint, int failureThreshold, Duration openDuration, SerpstatApiMetrics metrics,
+                   LongSupplier clock) {
+        if (failureThreshold <= 0 || openDuration.isNegative()) {
+            throw new IllegalArgumentException("failureThreshold must be positive and openDuration non-negative");
+        }
+        this.endpoint = endpoint;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether a call may go upstream now. A true answer must be followed by exactly one of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onAbandoned()}.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Serpstat answered the call
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            probeInFlight = false;
+            metrics.recordCircuitClosed();
+            log.info("Circuit for {} closed: Serpstat answers again", endpoint);
+        }
+    }
+
+    /**
+     * The call failed in a way that points at Serpstat being down
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+            metrics.recordCircuitOpened();
+            log.warn("Circuit for {} opened after {} consecutive failures", endpoint, consecutiveFailures);
+        }
+    }
+
+    /**
+     * The call ended without telling anything about Serpstat's health (e.g. it never went out);
+     * a probe slot is handed back for the next caller
+     */
+    public synchronized void onAbandoned() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Time until an open circuit lets a probe through; zero when not open
+     */
+    public synchronized Duration getRetryIn() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, openedAt + openNanos - clock.getAsLong()));
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        probeInFlight = false;
+    }
+}
@@ -0,0 +1,89 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Cached form of a {@link SerpstatApiResponse}: the result as deflated UTF-8 JSON instead of a
+ * Jackson tree. A tree of Serpstat rows retains several times the bytes of its JSON (one node per
+ * value, one LinkedHashMap per row), and the JSON itself deflates well, so the same heap budget
+ * holds an order of magnitude more pages. The tree is rebuilt on each hit, which also means
+ * callers never share, and can never corrupt, a cached tree.
+ */
+final class CompactResponse {
+
+    private static final int BUFFER_BYTES = 8192;
+
+    private final byte[] deflated;
+    private final String method;
+    private final Map<String, Object> requestParams;
+    private final long timestamp;
+
+    private CompactResponse(byte[] deflated, String method, Map<String, Object> requestParams, long timestamp) {
+        this.deflated = deflated;
+        this.method = method;
+        this.requestParams = requestParams;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Compacts a response whose result has already been serialized to {@code json}
+     * (null when the response has no result)
+     */
+    static CompactResponse of(SerpstatApiResponse response, byte[] json) {
+        return new CompactResponse(json == null ? null : deflate(json),
+                response.getMethod(), response.getRequestParams(), response.getTimestamp());
+    }
+
+    /**
+     * Rebuilds the response, keeping the time it was originally fetched
+     */
+    SerpstatApiResponse inflate(ObjectMapper objectMapper) throws IOException {
+        JsonNode result = null;
+        if (deflated != null) {
+            Inflater inflater = new Inflater();
+            try (InputStream json = new InflaterInputStream(new ByteArrayInputStream(deflated), inflater, BUFFER_BYTES)) {
+                result = objectMapper.readTree(json);
+            } finally {
+                inflater.end();
+            }
+        }
+        return new SerpstatApiResponse(result, method, requestParams, timestamp);
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Heap retained by the compressed payload
+     */
+    int sizeBytes() {
+        return deflated == null ? 0 : 16 + deflated.length;
+    }
+
+    private static byte[] deflate(byte[] json) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(json);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+            byte[] buffer = new byte[BUFFER_BYTES];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
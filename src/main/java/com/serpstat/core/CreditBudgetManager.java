@@ -0,0 +1,336 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps upstream calls within credit budgets. Before a call goes upstream its cost is estimated
+ * from the method and its {@code size} or list parameters, and that many credits are reserved
+ * against the global budget, the budget of the calling MCP session and the budget of the calling
+ * tool (see {@link #bind(Object, String)}). A call that does not fit into one of them is rejected
+ * before any credit is spent. Once Serpstat answers, the reservation is settled to the rows
+ * actually returned. Calls are also rejected when the account balance, as last reported by
+ * {@code summary_info.left_lines} (see {@link TokenPool}), cannot cover them on top of the calls
+ * still in flight.
+ * Budgets are compare-and-set counters; nothing on the call path takes a lock.
+ */
+public class CreditBudgetManager {
+
+    private static final long UNKNOWN = -1;
+    private static final ThreadLocal<CallContext> CONTEXT = new ThreadLocal<>();
+
+    private final Budget global;
+    private final long sessionLimit;
+    private final Cache<Object, Budget> sessions;
+    private final Map<String, Budget> tools;
+    private final SerpstatApiMetrics metrics;
+
+    // Account balance as last reported, UNKNOWN until then
+    private final LongSupplier accountCredits;
+    // Credits reserved by calls not settled yet
+    private final AtomicLong outstanding = new AtomicLong();
+
+    /**
+     * @param globalBudget  credits all calls of this client may spend; 0 for no limit
+     * @param sessionBudget credits each MCP session may spend; 0 for no limit
+     * @param toolBudgets   credits each named tool may spend, keyed by tool name
+     */
+    public CreditBudgetManager(long globalBudget, long sessionBudget, Map<String, Long> toolBudgets,
+                               SerpstatApiMetrics metrics) {
+        this(globalBudget, sessionBudget, toolBudgets, metrics, () -> UNKNOWN);
+    }
+
+    /**
+     * @param accountCredits credits left on the Serpstat account as last reported, -1 while unknown
+     */
+    CreditBudgetManager(long globalBudget, long sessionBudget, Map<String, Long> toolBudgets,
+                        SerpstatApiMetrics metrics, LongSupplier accountCredits) {
+        if (globalBudget < 0 || sessionBudget < 0) {
+            throw new IllegalArgumentException("Budgets must not be negative");
+        }
+        this.global = globalBudget > 0 ? new Budget(globalBudget) : null;
+        this.sessionLimit = sessionBudget;
+        // Sessions are keyed by identity and forgotten once the session object is gone
+        this.sessions = Caffeine.newBuilder().weakKeys().build();
+        Map<String, Budget> perTool = new HashMap<>();
+        toolBudgets.forEach((tool, limit) -> {
+            if (limit > 0) {
+                perTool.put(tool, new Budget(limit));
+            }
+        });
+        this.tools = Map.copyOf(perTool);
+        this.metrics = metrics;
+        this.accountCredits = accountCredits;
+    }
+
+    /**
+     * Attributes the calls the current thread makes until the returned scope is closed to an MCP
+     * session (any object identifying it; null for none) and a tool
+     */
+    public static Scope bind(Object session, String tool) {
+        CallContext previous = CONTEXT.get();
+        CONTEXT.set(new CallContext(session, tool));
+        return () -> {
+            if (previous == null) {
+                CONTEXT.remove();
+            } else {
+                CONTEXT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Reserves the estimated cost of a call on behalf of the calling thread's session and tool
+     *
+     * @throws SerpstatApiException of type {@link SerpstatApiException#BUDGET_EXCEEDED} when a
+     *                              budget or the account balance cannot cover the estimate
+     */
+    Reservation reserve(String method, Map<String, Object> params) throws SerpstatApiException {
+        long cost = estimate(method, params);
+        if (cost == 0) {
+            return new Reservation(0, null, null, null);
+        }
+        CallContext context = CONTEXT.get();
+        Budget session = null;
+        Budget tool = null;
+        if (context != null) {
+            if (sessionLimit > 0 && context.session() != null) {
+                session = sessions.get(context.session(), key -> new Budget(sessionLimit));
+            }
+            if (context.tool() != null) {
+                tool = tools.get(context.tool());
+            }
+        }
+        return reserve(method, cost, session, context == null ? null : context.tool(), tool);
+    }
+
+    /**
+     * Takes {@code cost} from the global budget, {@code session} and {@code tool}, or from none of them
+     */
+    private Reservation reserve(String method, long cost, Budget session, String toolName, Budget tool)
+            throws SerpstatApiException {
+        if (!take(global, cost)) {
+            throw rejected(method, cost, "global", global);
+        }
+        if (!take(session, cost)) {
+            refund(cost, global);
+            throw rejected(method, cost, "session", session);
+        }
+        if (!take(tool, cost)) {
+            refund(cost, global, session);
+            throw rejected(method, cost, "tool '" + toolName + "'", tool);
+        }
+        long account = accountCredits.getAsLong();
+        // Optimistic: concurrent reservations may both back out, but never both get through
+        if (outstanding.addAndGet(cost) > account && account != UNKNOWN) {
+            outstanding.addAndGet(-cost);
+            refund(cost, global, session, tool);
+            metrics.recordBudgetRejection();
+            throw new SerpstatApiException("Not enough Serpstat credits left for " + method + ": needs about "
+                    + cost + ", " + Math.max(0, account - outstanding.get()) + " left", null,
+                    SerpstatApiException.BUDGET_EXCEEDED);
+        }
+        return new Reservation(cost, session, toolName, tool);
+    }
+
+    /**
+     * Credits left on the Serpstat account as last reported, minus calls in flight; -1 until known
+     */
+    public long getAccountCreditsLeft() {
+        long account = accountCredits.getAsLong();
+        return account == UNKNOWN ? UNKNOWN : Math.max(0, account - outstanding.get());
+    }
+
+    /**
+     * Credits left in the global budget; -1 when it is unlimited
+     */
+    public long getGlobalCreditsLeft() {
+        return global == null ? -1 : global.left();
+    }
+
+    /**
+     * Upper bound of the credits a call costs, derived from its parameters only. Row-priced methods
+     * cost their per-row price times {@code size} (the schema default when absent, at least 1 credit),
+     * per-domain methods their price times the number of {@code domains}, free methods nothing.
+     */
+    public static long estimate(String method, Map<String, Object> params) {
+        Pricing pricing = Pricing.of(method);
+        return switch (pricing.unit) {
+            case FREE -> 0;
+            case CALL -> pricing.price;
+            case DOMAIN -> pricing.price * Math.max(1, listSize(params.get("domains")));
+            case ROW -> pricing.price * Math.max(1, intParam(params.get("size"), pricing.defaultRows));
+        };
+    }
+
+    /**
+     * Credits a call actually cost, judging by the rows Serpstat returned
+     */
+    static long actualCost(String method, Map<String, Object> params, JsonNode result) {
+        Pricing pricing = Pricing.of(method);
+        JsonNode data = result == null ? null : result.get("data");
+        if (pricing.unit == Pricing.Unit.FREE || pricing.unit == Pricing.Unit.CALL || data == null) {
+            return estimate(method, params);
+        }
+        int rows = data.isArray() || data.isObject() ? data.size() : 1;
+        return pricing.price * Math.max(1, rows);
+    }
+
+    private static boolean take(Budget budget, long cost) {
+        return budget == null || budget.tryTake(cost);
+    }
+
+    private static void refund(long credits, Budget... budgets) {
+        for (Budget budget : budgets) {
+            if (budget != null) {
+                budget.add(-credits);
+            }
+        }
+    }
+
+    private SerpstatApiException rejected(String method, long cost, String scope, Budget budget) {
+        metrics.recordBudgetRejection();
+        return new SerpstatApiException("Credit budget exceeded for " + method + ": needs about " + cost
+                + " credits, the " + scope + " budget has " + Math.max(0, budget.left()) + " left", null,
+                SerpstatApiException.BUDGET_EXCEEDED);
+    }
+
+    private static int listSize(Object value) {
+        return value instanceof Collection<?> list ? list.size() : 0;
+    }
+
+    private static int intParam(Object value, int fallback) {
+        return value instanceof Number number ? number.intValue() : fallback;
+    }
+
+    /**
+     * Closes a {@link #bind(Object, String)}, restoring the attribution that was in place before
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private record CallContext(Object session, String tool) {
+    }
+
+    /**
+     * Credits reserved for one upstream call. Exactly one of {@link #settle} or {@link #cancel()}
+     * must follow.
+     */
+    final class Reservation {
+
+        private final long reserved;
+        private final Budget session;
+        private final String toolName;
+        private final Budget tool;
+        private final Budget[] budgets;
+
+        private Reservation(long reserved, Budget session, String toolName, Budget tool) {
+            this.reserved = reserved;
+            this.session = session;
+            this.toolName = toolName;
+            this.tool = tool;
+            this.budgets = new Budget[]{global, session, tool};
+        }
+
+        /**
+         * Reserves as much again against the same budgets, for a second request sent for the same call
+         * (a hedge). Unlike {@link #reserve}, this does not depend on the thread asking.
+         *
+         * @throws SerpstatApiException of type {@link SerpstatApiException#BUDGET_EXCEEDED} when the
+         *                              budgets or the account balance cannot cover it
+         */
+        Reservation again(String method) throws SerpstatApiException {
+            return reserved == 0 ? this : reserve(method, reserved, session, toolName, tool);
+        }
+
+        /**
+         * Serpstat answered: charge what the call really cost
+         */
+        void settle(String method, Map<String, Object> params, JsonNode result) {
+            if (reserved == 0) {
+                return;
+            }
+            long cost = actualCost(method, params, result);
+            for (Budget budget : budgets) {
+                if (budget != null) {
+                    budget.add(cost - reserved);
+                }
+            }
+            metrics.recordCreditsSpent(cost);
+            outstanding.addAndGet(-reserved);
+        }
+
+        /**
+         * The call failed or never went out; Serpstat does not charge for it
+         */
+        void cancel() {
+            if (reserved == 0) {
+                return;
+            }
+            refund(reserved, budgets);
+            outstanding.addAndGet(-reserved);
+        }
+    }
+
+    /**
+     * Credits one scope may still spend
+     */
+    static final class Budget {
+
+        private final long limit;
+        private final AtomicLong used = new AtomicLong();
+
+        Budget(long limit) {
+            this.limit = limit;
+        }
+
+        boolean tryTake(long credits) {
+            long current;
+            do {
+                current = used.get();
+                if (current + credits > limit) {
+                    return false;
+                }
+            } while (!used.compareAndSet(current, current + credits));
+            return true;
+        }
+
+        void add(long credits) {
+            used.addAndGet(credits);
+        }
+
+        long left() {
+            return limit - used.get();
+        }
+    }
+
+    /**
+     * What Serpstat charges per method, from the API documentation
+     */
+    private record Pricing(Unit unit, long price, int defaultRows) {
+
+        enum Unit { FREE, CALL, DOMAIN, ROW }
+
+        static Pricing of(String method) {
+            return switch (method) {
+                case "SerpstatLimitsProcedure.getStats", "ProjectProcedure.getProjects" -> new Pricing(Unit.FREE, 0, 0);
+                case "SerpstatDomainProcedure.getDomainsInfo" -> new Pricing(Unit.DOMAIN, 5, 0);
+                case "SerpstatDomainProcedure.getCompetitors" -> new Pricing(Unit.ROW, 5, 10);
+                case "SerpstatKeywordProcedure.getCompetitors" -> new Pricing(Unit.ROW, 1, 20);
+                case "SerpstatBacklinksProcedure.getSummaryV2" -> new Pricing(Unit.CALL, 5, 0);
+                case "SerpstatDomainProcedure.getRegionsCount" -> new Pricing(Unit.CALL, 1, 0);
+                default -> new Pricing(Unit.ROW, 1, 100);
+            };
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package com.serpstat.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent L2 response cache that survives server restarts.
+ * <p>
+ * Responses are appended to fixed-size, memory-mapped segment files ({@code segment-NNNNNNNN.log}).
+ * An in-memory index maps each {@link CacheKey} to the location of its latest record, so a lookup
+ * is one hash probe plus one copy out of the mapped segment. On {@link #close()} and after every
+ * compaction the index is written to a hint file; on startup the hint is loaded and only records
+ * appended after it are scanned, so a restart comes up warm without replaying the whole log.
+ * <p>
+ * Record layout: {@code magic:int, bodyLength:int, crc32:int, body}, where body is
+ * {@code keyHigh:long, keyLow:long, writtenAt:long, expiresAt:long, methodLength:short, method, payload}.
+ * A record with {@code expiresAt == 0} is a tombstone.
+ * <p>
+ * A background task compacts sealed segments that are mostly dead (expired or superseded records)
+ * by copying their live records into the active segment. When the log grows past the size cap,
+ * the oldest segment is dropped.
+ */
+public class DiskResponseCache implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskResponseCache.class);
+
+    private static final int RECORD_MAGIC = 0x53524331;
+    private static final int HINT_MAGIC = 0x53524849;
+    private static final int HINT_VERSION = 1;
+    private static final int RECORD_HEADER_BYTES = 12;
+    private static final int BODY_FIXED_BYTES = 8 * 4 + 2;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String HINT_FILE = "index.hint";
+    private static final double COMPACTION_LIVE_RATIO = 0.5;
+
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    public static final Duration DEFAULT_COMPACTION_INTERVAL = Duration.ofMinutes(10);
+
+    /**
+     * A cached payload together with its write and expiry times (epoch millis)
+     */
+    public record Entry(byte[] payload, long writtenAt, long expiresAt) {
+    }
+
+    private record Location(int segmentId, int offset, int length, long writtenAt, long expiresAt) {
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final AtomicLong liveBytes = new AtomicLong();
+        volatile int writePosition;
+
+        Segment(int id, Path path, int capacity) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+
+        void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close cache segment {}", path, e);
+            }
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final int segmentBytes;
+    private final ConcurrentMap<CacheKey, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ScheduledExecutorService maintenance;
+    private Segment active;
+    private volatile boolean closed;
+
+    /**
+     * Opens (or creates) a cache in the given directory with default segment size and compaction interval
+     */
+    public DiskResponseCache(Path directory, long maxBytes) throws IOException {
+        this(directory, maxBytes, (int) Math.min(DEFAULT_SEGMENT_BYTES, Math.max(maxBytes / 4, 1024 * 1024)),
+                DEFAULT_COMPACTION_INTERVAL);
+    }
+
+    public DiskResponseCache(Path directory, long maxBytes, int segmentBytes, Duration compactionInterval)
+            throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        recover();
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "serpstat-disk-cache-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = compactionInterval.toMillis();
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the live entry for the key, or null if it is absent or expired
+     */
+    public Entry get(CacheKey key) {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        if (location.expiresAt() <= System.currentTimeMillis()) {
+            if (index.remove(key, location)) {
+                releaseLive(location);
+            }
+            return null;
+        }
+        Segment segment = segments.get(location.segmentId());
+        if (segment == null) {
+            // Compacted away between the index lookup and now; the index already points elsewhere
+            Location moved = index.get(key);
+            return moved == null || moved.equals(location) ? null : get(key);
+        }
+        int methodLength = segment.buffer.getShort(location.offset() + RECORD_HEADER_BYTES + 32);
+        int payloadOffset = location.offset() + RECORD_HEADER_BYTES + BODY_FIXED_BYTES + methodLength;
+        int payloadLength = location.offset() + location.length() - payloadOffset;
+        byte[] payload = new byte[payloadLength];
+        segment.buffer.get(payloadOffset, payload, 0, payloadLength);
+        return new Entry(payload, location.writtenAt(), location.expiresAt());
+    }
+
+    /**
+     * Appends a payload for the key; it is served until {@code ttl} has passed.
+     * Durations too long to represent (e.g. {@code ChronoUnit.FOREVER}) never expire.
+     */
+    public void put(CacheKey key, byte[] payload, Duration ttl) {
+        long now = System.currentTimeMillis();
+        long expiresAt;
+        try {
+            expiresAt = Math.addExact(now, ttl.toMillis());
+        } catch (ArithmeticException e) {
+            expiresAt = Long.MAX_VALUE;
+        }
+        append(key, payload, now, expiresAt);
+    }
+
+    /**
+     * Drops the entry for the key, also across restarts
+     */
+    public void invalidate(CacheKey key) {
+        Location location = index.remove(key);
+        if (location != null) {
+            releaseLive(location);
+            append(key, new byte[0], System.currentTimeMillis(), 0);
+        }
+    }
+
+    /**
+     * Drops every entry cached for an API method, also across restarts
+     */
+    public void invalidateMethod(String method) {
+        for (CacheKey key : index.keySet()) {
+            if (key.getMethod().equals(method)) {
+                invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Number of indexed entries (expired entries are dropped lazily)
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Bytes currently occupied by the segment log
+     */
+    public long sizeBytes() {
+        return segments.values().stream().mapToLong(segment -> segment.writePosition).sum();
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    private synchronized void append(CacheKey key, byte[] payload, long writtenAt, long expiresAt) {
+        if (closed) {
+            return;
+        }
+        byte[] method = key.getMethod().getBytes(StandardCharsets.UTF_8);
+        int bodyLength = BODY_FIXED_BYTES + method.length + payload.length;
+        int recordLength = RECORD_HEADER_BYTES + bodyLength;
+        if (recordLength > segmentBytes) {
+            return; // larger than a whole segment: not worth persisting
+        }
+        try {
+            if (active.writePosition + recordLength > segmentBytes) {
+                rollSegment();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to roll disk cache segment in {}", directory, e);
+            return;
+        }
+
+        Segment segment = active;
+        int offset = segment.writePosition;
+        MappedByteBuffer buffer = segment.buffer;
+        int bodyOffset = offset + RECORD_HEADER_BYTES;
+        buffer.putLong(bodyOffset, key.getHigh());
+        buffer.putLong(bodyOffset + 8, key.getLow());
+        buffer.putLong(bodyOffset + 16, writtenAt);
+        buffer.putLong(bodyOffset + 24, expiresAt);
+        buffer.putShort(bodyOffset + 32, (short) method.length);
+        buffer.put(bodyOffset + BODY_FIXED_BYTES, method);
+        buffer.put(bodyOffset + BODY_FIXED_BYTES + method.length, payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(bodyOffset, bodyLength));
+        buffer.putInt(offset + 4, bodyLength);
+        buffer.putInt(offset + 8, (int) crc.getValue());
+        // The magic goes last: a torn write leaves no valid record header behind
+        buffer.putInt(offset, RECORD_MAGIC);
+        segment.writePosition = offset + recordLength;
+
+        if (expiresAt == 0) {
+            return;
+        }
+        Location location = new Location(segment.id, offset, recordLength, writtenAt, expiresAt);
+        segment.liveBytes.addAndGet(recordLength);
+        Location previous = index.put(key, location);
+        if (previous != null) {
+            releaseLive(previous);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        int nextId = active == null ? 0 : active.id + 1;
+        active = openSegment(nextId);
+        segments.put(nextId, active);
+        enforceSizeCap();
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        return new Segment(id, directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)),
+                segmentBytes);
+    }
+
+    /**
+     * Drops the oldest segments while the log is above its size cap (the active segment always stays)
+     */
+    private void enforceSizeCap() {
+        while ((long) segments.size() * segmentBytes > maxBytes && segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            dropSegment(oldest);
+        }
+    }
+
+    private void dropSegment(Segment segment) {
+        segments.remove(segment.id);
+        index.entrySet().removeIf(entry -> entry.getValue().segmentId() == segment.id);
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Failed to delete cache segment {}", segment.path, e);
+        }
+    }
+
+    private void releaseLive(Location location) {
+        Segment segment = segments.get(location.segmentId());
+        if (segment != null) {
+            segment.liveBytes.addAndGet(-location.length());
+        }
+    }
+
+    /**
+     * Rewrites mostly-dead sealed segments into the active one and persists the index hint
+     */
+    public synchronized void compact() {
+        if (closed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        index.forEach((key, location) -> {
+            if (location.expiresAt() <= now && index.remove(key, location)) {
+                releaseLive(location);
+            }
+        });
+
+        List<Segment> candidates = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment != active
+                    && segment.liveBytes.get() < segment.writePosition * COMPACTION_LIVE_RATIO) {
+                candidates.add(segment);
+            }
+        }
+        for (Segment segment : candidates) {
+            for (Map.Entry<CacheKey, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                if (location.segmentId() != segment.id) {
+                    continue;
+                }
+                Entry live = get(entry.getKey());
+                if (live != null) {
+                    append(entry.getKey(), live.payload(), live.writtenAt(), live.expiresAt());
+                }
+            }
+            if (segments.containsKey(segment.id)) {
+                dropSegment(segment);
+            }
+        }
+        writeHint();
+    }
+
+    private void runMaintenance() {
+        try {
+            compact();
+            synchronized (this) {
+                if (!closed) {
+                    active.buffer.force();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Disk cache maintenance failed in {}", directory, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        maintenance.shutdownNow();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            writeHint();
+            closed = true;
+            segments.values().forEach(Segment::close);
+        }
+    }
+
+    // ==================== RECOVERY ====================
+
+    private void recover() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))
+                    .forEach(id -> {
+                        try {
+                            ids.add(Integer.parseInt(id));
+                        } catch (NumberFormatException ignored) {
+                            // not one of ours
+                        }
+                    });
+        }
+        ids.sort(Integer::compareTo);
+        for (int id : ids) {
+            segments.put(id, openSegment(id));
+        }
+
+        int resumeSegment = Integer.MIN_VALUE;
+        int resumeOffset = 0;
+        int nextId = ids.isEmpty() ? 0 : ids.get(ids.size() - 1) + 1;
+        Path hint = directory.resolve(HINT_FILE);
+        if (Files.exists(hint)) {
+            try {
+                int[] resume = loadHint(hint);
+                resumeSegment = resume[0];
+                resumeOffset = resume[1];
+                nextId = Math.max(nextId, resume[2]);
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable disk cache hint {}", hint, e);
+                index.clear();
+                segments.values().forEach(segment -> segment.liveBytes.set(0));
+            }
+        }
+
+        // Replay only what was appended after the hint was taken
+        for (Segment segment : segments.values()) {
+            if (segment.id < resumeSegment) {
+                segment.writePosition = endOfHintedSegment(segment);
+            } else if (segment.id == resumeSegment) {
+                scan(segment, resumeOffset);
+            } else {
+                scan(segment, 0);
+            }
+        }
+
+        Segment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (last != null && last.writePosition < segmentBytes - RECORD_HEADER_BYTES - BODY_FIXED_BYTES) {
+            active = last;
+        } else {
+            active = openSegment(nextId);
+            segments.put(nextId, active);
+        }
+        enforceSizeCap();
+        log.info("Disk cache {} opened with {} entries in {} segments", directory, index.size(), segments.size());
+    }
+
+    /**
+     * Sealed segments covered by the hint are not replayed; their end is only needed for size accounting
+     */
+    private int endOfHintedSegment(Segment segment) {
+        return scanEnd(segment, 0, false);
+    }
+
+    private void scan(Segment segment, int fromOffset) {
+        segment.writePosition = scanEnd(segment, fromOffset, true);
+    }
+
+    /**
+     * Walks valid records from the offset and returns where the valid data ends
+     */
+    private int scanEnd(Segment segment, int fromOffset, boolean apply) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = fromOffset;
+        long now = System.currentTimeMillis();
+        while (offset + RECORD_HEADER_BYTES + BODY_FIXED_BYTES <= segmentBytes) {
+            if (buffer.getInt(offset) != RECORD_MAGIC) {
+                break;
+            }
+            int bodyLength = buffer.getInt(offset + 4);
+            int bodyOffset = offset + RECORD_HEADER_BYTES;
+            if (bodyLength < BODY_FIXED_BYTES || bodyOffset + bodyLength > segmentBytes) {
+                break;
+            }
+            int recordLength = RECORD_HEADER_BYTES + bodyLength;
+            if (apply) {
+                CRC32 crc = new CRC32();
+                crc.update(buffer.slice(bodyOffset, bodyLength));
+                if ((int) crc.getValue() != buffer.getInt(offset + 8)) {
+                    break;
+                }
+                applyRecord(segment, offset, recordLength, now);
+            }
+            offset += recordLength;
+        }
+        return offset;
+    }
+
+    private void applyRecord(Segment segment, int offset, int recordLength, long now) {
+        MappedByteBuffer buffer = segment.buffer;
+        int bodyOffset = offset + RECORD_HEADER_BYTES;
+        long high = buffer.getLong(bodyOffset);
+        long low = buffer.getLong(bodyOffset + 8);
+        long writtenAt = buffer.getLong(bodyOffset + 16);
+        long expiresAt = buffer.getLong(bodyOffset + 24);
+        int methodLength = buffer.getShort(bodyOffset + 32);
+        byte[] method = new byte[methodLength];
+        buffer.get(bodyOffset + BODY_FIXED_BYTES, method, 0, methodLength);
+        CacheKey key = new CacheKey(new String(method, StandardCharsets.UTF_8), high, low);
+
+        Location previous;
+        if (expiresAt == 0 || expiresAt <= now) {
+            previous = index.remove(key);
+        } else {
+            segment.liveBytes.addAndGet(recordLength);
+            previous = index.put(key, new Location(segment.id, offset, recordLength, writtenAt, expiresAt));
+        }
+        if (previous != null) {
+            releaseLive(previous);
+        }
+    }
+
+    private void writeHint() {
+        Path hint = directory.resolve(HINT_FILE);
+        Path temp = directory.resolve(HINT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(HINT_MAGIC);
+            out.writeInt(HINT_VERSION);
+            out.writeInt(active.id);
+            out.writeInt(active.writePosition);
+            out.writeInt(active.id + 1);
+            List<Map.Entry<CacheKey, Location>> entries = new ArrayList<>(index.entrySet());
+            out.writeInt(entries.size());
+            for (Map.Entry<CacheKey, Location> entry : entries) {
+                CacheKey key = entry.getKey();
+                Location location = entry.getValue();
+                out.writeLong(key.getHigh());
+                out.writeLong(key.getLow());
+                out.writeUTF(key.getMethod());
+                out.writeInt(location.segmentId());
+                out.writeInt(location.offset());
+                out.writeInt(location.length());
+                out.writeLong(location.writtenAt());
+                out.writeLong(location.expiresAt());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write disk cache hint {}", hint, e);
+            return;
+        }
+        try {
+            active.buffer.force();
+            Files.move(temp, hint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to publish disk cache hint {}", hint, e);
+        }
+    }
+
+    /**
+     * Loads the hint into the index and returns {resumeSegment, resumeOffset, nextSegmentId}
+     */
+    private int[] loadHint(Path hint) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(hint)))) {
+            if (in.readInt() != HINT_MAGIC || in.readInt() != HINT_VERSION) {
+                throw new IOException("Unsupported hint format");
+            }
+            int resumeSegment = in.readInt();
+            int resumeOffset = in.readInt();
+            int nextId = in.readInt();
+            int count = in.readInt();
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                long high = in.readLong();
+                long low = in.readLong();
+                String method = in.readUTF();
+                Location location = new Location(in.readInt(), in.readInt(), in.readInt(), in.readLong(),
+                        in.readLong());
+                Segment segment = segments.get(location.segmentId());
+                if (segment == null || location.expiresAt() <= now) {
+                    continue;
+                }
+                segment.liveBytes.addAndGet(location.length());
+                index.put(new CacheKey(method, high, low), location);
+            }
+            return new int[]{resumeSegment, resumeOffset, nextId};
+        }
+    }
+}
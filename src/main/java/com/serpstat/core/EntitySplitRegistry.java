@@ -0,0 +1,75 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Methods that take a list of entities (domains, keywords) and answer with one row per entity,
+ * which {@link SerpstatApiClient} therefore caches per entity rather than per call.
+ * <p>
+ * A call for {@code [a, b, c]} is stored as three entries, each under the key the same call for
+ * that entity alone would have ({@code (method, se, a)} plus any other parameters), so a later call
+ * for {@code [a, d]} is served {@code a} from cache and only fetches {@code d}.
+ */
+public class EntitySplitRegistry {
+
+    private final Map<String, Split> splits = new ConcurrentHashMap<>();
+
+    /**
+     * How a method's calls split into entities: the list parameter naming them and the field of a
+     * {@code data} row that says which entity the row belongs to
+     */
+    public record Split(String listParam, String rowKey) {
+
+        /**
+         * Parameters of the same call for {@code entity} alone
+         */
+        Map<String, Object> paramsFor(Map<String, Object> params, Object entity) {
+            return withEntities(params, List.of(entity));
+        }
+
+        Map<String, Object> withEntities(Map<String, Object> params, List<?> entities) {
+            Map<String, Object> entityParams = new HashMap<>(params);
+            entityParams.put(listParam, entities);
+            return entityParams;
+        }
+
+        /**
+         * Identity of a requested entity, matched case-insensitively against {@link #idOfRow(JsonNode)}
+         */
+        String idOf(Object entity) {
+            return String.valueOf(entity).toLowerCase(Locale.ROOT);
+        }
+
+        String idOfRow(JsonNode row) {
+            return row.path(rowKey).asText().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Registry with the built-in methods
+     */
+    public static EntitySplitRegistry defaults() {
+        return new EntitySplitRegistry()
+                .register("SerpstatDomainProcedure.getDomainsInfo", new Split("domains", "domain"))
+                .register("SerpstatKeywordProcedure.getKeywordsInfo", new Split("keywords", "keyword"));
+    }
+
+    public EntitySplitRegistry register(String method, Split split) {
+        splits.put(method, split);
+        return this;
+    }
+
+    /**
+     * How to split this call, or null when it is cached whole
+     */
+    public Split splitFor(String method, Map<String, Object> params) {
+        Split split = splits.get(method);
+        return split != null && params.get(split.listParam()) instanceof List<?> ? split : null;
+    }
+}
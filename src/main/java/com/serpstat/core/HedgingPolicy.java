@@ -0,0 +1,68 @@
+package com.serpstat.core;
+
+import java.time.Duration;
+
+/**
+ * When a slow read call gets a backup request.
+ * A call that has not answered after the observed {@code percentile} latency of its method (but
+ * never sooner than {@code minDelay}) is sent a second time, and the first success wins. Backups
+ * are limited to {@code maxHedgeRatio} of the calls sent, so hedging only ever targets the tail.
+ * A backup is charged to the credit budgets of its call like any other request, and is not sent
+ * when they cannot cover it.
+ */
+public final class HedgingPolicy {
+
+    private static final HedgingPolicy DISABLED = new HedgingPolicy(0.95, Duration.ofMillis(20), 0);
+
+    private final double percentile;
+    private final Duration minDelay;
+    private final double maxHedgeRatio;
+
+    public HedgingPolicy(double percentile, Duration minDelay, double maxHedgeRatio) {
+        if (!(percentile > 0 && percentile < 1)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1");
+        }
+        if (minDelay.isNegative() || !(maxHedgeRatio >= 0 && maxHedgeRatio <= 1)) {
+            throw new IllegalArgumentException("Need minDelay >= 0 and 0 <= maxHedgeRatio <= 1");
+        }
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    /**
+     * Hedge at the p95 of each method, not before 20 ms, for at most 5% of the calls
+     */
+    public static HedgingPolicy defaults() {
+        return new HedgingPolicy(0.95, Duration.ofMillis(20), 0.05);
+    }
+
+    public static HedgingPolicy disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return maxHedgeRatio > 0;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * Backup requests allowed per call sent, e.g. 0.05 for one in twenty
+     */
+    public double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+
+    @Override
+    public String toString() {
+        return "HedgingPolicy{percentile=" + percentile + ", minDelay=" + minDelay
+                + ", maxHedgeRatio=" + maxHedgeRatio + '}';
+    }
+}
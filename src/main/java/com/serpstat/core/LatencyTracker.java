@@ -0,0 +1,50 @@
+package com.serpstat.core;
+
+import java.util.Arrays;
+
+/**
+ * Sliding sample of the most recent latencies of one API method, with percentiles over it.
+ * The percentile is recomputed at most once per {@value #RECOMPUTE_EVERY} new samples, so reading it
+ * on every call stays cheap.
+ */
+final class LatencyTracker {
+
+    static final int MIN_SAMPLES = 20;
+
+    private static final int CAPACITY = 256;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples = new long[CAPACITY];
+    private final double percentile;
+    private int count;
+    private int next;
+    private int sinceComputed;
+    private long cached = -1;
+
+    LatencyTracker(double percentile) {
+        this.percentile = percentile;
+    }
+
+    synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % CAPACITY;
+        count = Math.min(count + 1, CAPACITY);
+        sinceComputed++;
+    }
+
+    /**
+     * The tracked percentile in nanoseconds, or -1 until {@value #MIN_SAMPLES} samples were recorded
+     */
+    synchronized long percentileNanos() {
+        if (count < MIN_SAMPLES) {
+            return -1;
+        }
+        if (cached < 0 || sinceComputed >= RECOMPUTE_EVERY) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cached = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+            sinceComputed = 0;
+        }
+        return cached;
+    }
+}
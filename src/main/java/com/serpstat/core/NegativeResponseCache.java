@@ -0,0 +1,66 @@
+package com.serpstat.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of calls Serpstat rejected with a JSON-RPC error (unknown domain, unsupported
+ * region, malformed filter). Sending such a call again gives the same answer, so repeats are failed
+ * locally for a while instead of costing a round trip and a rate limit permit. Transport failures,
+ * HTTP errors (429 and 5xx included), JSON-RPC internal errors and errors about the API token the
+ * call went out with (see {@link TokenPool}) are never cached.
+ */
+final class NegativeResponseCache {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    // JSON-RPC "Internal error": says nothing about the call itself
+    private static final int INTERNAL_ERROR = -32603;
+
+    private final Cache<CacheKey, SerpstatApiException> errors;
+
+    NegativeResponseCache(Duration ttl) {
+        this(ttl, System::nanoTime);
+    }
+
+    NegativeResponseCache(Duration ttl, LongSupplier clock) {
+        this.errors = Caffeine.newBuilder()
+                .ticker(clock::getAsLong)
+                .expireAfterWrite(ttl)
+                .maximumSize(MAX_ENTRIES)
+                .build();
+    }
+
+    /**
+     * A fresh copy of the error cached for the call, or null
+     */
+    SerpstatApiException get(CacheKey key) {
+        SerpstatApiException cached = errors.getIfPresent(key);
+        if (cached == null) {
+            return null;
+        }
+        return new SerpstatApiException(cached.getMessage(), cached.getErrorCode(), cached.getErrorType());
+    }
+
+    /**
+     * Remembers the failure of a call when repeating the call would fail the same way
+     */
+    void putIfDeterministic(CacheKey key, SerpstatApiException failure) {
+        if (isDeterministic(failure)) {
+            errors.put(key, failure);
+        }
+    }
+
+    void invalidateMethod(String method) {
+        errors.asMap().keySet().removeIf(key -> key.getMethod().equals(method));
+    }
+
+    static boolean isDeterministic(SerpstatApiException failure) {
+        return SerpstatApiException.API_ERROR.equals(failure.getErrorType())
+                && !Integer.valueOf(INTERNAL_ERROR).equals(failure.getErrorCode())
+                && !TokenPool.isTokenFailure(failure);
+    }
+}
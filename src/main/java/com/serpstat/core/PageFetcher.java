@@ -0,0 +1,195 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Fetches several pages of a paged Serpstat listing in one go. The first page tells how many rows
+ * there are ({@code summary_info.total}); the pages still needed then go out at once as
+ * {@link RequestScheduler.Lane#BULK} calls, so the scheduler and rate limiters pace them and
+ * interactive calls are not held up, and are merged in page order into one response. Progress is
+ * reported on the calling thread as pages arrive. Should a page fail, the pages before it are
+ * returned and the response says where it stopped.
+ */
+public final class PageFetcher {
+
+    /**
+     * Largest page Serpstat serves
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final SerpstatApiClient apiClient;
+
+    public PageFetcher(SerpstatApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+
+    /**
+     * Receives a note each time a page has arrived
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onPage(int pagesFetched, int pagesTotal, int rowsFetched);
+    }
+
+    /**
+     * Fetches up to {@code maxRows} rows starting at the {@code page} of {@code params}, {@code size}
+     * rows per call, merged into the {@code data} array of one response. Its {@code summary_info} keeps
+     * the total and first page of the listing and adds {@code pages_fetched}, {@code next_row} (the
+     * 1-based position in the listing of the first row not returned, when there is one, which may sit
+     * in the middle of the last page fetched), plus {@code incomplete} with the reason when a page failed.
+     *
+     * @throws SerpstatApiException when the first page fails
+     */
+    public SerpstatApiResponse fetch(String method, Map<String, Object> params, int maxRows,
+                                     ProgressListener progress) throws SerpstatApiException {
+        return fetchAfter(apiClient.callMethod(method, params), method, params, maxRows, progress);
+    }
+
+    /**
+     * Same as {@link #fetch}, for a caller that already has the first page, e.g. because it sent the
+     * first pages of several listings at once
+     */
+    public SerpstatApiResponse fetchAfter(SerpstatApiResponse first, String method, Map<String, Object> params,
+                                          int maxRows, ProgressListener progress) throws SerpstatApiException {
+        int firstPage = intParam(params.get("page"), 1);
+        int size = intParam(params.get("size"), MAX_PAGE_SIZE);
+
+        JsonNode result = first.getResult();
+        JsonNode firstRows = result == null ? null : result.get("data");
+        JsonNode total = result == null ? null : result.path("summary_info").get("total");
+        if (firstRows == null || !firstRows.isArray() || total == null || !total.canConvertToLong()) {
+            return first;
+        }
+
+        long available = Math.max(0, total.asLong() - (long) (firstPage - 1) * size);
+        int wanted = (int) Math.min(maxRows, available);
+        int pages = Math.max(1, (wanted + size - 1) / size);
+        progress.onPage(1, pages, firstRows.size());
+
+        JsonNode[] pageRows = new JsonNode[pages];
+        pageRows[0] = firstRows;
+        // A short first page means there is nothing after it, whatever the total says
+        String failure = pages > 1 && firstRows.size() >= size
+                ? fetchRemaining(method, params, firstPage, pageRows, progress)
+                : null;
+
+        ArrayNode merged = JsonNodeFactory.instance.arrayNode();
+        int pagesFetched = 0;
+        for (JsonNode rows : pageRows) {
+            if (rows == null) {
+                break;
+            }
+            pagesFetched++;
+            for (JsonNode row : rows) {
+                if (merged.size() == wanted) {
+                    break;
+                }
+                merged.add(row);
+            }
+        }
+
+        ObjectNode mergedResult = result.deepCopy();
+        mergedResult.set("data", merged);
+        ObjectNode summary = (ObjectNode) mergedResult.get("summary_info");
+        summary.put("page", firstPage);
+        summary.put("pages_fetched", pagesFetched);
+        // Rows past maxRows on the last page were dropped: the listing goes on from the first of them
+        long nextRow = (long) (firstPage - 1) * size + merged.size() + 1;
+        if (nextRow <= total.asLong()) {
+            summary.put("next_row", nextRow);
+        }
+        if (failure != null) {
+            summary.put("incomplete", failure);
+        }
+        return new SerpstatApiResponse(mergedResult, method, params, first.getTimestamp());
+    }
+
+    /**
+     * Fills {@code pageRows} from index 1 on, sending every page at once and waiting for them in the
+     * order they arrive. After a failed page only the pages before it are waited for, and those after
+     * it are left out.
+     *
+     * @return why fetching stopped early, or null once every page arrived
+     */
+    @SuppressWarnings("try")
+    private String fetchRemaining(String method, Map<String, Object> params, int firstPage, JsonNode[] pageRows,
+                                  ProgressListener progress) throws SerpstatApiException {
+        int pages = pageRows.length;
+        BlockingQueue<Integer> arrived = new LinkedBlockingQueue<>();
+        // The call of page index i (from 1 on) is at i - 1
+        List<CompletableFuture<SerpstatApiResponse>> calls = new ArrayList<>(pages - 1);
+        try (RequestScheduler.Scope bulk = RequestScheduler.bind(RequestScheduler.Lane.BULK)) {
+            for (int i = 1; i < pages; i++) {
+                Map<String, Object> pageParams = new HashMap<>(params);
+                pageParams.put("page", firstPage + i);
+                int index = i;
+                CompletableFuture<SerpstatApiResponse> call = apiClient.callMethodAsync(method, pageParams);
+                calls.add(call);
+                call.whenComplete((response, error) -> arrived.add(index));
+            }
+        }
+
+        int fetched = 1;
+        int rows = pageRows[0].size();
+        // First page that failed: only the pages before it can be merged, so only those are waited for
+        int gap = pages;
+        String failure = null;
+        try {
+            while (fetched < gap) {
+                int index = arrived.take();
+                if (index >= gap) {
+                    continue;
+                }
+                final SerpstatApiResponse page;
+                try {
+                    page = calls.get(index - 1).join();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    gap = index;
+                    failure = "stopped at page " + (firstPage + index) + ": " + cause.getMessage();
+                    fetched = countFetched(pageRows, gap);
+                    continue;
+                }
+                JsonNode data = page.getResult() == null ? null : page.getResult().get("data");
+                pageRows[index] = data != null && data.isArray() ? data : JsonNodeFactory.instance.arrayNode();
+                fetched++;
+                rows += pageRows[index].size();
+                progress.onPage(fetched, pages, rows);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SerpstatApiException("Request failed: interrupted while fetching pages", e);
+        }
+        for (int i = gap; i < pages; i++) {
+            pageRows[i] = null;
+        }
+        // Pages still on their way are not abandoned: they land in the cache for the next attempt
+        return failure;
+    }
+
+    private static int countFetched(JsonNode[] pageRows, int upTo) {
+        int fetched = 0;
+        for (int i = 0; i < upTo; i++) {
+            if (pageRows[i] != null) {
+                fetched++;
+            }
+        }
+        return fetched;
+    }
+
+    private static int intParam(Object value, int fallback) {
+        return value instanceof Number number ? number.intValue() : fallback;
+    }
+}
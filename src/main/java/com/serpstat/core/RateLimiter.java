@@ -1,45 +1,203 @@
 package com.serpstat.core;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
 /**
- * A simple rate limiter that restricts the number of allowed requests within a specified time window.
- * If the limit is exceeded, the calling thread is paused until the next window starts.
+ * Lock-free token bucket: permits refill continuously at {@code requests / duration}, and up to
+ * {@code burst} unused permits are banked. Over any interval T at most {@code burst + rate * T}
+ * permits are granted, so there is no window edge to burst across.
+ * <p>
+ * The whole state is one "next free slot" timestamp (GCRA). Each caller books the next slot with a
+ * single CAS and then waits outside of any lock until its slot comes up, so permits are handed out
+ * in booking order (FIFO) and a throttled caller never holds up anyone else's booking. Cancelled or
+ * interrupted waiters give their slot back. The rate can be changed at runtime (see
+ * {@link AdaptiveRateController}), and {@link #pauseFor(Duration)} holds all new permits back.
  * Usage:
  *   RateLimiter limiter = new RateLimiter(10, Duration.ofSeconds(1));
- *   limiter.waitIfNeeded(); // Call before each request
+ *   limiter.acquire(); // Block until a permit is available
+ *   limiter.acquireAsync().thenCompose(...); // Or chain the request without blocking
  */
 public class RateLimiter {
-    private final int maxRequests;
-    private final Duration timeWindow;
-    private final AtomicInteger requestCount;
-    private Instant windowStart;
+
+    private final int burst;
+    private volatile long intervalNanos;
+    private final LongSupplier clock;
+    private final AtomicLong nextSlot;
 
     public RateLimiter(int requests, Duration duration) {
-        this.maxRequests = requests;
-        this.timeWindow = duration;
-        this.requestCount = new AtomicInteger(0);
-        this.windowStart = Instant.now();
+        this(requests, duration, requests);
+    }
+
+    public RateLimiter(int requests, Duration duration, int burst) {
+        this(requests, duration, burst, System::nanoTime);
+    }
+
+    RateLimiter(int requests, Duration duration, int burst, LongSupplier clock) {
+        if (requests <= 0 || burst <= 0 || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("requests, burst and duration must be positive");
+        }
+        this.intervalNanos = Math.max(1, duration.toNanos() / requests);
+        this.burst = burst;
+        this.clock = clock;
+        this.nextSlot = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Blocks until a permit is available
+     */
+    public void acquire() throws InterruptedException {
+        awaitSlot(reserve(Long.MAX_VALUE));
+    }
+
+    /**
+     * Takes a permit if one becomes available within {@code timeout}, waiting for it if needed.
+     * When it would take longer, returns false at once without consuming anything.
+     */
+    public boolean tryAcquire(Duration timeout) throws InterruptedException {
+        long waitNanos = reserve(timeout.toNanos());
+        if (waitNanos < 0) {
+            return false;
+        }
+        awaitSlot(waitNanos);
+        return true;
+    }
+
+    /**
+     * Blocking acquire for callers that cannot handle interruption; the interrupt flag is restored
+     */
+    public void waitIfNeeded() {
+        try {
+            acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reserves a permit and returns a future that completes once it may be used.
+     * No thread is blocked while waiting; cancelling the future returns the permit.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        return scheduleSlot(reserve(Long.MAX_VALUE));
     }
 
-    public synchronized void waitIfNeeded() {
-        Instant now = Instant.now();
-        if (Duration.between(windowStart, now).compareTo(timeWindow) > 0) {
-            // Reset the window
-            windowStart = now;
-            requestCount.set(0);
+    /**
+     * Like {@link #acquireAsync()}, but fails at once with {@link TimeoutException} when no permit
+     * is available within {@code maxWait}, so callers with a deadline do not queue up for nothing
+     */
+    public CompletableFuture<Void> acquireAsync(Duration maxWait) {
+        long waitNanos = reserve(maxWait.toNanos());
+        if (waitNanos < 0) {
+            return CompletableFuture.failedFuture(
+                    new TimeoutException("No rate limit permit available within " + maxWait));
         }
+        return scheduleSlot(waitNanos);
+    }
+
+    /**
+     * Time until the next permit would be granted; zero when one is available now
+     */
+    public Duration getEstimatedWait() {
+        long waitNanos = nextSlot.get() - burstToleranceNanos() - clock.getAsLong();
+        return Duration.ofNanos(Math.max(0, waitNanos));
+    }
+
+    /**
+     * Current refill rate in permits per second
+     */
+    public double getRate() {
+        return TimeUnit.SECONDS.toNanos(1) / (double) intervalNanos;
+    }
+
+    /**
+     * Changes the refill rate; permits already booked keep their slots
+     */
+    public void setRate(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+    }
+
+    /**
+     * Grants no new permit before {@code pause} has passed, e.g. to honor a Retry-After header
+     */
+    public void pauseFor(Duration pause) {
+        long resumeAt = clock.getAsLong() + pause.toNanos() + burstToleranceNanos();
+        nextSlot.accumulateAndGet(resumeAt, Math::max);
+    }
+
+    private long burstToleranceNanos() {
+        return (burst - 1) * intervalNanos;
+    }
+
+    /**
+     * Books the next free slot.
+     *
+     * @return nanoseconds until the booked slot may be used, or -1 (nothing booked) when that
+     *         would exceed {@code maxWaitNanos}
+     */
+    long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = clock.getAsLong();
+            long slot = nextSlot.get();
+            long interval = intervalNanos;
+            long waitNanos = Math.max(0, slot - (burst - 1) * interval - now);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (nextSlot.compareAndSet(slot, Math.max(slot, now) + interval)) {
+                return waitNanos;
+            }
+        }
+    }
+
+    /**
+     * Hands back a booked slot that will not be used. Slots booked later keep their place;
+     * the next booking simply gets the freed capacity.
+     */
+    void release() {
+        while (true) {
+            long now = clock.getAsLong();
+            long slot = nextSlot.get();
+            if (slot <= now) {
+                // Bucket already refilled past this slot: nothing left to return
+                return;
+            }
+            if (nextSlot.compareAndSet(slot, Math.max(now, slot - intervalNanos))) {
+                return;
+            }
+        }
+    }
+
+    private CompletableFuture<Void> scheduleSlot(long waitNanos) {
+        if (waitNanos == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> permit.complete(null));
+        permit.whenComplete((ignored, error) -> {
+            if (permit.isCancelled()) {
+                release();
+            }
+        });
+        return permit;
+    }
 
-        if (requestCount.incrementAndGet() > maxRequests) {
-            try {
-                Thread.sleep(timeWindow.toMillis());
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    private void awaitSlot(long waitNanos) throws InterruptedException {
+        long deadline = clock.getAsLong() + waitNanos;
+        for (long remaining = waitNanos; remaining > 0; remaining = deadline - clock.getAsLong()) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                release();
+                throw new InterruptedException("Interrupted while waiting for a rate limit permit");
             }
-            // Reset after sleep
-            windowStart = Instant.now();
-            requestCount.set(1);
         }
     }
 }
@@ -0,0 +1,61 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes JSON-RPC request envelopes straight to UTF-8 bytes.
+ * The generator streams {@code id}, {@code method} and the params map into a per-thread buffer
+ * that is reused from call to call, so the only allocation left per request is the exact-size
+ * body array handed to the HTTP client. No tree, no String and no second encoding pass are made.
+ */
+final class RequestBodyWriter {
+
+    private static final int INITIAL_BUFFER_BYTES = 1024;
+    // Bodies beyond this size are rare; their buffer is dropped rather than kept per thread
+    private static final int MAX_RETAINED_BYTES = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+    RequestBodyWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    byte[] write(String method, Map<String, Object> params) throws IOException {
+        Buffer buffer = buffers.get();
+        buffer.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", 1);
+            generator.writeStringField("method", method);
+            generator.writeFieldName("params");
+            objectMapper.writeValue(generator, params);
+            generator.writeEndObject();
+        }
+        byte[] body = buffer.toByteArray();
+        if (buffer.capacity() > MAX_RETAINED_BYTES) {
+            buffers.remove();
+        }
+        return body;
+    }
+
+    /**
+     * Growable buffer whose capacity survives {@link #reset()}
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(INITIAL_BUFFER_BYTES);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
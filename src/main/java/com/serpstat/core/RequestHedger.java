@@ -0,0 +1,138 @@
+package com.serpstat.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends a backup request for read calls that take longer than their method usually does
+ * (see {@link HedgingPolicy}) and completes with whichever answers successfully first; the other
+ * request is cancelled. A backup is only sent when the hedge budget allows it and a rate limit
+ * permit is free right away (the backup supplier answers null otherwise), so hedging never queues
+ * behind, or adds to, regular traffic beyond the configured ratio.
+ */
+final class RequestHedger {
+
+    private static final long CREDIT_PER_HEDGE = 1_000;
+    private static final long MAX_BANKED_HEDGES = 10;
+
+    private final HedgingPolicy policy;
+    private final SerpstatApiMetrics metrics;
+    private final ConcurrentMap<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+    private final long creditPerCall;
+    // Milli-hedges earned by calls sent and not yet spent on backups
+    private final AtomicLong credit = new AtomicLong();
+
+    RequestHedger(HedgingPolicy policy, SerpstatApiMetrics metrics) {
+        this.policy = policy;
+        this.metrics = metrics;
+        this.creditPerCall = Math.round(policy.getMaxHedgeRatio() * CREDIT_PER_HEDGE);
+    }
+
+    /**
+     * Runs {@code primary}, and {@code backup} once the call is slower than the method's percentile.
+     * {@code backup} must take a rate limit permit that is free right now and send, or return null
+     * without sending when there is none.
+     */
+    CompletableFuture<SerpstatApiResponse> send(String method,
+                                                Supplier<CompletableFuture<SerpstatApiResponse>> primary,
+                                                Supplier<CompletableFuture<SerpstatApiResponse>> backup) {
+        LatencyTracker tracker = latencies.computeIfAbsent(method, m -> new LatencyTracker(policy.getPercentile()));
+        long startedAt = System.nanoTime();
+        long hedgeAfter = tracker.percentileNanos();
+        earnCredit();
+
+        CompletableFuture<SerpstatApiResponse> first = primary.get();
+        if (hedgeAfter < 0) {
+            // Not enough history yet to know what slow means for this method
+            return first.whenComplete((response, error) -> {
+                if (error == null) {
+                    tracker.record(System.nanoTime() - startedAt);
+                }
+            });
+        }
+
+        CompletableFuture<SerpstatApiResponse> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        CompletableFuture<CompletableFuture<SerpstatApiResponse>> second = new CompletableFuture<>();
+        first.whenComplete((response, error) -> {
+            if (error == null) {
+                // Cancel the loser first, so it is gone by the time the caller sees the answer
+                second.thenAccept(other -> other.cancel(true));
+                if (result.complete(response)) {
+                    tracker.record(System.nanoTime() - startedAt);
+                }
+            }
+            settle(result, pending, error);
+        });
+
+        long delay = Math.max(hedgeAfter, policy.getMinDelay().toNanos());
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone() || !takeHedge()) {
+                return;
+            }
+            pending.incrementAndGet();
+            CompletableFuture<SerpstatApiResponse> hedge = backup.get();
+            if (hedge == null) {
+                // No permit free: hand the hedge back
+                credit.addAndGet(CREDIT_PER_HEDGE);
+                metrics.recordSkippedHedge();
+                if (pending.decrementAndGet() == 0) {
+                    // The primary failed in the meantime and left reporting it to us
+                    first.whenComplete((response, error) -> {
+                        if (error != null) {
+                            result.completeExceptionally(error);
+                        }
+                    });
+                }
+                return;
+            }
+            metrics.recordHedgedCall();
+            second.complete(hedge);
+            hedge.whenComplete((response, error) -> {
+                // Unless the primary already answered, it is cancelled and cannot race for the result
+                if (error == null && (first.cancel(true) || first.isCompletedExceptionally())) {
+                    metrics.recordHedgeWin();
+                    // The primary was still out: its latency so far is a lower bound worth remembering
+                    tracker.record(System.nanoTime() - startedAt);
+                    result.complete(response);
+                }
+                settle(result, pending, error);
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Fails the call once every request sent for it has failed
+     */
+    private static void settle(CompletableFuture<SerpstatApiResponse> result, AtomicInteger pending, Throwable error) {
+        if (pending.decrementAndGet() == 0 && error != null) {
+            result.completeExceptionally(error);
+        }
+    }
+
+    private void earnCredit() {
+        long cap = MAX_BANKED_HEDGES * CREDIT_PER_HEDGE;
+        credit.getAndUpdate(banked -> Math.min(cap, banked + creditPerCall));
+    }
+
+    /**
+     * Spends hedge budget, if there is enough banked
+     */
+    private boolean takeHedge() {
+        long banked;
+        do {
+            banked = credit.get();
+            if (banked < CREDIT_PER_HEDGE) {
+                metrics.recordSkippedHedge();
+                return false;
+            }
+        } while (!credit.compareAndSet(banked, banked - CREDIT_PER_HEDGE));
+        return true;
+    }
+}
@@ -0,0 +1,259 @@
+package com.serpstat.core;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which call gets the next rate limit permit of a {@link TokenPool}. The limiters alone are
+ * first come, first served, so a chat user's call would queue behind every page of a bulk job booked
+ * before it. Here calls wait in one queue per {@link Lane} and book a permit only when one is free;
+ * lanes are then served weighted-fair (stride scheduling: each lane advances by 1/weight per call
+ * served and the lane furthest behind goes next), so with interactive work waiting, bulk calls get
+ * a share of the rate proportional to their weight rather than all of it. A call that has waited
+ * longer than the starvation threshold is served next whatever its lane.
+ * Queues are lock-free; one thread at a time hands out permits, others only leave it a note to look again.
+ */
+public final class RequestScheduler {
+
+    private static final ThreadLocal<Lane> LANE = new ThreadLocal<>();
+
+    /**
+     * Kind of work a call belongs to; the weight is its share of the rate while lanes compete
+     */
+    public enum Lane {
+        /** Tool calls a user is waiting on */
+        INTERACTIVE(8),
+        /** Batch and multi-page jobs */
+        BULK(2),
+        /** Background refreshes nobody waits on */
+        PREFETCH(1);
+
+        private final int weight;
+
+        Lane(int weight) {
+            this.weight = weight;
+        }
+
+        int weight() {
+            return weight;
+        }
+    }
+
+    private final TokenPool tokens;
+    private final long starvationNanos;
+    private final SerpstatApiMetrics metrics;
+    private final LongSupplier clock;
+    private final Map<Lane, Queue<Waiter>> queues = new EnumMap<>(Lane.class);
+    // Stride scheduling: virtual time each lane has been served up to
+    private final Map<Lane, Double> pass = new EnumMap<>(Lane.class);
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicBoolean wakeUpScheduled = new AtomicBoolean();
+
+    RequestScheduler(TokenPool tokens, Duration starvationThreshold, SerpstatApiMetrics metrics) {
+        this(tokens, starvationThreshold, metrics, System::nanoTime);
+    }
+
+    RequestScheduler(TokenPool tokens, Duration starvationThreshold, SerpstatApiMetrics metrics,
+                     LongSupplier clock) {
+        this.tokens = tokens;
+        this.starvationNanos = starvationThreshold.toNanos();
+        this.metrics = metrics;
+        this.clock = clock;
+        for (Lane lane : Lane.values()) {
+            queues.put(lane, new ConcurrentLinkedQueue<>());
+            pass.put(lane, 0.0);
+        }
+    }
+
+    /**
+     * Puts the calls the current thread makes until the returned scope is closed into {@code lane}.
+     * Calls made outside any scope are {@link Lane#INTERACTIVE}.
+     */
+    public static Scope bind(Lane lane) {
+        Lane previous = LANE.get();
+        LANE.set(lane);
+        return () -> {
+            if (previous == null) {
+                LANE.remove();
+            } else {
+                LANE.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Lane of the current thread's calls
+     */
+    static Lane currentLane() {
+        Lane lane = LANE.get();
+        return lane == null ? Lane.INTERACTIVE : lane;
+    }
+
+    /**
+     * A token whose permit has been taken for the caller, once the scheduler grants one. Fails with
+     * a {@link java.util.concurrent.TimeoutException} when {@code maxWait} (null for no limit) passes
+     * first. Cancelling the future before it completes gives up the place in the queue.
+     */
+    CompletableFuture<TokenPool.Token> acquire(Lane lane, Duration maxWait) {
+        if (queued.get() == 0) {
+            TokenPool.Token token = tokens.reserveNow();
+            if (token != null) {
+                metrics.recordQueueTime(lane, 0);
+                return CompletableFuture.completedFuture(token);
+            }
+        }
+        Waiter waiter = new Waiter(lane, clock.getAsLong());
+        if (maxWait != null) {
+            waiter.orTimeout(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        queued.incrementAndGet();
+        queues.get(lane).add(waiter);
+        // A waiter that gave up is cleared out at once, so it does not hold up the fast path
+        waiter.whenComplete((token, error) -> {
+            if (error != null) {
+                drain();
+            }
+        });
+        drain();
+        return waiter;
+    }
+
+    /**
+     * A token with a permit free right now for work that must not overtake queued calls (hedges);
+     * null when calls are waiting or no permit is free
+     */
+    TokenPool.Token tryAcquireNow() {
+        return queued.get() == 0 ? tokens.reserveNow() : null;
+    }
+
+    /**
+     * Calls waiting for a permit
+     */
+    int getQueuedCount() {
+        return queued.get();
+    }
+
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            grantFreePermits();
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void grantFreePermits() {
+        while (true) {
+            Lane lane = nextLane();
+            if (lane == null) {
+                return;
+            }
+            TokenPool.Token token = tokens.reserveNow();
+            if (token == null) {
+                scheduleWakeUp();
+                return;
+            }
+            Waiter waiter = queues.get(lane).poll();
+            queued.decrementAndGet();
+            pass.put(lane, pass.get(lane) + 1.0 / lane.weight());
+            // Recorded first: completing the waiter runs the caller's request on this thread
+            metrics.recordQueueTime(lane, clock.getAsLong() - waiter.enqueuedAt);
+            if (!waiter.complete(token)) {
+                // Timed out or cancelled meanwhile: the permit goes to the next call
+                token.limiter.release();
+            }
+        }
+    }
+
+    /**
+     * The lane to serve next: one holding a starving call, else the non-empty lane furthest behind.
+     * Waiters that gave up are dropped on the way.
+     */
+    private Lane nextLane() {
+        long now = clock.getAsLong();
+        Lane next = null;
+        Lane starving = null;
+        long oldest = Long.MAX_VALUE;
+        double minPass = Double.MAX_VALUE;
+        for (Lane lane : Lane.values()) {
+            Queue<Waiter> queue = queues.get(lane);
+            Waiter head = queue.peek();
+            while (head != null && head.isDone()) {
+                // Only the draining thread takes waiters out, so the head is still the one peeked
+                queue.poll();
+                queued.decrementAndGet();
+                head = queue.peek();
+            }
+            if (head == null) {
+                continue;
+            }
+            if (now - head.enqueuedAt >= starvationNanos && head.enqueuedAt < oldest) {
+                starving = lane;
+                oldest = head.enqueuedAt;
+            }
+            if (pass.get(lane) < minPass) {
+                next = lane;
+                minPass = pass.get(lane);
+            }
+        }
+        if (next != null) {
+            // A lane that sat idle does not bank the turns it skipped
+            for (Lane lane : Lane.values()) {
+                if (queues.get(lane).isEmpty() && pass.get(lane) < minPass) {
+                    pass.put(lane, minPass);
+                }
+            }
+        }
+        return starving != null ? starving : next;
+    }
+
+    /**
+     * Looks at the queues again once the soonest token has a permit free
+     */
+    private void scheduleWakeUp() {
+        if (!wakeUpScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = Math.max(TimeUnit.MICROSECONDS.toNanos(100), tokens.getEstimatedWait().toNanos());
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+            wakeUpScheduled.set(false);
+            drain();
+        });
+    }
+
+    /**
+     * Closes a {@link #bind(Lane)}, restoring the lane that was in place before
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Waiter extends CompletableFuture<TokenPool.Token> {
+
+        private final Lane lane;
+        private final long enqueuedAt;
+
+        private Waiter(Lane lane, long enqueuedAt) {
+            this.lane = lane;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public String toString() {
+            return "Waiter{" + lane + '}';
+        }
+    }
+}
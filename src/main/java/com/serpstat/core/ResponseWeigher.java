@@ -0,0 +1,18 @@
+package com.serpstat.core;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+/**
+ * Weighs cached responses by the heap they retain, so the response cache is bounded in bytes
+ * rather than entries. A {@link CompactResponse} retains its deflated JSON
+ * ({@link CompactResponse#sizeBytes()}) plus a fixed overhead for itself, its key and the cache node.
+ */
+final class ResponseWeigher implements Weigher<CacheKey, CompactResponse> {
+
+    private static final long RESPONSE_OVERHEAD = 96;  // CompactResponse, its key and the cache node
+
+    @Override
+    public int weigh(CacheKey key, CompactResponse response) {
+        return (int) Math.min(Integer.MAX_VALUE, RESPONSE_OVERHEAD + response.sizeBytes());
+    }
+}
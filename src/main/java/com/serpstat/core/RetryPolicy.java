@@ -0,0 +1,105 @@
+package com.serpstat.core;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how often a failed upstream call is sent again.
+ * Only idempotent read methods ({@code get*}) are retried, and only on failures a second attempt can
+ * fix: transport errors, timeouts, HTTP 429 and 5xx. Delays grow exponentially with full jitter, so
+ * clients that failed together do not retry together, and the retries of one call never run past its
+ * deadline budget, counted from the first attempt.
+ */
+public final class RetryPolicy {
+
+    private static final RetryPolicy NONE = new RetryPolicy(0, Duration.ofMillis(1), Duration.ofMillis(1), Duration.ZERO);
+
+    private final int maxRetries;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Duration budget;
+
+    public RetryPolicy(int maxRetries, Duration baseDelay, Duration maxDelay, Duration budget) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must not be negative");
+        }
+        if (baseDelay.isNegative() || baseDelay.isZero() || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("Need 0 < baseDelay <= maxDelay");
+        }
+        if (budget.isNegative()) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.budget = budget;
+    }
+
+    /**
+     * Up to 3 retries, 250 ms base delay capped at 5 s, within 45 s of the first attempt
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(3, Duration.ofMillis(250), Duration.ofSeconds(5), Duration.ofSeconds(45));
+    }
+
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Time from the first attempt after which no retry is started
+     */
+    public Duration getBudget() {
+        return budget;
+    }
+
+    /**
+     * Whether calls of {@code method} may be sent twice without side effects
+     */
+    public boolean isIdempotent(String method) {
+        String name = method.substring(method.lastIndexOf('.') + 1);
+        return name.startsWith("get");
+    }
+
+    /**
+     * Whether another attempt may succeed where this one failed
+     */
+    public boolean isRetryable(SerpstatApiException failure) {
+        if (SerpstatApiException.HTTP_ERROR.equals(failure.getErrorType())) {
+            int status = failure.getErrorCode();
+            return status == 429 || status >= 500;
+        }
+        return isTransportFailure(failure);
+    }
+
+    /**
+     * Failures where Serpstat could not be reached or did not answer in time
+     */
+    static boolean isTransportFailure(SerpstatApiException failure) {
+        return failure.getErrorType() == null && failure.getCause() instanceof IOException;
+    }
+
+    /**
+     * Random delay before retry number {@code retry} (1-based): uniform between zero and
+     * {@code baseDelay * 2^(retry - 1)}, capped at {@code maxDelay}
+     */
+    public Duration backoff(int retry) {
+        int doublings = Math.min(Math.max(0, retry - 1), 30);
+        long ceiling = Math.min(maxDelay.toNanos(), baseDelay.toNanos() << doublings);
+        if (ceiling < 0) {
+            ceiling = maxDelay.toNanos();
+        }
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{maxRetries=" + maxRetries + ", baseDelay=" + baseDelay
+                + ", maxDelay=" + maxDelay + ", budget=" + budget + '}';
+    }
+}
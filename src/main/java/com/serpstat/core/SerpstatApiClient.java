@@ -1,72 +1,286 @@
 package com.serpstat.core;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.serpstat.domains.utils.VersionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * SerpstatApiClient provides a convenient interface for interacting with the Serpstat API v4.
  * It supports making generic API method calls, handles authentication, request rate limiting,
  * response caching, and error handling. The client uses Java HttpClient for HTTP requests and
  * Jackson for JSON serialization/deserialization.
- * Default: 60 min cache, 1000 entries, 10 req/sec rate limit, 30 sec timeout.
+ * Identical calls that arrive while one is already in flight share its result (single flight).
+ * Methods with a soft TTL are served stale while one background call refreshes them.
+ * An optional persistent L2 tier ({@link DiskResponseCache}) keeps paid-for responses across restarts.
+ * Cached responses expire per method ({@link CachePolicyRegistry}), are held as deflated JSON
+ * ({@link CompactResponse}), one entry per domain or keyword for list methods ({@link EntitySplitRegistry}),
+ * and the cache is bounded by the heap they retain ({@link ResponseWeigher}).
+ * Calls are spread over one or more API tokens, each with its own rate limit ({@link TokenPool}), and
+ * interactive calls get permits ahead of bulk and background work ({@link RequestScheduler}),
+ * and the upstream rate of each adapts to Serpstat's feedback ({@link AdaptiveRateController}).
+ * Failed idempotent calls are retried with jittered backoff ({@link RetryPolicy}), and calls to an
+ * endpoint that keeps failing are rejected fast until a probe succeeds ({@link CircuitBreaker}).
+ * Optionally, read calls slower than their method's tail latency get a backup request ({@link HedgingPolicy}).
+ * Deterministic JSON-RPC errors are remembered briefly per tenant, so a repeated bad call fails without
+ * a round trip ({@link NegativeResponseCache}).
+ * Calls that go upstream first reserve their estimated credit cost ({@link CreditBudgetManager}).
+ * Calls made on behalf of a tenant ({@link TenantContext}) go out with the tenant's own tokens, under its
+ * own rate limits and budgets, and are cached in its own partition of the in-memory cache ({@link Tenant}) once
+ * Serpstat has answered one of them.
+ * Requests go out over HTTP/2 where the server supports it (HTTP/1.1 otherwise) on a dedicated bounded
+ * executor, and ask for gzip-compressed responses that are unzipped while they stream in.
+ * Default: 60 min cache, 128 MB, 10 req/sec rate limit per token (adaptive up to 20), 30 sec timeout.
  * Fixed UTF-8 encoding for Cyrillic characters support.
  */
-public class SerpstatApiClient {
+public class SerpstatApiClient implements AutoCloseable {
 
-    private static final String SERPSTAT_API_URL = "https://api.serpstat.com/v4";
-    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Logger log = LoggerFactory.getLogger(SerpstatApiClient.class);
+    private static final int GZIP_BUFFER_BYTES = 8192;
 
-    private final String apiToken;
+    private final SerpstatApiClientConfig config;
+    private final Tenant defaultTenant;
+    // Tenants admitted after a successful call, and those whose tokens have not answered one yet
+    private final Cache<String, Tenant> tenants;
+    private final Cache<String, Tenant> pendingTenants;
     private String apiUrl;
     private final HttpClient httpClient;
-    private final Cache<String, SerpstatApiResponse> cache;
+    private final ExecutorService transportExecutor;
+    private final ExecutorService parseExecutor;
+    private final boolean compression;
+    private final CachePolicyRegistry cachePolicies;
+    private final EntitySplitRegistry entitySplits;
     private final String version;
     private final ObjectMapper objectMapper;
-    private final RateLimiter rateLimiter;
+    private final SerpstatResponseParser responseParser;
+    private final RequestBodyWriter requestBodyWriter;
+    private final RetryPolicy retryPolicy;
+    private final RequestHedger hedger;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers;
+    private final int circuitFailureThreshold;
+    private final Duration circuitOpenDuration;
     private final Duration requestTimeout;
+    private final SerpstatApiMetrics metrics;
 
     /**
      * Default constructor uses production Serpstat API URL
      */
     public SerpstatApiClient(String apiToken) {
-        this(apiToken, SERPSTAT_API_URL, DEFAULT_REQUEST_TIMEOUT);
+        this(apiToken, SerpstatApiClientConfig.defaults());
     }
 
     /**
      * Constructor for custom API URL (for testing/mocking)
      */
     public SerpstatApiClient(String apiToken, String apiUrl) {
-        this(apiToken, apiUrl, DEFAULT_REQUEST_TIMEOUT);
+        this(apiToken, SerpstatApiClientConfig.builder().apiUrl(apiUrl).build());
     }
 
     public SerpstatApiClient(String apiToken, String apiUrl, Duration requestTimeout) {
-        this.apiToken = apiToken;
-        this.apiUrl = apiUrl;
-        this.requestTimeout = requestTimeout;
+        this(apiToken, SerpstatApiClientConfig.builder()
+                .apiUrl(apiUrl)
+                .requestTimeout(requestTimeout)
+                .build());
+    }
+
+    public SerpstatApiClient(String apiToken, SerpstatApiClientConfig config) {
+        this(Collections.singletonList(apiToken), config);
+    }
+
+    /**
+     * Client sending calls with several API tokens, each used at up to the configured rate
+     */
+    public SerpstatApiClient(List<String> apiTokens, SerpstatApiClientConfig config) {
+        this.config = config;
+        this.apiUrl = config.getApiUrl();
+        this.requestTimeout = config.getRequestTimeout();
+        this.transportExecutor = daemonPool("serpstat-http", config.getTransportThreads());
+        this.parseExecutor = daemonPool("serpstat-parse", config.getTransportThreads());
+        this.compression = config.isCompression();
         this.httpClient = HttpClient.newBuilder()
+                .version(config.getHttpVersion())
+                .executor(transportExecutor)
                 .connectTimeout(requestTimeout)
                 .build();
-        this.cache = Caffeine.newBuilder()
-                .expireAfterWrite(60, TimeUnit.MINUTES)
-                .maximumSize(1000)
-                .build();
+        this.cachePolicies = config.getCachePolicies();
+        this.entitySplits = config.getEntitySplits();
         this.version = VersionUtils.getVersion();
         this.objectMapper = new ObjectMapper();
-        this.rateLimiter = new RateLimiter(10, Duration.ofSeconds(1));
+        this.responseParser = new SerpstatResponseParser(objectMapper);
+        this.requestBodyWriter = new RequestBodyWriter(objectMapper);
+        this.metrics = new SerpstatApiMetrics();
+        this.defaultTenant = new Tenant(TenantContext.idOf(apiTokens), new TokenPool(apiTokens, config, metrics),
+                newCachePartition(config.getMemoryCacheMaxBytes()), openDiskCache(config), config, metrics);
+        this.defaultTenant.admit();
+        this.tenants = Caffeine.newBuilder()
+                .expireAfterAccess(config.getTenantIdleTimeout())
+                .maximumSize(config.getMaxTenants())
+                .removalListener((String id, Tenant tenant, RemovalCause cause) -> {
+                    if (tenant != null) {
+                        tenant.tokens.release();
+                        rebalanceCache();
+                    }
+                })
+                .build();
+        this.pendingTenants = Caffeine.newBuilder()
+                .expireAfterAccess(config.getTenantIdleTimeout())
+                .maximumSize(config.getMaxTenants())
+                .removalListener((String id, Tenant tenant, RemovalCause cause) -> {
+                    // An admitted tenant moved on to the tenants map and keeps its tokens
+                    if (tenant != null && !tenant.isAdmitted()) {
+                        tenant.tokens.release();
+                    }
+                })
+                .build();
+        this.retryPolicy = config.getRetryPolicy();
+        this.hedger = config.getHedgingPolicy().isEnabled()
+                ? new RequestHedger(config.getHedgingPolicy(), metrics)
+                : null;
+        this.circuitBreakers = new ConcurrentHashMap<>();
+        this.circuitFailureThreshold = config.getCircuitFailureThreshold();
+        this.circuitOpenDuration = config.getCircuitOpenDuration();
+    }
+
+    private Cache<CacheKey, CompactResponse> newCachePartition(long maxBytes) {
+        return Caffeine.newBuilder()
+                .expireAfter(new PolicyExpiry(cachePolicies))
+                .maximumWeight(maxBytes)
+                .weigher(new ResponseWeigher())
+                .build();
+    }
+
+    /**
+     * The tenant the current thread calls for: the bound {@link TenantContext}, or the tenant of the
+     * client's own tokens. A tenant's state is created on its first call, with no cache room until
+     * it is admitted ({@link #admit(Tenant)}).
+     */
+    private Tenant currentTenant() {
+        TenantContext context = TenantContext.current();
+        if (context == null || context.getId().equals(defaultTenant.id)) {
+            return defaultTenant;
+        }
+        Tenant tenant = tenants.getIfPresent(context.getId());
+        if (tenant != null) {
+            return tenant;
+        }
+        return pendingTenants.get(context.getId(), id -> {
+            TokenPool pool = new TokenPool(context.getApiTokens(), config, metrics);
+            return new Tenant(id, pool, newCachePartition(0), null, config, metrics);
+        });
+    }
+
+    /**
+     * Gives a tenant its share of the in-memory cache once Serpstat has answered a call sent with its
+     * tokens; until then they may be made up, and must not shrink anyone's share
+     */
+    private void admit(Tenant tenant) {
+        if (tenant.isAdmitted()) {
+            return;
+        }
+        synchronized (this) {
+            if (!tenant.admit()) {
+                return;
+            }
+            tenants.put(tenant.id, tenant);
+            pendingTenants.asMap().remove(tenant.id, tenant);
+            log.info("Tenant {} admitted with {} API token(s)", tenant.id, tenant.tokens.size());
+            rebalanceCache();
+        }
+    }
+
+    /**
+     * Splits the in-memory cache budget between the admitted tenants, so each can only evict its own
+     * entries and a busy tenant cannot push out the hot entries of a quiet one. The tenant of the
+     * client's own tokens keeps its reserved share; the others split the rest evenly, whatever number
+     * of tokens they bring.
+     */
+    private synchronized void rebalanceCache() {
+        long total = config.getMemoryCacheMaxBytes();
+        List<Tenant> admitted = new ArrayList<>(tenants.asMap().values());
+        if (admitted.isEmpty()) {
+            defaultTenant.resize(total);
+            return;
+        }
+        long reserved = (long) (total * config.getDefaultTenantCacheShare());
+        long defaultShare = Math.max(reserved, total / (admitted.size() + 1));
+        defaultTenant.resize(defaultShare);
+        for (Tenant tenant : admitted) {
+            tenant.resize((total - defaultShare) / admitted.size());
+        }
+    }
+
+    private List<Tenant> allTenants() {
+        List<Tenant> all = new ArrayList<>(tenants.asMap().values());
+        all.addAll(pendingTenants.asMap().values());
+        all.add(defaultTenant);
+        return all;
+    }
+
+    /**
+     * Bounded pool of daemon threads that time out when idle, so unused clients hold no threads
+     */
+    private static ExecutorService daemonPool(String name, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static DiskResponseCache openDiskCache(SerpstatApiClientConfig config) {
+        if (config.getDiskCacheDirectory() == null) {
+            return null;
+        }
+        try {
+            return new DiskResponseCache(config.getDiskCacheDirectory(), config.getDiskCacheMaxBytes());
+        } catch (IOException e) {
+            // The L2 tier is an optimization; run without it rather than refusing to start
+            log.warn("Disk cache disabled: cannot open {}", config.getDiskCacheDirectory(), e);
+            return null;
+        }
     }
 
     /**
@@ -85,71 +299,767 @@ public class SerpstatApiClient {
 
     /**
      * Универсальный метод для вызова любого Serpstat API метода
-     * Universal method for calling any Serpstat API method with proper UTF-8 encoding
+     * Universal method for calling any Serpstat API method with proper UTF-8 encoding.
+     * Blocking wrapper around {@link #callMethodAsync(String, Map)} kept for the tool handlers.
      */
     public SerpstatApiResponse callMethod(String method, Map<String, Object> params)
             throws SerpstatApiException {
+        try {
+            return callMethodAsync(method, params).get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SerpstatApiException("Request failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #callMethod(String, Map)}. Rate limiting, request building,
+     * sending, parsing and caching all run as stages of the returned future, so no caller thread
+     * is parked while waiting for Serpstat. The future fails with {@link SerpstatApiException}.
+     */
+    public CompletableFuture<SerpstatApiResponse> callMethodAsync(String method, Map<String, Object> params) {
 
         // Handle null parameters - prevents NullPointerException in cache key generation
-        if (params == null) {
-            params = Map.of(); // Use empty map instead of null
+        final Map<String, Object> requestParams = params == null ? Map.of() : params;
+        metrics.recordRequest();
+        final Tenant tenant = currentTenant();
+        final RequestScheduler.Lane lane = RequestScheduler.currentLane();
+
+        EntitySplitRegistry.Split split = entitySplits.splitFor(method, requestParams);
+        if (split != null) {
+            return callPerEntity(tenant, lane, method, requestParams, split);
         }
+        return callWhole(tenant, lane, method, requestParams, null);
+    }
 
-        // Check cache
-        final String cacheKey = method + ":" + params.toString();
-        SerpstatApiResponse cachedResponse = cache.getIfPresent(cacheKey);
+    /**
+     * Serves a call through the cache, single flight and budgets, or sends it upstream. With a
+     * {@code split}, the response is cached per entity instead of whole.
+     */
+    private CompletableFuture<SerpstatApiResponse> callWhole(Tenant tenant, RequestScheduler.Lane lane,
+                                                             String method, Map<String, Object> requestParams,
+                                                             EntitySplitRegistry.Split split) {
+        // Check cache (canonical key: insensitive to param order and explicit defaults)
+        final CacheKey cacheKey = CacheKey.of(method, requestParams);
+        SerpstatApiResponse cachedResponse = readCache(tenant, cacheKey);
         if (cachedResponse != null) {
-            return cachedResponse;
+            metrics.recordCacheHit();
+            return CompletableFuture.completedFuture(serveCached(tenant, cacheKey, requestParams, cachedResponse));
+        }
+
+        // A call Serpstat just rejected is rejected again without asking
+        SerpstatApiException knownError = readNegativeCache(tenant, cacheKey);
+        if (knownError != null) {
+            return CompletableFuture.failedFuture(knownError);
+        }
+
+        // Single flight: identical calls attach to the request that is already on the wire
+        CompletableFuture<SerpstatApiResponse> promise = new CompletableFuture<>();
+        CompletableFuture<SerpstatApiResponse> inFlightCall = tenant.inFlight.putIfAbsent(cacheKey, promise);
+        if (inFlightCall != null) {
+            metrics.recordCoalescedCall();
+            // A copy, so one waiter cancelling its future does not cancel the others
+            return inFlightCall.copy();
+        }
+
+        // The previous leader may have filled the cache between our lookup and the registration
+        cachedResponse = readCache(tenant, cacheKey);
+        if (cachedResponse != null) {
+            tenant.inFlight.remove(cacheKey, promise);
+            promise.complete(serveCached(tenant, cacheKey, requestParams, cachedResponse));
+            metrics.recordCacheHit();
+            return promise.copy();
+        }
+
+        // L2: responses persisted by this or a previous server run
+        SerpstatApiResponse persisted = promoteFromDisk(tenant, cacheKey, method, requestParams);
+        if (persisted != null) {
+            tenant.inFlight.remove(cacheKey, promise);
+            promise.complete(serveCached(tenant, cacheKey, requestParams, persisted));
+            metrics.recordDiskCacheHit();
+            return promise.copy();
         }
 
+        // Only calls that really go upstream are paid for
+        final CreditBudgetManager.Reservation credits;
         try {
-            // Rate limiting
-            rateLimiter.waitIfNeeded();
-
-            // Create a request body
-            ObjectNode requestBody = objectMapper.createObjectNode();
-            requestBody.put("id", 1);
-            requestBody.put("method", method);
-            requestBody.set("params", objectMapper.valueToTree(params));
-
-            // Convert to JSON string with proper UTF-8 encoding
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-
-            // Create an HTTP request with explicit UTF-8 charset
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(getApiUrl() + "/?token=" + apiToken))
-                    .header("Content-Type", "application/json; charset=UTF-8")
-                    .header("Accept", "application/json; charset=UTF-8")
-                    .header("Accept-Charset", "UTF-8")
-                    .header("User-Agent", "Serpstat MCP Server Java/" + this.version)
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
-                    .timeout(getRequestTimeout())
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            credits = tenant.creditBudgets.reserve(method, requestParams);
+        } catch (SerpstatApiException e) {
+            tenant.inFlight.remove(cacheKey, promise);
+            promise.completeExceptionally(e);
+            return promise.copy();
+        }
+        fetch(tenant, lane, cacheKey, method, requestParams, split, promise, credits);
+        return promise.copy();
+    }
 
-            if (response.statusCode() != 200) {
-                throw new SerpstatApiException("HTTP Error: " + response.statusCode() + " - " + response.body());
+    /**
+     * Serves a list call entity by entity ({@link EntitySplitRegistry}): entities with an entry of
+     * their own come from cache, the rest are fetched in one call whose rows are then cached per
+     * entity, and the response is put back together in the order of the request
+     */
+    private CompletableFuture<SerpstatApiResponse> callPerEntity(Tenant tenant, RequestScheduler.Lane lane,
+                                                                 String method, Map<String, Object> params,
+                                                                 EntitySplitRegistry.Split split) {
+        List<?> entities = (List<?>) params.get(split.listParam());
+        if (entities.size() <= 1) {
+            // The entity's own entry is the call's entry
+            return callWhole(tenant, lane, method, params, split);
+        }
+        EntityHits hits = new EntityHits(entities.size());
+        Map<String, Object> missing = new LinkedHashMap<>();
+        for (int i = 0; i < entities.size(); i++) {
+            Object entity = entities.get(i);
+            Map<String, Object> entityParams = split.paramsFor(params, entity);
+            CacheKey entityKey = CacheKey.of(method, entityParams);
+            SerpstatApiResponse hit = readCache(tenant, entityKey);
+            if (hit == null) {
+                hit = promoteFromDisk(tenant, entityKey, method, entityParams);
+                if (hit != null) {
+                    metrics.recordDiskCacheHit();
+                }
+            }
+            if (hit == null || !hasRows(hit.getResult())) {
+                metrics.recordEntityCacheMiss();
+                missing.putIfAbsent(split.idOf(entity), entity);
+                continue;
             }
+            metrics.recordEntityCacheHit();
+            hits.add(i, serveCached(tenant, entityKey, entityParams, hit));
+        }
+
+        if (missing.isEmpty()) {
+            metrics.recordCacheHit();
+            return CompletableFuture.completedFuture(hits.assemble(method, params, split, entities, null));
+        }
+        Map<String, Object> missingParams = split.withEntities(params, new ArrayList<>(missing.values()));
+        return callWhole(tenant, lane, method, missingParams, split)
+                .thenApply(fetched -> hasRows(fetched.getResult())
+                        ? hits.assemble(method, params, split, entities, fetched)
+                        : fetched);
+    }
 
-            // Parse response with UTF-8
-            JsonNode responseJson = objectMapper.readTree(response.body());
+    private static boolean hasRows(JsonNode result) {
+        return result != null && result.get("data") instanceof ArrayNode;
+    }
 
-            if (responseJson.has("error")) {
-                JsonNode error = responseJson.get("error");
-                throw new SerpstatApiException("Serpstat API Error: " + error.get("message").asText());
+    /**
+     * Sends the call upstream on behalf of {@code promise}, which must own the key in the tenant's {@code inFlight}
+     */
+    private void fetch(Tenant tenant, RequestScheduler.Lane lane, CacheKey cacheKey, String method,
+                       Map<String, Object> params, EntitySplitRegistry.Split split,
+                       CompletableFuture<SerpstatApiResponse> promise, CreditBudgetManager.Reservation credits) {
+        dispatch(tenant, lane, method, params, credits).whenComplete((response, error) -> {
+            if (error == null) {
+                credits.settle(method, params, response.getResult());
+                admit(tenant);
+                // Save result to cache before releasing the key, so late callers hit the cache
+                if (split == null) {
+                    store(tenant, cacheKey, response);
+                } else {
+                    storePerEntity(tenant, cacheKey, split, params, response);
+                }
+            } else {
+                credits.cancel();
+                metrics.recordFailure();
+                if (tenant.negativeCache != null) {
+                    tenant.negativeCache.putIfDeterministic(cacheKey, unwrap(error));
+                }
+            }
+            tenant.inFlight.remove(cacheKey, promise);
+            if (error == null) {
+                promise.complete(response);
+            } else {
+                promise.completeExceptionally(unwrap(error));
             }
+        });
+    }
 
-            final SerpstatApiResponse apiResponse = new SerpstatApiResponse(responseJson.get("result"), method, params);
+    /**
+     * Returns a cached response as is, or, past its method's soft TTL, marked stale while a single
+     * background call refreshes the entry. Callers never wait for the refresh.
+     */
+    private SerpstatApiResponse serveCached(Tenant tenant, CacheKey cacheKey, Map<String, Object> params,
+                                            SerpstatApiResponse response) {
+        CachePolicy policy = cachePolicies.policyFor(cacheKey.getMethod());
+        if (!policy.isStale(response.getTimestamp(), System.currentTimeMillis())) {
+            return response;
+        }
+        metrics.recordStaleHit();
+        CompletableFuture<SerpstatApiResponse> refresh = new CompletableFuture<>();
+        // Owning the in-flight slot makes the refresh single flight; a failed refresh keeps the stale entry
+        if (tenant.inFlight.putIfAbsent(cacheKey, refresh) == null) {
+            try {
+                CreditBudgetManager.Reservation credits = tenant.creditBudgets.reserve(cacheKey.getMethod(), params);
+                metrics.recordBackgroundRefresh();
+                fetch(tenant, RequestScheduler.Lane.PREFETCH, cacheKey, cacheKey.getMethod(), params, null,
+                        refresh, credits);
+            } catch (SerpstatApiException e) {
+                // Out of budget: keep serving the stale entry rather than failing the caller
+                tenant.inFlight.remove(cacheKey, refresh);
+                refresh.completeExceptionally(e);
+            }
+        }
+        return response.asStale();
+    }
 
-            // Save result to cache
-            cache.put(cacheKey, apiResponse);
+    /**
+     * The error Serpstat answered the same call of the same tenant with moments ago, or null
+     */
+    private SerpstatApiException readNegativeCache(Tenant tenant, CacheKey cacheKey) {
+        if (tenant.negativeCache == null) {
+            return null;
+        }
+        SerpstatApiException knownError = tenant.negativeCache.get(cacheKey);
+        if (knownError == null) {
+            metrics.recordNegativeCacheMiss();
+        } else {
+            metrics.recordNegativeCacheHit();
+        }
+        return knownError;
+    }
 
-            return apiResponse;
+    /**
+     * Rebuilds a response from the in-memory tier, or null on a miss
+     */
+    private SerpstatApiResponse readCache(Tenant tenant, CacheKey cacheKey) {
+        CompactResponse compact = tenant.cache.getIfPresent(cacheKey);
+        if (compact == null) {
+            return null;
+        }
+        try {
+            return compact.inflate(objectMapper);
+        } catch (IOException e) {
+            log.warn("Dropping unreadable cache entry {}", cacheKey, e);
+            tenant.cache.invalidate(cacheKey);
+            return null;
+        }
+    }
+
+    /**
+     * Caches a fresh response in both tiers; the result is serialized once for both
+     */
+    private void store(Tenant tenant, CacheKey cacheKey, SerpstatApiResponse response) {
+        byte[] json = null;
+        if (response.getResult() != null) {
+            try {
+                json = objectMapper.writeValueAsBytes(response.getResult());
+            } catch (IOException e) {
+                log.warn("Not caching response for {}", cacheKey, e);
+                return;
+            }
+        }
+        tenant.cache.put(cacheKey, CompactResponse.of(response, json));
+        if (tenant.diskCache != null && json != null) {
+            CachePolicy policy = cachePolicies.policyFor(cacheKey.getMethod());
+            Duration ttl = policy.expires() ? policy.getTtl() : ChronoUnit.FOREVER.getDuration();
+            tenant.diskCache.put(cacheKey, json, ttl);
+        }
+    }
 
-        } catch (IOException | InterruptedException e) {
+    /**
+     * Caches each requested entity of a list response under the key of the same call for that entity
+     * alone, with its row (none when Serpstat has no data on it) and the call's summary. A response
+     * without rows to split is cached whole, like any other.
+     */
+    private void storePerEntity(Tenant tenant, CacheKey cacheKey, EntitySplitRegistry.Split split,
+                                Map<String, Object> params, SerpstatApiResponse response) {
+        JsonNode result = response.getResult();
+        if (!hasRows(result)) {
+            store(tenant, cacheKey, response);
+            return;
+        }
+        JsonNode rows = result.get("data");
+        String method = cacheKey.getMethod();
+        Map<String, JsonNode> rowsById = new HashMap<>();
+        for (JsonNode row : rows) {
+            rowsById.putIfAbsent(split.idOfRow(row), row);
+        }
+        for (Object entity : (List<?>) params.get(split.listParam())) {
+            ObjectNode entityResult = objectMapper.createObjectNode();
+            ArrayNode entityRows = entityResult.putArray("data");
+            JsonNode row = rowsById.get(split.idOf(entity));
+            if (row != null) {
+                entityRows.add(row);
+            }
+            if (result.has("summary_info")) {
+                entityResult.set("summary_info", result.get("summary_info"));
+            }
+            Map<String, Object> entityParams = split.paramsFor(params, entity);
+            store(tenant, CacheKey.of(method, entityParams),
+                    new SerpstatApiResponse(entityResult, method, entityParams, response.getTimestamp()));
+        }
+    }
+
+    /**
+     * Loads a response from the persistent tier and promotes it to the in-memory tier
+     */
+    private SerpstatApiResponse promoteFromDisk(Tenant tenant, CacheKey cacheKey, String method,
+                                                Map<String, Object> params) {
+        if (tenant.diskCache == null) {
+            return null;
+        }
+        DiskResponseCache.Entry entry = tenant.diskCache.get(cacheKey);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            SerpstatApiResponse response = new SerpstatApiResponse(
+                    objectMapper.readTree(entry.payload()), method, params, entry.writtenAt());
+            tenant.cache.put(cacheKey, CompactResponse.of(response, entry.payload()));
+            return response;
+        } catch (IOException e) {
+            tenant.diskCache.invalidate(cacheKey);
+            return null;
+        }
+    }
+
+    /**
+     * Drops every cached response of an API method from both cache tiers of every tenant, e.g. after
+     * the user changed their projects
+     */
+    public void invalidate(String method) {
+        for (Tenant tenant : allTenants()) {
+            tenant.cache.asMap().keySet().removeIf(key -> key.getMethod().equals(method));
+            if (tenant.negativeCache != null) {
+                tenant.negativeCache.invalidateMethod(method);
+            }
+        }
+        if (defaultTenant.diskCache != null) {
+            defaultTenant.diskCache.invalidateMethod(method);
+        }
+    }
+
+    /**
+     * Flushes and closes the persistent cache tier, if any
+     */
+    @Override
+    public void close() {
+        if (defaultTenant.diskCache != null) {
+            defaultTenant.diskCache.close();
+        }
+        transportExecutor.shutdown();
+        parseExecutor.shutdown();
+    }
+
+    /**
+     * Number of distinct calls currently waiting on Serpstat, across all tenants
+     */
+    public int getInFlightCount() {
+        return allTenants().stream().mapToInt(tenant -> tenant.inFlight.size()).sum();
+    }
+
+    public SerpstatApiMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Credit budgets of the current thread's tenant
+     */
+    public CreditBudgetManager getCreditBudgets() {
+        return currentTenant().creditBudgets;
+    }
+
+    /**
+     * Number of API tokens the current thread's tenant still sends calls with; tokens that failed
+     * authentication or ran out of credits are no longer used
+     */
+    public int getActiveTokenCount() {
+        return currentTenant().tokens.getActiveCount();
+    }
+
+    /**
+     * Number of admitted tenants other than the one of the client's own tokens that called recently
+     */
+    public long getTenantCount() {
+        tenants.cleanUp();
+        return tenants.estimatedSize();
+    }
+
+    /**
+     * State of the circuit breaker guarding calls of an API method
+     */
+    public CircuitBreaker.State getCircuitState(String method) {
+        CircuitBreaker breaker = circuitBreakers.get(method);
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.getState();
+    }
+
+    /**
+     * Runs pending cache maintenance (evictions, expirations) now instead of on the next access
+     */
+    void cleanUpCache() {
+        tenants.cleanUp();
+        pendingTenants.cleanUp();
+        allTenants().forEach(tenant -> tenant.cache.cleanUp());
+    }
+
+    /**
+     * Number of responses in the in-memory cache, across all tenants
+     */
+    public long getCachedEntryCount() {
+        return allTenants().stream().mapToLong(tenant -> tenant.cache.estimatedSize()).sum();
+    }
+
+    /**
+     * Approximate heap retained by the in-memory cache, in bytes, across all tenants
+     */
+    public long getCachedBytes() {
+        return allTenants().stream().mapToLong(Tenant::cachedBytes).sum();
+    }
+
+    /**
+     * Sends one call upstream, retrying it within the retry budget while the endpoint's circuit allows.
+     * {@code credits} is the call's reservation, which hedged backups reserve as much again against.
+     */
+    private CompletableFuture<SerpstatApiResponse> dispatch(Tenant tenant, RequestScheduler.Lane lane, String method,
+                                                            Map<String, Object> params,
+                                                            CreditBudgetManager.Reservation credits) {
+        // Serialized once: retries and hedges resend the same bytes, whichever token they go out with
+        final byte[] body;
+        try {
+            body = requestBodyWriter.write(method, params);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new SerpstatApiException("Request failed: " + e.getMessage(), e));
+        }
+        CompletableFuture<SerpstatApiResponse> result = new CompletableFuture<>();
+        long deadline = System.nanoTime() + retryPolicy.getBudget().toNanos();
+        attempt(tenant, lane, method, params, credits, body, 0, deadline, result);
+        return result;
+    }
+
+    private void attempt(Tenant tenant, RequestScheduler.Lane lane, String method, Map<String, Object> params,
+                         CreditBudgetManager.Reservation credits, byte[] body, int retry, long deadline,
+                         CompletableFuture<SerpstatApiResponse> result) {
+        CircuitBreaker breaker = circuitBreakers.computeIfAbsent(method, endpoint ->
+                new CircuitBreaker(endpoint, circuitFailureThreshold, circuitOpenDuration, metrics));
+        if (!breaker.tryAcquire()) {
+            metrics.recordCircuitRejection();
+            result.completeExceptionally(new SerpstatApiException("Serpstat API unavailable for " + method
+                    + ": too many consecutive failures, retrying in " + breaker.getRetryIn().toSeconds() + " s",
+                    null, SerpstatApiException.CIRCUIT_OPEN));
+            return;
+        }
+
+        // Retries never queue for a rate limit permit past the deadline; first attempts wait as before
+        Duration maxWait = retry == 0 ? null : Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+        AtomicReference<TokenPool.Token> token = new AtomicReference<>();
+        sendHedged(tenant, lane, method, params, credits, body, token, maxWait).whenComplete((response, error) -> {
+            if (error == null) {
+                breaker.onSuccess();
+                result.complete(response);
+                return;
+            }
+            SerpstatApiException failure = unwrap(error);
+            if (RetryPolicy.isTransportFailure(failure) || isServerError(failure)) {
+                breaker.onFailure();
+            } else if (failure.getErrorType() != null) {
+                breaker.onSuccess();
+            } else {
+                breaker.onAbandoned();
+            }
+
+            TokenPool.Token sentWith = token.get();
+            if (TokenPool.isTokenFailure(failure) && sentWith != null && !sentWith.isActive()) {
+                // Serpstat rejected the token, not the call: send it again right away with another one
+                attempt(tenant, lane, method, params, credits, body, retry, deadline, result);
+                return;
+            }
+            long delayNanos = retryPolicy.backoff(retry + 1).toNanos();
+            if (retry < retryPolicy.getMaxRetries() && retryPolicy.isIdempotent(method)
+                    && retryPolicy.isRetryable(failure) && System.nanoTime() + delayNanos < deadline) {
+                metrics.recordRetry();
+                log.debug("Retrying {} in {} ms after: {}", method,
+                        TimeUnit.NANOSECONDS.toMillis(delayNanos), failure.getMessage());
+                CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS)
+                        .execute(() -> attempt(tenant, lane, method, params, credits, body, retry + 1, deadline,
+                                result));
+            } else {
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private static boolean isServerError(SerpstatApiException failure) {
+        return SerpstatApiException.HTTP_ERROR.equals(failure.getErrorType()) && failure.getErrorCode() >= 500;
+    }
+
+    /**
+     * One attempt: a permit from the tenant's scheduler in the call's lane (waiting at most {@code maxWait},
+     * unbounded when null), then the HTTP round trip, hedged for slow read calls on whichever token has
+     * a permit free. The token the primary request goes out with is left in {@code primaryToken}. A backup
+     * is paid for like the primary: it reserves as much again as {@code credits} against the same budgets
+     * and is not sent when they cannot cover it.
+     */
+    private CompletableFuture<SerpstatApiResponse> sendHedged(Tenant tenant, RequestScheduler.Lane lane,
+                                                              String method, Map<String, Object> params,
+                                                              CreditBudgetManager.Reservation credits,
+                                                              byte[] body,
+                                                              AtomicReference<TokenPool.Token> primaryToken,
+                                                              Duration maxWait) {
+        Supplier<CompletableFuture<SerpstatApiResponse>> primary = () -> {
+            CompletableFuture<TokenPool.Token> ticket = tenant.scheduler.acquire(lane, maxWait);
+            ticket.thenAccept(primaryToken::set);
+            return send(tenant.tokens, method, params, body, ticket);
+        };
+        if (hedger == null || !retryPolicy.isIdempotent(method)) {
+            return primary.get();
+        }
+        return hedger.send(method, primary, () -> {
+            final CreditBudgetManager.Reservation backupCredits;
+            try {
+                backupCredits = credits.again(method);
+            } catch (SerpstatApiException e) {
+                return null;
+            }
+            // Backups never jump the queue: they only go out on a permit nobody is waiting for
+            TokenPool.Token backupToken = tenant.scheduler.tryAcquireNow();
+            if (backupToken == null) {
+                backupCredits.cancel();
+                return null;
+            }
+            CompletableFuture<SerpstatApiResponse> backup =
+                    send(tenant.tokens, method, params, body, CompletableFuture.completedFuture(backupToken));
+            backup.whenComplete((response, error) -> {
+                if (error == null) {
+                    backupCredits.settle(method, params, response.getResult());
+                } else if (backup.isCancelled()) {
+                    // Lost the race after going out: Serpstat may bill it all the same
+                    backupCredits.settle(method, params, null);
+                } else {
+                    backupCredits.cancel();
+                }
+            });
+            return backup;
+        });
+    }
+
+    /**
+     * Sends one request with the token {@code ticket} grants a permit on and parses the answer. Cancelling
+     * the returned future gives up a place still queued, or aborts the exchange and releases its connection.
+     */
+    private CompletableFuture<SerpstatApiResponse> send(TokenPool tokens, String method, Map<String, Object> params,
+                                                        byte[] body, CompletableFuture<TokenPool.Token> ticket) {
+        AtomicReference<CompletableFuture<HttpResponse<InputStream>>> exchange = new AtomicReference<>();
+        AtomicReference<TokenPool.Token> sentWith = new AtomicReference<>();
+        CompletableFuture<SerpstatApiResponse> call = ticket
+                .thenCompose(token -> {
+                    sentWith.set(token);
+                    metrics.recordUpstreamCall();
+                    long sentAt = System.nanoTime();
+                    // Headers only: the body is parsed as it streams in, without a String copy
+                    CompletableFuture<HttpResponse<InputStream>> sent =
+                            httpClient.sendAsync(buildRequest(body, token), HttpResponse.BodyHandlers.ofInputStream());
+                    exchange.set(sent);
+                    return sent.thenApply(response -> observe(response, token, sentAt));
+                })
+                // Parsing blocks while the body streams in, so it must not hold a transport thread
+                .handleAsync((response, error) -> {
+                    if (error != null) {
+                        throw new CompletionException(unwrap(error));
+                    }
+                    try {
+                        SerpstatApiResponse parsed = parseResponse(response, method, params);
+                        tokens.onResponse(sentWith.get(), parsed.getResult());
+                        return parsed;
+                    } catch (SerpstatApiException e) {
+                        tokens.onFailure(sentWith.get(), e);
+                        throw new CompletionException(e);
+                    }
+                }, parseExecutor);
+        call.whenComplete((response, error) -> {
+            if (call.isCancelled()) {
+                ticket.cancel(false);
+                CompletableFuture<HttpResponse<InputStream>> sent = exchange.get();
+                if (sent != null) {
+                    sent.cancel(true);
+                    // Already answered: nobody will parse it, so close the body to free the connection
+                    sent.thenAccept(SerpstatApiClient::discardBody);
+                }
+            }
+        });
+        return call;
+    }
+
+    private static void discardBody(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException e) {
+            log.debug("Could not close an abandoned response body", e);
+        }
+    }
+
+    /**
+     * Feeds the status and latency of a response to the adaptive rate controller of its token
+     */
+    private HttpResponse<InputStream> observe(HttpResponse<InputStream> response, TokenPool.Token token,
+                                              long sentAt) {
+        AdaptiveRateController rateController = token.controller;
+        if (rateController != null) {
+            int status = response.statusCode();
+            if (status == 200) {
+                rateController.onSuccess(Duration.ofNanos(System.nanoTime() - sentAt));
+            } else if (status == 429) {
+                rateController.onThrottled(AdaptiveRateController.parseRetryAfter(
+                        response.headers().firstValue("Retry-After").orElse(null)));
+            } else if (status >= 500) {
+                rateController.onServerError(status);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * @param jsonBody the envelope, streamed straight to UTF-8 bytes by {@link RequestBodyWriter}
+     */
+    private HttpRequest buildRequest(byte[] jsonBody, TokenPool.Token token) {
+        // Create an HTTP request with explicit UTF-8 charset
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(getApiUrl() + "/?token=" + token.value()))
+                .header("Content-Type", "application/json; charset=UTF-8")
+                .header("Accept", "application/json; charset=UTF-8")
+                .header("Accept-Charset", "UTF-8")
+                .header("User-Agent", "Serpstat MCP Server Java/" + this.version);
+        if (compression) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        return builder
+                .POST(HttpRequest.BodyPublishers.ofByteArray(jsonBody))
+                .timeout(getRequestTimeout())
+                .build();
+    }
+
+    private SerpstatApiResponse parseResponse(HttpResponse<InputStream> response, String method,
+                                              Map<String, Object> params) throws SerpstatApiException {
+        try (InputStream raw = response.body(); InputStream body = decoded(response, raw)) {
+            if (response.statusCode() != 200) {
+                throw new SerpstatApiException("HTTP Error: " + response.statusCode() + " - "
+                        + new String(body.readAllBytes(), StandardCharsets.UTF_8),
+                        response.statusCode(), SerpstatApiException.HTTP_ERROR);
+            }
+
+            // Parse the UTF-8 stream directly; a JSON-RPC error fails before the rest is read
+            return new SerpstatApiResponse(responseParser.parseResult(body), method, params);
+        } catch (IOException e) {
             throw new SerpstatApiException("Request failed: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Unzips a gzip-encoded body on the fly as the parser reads it
+     */
+    private static InputStream decoded(HttpResponse<?> response, InputStream raw) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.trim().equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzip ? new GZIPInputStream(raw, GZIP_BUFFER_BYTES) : raw;
+    }
+
+    /**
+     * Expires each entry after its method's TTL, counted from when the response was fetched,
+     * so responses restored from the disk tier only live out the rest of their lifetime
+     */
+    private record PolicyExpiry(CachePolicyRegistry policies) implements Expiry<CacheKey, CompactResponse> {
+
+        @Override
+        public long expireAfterCreate(CacheKey key, CompactResponse response, long currentTime) {
+            return policies.policyFor(key.getMethod())
+                    .remainingNanos(response.getTimestamp(), System.currentTimeMillis());
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKey key, CompactResponse response,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, response, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(CacheKey key, CompactResponse response,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Entities of a list call found in cache, to be merged with the rows fetched for the others
+     */
+    private static final class EntityHits {
+
+        private final SerpstatApiResponse[] cached;
+        private SerpstatApiResponse newest;
+        private long oldestTimestamp = Long.MAX_VALUE;
+        private boolean stale;
+
+        private EntityHits(int entities) {
+            this.cached = new SerpstatApiResponse[entities];
+        }
+
+        void add(int index, SerpstatApiResponse hit) {
+            cached[index] = hit;
+            oldestTimestamp = Math.min(oldestTimestamp, hit.getTimestamp());
+            stale |= hit.isStale();
+            if (newest == null || hit.getTimestamp() > newest.getTimestamp()) {
+                newest = hit;
+            }
+        }
+
+        /**
+         * The response to the whole call: rows in the order their entities were requested (rows
+         * matching no requested entity last), the summary of the freshest data, and the age of the
+         * oldest, so the caller can tell how old the data is
+         */
+        SerpstatApiResponse assemble(String method, Map<String, Object> params, EntitySplitRegistry.Split split,
+                                     List<?> entities, SerpstatApiResponse fetched) {
+            Map<String, JsonNode> fetchedById = new LinkedHashMap<>();
+            if (fetched != null && fetched.getResult().get("data") instanceof ArrayNode rows) {
+                for (JsonNode row : rows) {
+                    fetchedById.putIfAbsent(split.idOfRow(row), row);
+                }
+            }
+            ArrayNode data = JsonNodeFactory.instance.arrayNode();
+            Set<String> requested = new HashSet<>();
+            for (int i = 0; i < entities.size(); i++) {
+                String id = split.idOf(entities.get(i));
+                requested.add(id);
+                if (cached[i] != null) {
+                    if (cached[i].getResult().get("data") instanceof ArrayNode rows) {
+                        data.addAll(rows);
+                    }
+                } else if (fetchedById.containsKey(id)) {
+                    data.add(fetchedById.get(id));
+                }
+            }
+            fetchedById.forEach((id, row) -> {
+                if (!requested.contains(id)) {
+                    data.add(row);
+                }
+            });
+
+            SerpstatApiResponse source = fetched != null ? fetched : newest;
+            ObjectNode result = JsonNodeFactory.instance.objectNode();
+            result.set("data", data);
+            if (source.getResult() != null && source.getResult().has("summary_info")) {
+                result.set("summary_info", source.getResult().get("summary_info"));
+            }
+            long timestamp = fetched == null ? oldestTimestamp : Math.min(oldestTimestamp, fetched.getTimestamp());
+            SerpstatApiResponse response = new SerpstatApiResponse(result, method, params, timestamp);
+            return stale ? response.asStale() : response;
+        }
+    }
+
+    /**
+     * Maps a failure coming out of an async stage to the exception type the tool handlers expect
+     */
+    private static SerpstatApiException unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof SerpstatApiException apiException) {
+            return apiException;
+        }
+        return new SerpstatApiException("Request failed: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,179 @@
+package com.serpstat.core;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Tunables for SerpstatApiClient. Everything has a default, and
+ * {@code SerpstatApiClientConfig.builder().build()} gives the client the MCP server runs with:
+ * <ul>
+ *     <li>10 requests per second per token to start with, adapted between 1 and 20, and no call
+ *     kept waiting for a permit more than 5 s behind other lanes</li>
+ *     <li>{@link RetryPolicy#defaults() retries} of idempotent calls, and a circuit breaker per
+ *     endpoint opening for 30 s after 5 consecutive failures</li>
+ *     <li>HTTP/2 with gzip-compressed responses, a 30 s request timeout and two pools of 4 threads</li>
+ *     <li>a 128 MB in-memory cache with per-method TTLs ({@link CachePolicyRegistry#defaults()}),
+ *     list calls cached per entity, and Serpstat's errors repeated locally for 60 s; no disk cache</li>
+ *     <li>no credit budgets and no hedging</li>
+ *     <li>up to 32 tenants besides the client's own, idle ones dropped after an hour, with half the
+ *     cache kept for the client's own tokens</li>
+ * </ul>
+ */
+@Getter
+@Builder(toBuilder = true)
+public class SerpstatApiClientConfig {
+
+    public static final String SERPSTAT_API_URL = "https://api.serpstat.com/v4";
+
+    @Builder.Default
+    private final String apiUrl = SERPSTAT_API_URL;
+
+    @Builder.Default
+    private final Duration requestTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Directory of the persistent L2 response cache; null disables it
+     */
+    private final Path diskCacheDirectory;
+
+    /**
+     * Size cap of the persistent L2 response cache
+     */
+    @Builder.Default
+    private final long diskCacheMaxBytes = 512L * 1024 * 1024;
+
+    /**
+     * Approximate heap budget of the in-memory response cache, weighed by {@link ResponseWeigher}
+     */
+    @Builder.Default
+    private final long memoryCacheMaxBytes = 128L * 1024 * 1024;
+
+    /**
+     * Per-method expiry of cached responses
+     */
+    @Builder.Default
+    private final CachePolicyRegistry cachePolicies = CachePolicyRegistry.defaults();
+
+    /**
+     * Methods taking a list of domains or keywords whose responses are cached per entity
+     */
+    @Builder.Default
+    private final EntitySplitRegistry entitySplits = EntitySplitRegistry.defaults();
+
+    /**
+     * How long calls Serpstat rejected with a JSON-RPC error keep failing locally; zero disables it
+     */
+    @Builder.Default
+    private final Duration negativeCacheTtl = Duration.ofSeconds(60);
+
+    /**
+     * Starting upstream request rate, in requests per second
+     */
+    @Builder.Default
+    private final double requestsPerSecond = 10;
+
+    /**
+     * Let {@link AdaptiveRateController} move the rate between the min and max below
+     */
+    @Builder.Default
+    private final boolean adaptiveRateControl = true;
+
+    @Builder.Default
+    private final double minRequestsPerSecond = 1;
+
+    @Builder.Default
+    private final double maxRequestsPerSecond = 20;
+
+    /**
+     * Retries of failed idempotent calls; {@link RetryPolicy#none()} disables them
+     */
+    @Builder.Default
+    private final RetryPolicy retryPolicy = RetryPolicy.defaults();
+
+    /**
+     * Consecutive upstream failures of one endpoint that open its {@link CircuitBreaker}
+     */
+    @Builder.Default
+    private final int circuitFailureThreshold = 5;
+
+    /**
+     * How long an open circuit rejects calls before letting a probe through
+     */
+    @Builder.Default
+    private final Duration circuitOpenDuration = Duration.ofSeconds(30);
+
+    /**
+     * Backup requests for slow read calls; disabled by default since every backup costs credits
+     */
+    @Builder.Default
+    private final HedgingPolicy hedgingPolicy = HedgingPolicy.disabled();
+
+    /**
+     * Preferred HTTP version; HTTP/2 falls back to HTTP/1.1 when the server does not negotiate it
+     */
+    @Builder.Default
+    private final HttpClient.Version httpVersion = HttpClient.Version.HTTP_2;
+
+    /**
+     * Size of each of the two bounded pools: transport I/O and response parsing
+     */
+    @Builder.Default
+    private final int transportThreads = 4;
+
+    /**
+     * Ask Serpstat for gzip-compressed responses
+     */
+    @Builder.Default
+    private final boolean compression = true;
+
+    /**
+     * Credits the calls of each tenant may spend, checked before each call ({@link CreditBudgetManager}); 0 for no limit
+     */
+    @Builder.Default
+    private final long creditBudget = 0;
+
+    /**
+     * Credits each MCP session may spend; 0 for no limit
+     */
+    @Builder.Default
+    private final long sessionCreditBudget = 0;
+
+    /**
+     * Credits each tool may spend, keyed by the name the tool handler reports its calls under
+     */
+    @Builder.Default
+    private final Map<String, Long> toolCreditBudgets = Map.of();
+
+    /**
+     * How long the tokens, budgets and cache share of a tenant ({@link TenantContext}) outlive its last call
+     */
+    @Builder.Default
+    private final Duration tenantIdleTimeout = Duration.ofHours(1);
+
+    /**
+     * Tenants kept at once besides the one of the client's own tokens; past it, the least used are dropped
+     */
+    @Builder.Default
+    private final int maxTenants = 32;
+
+    /**
+     * Share of the in-memory cache kept for the tenant of the client's own tokens however many tenants join
+     */
+    @Builder.Default
+    private final double defaultTenantCacheShare = 0.5;
+
+    /**
+     * A call waiting this long for a rate limit permit goes next whatever its lane ({@link RequestScheduler})
+     */
+    @Builder.Default
+    private final Duration laneStarvationThreshold = Duration.ofSeconds(5);
+
+    public static SerpstatApiClientConfig defaults() {
+        return builder().build();
+    }
+}
@@ -5,6 +5,27 @@ import lombok.Getter;
 @Getter
 public class SerpstatApiException extends Exception {
 
+    /**
+     * Error type of failures reported in the JSON-RPC {@code error} member; the code is Serpstat's
+     */
+    public static final String API_ERROR = "api_error";
+
+    /**
+     * Error type of non-200 HTTP responses; the code is the HTTP status
+     */
+    public static final String HTTP_ERROR = "http_error";
+
+    /**
+     * Error type of calls failed fast because Serpstat is considered down (see {@link CircuitBreaker})
+     */
+    public static final String CIRCUIT_OPEN = "circuit_open";
+
+    /**
+     * Error type of calls rejected before going upstream because their estimated cost does not fit
+     * a credit budget (see {@link CreditBudgetManager})
+     */
+    public static final String BUDGET_EXCEEDED = "budget_exceeded";
+
     private final Integer errorCode;
     private final String errorType;
 
@@ -0,0 +1,374 @@
+package com.serpstat.core;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and gauges describing how SerpstatApiClient serves calls.
+ * All metrics are lock-free and safe to update from any thread.
+ */
+public class SerpstatApiMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder diskCacheHits = new LongAdder();
+    private final LongAdder entityCacheHits = new LongAdder();
+    private final LongAdder entityCacheMisses = new LongAdder();
+    private final LongAdder negativeCacheHits = new LongAdder();
+    private final LongAdder negativeCacheMisses = new LongAdder();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder backgroundRefreshes = new LongAdder();
+    private final LongAdder throttledResponses = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder circuitRejections = new LongAdder();
+    private final LongAdder circuitTrips = new LongAdder();
+    private final LongAdder openCircuits = new LongAdder();
+    private final LongAdder hedgedCalls = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder skippedHedges = new LongAdder();
+    private final LongAdder budgetRejections = new LongAdder();
+    private final LongAdder creditsSpent = new LongAdder();
+    private final DoubleAdder effectiveRate = new DoubleAdder();
+    private final Map<RequestScheduler.Lane, LongAdder> scheduledCalls = new EnumMap<>(RequestScheduler.Lane.class);
+    private final Map<RequestScheduler.Lane, LongAdder> queueNanos = new EnumMap<>(RequestScheduler.Lane.class);
+    private final Map<RequestScheduler.Lane, LongAccumulator> maxQueueNanos =
+            new EnumMap<>(RequestScheduler.Lane.class);
+
+    public SerpstatApiMetrics() {
+        for (RequestScheduler.Lane lane : RequestScheduler.Lane.values()) {
+            scheduledCalls.put(lane, new LongAdder());
+            queueNanos.put(lane, new LongAdder());
+            maxQueueNanos.put(lane, new LongAccumulator(Math::max, 0));
+        }
+    }
+
+    void recordRequest() {
+        requests.increment();
+    }
+
+    void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    void recordDiskCacheHit() {
+        diskCacheHits.increment();
+    }
+
+    void recordEntityCacheHit() {
+        entityCacheHits.increment();
+    }
+
+    void recordEntityCacheMiss() {
+        entityCacheMisses.increment();
+    }
+
+    void recordNegativeCacheHit() {
+        negativeCacheHits.increment();
+    }
+
+    void recordNegativeCacheMiss() {
+        negativeCacheMisses.increment();
+    }
+
+    void recordUpstreamCall() {
+        upstreamCalls.increment();
+    }
+
+    void recordCoalescedCall() {
+        coalescedCalls.increment();
+    }
+
+    void recordFailure() {
+        failedCalls.increment();
+    }
+
+    void recordStaleHit() {
+        staleHits.increment();
+    }
+
+    void recordBackgroundRefresh() {
+        backgroundRefreshes.increment();
+    }
+
+    void recordThrottledResponse() {
+        throttledResponses.increment();
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordCircuitRejection() {
+        circuitRejections.increment();
+    }
+
+    void recordCircuitOpened() {
+        circuitTrips.increment();
+        openCircuits.increment();
+    }
+
+    void recordCircuitClosed() {
+        openCircuits.decrement();
+    }
+
+    void recordHedgedCall() {
+        hedgedCalls.increment();
+    }
+
+    void recordHedgeWin() {
+        hedgeWins.increment();
+    }
+
+    void recordSkippedHedge() {
+        skippedHedges.increment();
+    }
+
+    void recordBudgetRejection() {
+        budgetRejections.increment();
+    }
+
+    void recordCreditsSpent(long credits) {
+        creditsSpent.add(credits);
+    }
+
+    void recordQueueTime(RequestScheduler.Lane lane, long nanos) {
+        scheduledCalls.get(lane).increment();
+        queueNanos.get(lane).add(nanos);
+        maxQueueNanos.get(lane).accumulate(nanos);
+    }
+
+    /**
+     * Each API token's limiter reports the change of its rate; the gauge is their sum
+     */
+    void adjustEffectiveRate(double delta) {
+        effectiveRate.add(delta);
+    }
+
+    /**
+     * Total calls received by the client
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Calls answered from the response cache
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Calls answered from the persistent L2 cache
+     */
+    public long getDiskCacheHits() {
+        return diskCacheHits.sum();
+    }
+
+    /**
+     * Entities of list calls (domains, keywords) served from their own cache entry
+     */
+    public long getEntityCacheHits() {
+        return entityCacheHits.sum();
+    }
+
+    /**
+     * Entities of list calls that had to be fetched
+     */
+    public long getEntityCacheMisses() {
+        return entityCacheMisses.sum();
+    }
+
+    /**
+     * Calls failed from the negative cache with the error Serpstat gave an identical call shortly before
+     */
+    public long getNegativeCacheHits() {
+        return negativeCacheHits.sum();
+    }
+
+    /**
+     * Calls missing both the response cache and the negative cache
+     */
+    public long getNegativeCacheMisses() {
+        return negativeCacheMisses.sum();
+    }
+
+    /**
+     * HTTP round trips actually made to Serpstat
+     */
+    public long getUpstreamCalls() {
+        return upstreamCalls.sum();
+    }
+
+    /**
+     * Calls that attached to an identical request already in flight instead of going upstream
+     */
+    public long getCoalescedCalls() {
+        return coalescedCalls.sum();
+    }
+
+    /**
+     * Upstream calls that completed with an error
+     */
+    public long getFailedCalls() {
+        return failedCalls.sum();
+    }
+
+    /**
+     * Cache hits served past their soft TTL while a refresh ran in the background
+     */
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    /**
+     * Background refreshes started for stale entries
+     */
+    public long getBackgroundRefreshes() {
+        return backgroundRefreshes.sum();
+    }
+
+    /**
+     * Calls Serpstat rejected with HTTP 429
+     */
+    public long getThrottledResponses() {
+        return throttledResponses.sum();
+    }
+
+    /**
+     * Upstream attempts that repeated a failed call
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Calls failed fast because the circuit of their endpoint was open
+     */
+    public long getCircuitRejections() {
+        return circuitRejections.sum();
+    }
+
+    /**
+     * Times a circuit opened after consecutive upstream failures
+     */
+    public long getCircuitTrips() {
+        return circuitTrips.sum();
+    }
+
+    /**
+     * Endpoints whose circuit is currently open or half-open
+     */
+    public long getOpenCircuits() {
+        return openCircuits.sum();
+    }
+
+    /**
+     * Backup requests sent for calls slower than their method's tail latency
+     */
+    public long getHedgedCalls() {
+        return hedgedCalls.sum();
+    }
+
+    /**
+     * Hedged calls answered by the backup request first
+     */
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * Backup requests not sent because the hedge budget or the rate limit did not allow them
+     */
+    public long getSkippedHedges() {
+        return skippedHedges.sum();
+    }
+
+    /**
+     * Calls rejected because their estimated cost did not fit a credit budget
+     */
+    public long getBudgetRejections() {
+        return budgetRejections.sum();
+    }
+
+    /**
+     * Credits charged for answered upstream calls, judging by the rows returned
+     */
+    public long getCreditsSpent() {
+        return creditsSpent.sum();
+    }
+
+    /**
+     * Upstream request rate currently allowed, in requests per second
+     */
+    public double getEffectiveRate() {
+        return effectiveRate.sum();
+    }
+
+    /**
+     * Upstream calls of a scheduler lane that were granted a rate limit permit
+     */
+    public long getScheduledCalls(RequestScheduler.Lane lane) {
+        return scheduledCalls.get(lane).sum();
+    }
+
+    /**
+     * Total time calls of a lane waited for a rate limit permit, in milliseconds
+     */
+    public long getQueueTimeMillis(RequestScheduler.Lane lane) {
+        return TimeUnit.NANOSECONDS.toMillis(queueNanos.get(lane).sum());
+    }
+
+    /**
+     * Longest time a call of a lane waited for a rate limit permit, in milliseconds
+     */
+    public long getMaxQueueTimeMillis(RequestScheduler.Lane lane) {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueNanos.get(lane).get());
+    }
+
+    /**
+     * Point-in-time copy of all metrics, keyed by metric name
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        snapshot.put("requests", getRequests());
+        snapshot.put("cache_hits", getCacheHits());
+        snapshot.put("disk_cache_hits", getDiskCacheHits());
+        snapshot.put("entity_cache_hits", getEntityCacheHits());
+        snapshot.put("entity_cache_misses", getEntityCacheMisses());
+        snapshot.put("negative_cache_hits", getNegativeCacheHits());
+        snapshot.put("negative_cache_misses", getNegativeCacheMisses());
+        snapshot.put("upstream_calls", getUpstreamCalls());
+        snapshot.put("coalesced_calls", getCoalescedCalls());
+        snapshot.put("failed_calls", getFailedCalls());
+        snapshot.put("stale_hits", getStaleHits());
+        snapshot.put("background_refreshes", getBackgroundRefreshes());
+        snapshot.put("throttled_responses", getThrottledResponses());
+        snapshot.put("retries", getRetries());
+        snapshot.put("circuit_rejections", getCircuitRejections());
+        snapshot.put("circuit_trips", getCircuitTrips());
+        snapshot.put("open_circuits", getOpenCircuits());
+        snapshot.put("hedged_calls", getHedgedCalls());
+        snapshot.put("hedge_wins", getHedgeWins());
+        snapshot.put("skipped_hedges", getSkippedHedges());
+        snapshot.put("budget_rejections", getBudgetRejections());
+        snapshot.put("credits_spent", getCreditsSpent());
+        snapshot.put("effective_rate", getEffectiveRate());
+        for (RequestScheduler.Lane lane : RequestScheduler.Lane.values()) {
+            String name = lane.name().toLowerCase(Locale.ROOT);
+            snapshot.put("scheduled_calls_" + name, getScheduledCalls(lane));
+            snapshot.put("queue_time_ms_" + name, getQueueTimeMillis(lane));
+            snapshot.put("max_queue_time_ms_" + name, getMaxQueueTimeMillis(lane));
+        }
+        return snapshot;
+    }
+}
@@ -5,7 +5,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Getter;
 
 /**
- * Serpstat API response wrapper
+ * Serpstat API response wrapper.
+ * Responses served from the cache past their method's soft TTL are marked stale; a fresh copy is
+ * being fetched in the background.
  */
 @Getter
 public class SerpstatApiResponse {
@@ -14,12 +16,40 @@ public class SerpstatApiResponse {
     private final String method;
     private final Map<String, Object> requestParams;
     private final long timestamp;
+    private final boolean stale;
 
     public SerpstatApiResponse(JsonNode result, String method, Map<String, Object> requestParams) {
+        this(result, method, requestParams, System.currentTimeMillis());
+    }
+
+    /**
+     * Constructor for responses restored from a cache, keeping the time they were fetched
+     */
+    public SerpstatApiResponse(JsonNode result, String method, Map<String, Object> requestParams, long timestamp) {
+        this(result, method, requestParams, timestamp, false);
+    }
+
+    private SerpstatApiResponse(JsonNode result, String method, Map<String, Object> requestParams,
+                                long timestamp, boolean stale) {
         this.result = result;
         this.method = method;
         this.requestParams = requestParams;
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = timestamp;
+        this.stale = stale;
+    }
+
+    /**
+     * Milliseconds since this data was fetched from Serpstat
+     */
+    public long getAgeMillis() {
+        return Math.max(0, System.currentTimeMillis() - timestamp);
+    }
+
+    /**
+     * Copy of this response marked as served past its soft TTL
+     */
+    SerpstatApiResponse asStale() {
+        return stale ? this : new SerpstatApiResponse(result, method, requestParams, timestamp, true);
     }
 
 }
@@ -0,0 +1,136 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Parses Serpstat JSON-RPC envelopes straight from the HTTP byte stream.
+ * <p>
+ * Only the {@code result} subtree is materialized; other envelope fields are skipped token by
+ * token, and an {@code error} member fails the call as soon as it is read. No intermediate String
+ * copy of the body is made, and the parser decodes UTF-8 (Cyrillic keywords included) itself.
+ */
+final class SerpstatResponseParser {
+
+    private final ObjectMapper objectMapper;
+
+    SerpstatResponseParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the envelope and returns its {@code result} member, or null when there is none
+     */
+    JsonNode parseResult(InputStream body) throws IOException, SerpstatApiException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            expectEnvelope(parser);
+            JsonNode result = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("error".equals(field)) {
+                    failOnError(parser);
+                } else if ("result".equals(field)) {
+                    result = parser.readValueAsTree();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Positions a cursor on the rows of {@code result.data}, so callers can start working on the first
+     * row before the rest of the page has arrived. Envelope members after {@code data} are not read.
+     */
+    RowCursor openRows(InputStream body) throws IOException, SerpstatApiException {
+        JsonParser parser = objectMapper.createParser(body);
+        try {
+            expectEnvelope(parser);
+            if (!seekField(parser, "result") || parser.currentToken() != JsonToken.START_OBJECT
+                    || !seekField(parser, "data") || parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.close();
+                return RowCursor.EMPTY;
+            }
+            return new RowCursor(parser);
+        } catch (IOException | SerpstatApiException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    private static void expectEnvelope(JsonParser parser) throws IOException, SerpstatApiException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new SerpstatApiException("Request failed: response is not a JSON object");
+        }
+    }
+
+    /**
+     * Advances within the current object to the value of {@code name}, failing fast on a JSON-RPC error
+     */
+    private static boolean seekField(JsonParser parser, String name) throws IOException, SerpstatApiException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (name.equals(field)) {
+                return true;
+            }
+            if ("error".equals(field)) {
+                failOnError(parser);
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static void failOnError(JsonParser parser) throws IOException, SerpstatApiException {
+        JsonNode error = parser.readValueAsTree();
+        if (error != null && !error.isNull()) {
+            JsonNode code = error.path("code");
+            throw new SerpstatApiException("Serpstat API Error: " + error.path("message").asText(),
+                    code.canConvertToInt() ? code.intValue() : null, SerpstatApiException.API_ERROR);
+        }
+    }
+
+    /**
+     * Forward-only iteration over the rows of a response page. Close it to release the connection.
+     */
+    static class RowCursor implements Closeable {
+
+        static final RowCursor EMPTY = new RowCursor(null);
+
+        private final JsonParser parser;
+
+        private RowCursor(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        /**
+         * The next row, or null after the last one
+         */
+        JsonNode next() throws IOException {
+            if (parser == null) {
+                return null;
+            }
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            return parser.readValueAsTree();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (parser != null) {
+                parser.close();
+            }
+        }
+    }
+}
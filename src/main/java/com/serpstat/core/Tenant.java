@@ -0,0 +1,76 @@
+package com.serpstat.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * What {@link SerpstatApiClient} keeps per tenant ({@link TenantContext}): the API tokens its calls
+ * go out with, each with its own rate limiter, the scheduler handing out their permits, its credit
+ * budgets, its calls in flight, the errors its calls were answered with and its partition of the
+ * in-memory cache. One tenant's calls therefore never coalesce with, wait behind, evict the cached
+ * responses of, or fail with an error cached for another's (errors may depend on the account's plan).
+ * <p>
+ * A tenant gets its share of the in-memory cache only once admitted, when Serpstat first answered a
+ * call sent with its tokens, so made-up tokens cannot take cache room from anyone.
+ */
+final class Tenant {
+
+    final String id;
+    final TokenPool tokens;
+    final RequestScheduler scheduler;
+    final Cache<CacheKey, CompactResponse> cache;
+    // Only the tenant of the client's own tokens persists responses
+    final DiskResponseCache diskCache;
+    final CreditBudgetManager creditBudgets;
+    // Null when the negative cache is disabled
+    final NegativeResponseCache negativeCache;
+    final ConcurrentMap<CacheKey, CompletableFuture<SerpstatApiResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean admitted = new AtomicBoolean();
+
+    Tenant(String id, TokenPool tokens, Cache<CacheKey, CompactResponse> cache, DiskResponseCache diskCache,
+           SerpstatApiClientConfig config, SerpstatApiMetrics metrics) {
+        this.id = id;
+        this.tokens = tokens;
+        this.scheduler = new RequestScheduler(tokens, config.getLaneStarvationThreshold(), metrics);
+        this.cache = cache;
+        this.diskCache = diskCache;
+        this.creditBudgets = new CreditBudgetManager(config.getCreditBudget(), config.getSessionCreditBudget(),
+                config.getToolCreditBudgets(), metrics, tokens::getCreditsLeft);
+        this.negativeCache = config.getNegativeCacheTtl().isZero()
+                ? null
+                : new NegativeResponseCache(config.getNegativeCacheTtl());
+    }
+
+    boolean isAdmitted() {
+        return admitted.get();
+    }
+
+    /**
+     * Marks the tenant admitted; true for the caller that did it first
+     */
+    boolean admit() {
+        return admitted.compareAndSet(false, true);
+    }
+
+    /**
+     * Sets the heap budget of this tenant's cache partition, evicting its own entries if it shrank
+     */
+    void resize(long maxBytes) {
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(Math.max(1, maxBytes)));
+    }
+
+    long cachedBytes() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    @Override
+    public String toString() {
+        return "Tenant{" + id + '}';
+    }
+}
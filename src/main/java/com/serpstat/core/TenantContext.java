@@ -0,0 +1,101 @@
+package com.serpstat.core;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * A tenant of the server: whoever sends calls with a given set of Serpstat API tokens. While a
+ * tenant is bound to a thread ({@link #bind()}), {@link SerpstatApiClient} sends that thread's calls
+ * with the tenant's tokens, under the tenant's rate limits and credit budgets, and caches the answers
+ * in the tenant's share of the in-memory cache. Threads with no tenant bound act for the tenant of
+ * the tokens the client was created with.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<TenantContext> CURRENT = new ThreadLocal<>();
+
+    private final String id;
+    private final List<String> apiTokens;
+
+    private TenantContext(String id, List<String> apiTokens) {
+        this.id = id;
+        this.apiTokens = apiTokens;
+    }
+
+    /**
+     * The tenant calling with these API tokens
+     */
+    public static TenantContext of(List<String> apiTokens) {
+        if (apiTokens == null || apiTokens.isEmpty()) {
+            throw new IllegalArgumentException("A tenant needs at least one API token");
+        }
+        List<String> tokens = apiTokens.stream().distinct().toList();
+        return new TenantContext(idOf(tokens), tokens);
+    }
+
+    /**
+     * The tenant bound to the current thread, or null
+     */
+    public static TenantContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this the tenant of the current thread until the returned scope is closed
+     */
+    public Scope bind() {
+        TenantContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Stable identifier derived from the tokens, so it can be logged without leaking them
+     */
+    public String getId() {
+        return id;
+    }
+
+    public List<String> getApiTokens() {
+        return apiTokens;
+    }
+
+    /**
+     * The same set of tokens, in any order, is the same tenant
+     */
+    static String idOf(List<String> apiTokens) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            apiTokens.stream().map(String::valueOf).distinct().sorted().forEach(token -> {
+                digest.update(token.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) ',');
+            });
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Tenant{" + id + '}';
+    }
+
+    /**
+     * Closes a {@link #bind()}, restoring the tenant that was bound before
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,253 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Serpstat API tokens a client sends calls with. Each token has its own rate limiter (and
+ * adaptive controller), since Serpstat limits each token on its own, so upstream throughput grows
+ * with the number of tokens. Each call goes to the token that can send soonest, preferring the one
+ * with the most credits left (as reported by {@code summary_info.left_lines}). Tokens that run out
+ * of credits or fail authentication are dropped from rotation, except the last one, which keeps
+ * reporting its own errors.
+ */
+final class TokenPool {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenPool.class);
+
+    static final long UNKNOWN = -1;
+
+    // JSON-RPC code Serpstat rejects an invalid or revoked token with, sent with either sign. Running
+    // out of credits shows in left_lines first (see onResponse).
+    private static final Set<Integer> TOKEN_ERROR_CODES = Set.of(32001);
+
+    private final List<Token> tokens;
+    private final AtomicInteger active;
+    private final SerpstatApiMetrics metrics;
+    // Rotates where the scan starts, so idle tokens with equal headroom share the load
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    TokenPool(List<String> apiTokens, SerpstatApiClientConfig config, SerpstatApiMetrics metrics) {
+        if (apiTokens.isEmpty()) {
+            throw new IllegalArgumentException("At least one API token is required");
+        }
+        this.tokens = apiTokens.stream().map(value -> new Token(value, config, metrics)).toList();
+        this.active = new AtomicInteger(tokens.size());
+        this.metrics = metrics;
+    }
+
+    /**
+     * The token whose rate limiter grants a permit soonest; ties go to the one with more credits left
+     */
+    Token select() {
+        int size = tokens.size();
+        if (size == 1) {
+            return tokens.get(0);
+        }
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        Token best = null;
+        long bestWait = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Token token = tokens.get((start + i) % size);
+            if (!token.isActive()) {
+                continue;
+            }
+            long wait = token.limiter.getEstimatedWait().toNanos();
+            if (best == null || wait < bestWait || (wait == bestWait && token.credits() > best.credits())) {
+                best = token;
+                bestWait = wait;
+            }
+        }
+        return best == null ? tokens.get(0) : best;
+    }
+
+    /**
+     * A token with a rate limit permit free right now, permit taken: the one {@link #select()} prefers
+     * when it has one, else any; null when every token is busy
+     */
+    Token reserveNow() {
+        Token preferred = select();
+        if (preferred.isActive() && preferred.limiter.reserve(0) >= 0) {
+            return preferred;
+        }
+        int size = tokens.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Token token = tokens.get((start + i) % size);
+            if (token.isActive() && token.limiter.reserve(0) >= 0) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Time until some token in rotation has a permit free
+     */
+    Duration getEstimatedWait() {
+        Duration soonest = null;
+        for (Token token : tokens) {
+            if (token.isActive()) {
+                Duration wait = token.limiter.getEstimatedWait();
+                if (soonest == null || wait.compareTo(soonest) < 0) {
+                    soonest = wait;
+                }
+            }
+        }
+        return soonest == null ? Duration.ZERO : soonest;
+    }
+
+    /**
+     * Credits left across all tokens in rotation, as last reported; {@link #UNKNOWN} until every
+     * one of them has reported
+     */
+    long getCreditsLeft() {
+        long total = 0;
+        for (Token token : tokens) {
+            if (token.isActive()) {
+                long credits = token.creditsLeft.get();
+                if (credits == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                total += credits;
+            }
+        }
+        return total;
+    }
+
+    int size() {
+        return tokens.size();
+    }
+
+    int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * The pool is no longer used: its tokens stop counting towards the effective upstream rate
+     */
+    void release() {
+        for (Token token : tokens) {
+            double rate = token.controller == null ? token.limiter.getRate() : token.controller.getRate();
+            metrics.adjustEffectiveRate(-rate);
+        }
+    }
+
+    /**
+     * Takes the credit balance a response reports, dropping the token once it is used up
+     */
+    void onResponse(Token token, JsonNode result) {
+        JsonNode left = result == null ? null : result.path("summary_info").get("left_lines");
+        if (left != null && left.canConvertToLong()) {
+            token.creditsLeft.set(Math.max(0, left.asLong()));
+            if (left.asLong() <= 0) {
+                drop(token, "no credits left");
+            }
+        }
+    }
+
+    /**
+     * Drops the token when Serpstat rejected it rather than the call
+     */
+    void onFailure(Token token, SerpstatApiException failure) {
+        if (isTokenFailure(failure)) {
+            drop(token, failure.getMessage());
+        }
+    }
+
+    /**
+     * Failures caused by the token the call was sent with: authentication and exhausted credits.
+     * Decided on the status or error code only; the message may echo the call's own parameters.
+     */
+    static boolean isTokenFailure(SerpstatApiException failure) {
+        Integer code = failure.getErrorCode();
+        if (code == null) {
+            return false;
+        }
+        if (SerpstatApiException.HTTP_ERROR.equals(failure.getErrorType())) {
+            return code == 401 || code == 403;
+        }
+        return SerpstatApiException.API_ERROR.equals(failure.getErrorType())
+                && TOKEN_ERROR_CODES.contains(Math.abs(code));
+    }
+
+    private void drop(Token token, String reason) {
+        while (true) {
+            int remaining = active.get();
+            if (remaining <= 1 || !token.isActive()) {
+                return;
+            }
+            if (active.compareAndSet(remaining, remaining - 1)) {
+                break;
+            }
+        }
+        if (token.disable()) {
+            log.warn("API token {} dropped from rotation: {}", token.label, reason);
+        } else {
+            active.incrementAndGet();
+        }
+    }
+
+    /**
+     * One API token and the rate it may be used at
+     */
+    static final class Token {
+
+        private final String value;
+        private final String label;
+        final RateLimiter limiter;
+        final AdaptiveRateController controller;
+        private final AtomicLong creditsLeft = new AtomicLong(UNKNOWN);
+        private final AtomicBoolean dropped = new AtomicBoolean();
+
+        private Token(String value, SerpstatApiClientConfig config, SerpstatApiMetrics metrics) {
+            this.value = value;
+            this.label = mask(value);
+            int initialRate = (int) Math.max(1, Math.round(config.getRequestsPerSecond()));
+            this.limiter = new RateLimiter(initialRate, Duration.ofSeconds(1));
+            if (config.isAdaptiveRateControl()) {
+                this.controller = new AdaptiveRateController(limiter, metrics,
+                        config.getMinRequestsPerSecond(), config.getMaxRequestsPerSecond());
+            } else {
+                this.controller = null;
+                metrics.adjustEffectiveRate(limiter.getRate());
+            }
+        }
+
+        String value() {
+            return value;
+        }
+
+        boolean isActive() {
+            return !dropped.get();
+        }
+
+        /**
+         * Credits left as last reported, {@link #UNKNOWN} before the first report
+         */
+        long credits() {
+            return creditsLeft.get();
+        }
+
+        private boolean disable() {
+            return dropped.compareAndSet(false, true);
+        }
+
+        private static String mask(String value) {
+            return value == null || value.length() <= 4 ? "****" : value.substring(0, 4) + "****";
+        }
+
+        @Override
+        public String toString() {
+            return "Token{" + label + (isActive() ? "" : ", dropped") + '}';
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.serpstat.domains.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.serpstat.core.CreditBudgetManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pairwise keyword gaps between a domain and its competitors. The gap of domain {@code i} against
+ * domain {@code j} is what {@code getDomainsUniqKeywords} returns for {@code domains = [j]} and
+ * {@code minusDomain = i}: the keywords {@code j} ranks for and {@code i} does not. Its
+ * {@code summary_info.total} is the gap count and its rows, the {@code topK} with the highest search
+ * volume per pair, the opportunities.
+ * <p>
+ * {@link #plan()} lists the calls that fit into the credit cap, the gaps of the first domain first,
+ * then its advantages over each competitor, then the gaps between competitors. Pairs that do not fit
+ * are left out of the matrix and reported as skipped.
+ */
+final class CompetitorGapMatrix {
+
+    static final String METHOD = "SerpstatDomainProcedure.getDomainsUniqKeywords";
+
+    private static final List<String> KEYWORD_FIELDS =
+            List.of("keyword", "region_queries_count", "cost", "difficulty", "concurrency");
+
+    /**
+     * One gap call: the keywords of {@code competitor} that {@code domain} does not rank for
+     */
+    record Pair(int domain, int competitor, Map<String, Object> params) {
+    }
+
+    private final List<String> domains;
+    private final String searchEngine;
+    private final int topK;
+    private final long maxCredits;
+    private final Long[][] gaps;
+    private final ArrayNode[][] opportunities;
+    private final ArrayNode skipped = JsonNodeFactory.instance.arrayNode();
+    private final ArrayNode failed = JsonNodeFactory.instance.arrayNode();
+    private long creditsReserved;
+    private int fetched;
+    private long leftLines = Long.MAX_VALUE;
+
+    CompetitorGapMatrix(List<String> domains, String searchEngine, int topK, long maxCredits) {
+        this.domains = domains;
+        this.searchEngine = searchEngine;
+        this.topK = topK;
+        this.maxCredits = maxCredits;
+        this.gaps = new Long[domains.size()][domains.size()];
+        this.opportunities = new ArrayNode[domains.size()][domains.size()];
+    }
+
+    /**
+     * The gap calls to make, in priority order, as many as the credit cap allows
+     */
+    List<Pair> plan() {
+        int n = domains.size();
+        List<int[]> order = new ArrayList<>();
+        for (int j = 1; j < n; j++) {
+            order.add(new int[]{0, j});
+        }
+        for (int i = 1; i < n; i++) {
+            order.add(new int[]{i, 0});
+        }
+        for (int i = 1; i < n; i++) {
+            for (int j = 1; j < n; j++) {
+                if (i != j) {
+                    order.add(new int[]{i, j});
+                }
+            }
+        }
+
+        List<Pair> planned = new ArrayList<>();
+        for (int[] cell : order) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("domains", List.of(domains.get(cell[1])));
+            params.put("minusDomain", domains.get(cell[0]));
+            params.put("se", searchEngine);
+            params.put("size", topK);
+            // The API returns rows in its own order, so the page holds the top keywords only when sorted
+            params.put("sort", Map.of("region_queries_count", "desc"));
+            long credits = CreditBudgetManager.estimate(METHOD, params);
+            if (creditsReserved + credits > maxCredits) {
+                ObjectNode pair = skipped.addObject();
+                pair.put("domain", domains.get(cell[0]));
+                pair.put("competitor", domains.get(cell[1]));
+                continue;
+            }
+            creditsReserved += credits;
+            planned.add(new Pair(cell[0], cell[1], params));
+        }
+        return planned;
+    }
+
+    /**
+     * Records the answer to a planned gap call
+     */
+    void record(Pair pair, JsonNode result) {
+        JsonNode data = result == null ? null : result.get("data");
+        JsonNode summary = result == null ? null : result.get("summary_info");
+        List<JsonNode> rows = new ArrayList<>();
+        if (data != null && data.isArray()) {
+            data.forEach(rows::add);
+        }
+        JsonNode total = summary == null ? null : summary.get("total");
+        gaps[pair.domain()][pair.competitor()] = total != null && total.canConvertToLong()
+                ? total.asLong()
+                : rows.size();
+        if (summary != null && summary.has("left_lines")) {
+            leftLines = Math.min(leftLines, summary.get("left_lines").asLong());
+        }
+
+        // The page is requested by volume; sort again so the order holds whatever the API returns
+        rows.sort(Comparator.comparingLong((JsonNode row) -> row.path("region_queries_count").asLong(0))
+                .reversed());
+        ArrayNode keywords = JsonNodeFactory.instance.arrayNode();
+        for (JsonNode row : rows.subList(0, Math.min(topK, rows.size()))) {
+            ObjectNode keyword = keywords.addObject();
+            for (String field : KEYWORD_FIELDS) {
+                if (row.hasNonNull(field)) {
+                    keyword.set(field, row.get(field));
+                }
+            }
+        }
+        opportunities[pair.domain()][pair.competitor()] = keywords;
+        fetched++;
+    }
+
+    /**
+     * Records a planned gap call that failed
+     */
+    void fail(Pair pair, String message) {
+        ObjectNode failure = failed.addObject();
+        failure.put("domain", domains.get(pair.domain()));
+        failure.put("competitor", domains.get(pair.competitor()));
+        failure.put("error", message);
+    }
+
+    boolean hasResults() {
+        return fetched > 0;
+    }
+
+    /**
+     * The N x N gap matrix (row: domain, column: competitor; null on the diagonal and for pairs not
+     * fetched) and the opportunities of every fetched pair, in matrix order
+     */
+    ObjectNode toResult() {
+        ObjectNode data = JsonNodeFactory.instance.objectNode();
+        ArrayNode domainList = data.putArray("domains");
+        domains.forEach(domainList::add);
+
+        ArrayNode matrix = data.putArray("gap_matrix");
+        for (Long[] row : gaps) {
+            ArrayNode line = matrix.addArray();
+            for (Long gap : row) {
+                if (gap == null) {
+                    line.addNull();
+                } else {
+                    line.add(gap);
+                }
+            }
+        }
+
+        ArrayNode pairs = data.putArray("pairs");
+        for (int i = 0; i < domains.size(); i++) {
+            for (int j = 0; j < domains.size(); j++) {
+                if (opportunities[i][j] == null) {
+                    continue;
+                }
+                ObjectNode pair = pairs.addObject();
+                pair.put("domain", domains.get(i));
+                pair.put("competitor", domains.get(j));
+                pair.put("gap_keywords", gaps[i][j]);
+                pair.set("top_keywords", opportunities[i][j]);
+            }
+        }
+
+        ObjectNode summary = JsonNodeFactory.instance.objectNode();
+        int n = domains.size();
+        summary.put("pairs_total", n * (n - 1));
+        summary.put("pairs_fetched", fetched);
+        summary.put("credits_reserved", creditsReserved);
+        summary.put("max_credits", maxCredits);
+        if (!skipped.isEmpty()) {
+            summary.set("skipped_pairs", skipped);
+        }
+        if (!failed.isEmpty()) {
+            summary.set("failed_pairs", failed);
+        }
+        if (leftLines != Long.MAX_VALUE) {
+            summary.put("left_lines", leftLines);
+        }
+
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        result.set("data", data);
+        result.set("summary_info", summary);
+        return result;
+    }
+}
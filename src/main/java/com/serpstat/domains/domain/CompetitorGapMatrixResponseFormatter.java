@@ -0,0 +1,82 @@
+package com.serpstat.domains.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.serpstat.core.SerpstatApiResponse;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Formatter for competitor gap matrix responses
+ */
+public class CompetitorGapMatrixResponseFormatter {
+
+    public static String format(SerpstatApiResponse response, Map<String, Object> arguments, ObjectMapper mapper)
+            throws Exception {
+        JsonNode resultNode = response.getResult();
+        JsonNode data = resultNode.path("data");
+        JsonNode summary = resultNode.path("summary_info");
+
+        // Extract request parameters for context
+        String domain = (String) arguments.get("domain");
+        String searchEngine = (String) arguments.get("se");
+        Integer topK = (Integer) arguments.getOrDefault("top_k", 10);
+
+        // Create formatted response
+        ObjectNode formattedResponse = mapper.createObjectNode();
+        formattedResponse.put("status", "success");
+        formattedResponse.put("method", "competitor_gap_matrix");
+        formattedResponse.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        formattedResponse.put("domain", domain);
+        formattedResponse.put("search_engine", searchEngine);
+        formattedResponse.put("top_keywords_per_pair", topK);
+
+        // Matrix rows and columns follow the domains list
+        formattedResponse.set("domains", data.path("domains"));
+        formattedResponse.put("matrix_layout", "gap_matrix[row][column] = keywords the column domain ranks for and the row domain does not");
+        formattedResponse.set("gap_matrix", data.path("gap_matrix"));
+
+        // Biggest opportunity for the domain: the competitor with the largest gap in its row
+        JsonNode ownGaps = data.path("gap_matrix").path(0);
+        int bestColumn = -1;
+        for (int j = 1; j < ownGaps.size(); j++) {
+            if (!ownGaps.get(j).isNull()
+                    && (bestColumn < 0 || ownGaps.get(j).asLong() > ownGaps.get(bestColumn).asLong())) {
+                bestColumn = j;
+            }
+        }
+        if (bestColumn > 0) {
+            ObjectNode biggestGap = mapper.createObjectNode();
+            biggestGap.put("competitor", data.path("domains").get(bestColumn).asText());
+            biggestGap.put("gap_keywords", ownGaps.get(bestColumn).asLong());
+            formattedResponse.set("biggest_gap", biggestGap);
+        }
+
+        formattedResponse.set("pairs", data.path("pairs"));
+
+        // Coverage of the matrix and credits
+        ObjectNode apiInfo = mapper.createObjectNode();
+        apiInfo.put("pairs_total", summary.path("pairs_total").asInt(0));
+        apiInfo.put("pairs_fetched", summary.path("pairs_fetched").asInt(0));
+        apiInfo.put("credits_reserved", summary.path("credits_reserved").asLong(0));
+        apiInfo.put("max_credits", summary.path("max_credits").asLong(0));
+        if (summary.has("left_lines")) {
+            apiInfo.put("credits_remaining", summary.get("left_lines").asLong());
+        }
+        formattedResponse.set("api_info", apiInfo);
+        if (summary.has("skipped_pairs")) {
+            formattedResponse.set("skipped_pairs", summary.get("skipped_pairs"));
+        }
+        if (summary.has("failed_pairs")) {
+            formattedResponse.set("failed_pairs", summary.get("failed_pairs"));
+        }
+        if (summary.has("skipped_pairs") || summary.has("failed_pairs")) {
+            formattedResponse.put("incomplete", true);
+        }
+
+        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(formattedResponse);
+    }
+}
@@ -45,7 +45,7 @@ public class DomainResponseFormatter {
             ObjectNode summary = mapper.createObjectNode();
             double totalVisibility = 0;
             long totalTraffic = 0;
-            int totalKeywords = 0;
+            long totalKeywords = 0;
 
             for (JsonNode domainNode : dataArray) {
                 if (domainNode.has("visible")) {
@@ -55,7 +55,7 @@ public class DomainResponseFormatter {
                     totalTraffic += domainNode.get("traff").asLong();
                 }
                 if (domainNode.has("keywords")) {
-                    totalKeywords += domainNode.get("keywords").asInt();
+                    totalKeywords += domainNode.get("keywords").asLong();
                 }
             }
 
@@ -73,6 +73,14 @@ public class DomainResponseFormatter {
 
         // Add API metadata
         createSummaryInfo(mapper, resultNode, formattedResponse);
+        createFreshnessInfo(mapper, response, formattedResponse);
+
+        // Long lists are fetched in chunks; say which domains a failed chunk left out
+        JsonNode summaryInfo = resultNode.get("summary_info");
+        if (summaryInfo != null && summaryInfo.has("failed_items")) {
+            formattedResponse.put("incomplete", summaryInfo.path("incomplete").asText());
+            formattedResponse.set("failed_domains", summaryInfo.get("failed_items"));
+        }
 
         // Calculate estimated cost (5 credits per domain according to documentation)
         int estimatedCost = requestedDomains.size() * 5;
@@ -95,6 +103,19 @@ public class DomainResponseFormatter {
         }
     }
 
+    /**
+     * Tells the reader when data was served from cache past its refresh interval
+     */
+    public static void createFreshnessInfo(ObjectMapper mapper, SerpstatApiResponse response, ObjectNode formattedResponse) {
+        if (response.isStale()) {
+            ObjectNode freshness = mapper.createObjectNode();
+            freshness.put("stale", true);
+            freshness.put("data_age_seconds", response.getAgeMillis() / 1000);
+            freshness.put("note", "Served from cache while fresh data is being fetched");
+            formattedResponse.set("data_freshness", freshness);
+        }
+    }
+
     /**
      * Format getRegionsCount response
      */
@@ -240,6 +261,7 @@ public class DomainResponseFormatter {
 
             formattedResponse.set("api_info", apiInfo);
         }
+        createFreshnessInfo(mapper, response, formattedResponse);
 
         return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(formattedResponse);
     }
@@ -453,12 +475,32 @@ public class DomainResponseFormatter {
                 apiInfo.put("credits_remaining", summaryInfo.get("left_lines").asLong());
             }
 
-            // Calculate pagination info
+            // Calculate pagination info; auto-pagination merges several pages into one response
+            int pagesFetched = summaryInfo.path("pages_fetched").asInt(1);
+            if (summaryInfo.has("pages_fetched")) {
+                apiInfo.put("pages_fetched", pagesFetched);
+            }
+            if (summaryInfo.has("incomplete")) {
+                apiInfo.put("incomplete", summaryInfo.get("incomplete").asText());
+            }
             if (summaryInfo.has("total")) {
                 int totalKeywords = summaryInfo.get("total").asInt();
                 int totalPages = (int) Math.ceil((double) totalKeywords / size);
                 apiInfo.put("total_pages", totalPages);
-                apiInfo.put("has_next_page", page < totalPages);
+                if (summaryInfo.has("pages_fetched")) {
+                    // max_rows may end the result inside a page: continue from the first row not returned
+                    long nextRow = summaryInfo.path("next_row").asLong(0);
+                    apiInfo.put("has_next_page", nextRow > 0);
+                    if (nextRow > 0) {
+                        apiInfo.put("next_row", nextRow);
+                        apiInfo.put("next_page", (nextRow - 1) / size + 1);
+                        if ((nextRow - 1) % size != 0) {
+                            apiInfo.put("next_page_rows_already_returned", (nextRow - 1) % size);
+                        }
+                    }
+                } else {
+                    apiInfo.put("has_next_page", page < totalPages);
+                }
                 apiInfo.put("credits_used_this_request", dataArray != null ? dataArray.size() : 0);
             }
 
@@ -19,4 +19,10 @@ public class DomainSchemas {
     public static final String DOMAINS_UNIQ_KEYWORDS_SCHEMA = SchemaUtils.loadSchema(
             DomainSchemas.class, "/schemas/domain/domains_uniq_keywords.json"
     );
-}
\ No newline at end of file
+    public static final String KEYWORD_SET_OPS_SCHEMA = SchemaUtils.loadSchema(
+            DomainSchemas.class, "/schemas/domain/keyword_set_ops.json"
+    );
+    public static final String COMPETITOR_GAP_MATRIX_SCHEMA = SchemaUtils.loadSchema(
+            DomainSchemas.class, "/schemas/domain/competitor_gap_matrix.json"
+    );
+}
@@ -1,13 +1,21 @@
 package com.serpstat.domains.domain;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.serpstat.core.*;
 import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.server.McpSyncServerExchange;
 import io.modelcontextprotocol.spec.McpSchema.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Tools for working with domains
@@ -30,7 +38,9 @@ public class DomainTools extends BaseToolHandler implements ToolProvider {
                 createRegionsCountTool(),
                 createDomainKeywordsTool(),
                 createDomainUrlsTool(),
-                createGetDomainsUniqKeywordsTool()
+                createGetDomainsUniqKeywordsTool(),
+                createKeywordSetOpsTool(),
+                createCompetitorGapMatrixTool()
         );
     }
 
@@ -76,6 +86,34 @@ public class DomainTools extends BaseToolHandler implements ToolProvider {
         );
     }
 
+    /**
+     * Create keyword set operations tool specification
+     */
+    private McpServerFeatures.SyncToolSpecification createKeywordSetOpsTool() {
+        return new McpServerFeatures.SyncToolSpecification(
+                new Tool(
+                        "keyword_set_ops",
+                        "Compare the keywords of 2 to 10 domains locally: keywords all of them rank for (intersection), any of them ranks for (union), only the first ranks for (difference) or the others rank for and the first does not (missing), plus a matrix of shared keyword counts for every pair. Only the top keywords of each domain are compared (max_rows_per_domain, top positions first), so for larger domains the result covers a sample: each domain reports its total keyword count and is flagged as truncated when not all of its keywords were fetched. Keywords are fetched once per domain (or reused from cache) and every variation is computed without further API calls. Each fetched keyword costs 1 API credit, capped by max_credits.",
+                        DomainSchemas.KEYWORD_SET_OPS_SCHEMA
+                ),
+                this::handleKeywordSetOps
+        );
+    }
+
+    /**
+     * Create competitor gap matrix tool specification
+     */
+    private McpServerFeatures.SyncToolSpecification createCompetitorGapMatrixTool() {
+        return new McpServerFeatures.SyncToolSpecification(
+                new Tool(
+                        "competitor_gap_matrix",
+                        "Find keyword gaps between a domain and its top competitors (or a given list of up to 9) in one request: for every pair of domains, the number of keywords one ranks for and the other does not, as an N x N matrix, plus the opportunity keywords with the highest search volume per pair. The pairwise comparisons run concurrently within a credit cap (max_credits), the domain's own gaps first. Each returned keyword costs 1 API credit, minimum 1 credit per pair; looking up competitors costs extra.",
+                        DomainSchemas.COMPETITOR_GAP_MATRIX_SCHEMA
+                ),
+                this::handleCompetitorGapMatrix
+        );
+    }
+
 /**
  * Creates the specification for the domain keywords analysis tool.
  * <p>
@@ -146,6 +184,19 @@ public class DomainTools extends BaseToolHandler implements ToolProvider {
                             .build()
             );
 
+            // Auto-pagination: the extra parameters are ours, not Serpstat's
+            boolean allPages = Boolean.TRUE.equals(args.remove("all_pages"));
+            Integer maxRows = (Integer) args.remove("max_rows");
+            if (allPages || maxRows != null) {
+                int rowLimit = maxRows != null ? maxRows : DomainValidator.MAX_KEYWORD_ROWS;
+                // Pages no larger than the rows wanted: every row of a page is paid for
+                args.putIfAbsent("size", Math.min(rowLimit, PageFetcher.MAX_PAGE_SIZE));
+                return new PageFetcher(apiClient).fetch("SerpstatDomainProcedure.getDomainKeywords", args, rowLimit,
+                        (pagesFetched, pagesTotal, rowsFetched) -> logInfo(exchange, String.format(
+                                "Fetched page %d of %d for %s (%d keywords)",
+                                pagesFetched, pagesTotal, domain, rowsFetched)));
+            }
+
             // Call Serpstat API
             return apiClient.callMethod("SerpstatDomainProcedure.getDomainKeywords", args);
         });
@@ -199,8 +250,12 @@ public class DomainTools extends BaseToolHandler implements ToolProvider {
                             .build()
             );
 
-            // Call Serpstat API
-            return apiClient.callMethod("SerpstatDomainProcedure.getDomainsInfo", args);
+            // Call Serpstat API, a chunk of domains per call for long lists
+            return new ChunkFetcher(apiClient).fetch("SerpstatDomainProcedure.getDomainsInfo", args, "domains",
+                    DomainValidator.DOMAINS_INFO_CHUNK_SIZE,
+                    (chunksFetched, chunksTotal, rowsFetched) -> logInfo(exchange, String.format(
+                            "Fetched %d of %d domain chunks (%d domains)",
+                            chunksFetched, chunksTotal, rowsFetched)));
         });
     }
 
@@ -262,6 +317,233 @@ public class DomainTools extends BaseToolHandler implements ToolProvider {
             return apiClient.callMethod("SerpstatDomainProcedure.getDomainsUniqKeywords", args);
         });
     }
+    /**
+     * Handle keyword set operations request
+     */
+    @SuppressWarnings("try")
+    private CallToolResult handleKeywordSetOps(McpSyncServerExchange exchange, Map<String, Object> arguments) {
+        return handleToolCall(exchange, arguments, "keywordSetOps", (args) -> {
+            // Validation
+            DomainValidator.validateKeywordSetOpsRequest(args);
+
+            // Log request details
+            @SuppressWarnings("unchecked")
+            List<String> domains = (List<String>) args.get("domains");
+            String searchEngine = (String) args.get("se");
+            String operation = (String) args.getOrDefault("operation", "intersection");
+            Integer maxRows = (Integer) args.getOrDefault("max_rows_per_domain", 1000);
+            Integer topK = (Integer) args.getOrDefault("top_k", 100);
+            Integer maxCredits = (Integer) args.getOrDefault("max_credits", 10_000);
+
+            // Every fetched keyword is paid for: fewer keywords per domain when all of them do not fit the cap
+            long creditsPerRow = Math.max(1, CreditBudgetManager.estimate(
+                    "SerpstatDomainProcedure.getDomainKeywords", Map.of("size", 1)));
+            int rowsPerDomain = (int) Math.min(maxRows, maxCredits / (creditsPerRow * domains.size()));
+            if (rowsPerDomain < 1) {
+                throw new ValidationException(String.format(
+                        "Parameter 'max_credits' of %d does not cover one keyword per domain", maxCredits));
+            }
+
+            exchange.loggingNotification(
+                    LoggingMessageNotification.builder()
+                            .level(LoggingLevel.DEBUG)
+                            .logger("DomainTools")
+                            .data(String.format("Computing keyword %s of %s in %s (up to %d keywords per domain)",
+                                    operation, String.join(", ", domains), searchEngine, rowsPerDomain))
+                            .build()
+            );
+
+            // The first page of every domain goes out at once; the rest of each domain follows in parallel pages
+            List<Map<String, Object>> domainParams = new ArrayList<>();
+            List<CompletableFuture<SerpstatApiResponse>> firstPages = new ArrayList<>();
+            try (RequestScheduler.Scope bulk = RequestScheduler.bind(RequestScheduler.Lane.BULK)) {
+                for (String domain : domains) {
+                    Map<String, Object> params = new HashMap<>();
+                    params.put("domain", domain);
+                    params.put("se", searchEngine);
+                    params.put("size", Math.min(rowsPerDomain, PageFetcher.MAX_PAGE_SIZE));
+                    // Without a sort the API picks which keywords make the cut, and domains get compared on
+                    // arbitrary subsets; every page of the listing goes out with these params
+                    params.put("sort", Map.of("position", "asc"));
+                    domainParams.add(params);
+                    firstPages.add(apiClient.callMethodAsync("SerpstatDomainProcedure.getDomainKeywords", params));
+                }
+            }
+
+            PageFetcher pageFetcher = new PageFetcher(apiClient);
+            List<JsonNode> domainRows = new ArrayList<>();
+            List<JsonNode> domainSummaries = new ArrayList<>();
+            for (int d = 0; d < domains.size(); d++) {
+                String domain = domains.get(d);
+                SerpstatApiResponse first;
+                try {
+                    first = firstPages.get(d).join();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    throw new SerpstatApiException("Request failed for " + domain + ": " + cause.getMessage(), cause);
+                }
+                SerpstatApiResponse response = pageFetcher.fetchAfter(first,
+                        "SerpstatDomainProcedure.getDomainKeywords", domainParams.get(d), rowsPerDomain,
+                        (pagesFetched, pagesTotal, rowsFetched) -> logInfo(exchange, String.format(
+                                "Fetched page %d of %d for %s (%d keywords)",
+                                pagesFetched, pagesTotal, domain, rowsFetched)));
+                JsonNode result = response.getResult();
+                domainRows.add(result == null ? null : result.get("data"));
+                domainSummaries.add(result == null ? null : result.get("summary_info"));
+            }
+
+            ObjectNode result = new KeywordSetOps(domains, domainRows).apply(operation, topK);
+
+            // Note domains with more keywords than were compared or whose keywords stopped short, and the
+            // credits left after the last call
+            ObjectNode summary = (ObjectNode) result.get("summary_info");
+            summary.put("max_rows_per_domain", rowsPerDomain);
+            summary.put("max_credits", maxCredits);
+            long leftLines = Long.MAX_VALUE;
+            for (int d = 0; d < domains.size(); d++) {
+                JsonNode domainSummary = domainSummaries.get(d);
+                if (domainSummary == null) {
+                    continue;
+                }
+                ObjectNode domainStats = (ObjectNode) summary.get("domains").get(d);
+                JsonNode total = domainSummary.get("total");
+                if (total != null && total.canConvertToLong()) {
+                    domainStats.put("total", total.asLong());
+                    if (total.asLong() > domainStats.get("keywords").asLong()) {
+                        domainStats.put("truncated", true);
+                        summary.put("truncated", true);
+                    }
+                }
+                if (domainSummary.has("incomplete")) {
+                    domainStats.set("incomplete", domainSummary.get("incomplete"));
+                    summary.put("incomplete", true);
+                }
+                if (domainSummary.has("left_lines")) {
+                    leftLines = Math.min(leftLines, domainSummary.get("left_lines").asLong());
+                }
+            }
+            if (leftLines != Long.MAX_VALUE) {
+                summary.put("left_lines", leftLines);
+            }
+
+            return new SerpstatApiResponse(result, "keyword_set_ops", args);
+        });
+    }
+
+    /**
+     * Handle competitor gap matrix request
+     */
+    @SuppressWarnings("try")
+    private CallToolResult handleCompetitorGapMatrix(McpSyncServerExchange exchange, Map<String, Object> arguments) {
+        return handleToolCall(exchange, arguments, "competitorGapMatrix", (args) -> {
+            // Validation
+            DomainValidator.validateCompetitorGapMatrixRequest(args);
+
+            // Log request details
+            String domain = (String) args.get("domain");
+            String searchEngine = (String) args.get("se");
+            Integer competitorsCount = (Integer) args.getOrDefault("competitors_count", 5);
+            Integer topK = (Integer) args.getOrDefault("top_k", 10);
+            Integer maxCredits = (Integer) args.getOrDefault("max_credits", 1000);
+
+            exchange.loggingNotification(
+                    LoggingMessageNotification.builder()
+                            .level(LoggingLevel.DEBUG)
+                            .logger("DomainTools")
+                            .data(String.format("Building keyword gap matrix for %s in %s (top %d keywords per pair, max %d credits)",
+                                    domain, searchEngine, topK, maxCredits))
+                            .build()
+            );
+
+            // Competitors as given, or the top ones Serpstat knows
+            @SuppressWarnings("unchecked")
+            List<String> competitors = (List<String>) args.get("competitors");
+            if (competitors == null) {
+                competitors = topCompetitors(domain, searchEngine, competitorsCount);
+            }
+            List<String> domains = new ArrayList<>();
+            domains.add(domain);
+            domains.addAll(competitors);
+
+            CompetitorGapMatrix matrix = new CompetitorGapMatrix(domains, searchEngine, topK, maxCredits);
+            List<CompetitorGapMatrix.Pair> pairs = matrix.plan();
+            if (pairs.isEmpty()) {
+                throw new ValidationException(String.format(
+                        "Parameter 'max_credits' of %d does not cover a single gap call", maxCredits));
+            }
+
+            // Every pair goes out at once; the scheduler paces them to the rate limit
+            BlockingQueue<Integer> arrived = new LinkedBlockingQueue<>();
+            List<CompletableFuture<SerpstatApiResponse>> calls = new ArrayList<>(pairs.size());
+            try (RequestScheduler.Scope bulk = RequestScheduler.bind(RequestScheduler.Lane.BULK)) {
+                for (int i = 0; i < pairs.size(); i++) {
+                    int index = i;
+                    CompletableFuture<SerpstatApiResponse> call =
+                            apiClient.callMethodAsync(CompetitorGapMatrix.METHOD, pairs.get(i).params());
+                    call.whenComplete((response, error) -> arrived.add(index));
+                    calls.add(call);
+                }
+            }
+
+            Throwable firstFailure = null;
+            try {
+                for (int done = 1; done <= pairs.size(); done++) {
+                    int index = arrived.take();
+                    CompetitorGapMatrix.Pair pair = pairs.get(index);
+                    try {
+                        matrix.record(pair, calls.get(index).join().getResult());
+                    } catch (CompletionException e) {
+                        Throwable cause = e.getCause() == null ? e : e.getCause();
+                        if (firstFailure == null) {
+                            firstFailure = cause;
+                        }
+                        matrix.fail(pair, cause.getMessage());
+                    }
+                    logInfo(exchange, String.format("Compared %d of %d domain pairs (%s against %s)",
+                            done, pairs.size(), domains.get(pair.domain()), domains.get(pair.competitor())));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SerpstatApiException("Request failed: interrupted while comparing domains", e);
+            }
+            if (!matrix.hasResults()) {
+                throw firstFailure instanceof SerpstatApiException apiException
+                        ? apiException
+                        : new SerpstatApiException("Request failed: " + firstFailure.getMessage(), firstFailure);
+            }
+
+            return new SerpstatApiResponse(matrix.toResult(), "competitor_gap_matrix", args);
+        });
+    }
+
+    /**
+     * The {@code count} top competitors of {@code domain}, the domain itself left out
+     */
+    private List<String> topCompetitors(String domain, String searchEngine, int count) throws SerpstatApiException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("domain", domain);
+        params.put("se", searchEngine);
+        // One more, as the domain itself may be among them
+        params.put("size", count + 1);
+        SerpstatApiResponse response = apiClient.callMethod("SerpstatDomainProcedure.getCompetitors", params);
+
+        List<String> competitors = new ArrayList<>();
+        JsonNode data = response.getResult() == null ? null : response.getResult().get("data");
+        if (data != null && data.isArray()) {
+            for (JsonNode row : data) {
+                String competitor = row.path("domain").asText("").toLowerCase();
+                if (!competitor.isEmpty() && !competitor.equals(domain) && !competitors.contains(competitor)
+                        && competitors.size() < count) {
+                    competitors.add(competitor);
+                }
+            }
+        }
+        if (competitors.isEmpty()) {
+            throw new SerpstatApiException("No competitors found for " + domain + " in " + searchEngine);
+        }
+        return competitors;
+    }
+
     /*
      * Format response based on method
      */
@@ -278,6 +560,10 @@ public class DomainTools extends BaseToolHandler implements ToolProvider {
                     DomainUrlsResponseFormatter.format(response, arguments, objectMapper);
             case "SerpstatDomainProcedure.getDomainsUniqKeywords" ->
                     DomainUniqueKeywordsResponseFormatter.format(response, arguments, objectMapper);
+            case "keyword_set_ops" ->
+                    KeywordSetOpsResponseFormatter.format(response, arguments, objectMapper);
+            case "competitor_gap_matrix" ->
+                    CompetitorGapMatrixResponseFormatter.format(response, arguments, objectMapper);
             default ->
                 // Default to existing format method for getDomainsInfo
                     DomainResponseFormatter.format(response, arguments, objectMapper);
@@ -3,6 +3,7 @@ package com.serpstat.domains.domain;
 import com.serpstat.core.ValidationException;
 import com.serpstat.domains.utils.ValidationUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -15,6 +16,36 @@ import static com.serpstat.domains.constants.Patterns.DOMAIN_PATTERN;
  */
 public class DomainValidator {
 
+    /**
+     * Most rows one domain_keywords call may fetch across pages
+     */
+    public static final int MAX_KEYWORD_ROWS = 50_000;
+
+    /**
+     * Most domains one get_domains_info call may take; they are sent in chunks of {@link #DOMAINS_INFO_CHUNK_SIZE}
+     */
+    public static final int MAX_DOMAINS_INFO_DOMAINS = 10_000;
+
+    /**
+     * Most domains the API accepts in one getDomainsInfo call
+     */
+    public static final int DOMAINS_INFO_CHUNK_SIZE = 100;
+
+    /**
+     * Most domains one keyword_set_ops call may compare
+     */
+    public static final int MAX_SET_OPS_DOMAINS = 10;
+
+    /**
+     * Set operations keyword_set_ops supports
+     */
+    public static final Set<String> SET_OPERATIONS = Set.of("intersection", "union", "difference", "missing");
+
+    /**
+     * Most competitors one competitor_gap_matrix call may compare the domain with
+     */
+    public static final int MAX_GAP_MATRIX_COMPETITORS = 9;
+
     /**
      * Validate getDomainsInfo request parameters
      */
@@ -38,8 +69,9 @@ public class DomainValidator {
             throw new ValidationException("Parameter 'domains' cannot be empty");
         }
 
-        if (domains.size() > 100) {
-            throw new ValidationException("Maximum 100 domains allowed per request");
+        if (domains.size() > MAX_DOMAINS_INFO_DOMAINS) {
+            throw new ValidationException(
+                    String.format("Maximum %d domains allowed per request", MAX_DOMAINS_INFO_DOMAINS));
         }
 
         // Validate each domain
@@ -75,6 +107,115 @@ public class DomainValidator {
         }
     }
 
+    /**
+     * Validate keyword_set_ops request parameters
+     */
+    public static void validateKeywordSetOpsRequest(Map<String, Object> arguments)
+            throws ValidationException {
+
+        // Validate domains array
+        Object domainsObj = arguments.get("domains");
+        if (domainsObj == null) {
+            throw new ValidationException("Parameter 'domains' is required");
+        }
+
+        if (!(domainsObj instanceof List)) {
+            throw new ValidationException("Parameter 'domains' must be an array");
+        }
+
+        List<?> domains = (List<?>) domainsObj;
+        if (domains.size() < 2 || domains.size() > MAX_SET_OPS_DOMAINS) {
+            throw new ValidationException(
+                    String.format("Parameter 'domains' must contain between 2 and %d domains", MAX_SET_OPS_DOMAINS));
+        }
+
+        // Validate each domain; the normalized list replaces the given one
+        List<String> normalizedDomains = new ArrayList<>(domains.size());
+        for (Object domain : domains) {
+            normalizedDomains.add(ValidationUtils.validateAndNormalizeDomain(domain));
+        }
+        if (Set.copyOf(normalizedDomains).size() != normalizedDomains.size()) {
+            throw new ValidationException("Duplicate domains are not allowed");
+        }
+        arguments.put("domains", normalizedDomains);
+
+        // Validate search engine
+        ValidationUtils.validateSearchEngines(arguments, "se", "g_us", true);
+
+        // Validate operation
+        Object operation = arguments.getOrDefault("operation", "intersection");
+        if (!(operation instanceof String) || !SET_OPERATIONS.contains(operation)) {
+            throw new ValidationException(String.format(
+                    "Invalid operation: '%s'. Valid options: %s", operation, SET_OPERATIONS));
+        }
+
+        // Validate row limits
+        validateIntegerRange(arguments, "max_rows_per_domain", 1, MAX_KEYWORD_ROWS);
+        validateIntegerRange(arguments, "top_k", 1, 1000);
+        validateIntegerRange(arguments, "max_credits", 1, MAX_SET_OPS_DOMAINS * MAX_KEYWORD_ROWS);
+    }
+
+    /**
+     * Validate competitor_gap_matrix request parameters
+     */
+    public static void validateCompetitorGapMatrixRequest(Map<String, Object> arguments)
+            throws ValidationException {
+
+        // Validate domain parameter
+        String domain = ValidationUtils.validateAndNormalizeDomain(arguments.get("domain"));
+        arguments.put("domain", domain);
+
+        // Validate competitors array, when given instead of looking them up
+        Object competitorsObj = arguments.get("competitors");
+        if (competitorsObj != null) {
+            if (!(competitorsObj instanceof List)) {
+                throw new ValidationException("Parameter 'competitors' must be an array");
+            }
+
+            List<?> competitors = (List<?>) competitorsObj;
+            if (competitors.isEmpty() || competitors.size() > MAX_GAP_MATRIX_COMPETITORS) {
+                throw new ValidationException(String.format(
+                        "Parameter 'competitors' must contain between 1 and %d domains", MAX_GAP_MATRIX_COMPETITORS));
+            }
+
+            List<String> normalizedCompetitors = new ArrayList<>(competitors.size());
+            for (Object competitor : competitors) {
+                normalizedCompetitors.add(ValidationUtils.validateAndNormalizeDomain(competitor));
+            }
+            if (normalizedCompetitors.contains(domain)) {
+                throw new ValidationException("Parameter 'competitors' must not contain the domain itself");
+            }
+            if (Set.copyOf(normalizedCompetitors).size() != normalizedCompetitors.size()) {
+                throw new ValidationException("Duplicate domains are not allowed");
+            }
+            arguments.put("competitors", normalizedCompetitors);
+        }
+
+        // Validate search engine
+        ValidationUtils.validateSearchEngines(arguments, "se", "g_us", true);
+
+        // Validate limits
+        validateIntegerRange(arguments, "competitors_count", 1, MAX_GAP_MATRIX_COMPETITORS);
+        validateIntegerRange(arguments, "top_k", 1, 100);
+        validateIntegerRange(arguments, "max_credits", 1, 100_000);
+    }
+
+    private static void validateIntegerRange(Map<String, Object> arguments, String name, int min, int max)
+            throws ValidationException {
+        Object value = arguments.get(name);
+        if (value == null) {
+            return;
+        }
+        if (!(value instanceof Integer)) {
+            throw new ValidationException(String.format("Parameter '%s' must be an integer", name));
+        }
+        int intValue = (Integer) value;
+        if (intValue < min || intValue > max) {
+            throw new ValidationException(String.format(
+                    "Parameter '%s' must be between %d and %d", name, min, max));
+        }
+    }
+
     /**
      * Validate getRegionsCount request parameters
      */
@@ -115,6 +256,7 @@ public class DomainValidator {
         // Validate pagination parameters
         ValidationUtils.validatePaginationParameters(arguments);
         ValidationUtils.validatePaginationSizeParameters(arguments);
+        validateAutoPagination(arguments);
 
         // Validate URL parameter
         Object urlObj = arguments.get("url");
@@ -147,6 +289,26 @@ public class DomainValidator {
 
 
 
+    /**
+     * Validate all_pages and max_rows, which make domain_keywords fetch several pages at once
+     */
+    private static void validateAutoPagination(Map<String, Object> arguments) throws ValidationException {
+        Object allPages = arguments.get("all_pages");
+        if (allPages != null && !(allPages instanceof Boolean)) {
+            throw new ValidationException("Parameter 'all_pages' must be a boolean");
+        }
+        Object maxRowsObj = arguments.get("max_rows");
+        if (maxRowsObj != null) {
+            if (!(maxRowsObj instanceof Integer)) {
+                throw new ValidationException("Parameter 'max_rows' must be an integer");
+            }
+            int maxRows = (Integer) maxRowsObj;
+            if (maxRows < 1 || maxRows > MAX_KEYWORD_ROWS) {
+                throw new ValidationException("Parameter 'max_rows' must be between 1 and " + MAX_KEYWORD_ROWS);
+            }
+        }
+    }
+
     /**
      * Validate filters parameters
      */
@@ -0,0 +1,214 @@
+package com.serpstat.domains.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.serpstat.domains.keywords.KeywordHash;
+import com.serpstat.domains.utils.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Set algebra over the keywords several domains rank for. Every keyword is reduced to its
+ * {@link KeywordHash} once, and each domain's keywords become a {@link LongHashSet}, so membership
+ * tests are a probe into a {@code long[]} and comparing domains with tens of thousands of keywords
+ * each takes milliseconds. Rows are only looked at again for the keywords that are returned.
+ * <p>
+ * The operations, with the first domain as the one the others are compared to:
+ * <ul>
+ *     <li>{@code intersection} - keywords every domain ranks for</li>
+ *     <li>{@code union} - keywords any domain ranks for</li>
+ *     <li>{@code difference} - keywords the first domain ranks for and none of the others do</li>
+ *     <li>{@code missing} - keywords some other domain ranks for and the first does not</li>
+ * </ul>
+ */
+final class KeywordSetOps {
+
+    private static final Comparator<JsonNode> BY_VOLUME =
+            Comparator.comparingLong((JsonNode row) -> row.path("region_queries_count").asLong(0));
+
+    private final List<String> domains;
+    private final List<List<JsonNode>> rows = new ArrayList<>();
+    private final List<long[]> hashes = new ArrayList<>();
+    private final LongHashSet[] sets;
+
+    /**
+     * @param domainRows the {@code data} rows of each domain's keywords, in the order of {@code domains}
+     */
+    KeywordSetOps(List<String> domains, List<JsonNode> domainRows) {
+        this.domains = domains;
+        this.sets = new LongHashSet[domains.size()];
+        for (int d = 0; d < domains.size(); d++) {
+            JsonNode data = domainRows.get(d);
+            int capacity = data == null ? 0 : data.size();
+            List<JsonNode> keyed = new ArrayList<>(capacity);
+            long[] keyedHashes = new long[capacity];
+            sets[d] = new LongHashSet(capacity);
+            int i = 0;
+            if (data != null) {
+                for (JsonNode row : data) {
+                    String keyword = row.path("keyword").asText(null);
+                    if (keyword == null) {
+                        continue;
+                    }
+                    keyed.add(row);
+                    keyedHashes[i] = KeywordHash.of(keyword);
+                    sets[d].add(keyedHashes[i++]);
+                }
+            }
+            rows.add(keyed);
+            hashes.add(Arrays.copyOf(keyedHashes, i));
+        }
+    }
+
+    /**
+     * Number of distinct keywords of each pair of domains in common; the diagonal holds each domain's
+     * own distinct keyword count
+     */
+    long[][] overlapMatrix() {
+        int n = domains.size();
+        long[][] matrix = new long[n][n];
+        for (int a = 0; a < n; a++) {
+            matrix[a][a] = sets[a].size();
+            for (int b = a + 1; b < n; b++) {
+                // Probing with the smaller set keeps this linear in the smaller domain
+                LongHashSet small = sets[a].size() <= sets[b].size() ? sets[a] : sets[b];
+                LongHashSet large = small == sets[a] ? sets[b] : sets[a];
+                long common = 0;
+                for (long hash : small.toArray()) {
+                    if (large.contains(hash)) {
+                        common++;
+                    }
+                }
+                matrix[a][b] = common;
+                matrix[b][a] = common;
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Applies {@code operation} and returns {@code data} with the {@code topK} matching keywords of
+     * highest search volume, each with the position of every domain that ranks for it, and a
+     * {@code summary_info} with the match count, per-domain counts and the overlap matrix
+     */
+    ObjectNode apply(String operation, int topK) {
+        // Only the first domain is scanned when every match has to be one of its keywords
+        boolean firstOnly = operation.equals("intersection") || operation.equals("difference");
+        int from = operation.equals("missing") ? 1 : 0;
+        int to = firstOnly ? 1 : domains.size();
+
+        PriorityQueue<JsonNode> top = new PriorityQueue<>(BY_VOLUME);
+        LongHashSet seen = new LongHashSet();
+        int matches = 0;
+        for (int d = from; d < to; d++) {
+            long[] domainHashes = hashes.get(d);
+            for (int i = 0; i < domainHashes.length; i++) {
+                long hash = domainHashes[i];
+                if (!matches(operation, hash) || !seen.add(hash)) {
+                    continue;
+                }
+                matches++;
+                top.add(rows.get(d).get(i));
+                if (top.size() > topK) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<JsonNode> selected = new ArrayList<>(top);
+        selected.sort(BY_VOLUME.reversed());
+        ArrayNode data = JsonNodeFactory.instance.arrayNode();
+        Map<Long, ObjectNode> byHash = new HashMap<>();
+        for (JsonNode row : selected) {
+            ObjectNode keyword = data.addObject();
+            keyword.put("keyword", row.get("keyword").asText());
+            for (String field : List.of("region_queries_count", "cost", "difficulty", "concurrency")) {
+                if (row.hasNonNull(field)) {
+                    keyword.set(field, row.get(field));
+                }
+            }
+            keyword.putObject("positions");
+            byHash.put(KeywordHash.of(row.get("keyword").asText()), keyword);
+        }
+        addPositions(byHash);
+
+        ObjectNode summary = JsonNodeFactory.instance.objectNode();
+        summary.put("operation", operation);
+        summary.put("matching_keywords", matches);
+        summary.put("keywords_returned", data.size());
+        ArrayNode domainStats = summary.putArray("domains");
+        for (int d = 0; d < domains.size(); d++) {
+            ObjectNode stats = domainStats.addObject();
+            stats.put("domain", domains.get(d));
+            stats.put("keywords", rows.get(d).size());
+            stats.put("unique_keywords", sets[d].size());
+        }
+        ArrayNode matrix = summary.putArray("overlap_matrix");
+        for (long[] matrixRow : overlapMatrix()) {
+            ArrayNode line = matrix.addArray();
+            for (long common : matrixRow) {
+                line.add(common);
+            }
+        }
+
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        result.set("data", data);
+        result.set("summary_info", summary);
+        return result;
+    }
+
+    private boolean matches(String operation, long hash) {
+        return switch (operation) {
+            case "intersection" -> inDomains(hash, 1) == domains.size() - 1;
+            case "difference" -> inDomains(hash, 1) == 0;
+            case "missing" -> !sets[0].contains(hash);
+            default -> true;
+        };
+    }
+
+    /**
+     * Number of domains from index {@code from} on that rank for the keyword
+     */
+    private int inDomains(long hash, int from) {
+        int count = 0;
+        for (int d = from; d < sets.length; d++) {
+            if (sets[d].contains(hash)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fills in the best position of each domain for the returned keywords
+     */
+    private void addPositions(Map<Long, ObjectNode> byHash) {
+        if (byHash.isEmpty()) {
+            return;
+        }
+        for (int d = 0; d < domains.size(); d++) {
+            long[] domainHashes = hashes.get(d);
+            for (int i = 0; i < domainHashes.length; i++) {
+                ObjectNode keyword = byHash.get(domainHashes[i]);
+                if (keyword == null) {
+                    continue;
+                }
+                ObjectNode positions = (ObjectNode) keyword.get("positions");
+                int position = rows.get(d).get(i).path("position").asInt(0);
+                JsonNode current = positions.get(domains.get(d));
+                if (current == null || (position > 0 && position < current.asInt())) {
+                    positions.put(domains.get(d), position);
+                }
+            }
+        }
+        byHash.values().forEach(keyword -> keyword.put("domains_count", keyword.get("positions").size()));
+    }
+}
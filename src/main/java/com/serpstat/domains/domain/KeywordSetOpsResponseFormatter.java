@@ -0,0 +1,70 @@
+package com.serpstat.domains.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.serpstat.core.SerpstatApiResponse;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formatter for keyword set operation responses
+ */
+public class KeywordSetOpsResponseFormatter {
+
+    public static String format(SerpstatApiResponse response, Map<String, Object> arguments, ObjectMapper mapper)
+            throws Exception {
+        JsonNode resultNode = response.getResult();
+        JsonNode summary = resultNode.path("summary_info");
+
+        // Extract request parameters for context
+        @SuppressWarnings("unchecked")
+        List<String> domains = (List<String>) arguments.get("domains");
+        String searchEngine = (String) arguments.get("se");
+
+        // Create formatted response
+        ObjectNode formattedResponse = mapper.createObjectNode();
+        formattedResponse.put("status", "success");
+        formattedResponse.put("method", "keyword_set_ops");
+        formattedResponse.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        formattedResponse.put("operation", summary.path("operation").asText());
+        formattedResponse.put("base_domain", domains.get(0));
+        formattedResponse.set("compared_domains", mapper.valueToTree(domains.subList(1, domains.size())));
+        formattedResponse.put("search_engine", searchEngine);
+        formattedResponse.put("max_rows_per_domain", summary.path("max_rows_per_domain")
+                .asInt((Integer) arguments.getOrDefault("max_rows_per_domain", 1000)));
+
+        // Result counts
+        formattedResponse.put("matching_keywords", summary.path("matching_keywords").asInt(0));
+        formattedResponse.put("keywords_returned", summary.path("keywords_returned").asInt(0));
+
+        // Per-domain counts and the pairwise overlap, in the order of the domains parameter
+        formattedResponse.set("domains", summary.path("domains"));
+        formattedResponse.set("overlap_matrix", summary.path("overlap_matrix"));
+        if (summary.path("truncated").asBoolean(false)) {
+            // Matches are only among the fetched keywords, not everything the domains rank for
+            formattedResponse.put("truncated", true);
+        }
+        if (summary.path("incomplete").asBoolean(false)) {
+            formattedResponse.put("incomplete", true);
+        }
+
+        formattedResponse.set("keywords", resultNode.path("data"));
+
+        ObjectNode apiInfo = mapper.createObjectNode();
+        if (summary.has("max_credits")) {
+            apiInfo.put("max_credits", summary.get("max_credits").asLong());
+        }
+        if (summary.has("left_lines")) {
+            apiInfo.put("credits_remaining", summary.get("left_lines").asLong());
+        }
+        if (!apiInfo.isEmpty()) {
+            formattedResponse.set("api_info", apiInfo);
+        }
+
+        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(formattedResponse);
+    }
+}
@@ -0,0 +1,138 @@
+package com.serpstat.domains.keywords;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.serpstat.domains.utils.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Merges the keyword lists of a batch of seeds into one deduplicated list. Each keyword is kept the
+ * first time it comes up, tagged with the seed and source (keywords or related) it came from;
+ * duplicates are recognized by their {@link KeywordHash} in a {@link LongHashSet}. Volume, CPC and
+ * difficulty stats of the unique keywords are accumulated on the same pass.
+ */
+class BatchKeywordMerger {
+
+    private final LongHashSet seen;
+    private final List<ObjectNode> keywords = new ArrayList<>();
+    private final ArrayNode perSeed = JsonNodeFactory.instance.arrayNode();
+    private final ArrayNode failures = JsonNodeFactory.instance.arrayNode();
+    private int rawKeywords;
+    private long totalVolume;
+    private double totalCost;
+    private double maxCost;
+    private double totalDifficulty;
+    private int difficultyCount;
+    private int lowDifficultyKeywords;
+    private int highVolumeKeywords;
+
+    BatchKeywordMerger(int expectedKeywords) {
+        this.seen = new LongHashSet(expectedKeywords);
+    }
+
+    /**
+     * Adds the rows of one call made for {@code seed}
+     */
+    void add(String seed, String source, JsonNode result) {
+        JsonNode rows = result == null ? null : result.get("data");
+        int returned = 0;
+        int added = 0;
+        if (rows != null && rows.isArray()) {
+            for (JsonNode row : rows) {
+                String keyword = row.path("keyword").asText(null);
+                if (keyword == null) {
+                    continue;
+                }
+                returned++;
+                if (seen.add(KeywordHash.of(keyword))) {
+                    added++;
+                    // Copied: the response tree may be shared with other callers of the same call
+                    ObjectNode kept = row.deepCopy();
+                    kept.put("seed", seed);
+                    kept.put("source", source);
+                    keywords.add(kept);
+                    accumulate(kept);
+                }
+            }
+        }
+        rawKeywords += returned;
+        ObjectNode seedInfo = perSeed.addObject();
+        seedInfo.put("seed", seed);
+        seedInfo.put("source", source);
+        seedInfo.put("keywords", returned);
+        seedInfo.put("new_unique_keywords", added);
+    }
+
+    /**
+     * Records a call that failed for {@code seed}
+     */
+    void addFailure(String seed, String source, String message) {
+        ObjectNode failure = failures.addObject();
+        failure.put("seed", seed);
+        failure.put("source", source);
+        failure.put("error", message);
+    }
+
+    private void accumulate(JsonNode row) {
+        long volume = row.path("region_queries_count").asLong(0);
+        double cost = row.path("cost").asDouble(0.0);
+        totalVolume += volume;
+        totalCost += cost;
+        maxCost = Math.max(maxCost, cost);
+        if (volume > 10000) {
+            highVolumeKeywords++;
+        }
+        if (row.hasNonNull("difficulty")) {
+            double difficulty = row.get("difficulty").asDouble();
+            totalDifficulty += difficulty;
+            difficultyCount++;
+            if (difficulty < 30) {
+                lowDifficultyKeywords++;
+            }
+        }
+    }
+
+    boolean hasResults() {
+        return !perSeed.isEmpty();
+    }
+
+    /**
+     * The merged result: the {@code maxResults} unique keywords with the highest search volume as
+     * {@code data}, and the counts and stats over all unique keywords as {@code summary_info}
+     */
+    ObjectNode toResult(int maxResults) {
+        keywords.sort(Comparator.comparingLong((ObjectNode row) -> row.path("region_queries_count").asLong(0))
+                .reversed());
+        ArrayNode data = JsonNodeFactory.instance.arrayNode();
+        keywords.stream().limit(maxResults).forEach(data::add);
+
+        int unique = keywords.size();
+        ObjectNode summary = JsonNodeFactory.instance.objectNode();
+        summary.put("raw_keywords", rawKeywords);
+        summary.put("unique_keywords", unique);
+        summary.put("duplicates_removed", rawKeywords - unique);
+        summary.put("keywords_returned", data.size());
+        summary.put("total_search_volume", totalVolume);
+        summary.put("average_volume_per_keyword", unique > 0 ? Math.round((double) totalVolume / unique) : 0);
+        summary.put("average_cost", unique > 0 ? Math.round(totalCost / unique * 100.0) / 100.0 : 0);
+        summary.put("max_cost", Math.round(maxCost * 100.0) / 100.0);
+        summary.put("average_difficulty",
+                difficultyCount > 0 ? Math.round(totalDifficulty / difficultyCount * 100.0) / 100.0 : 0);
+        summary.put("low_difficulty_keywords", lowDifficultyKeywords);
+        summary.put("high_volume_keywords", highVolumeKeywords);
+        summary.set("per_seed", perSeed);
+        if (!failures.isEmpty()) {
+            summary.set("failed_calls", failures);
+        }
+
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        result.set("data", data);
+        result.set("summary_info", summary);
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package com.serpstat.domains.keywords;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.serpstat.core.SerpstatApiResponse;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formatter for batch keyword research responses
+ */
+public class BatchKeywordResearchResponseFormatter {
+
+    public static String format(SerpstatApiResponse response, Map<String, Object> arguments, ObjectMapper mapper)
+            throws Exception {
+        JsonNode resultNode = response.getResult();
+        JsonNode summary = resultNode.path("summary_info");
+
+        // Extract request parameters for context
+        List<?> seeds = (List<?>) arguments.get("seeds");
+        String searchEngine = (String) arguments.get("se");
+        String mode = (String) arguments.getOrDefault("mode", "keywords");
+        Integer size = (Integer) arguments.getOrDefault("size", 100);
+
+        // Create a formatted response
+        ObjectNode formattedResponse = mapper.createObjectNode();
+        formattedResponse.put("status", "success");
+        formattedResponse.put("method", "batch_keyword_research");
+        formattedResponse.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        formattedResponse.put("search_engine", searchEngine);
+        formattedResponse.put("mode", mode);
+        formattedResponse.put("seeds_count", seeds == null ? 0 : seeds.size());
+        formattedResponse.put("size_per_call", size);
+
+        // Deduplication counts
+        formattedResponse.put("raw_keywords", summary.path("raw_keywords").asInt(0));
+        formattedResponse.put("unique_keywords", summary.path("unique_keywords").asInt(0));
+        formattedResponse.put("duplicates_removed", summary.path("duplicates_removed").asInt(0));
+        formattedResponse.put("keywords_returned", summary.path("keywords_returned").asInt(0));
+
+        // Stats over all unique keywords
+        ObjectNode analytics = mapper.createObjectNode();
+        analytics.put("total_search_volume", summary.path("total_search_volume").asLong(0));
+        analytics.put("average_volume_per_keyword", summary.path("average_volume_per_keyword").asLong(0));
+        analytics.put("average_cost", summary.path("average_cost").asDouble(0.0));
+        analytics.put("max_cost", summary.path("max_cost").asDouble(0.0));
+        analytics.put("average_difficulty", summary.path("average_difficulty").asDouble(0.0));
+        analytics.put("low_difficulty_keywords", summary.path("low_difficulty_keywords").asInt(0));
+        analytics.put("high_volume_keywords", summary.path("high_volume_keywords").asInt(0));
+        formattedResponse.set("summary", analytics);
+
+        // Per-seed contribution and failures
+        if (summary.has("per_seed")) {
+            formattedResponse.set("per_seed", summary.get("per_seed"));
+        }
+        if (summary.has("failed_calls")) {
+            formattedResponse.set("failed_calls", summary.get("failed_calls"));
+            formattedResponse.put("incomplete", true);
+        }
+
+        formattedResponse.set("keywords", resultNode.path("data"));
+
+        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(formattedResponse);
+    }
+}
@@ -0,0 +1,128 @@
+package com.serpstat.domains.keywords;
+
+import com.serpstat.core.ValidationException;
+import com.serpstat.domains.utils.LongHashSet;
+import com.serpstat.domains.utils.ValidationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validator for batch keyword research requests
+ */
+public class BatchKeywordResearchValidator {
+
+    /**
+     * Most seeds one batch may take
+     */
+    public static final int MAX_SEEDS = 100;
+
+    /**
+     * Most keywords one batch may return
+     */
+    public static final int MAX_RESULTS = 10_000;
+
+    private static final Set<String> VALID_MODES = Set.of("keywords", "related", "both");
+
+    /**
+     * Validates batch keyword research request parameters
+     *
+     * @param arguments The request arguments to validate
+     * @throws ValidationException If validation fails
+     */
+    public static void validateBatchKeywordResearchRequest(Map<String, Object> arguments)
+            throws ValidationException {
+
+        // Validate seeds parameter
+        validateSeedsParameter(arguments);
+
+        // Validate search engine parameter
+        ValidationUtils.validateSearchEngines(arguments, "se", "g_us", true);
+
+        // Validate mode parameter
+        Object modeObj = arguments.getOrDefault("mode", "keywords");
+        if (!(modeObj instanceof String) || !VALID_MODES.contains(modeObj)) {
+            throw new ValidationException(String.format(
+                    "Invalid mode: '%s'. Valid options: %s", modeObj, VALID_MODES));
+        }
+
+        // Validate withIntents parameter
+        Object withIntentsObj = arguments.get("withIntents");
+        if (withIntentsObj != null && !(withIntentsObj instanceof Boolean)) {
+            throw new ValidationException("Parameter 'withIntents' must be a boolean");
+        }
+
+        // Validate per-seed size and result cap
+        validateIntegerParameter(arguments, "size", 1, 1000);
+        validateIntegerParameter(arguments, "max_results", 1, MAX_RESULTS);
+    }
+
+    /**
+     * Validates and normalizes the seeds parameter
+     */
+    private static void validateSeedsParameter(Map<String, Object> arguments) throws ValidationException {
+        Object seedsObj = arguments.get("seeds");
+        if (seedsObj == null) {
+            throw new ValidationException("Parameter 'seeds' is required");
+        }
+
+        if (!(seedsObj instanceof List)) {
+            throw new ValidationException("Parameter 'seeds' must be an array");
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object> seeds = (List<Object>) seedsObj;
+
+        if (seeds.isEmpty()) {
+            throw new ValidationException("Parameter 'seeds' cannot be empty");
+        }
+
+        if (seeds.size() > MAX_SEEDS) {
+            throw new ValidationException(String.format("Maximum %d seeds allowed per request", MAX_SEEDS));
+        }
+
+        List<String> normalizedSeeds = new ArrayList<>(seeds.size());
+        LongHashSet unique = new LongHashSet(seeds.size());
+        for (int i = 0; i < seeds.size(); i++) {
+            if (!(seeds.get(i) instanceof String seedStr)) {
+                throw new ValidationException("All items in 'seeds' must be strings");
+            }
+
+            String seed = ValidationUtils.normalizeUtf8String(seedStr);
+            if (seed.isEmpty()) {
+                throw new ValidationException(String.format("Seed at index %d is empty", i));
+            }
+
+            if (seed.length() > 200) {
+                throw new ValidationException(String.format("Seed at index %d exceeds 200 characters", i));
+            }
+
+            if (!unique.add(KeywordHash.of(seed))) {
+                throw new ValidationException(String.format("Duplicate seed: %s", seed));
+            }
+
+            normalizedSeeds.add(seed);
+        }
+
+        // Update the normalized seeds back to arguments
+        arguments.put("seeds", normalizedSeeds);
+    }
+
+    private static void validateIntegerParameter(Map<String, Object> arguments, String name, int min, int max)
+            throws ValidationException {
+        Object value = arguments.get(name);
+        if (value == null) {
+            return;
+        }
+        if (!(value instanceof Integer)) {
+            throw new ValidationException(String.format("Parameter '%s' must be an integer", name));
+        }
+        int intValue = (Integer) value;
+        if (intValue < min || intValue > max) {
+            throw new ValidationException(String.format(
+                    "Parameter '%s' must be between %d and %d", name, min, max));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.serpstat.domains.keywords;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * 64-bit identity of a keyword for deduplication. Keywords that differ only in case, Unicode
+ * composition or runs of whitespace hash the same, so "Running Shoes" and "running  shoes" count as
+ * one keyword. At 64 bits, the odds that any two of a million different keywords collide are about
+ * 1 in 30 million, far below anything that matters for keyword research.
+ */
+public final class KeywordHash {
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private KeywordHash() {
+    }
+
+    /**
+     * Hash of the normalized keyword
+     */
+    public static long of(String keyword) {
+        String normalized = Normalizer.normalize(keyword, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        long hash = FNV_OFFSET;
+        boolean pendingSpace = false;
+        boolean started = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                hash = (hash ^ ' ') * FNV_PRIME;
+                pendingSpace = false;
+            }
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+            started = true;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Final avalanche (MurmurHash3 fmix64), so the low bits the set indexes by depend on every character
+     */
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
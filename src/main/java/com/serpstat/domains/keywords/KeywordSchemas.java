@@ -9,4 +9,7 @@ public class KeywordSchemas {
     public static final String GET_RELATED_KEYWORDS_SCHEMA = SchemaUtils.loadSchema(
             KeywordSchemas.class, "/schemas/keywords/get_related_keywords.json"
     );
+    public static final String BATCH_KEYWORD_RESEARCH_SCHEMA = SchemaUtils.loadSchema(
+            KeywordSchemas.class, "/schemas/keywords/batch_keyword_research.json"
+    );
 }
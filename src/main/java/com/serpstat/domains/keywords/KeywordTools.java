@@ -6,8 +6,12 @@ import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.server.McpSyncServerExchange;
 import io.modelcontextprotocol.spec.McpSchema.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Tools for keyword research and analysis
@@ -28,7 +32,8 @@ public class KeywordTools extends BaseToolHandler implements ToolProvider {
         return List.of(
                 createGetKeywordsTool(),
                 createKeywordCompetitorsTool(),
-                createGetRelatedKeywordsTool()
+                createGetRelatedKeywordsTool(),
+                createBatchKeywordResearchTool()
         );
     }
 
@@ -74,6 +79,96 @@ public class KeywordTools extends BaseToolHandler implements ToolProvider {
         );
     }
 
+    /**
+     * Create batch keyword research tool specification
+     */
+    private McpServerFeatures.SyncToolSpecification createBatchKeywordResearchTool() {
+        return new McpServerFeatures.SyncToolSpecification(
+                new Tool(
+                        "batch_keyword_research",
+                        "Research up to 100 seed keywords in one request. Runs get_keywords and/or get_related_keywords for every seed concurrently, merges the results into one list without duplicates (each keyword tagged with the seed it came from), and summarizes volume, CPC and difficulty across all of them. Costs the same API credits as the individual calls.",
+                        KeywordSchemas.BATCH_KEYWORD_RESEARCH_SCHEMA
+                ),
+                this::handleBatchKeywordResearch
+        );
+    }
+
+    /**
+     * Handle batch keyword research request
+     */
+    @SuppressWarnings("try")
+    private CallToolResult handleBatchKeywordResearch(McpSyncServerExchange exchange, Map<String, Object> arguments) {
+        return handleToolCall(exchange, arguments, "batchKeywordResearch", (args) -> {
+            // Validation
+            BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(args);
+
+            // Log request details
+            @SuppressWarnings("unchecked")
+            List<String> seeds = (List<String>) args.get("seeds");
+            String searchEngine = (String) args.get("se");
+            String mode = (String) args.getOrDefault("mode", "keywords");
+            Integer size = (Integer) args.getOrDefault("size", 100);
+            Integer maxResults = (Integer) args.getOrDefault("max_results", 1000);
+            Boolean withIntents = (Boolean) args.getOrDefault("withIntents", false);
+
+            exchange.loggingNotification(
+                    LoggingMessageNotification.builder()
+                            .level(LoggingLevel.DEBUG)
+                            .logger("KeywordTools")
+                            .data(String.format("Researching %d seed keywords in %s (mode %s, size %d, intents: %s)",
+                                    seeds.size(), searchEngine, mode, size, withIntents))
+                            .build()
+            );
+
+            List<String[]> calls = new ArrayList<>();
+            for (String seed : seeds) {
+                if (!"related".equals(mode)) {
+                    calls.add(new String[]{seed, "keywords", "SerpstatKeywordProcedure.getKeywords"});
+                }
+                if (!"keywords".equals(mode)) {
+                    calls.add(new String[]{seed, "related", "SerpstatKeywordProcedure.getRelatedKeywords"});
+                }
+            }
+
+            // All calls are queued at once; the scheduler paces them to the rate limit
+            List<CompletableFuture<SerpstatApiResponse>> pending = new ArrayList<>(calls.size());
+            try (RequestScheduler.Scope bulk = RequestScheduler.bind(RequestScheduler.Lane.BULK)) {
+                for (String[] call : calls) {
+                    Map<String, Object> params = new HashMap<>();
+                    params.put("keyword", call[0]);
+                    params.put("se", searchEngine);
+                    params.put("size", size);
+                    params.put("withIntents", withIntents);
+                    pending.add(apiClient.callMethodAsync(call[2], params));
+                }
+            }
+
+            // Merged in seed order, so the seed a keyword is credited to does not depend on timing
+            BatchKeywordMerger merger = new BatchKeywordMerger(calls.size() * size);
+            Throwable firstFailure = null;
+            for (int i = 0; i < calls.size(); i++) {
+                String[] call = calls.get(i);
+                try {
+                    merger.add(call[0], call[1], pending.get(i).join().getResult());
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    if (firstFailure == null) {
+                        firstFailure = cause;
+                    }
+                    merger.addFailure(call[0], call[1], cause.getMessage());
+                }
+                logInfo(exchange, String.format("Merged %d of %d keyword calls", i + 1, calls.size()));
+            }
+            if (!merger.hasResults()) {
+                throw firstFailure instanceof SerpstatApiException apiException
+                        ? apiException
+                        : new SerpstatApiException("Request failed: " + firstFailure.getMessage(), firstFailure);
+            }
+
+            return new SerpstatApiResponse(merger.toResult(maxResults), "batch_keyword_research", args);
+        });
+    }
+
     /**
      * Handle get related keywords request
      */
@@ -169,6 +264,8 @@ public class KeywordTools extends BaseToolHandler implements ToolProvider {
                     KeywordCompetitorsResponseFormatter.format(response, arguments, objectMapper);
             case "SerpstatKeywordProcedure.getRelatedKeywords" ->
                     RelatedKeywordsResponseFormatter.format(response, arguments, objectMapper);
+            case "batch_keyword_research" ->
+                    BatchKeywordResearchResponseFormatter.format(response, arguments, objectMapper);
             default ->
                     KeywordResponseFormatter.format(response, arguments, objectMapper);
         };
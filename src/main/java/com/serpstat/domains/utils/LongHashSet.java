@@ -0,0 +1,112 @@
+package com.serpstat.domains.utils;
+
+/**
+ * Set of 64-bit values in one open-addressing {@code long[]} with linear probing. A
+ * {@code HashSet<String>} of keywords holds each keyword's String, char array and hash node; this
+ * holds 8 bytes per slot, so tens of thousands of keyword hashes cost a few hundred kilobytes and no
+ * per-entry objects. Values are expected to be well-mixed hashes already. Not thread-safe.
+ */
+public final class LongHashSet {
+
+    // Slot value meaning "empty"; the value 0 itself is tracked on the side
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] slots;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Set sized to hold {@code expectedSize} values without growing
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1) << 1);
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds a value
+     *
+     * @return true when it was not in the set yet
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int slot = indexOf(value);
+        if (slots[slot] == value) {
+            return false;
+        }
+        slots[slot] = value;
+        // Kept at most half full, so probe runs stay short
+        if (++size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        return slots[indexOf(value)] == value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The values in the set, in no particular order
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int i = 0;
+        if (containsZero) {
+            values[i++] = EMPTY;
+        }
+        for (long value : slots) {
+            if (value != EMPTY) {
+                values[i++] = value;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Slot holding {@code value}, or the empty slot where it would go
+     */
+    private int indexOf(long value) {
+        int slot = (int) (value ^ (value >>> 32)) & mask;
+        while (slots[slot] != EMPTY && slots[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        mask = slots.length - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                slots[indexOf(value)] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.serpstat;
+
+import com.serpstat.core.TenantContext;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for resolving the tenant of an SSE connection
+ */
+@DisplayName("TenantSseTransportProvider Tests")
+class TenantSseTransportProviderTest {
+
+    @Test
+    @DisplayName("Should take the tenant's tokens from the header")
+    void shouldResolveTenantFromHeader() {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader(TenantSseTransportProvider.TOKEN_HEADER)).thenReturn(" first , second ");
+
+        TenantContext tenant = TenantSseTransportProvider.resolveTenant(request);
+
+        assertThat(tenant.getApiTokens()).containsExactly("first", "second");
+    }
+
+    @Test
+    @DisplayName("Should ignore the token query parameter and blank headers")
+    void shouldIgnoreTokenInQuery() {
+        HttpServletRequest withQuery = mock(HttpServletRequest.class);
+        when(withQuery.getParameter("token")).thenReturn("query-token");
+        HttpServletRequest blank = mock(HttpServletRequest.class);
+        when(blank.getHeader(TenantSseTransportProvider.TOKEN_HEADER)).thenReturn(" , ");
+
+        assertThat(TenantSseTransportProvider.resolveTenant(withQuery)).isNull();
+        assertThat(TenantSseTransportProvider.resolveTenant(blank)).isNull();
+        verify(withQuery, never()).getParameter(anyString());
+    }
+
+    @Test
+    @DisplayName("Should cap the number of tokens one tenant brings")
+    void shouldCapTokens() {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        String tokens = String.join(",", IntStream.range(0, 1_000).mapToObj(i -> "token-" + i).toList());
+        when(request.getHeader(TenantSseTransportProvider.TOKEN_HEADER)).thenReturn(tokens);
+
+        assertThat(TenantSseTransportProvider.resolveTenant(request).getApiTokens())
+                .hasSize(TenantSseTransportProvider.MAX_TOKENS);
+    }
+}
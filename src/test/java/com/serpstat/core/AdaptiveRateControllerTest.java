@@ -0,0 +1,146 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for AIMD control of the upstream request rate
+ */
+@DisplayName("AdaptiveRateController Tests")
+class AdaptiveRateControllerTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Duration FAST = Duration.ofMillis(100);
+
+    private final AtomicLong time = new AtomicLong(1_000_000 * MILLI);
+    private final SerpstatApiMetrics metrics = new SerpstatApiMetrics();
+    private final RateLimiter limiter = new RateLimiter(10, Duration.ofSeconds(1), 1, time::get);
+    private final AdaptiveRateController controller = new AdaptiveRateController(limiter, metrics, 1, 20, time::get);
+
+    /**
+     * Feeds {@code calls} successful responses spread evenly over one second
+     */
+    private void healthySecond(int calls) {
+        for (int i = 0; i < calls; i++) {
+            time.addAndGet((1_000 * MILLI + calls - 1) / calls);
+            controller.onSuccess(FAST);
+        }
+    }
+
+    @Test
+    @DisplayName("Should raise the rate step by step while the current rate is used and healthy")
+    void shouldIncreaseAdditively() {
+        healthySecond(10);
+        assertThat(controller.getRate()).isEqualTo(11);
+
+        healthySecond(11);
+        assertThat(controller.getRate()).isEqualTo(12);
+        assertThat(limiter.getRate()).isCloseTo(12, within(0.01));
+        assertThat(metrics.getEffectiveRate()).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("Should not raise the rate while callers leave it unused")
+    void shouldNotGrowWhenIdle() {
+        healthySecond(3);
+        healthySecond(3);
+
+        assertThat(controller.getRate()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should never exceed the maximum rate")
+    void shouldCapAtMaximum() {
+        for (int second = 0; second < 30; second++) {
+            healthySecond(25);
+        }
+
+        assertThat(controller.getRate()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should halve the rate once per burst of 429s and honor Retry-After")
+    void shouldBackOffOnThrottling() {
+        controller.onThrottled(Duration.ofSeconds(3));
+        time.addAndGet(10 * MILLI);
+        controller.onThrottled(null);
+        controller.onThrottled(null);
+
+        assertThat(controller.getRate()).isEqualTo(5);
+        assertThat(metrics.getThrottledResponses()).isEqualTo(3);
+        assertThat(limiter.getEstimatedWait()).isGreaterThan(Duration.ofMillis(2_900));
+
+        time.addAndGet(1_500 * MILLI);
+        controller.onThrottled(null);
+        assertThat(controller.getRate()).isEqualTo(2.5);
+    }
+
+    @Test
+    @DisplayName("Should back off on server errors down to the minimum rate")
+    void shouldBackOffOnServerErrors() {
+        for (int i = 0; i < 10; i++) {
+            controller.onServerError(503);
+            time.addAndGet(1_100 * MILLI);
+        }
+
+        assertThat(controller.getRate()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should back off when latency spikes well above its baseline")
+    void shouldBackOffOnLatencySpike() {
+        healthySecond(10);
+        healthySecond(11);
+        healthySecond(12);
+        double before = controller.getRate();
+
+        time.addAndGet(100 * MILLI);
+        controller.onSuccess(Duration.ofSeconds(5));
+
+        assertThat(controller.getRate()).isEqualTo(before / 2);
+    }
+
+    @Test
+    @DisplayName("Should parse Retry-After as seconds or an HTTP date")
+    void shouldParseRetryAfter() {
+        String inTenSeconds = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(10));
+
+        assertThat(AdaptiveRateController.parseRetryAfter("7")).isEqualTo(Duration.ofSeconds(7));
+        assertThat(AdaptiveRateController.parseRetryAfter(inTenSeconds)).isBetween(Duration.ofSeconds(8), Duration.ofSeconds(10));
+        assertThat(AdaptiveRateController.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT")).isEqualTo(Duration.ZERO);
+        assertThat(AdaptiveRateController.parseRetryAfter("soon")).isNull();
+        assertThat(AdaptiveRateController.parseRetryAfter(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should slow the client down when Serpstat answers 429")
+    void shouldAdaptClientToThrottling() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> new StubSerpstatServer.Reply(429, "Too Many Requests", Duration.ZERO)
+                    .withHeader("Retry-After", "1"));
+            SerpstatApiClient client = new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .retryPolicy(RetryPolicy.none())
+                    .build());
+
+            assertThatThrownBy(() -> client.callMethod("SerpstatDomainProcedure.getDomainsInfo", Map.of()))
+                    .isInstanceOf(SerpstatApiException.class)
+                    .hasMessageContaining("HTTP Error: 429")
+                    .extracting(e -> ((SerpstatApiException) e).getErrorCode())
+                    .isEqualTo(429);
+            assertThat(client.getMetrics().getThrottledResponses()).isEqualTo(1);
+            assertThat(client.getMetrics().getEffectiveRate()).isEqualTo(5);
+            assertThat(client.getMetrics().snapshot()).containsEntry("effective_rate", 5.0);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.serpstat.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the legacy {@code method + ":" + params.toString()} cache key with {@link CacheKey}.
+ * <p>
+ * Run with the GC profiler to see allocation per key:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main CacheKeyBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainsInfo";
+
+    private Map<String, Object> smallParams;
+    private Map<String, Object> portfolioParams;
+    private final Map<Object, Object> warmCache = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        smallParams = new HashMap<>();
+        smallParams.put("domain", "example.com");
+        smallParams.put("se", "g_us");
+        smallParams.put("page", 1);
+        smallParams.put("size", 100);
+
+        List<String> domains = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            domains.add("portfolio-domain-" + i + ".com");
+        }
+        portfolioParams = new HashMap<>();
+        portfolioParams.put("domains", domains);
+        portfolioParams.put("se", "g_us");
+        portfolioParams.put("filters", Map.of("traff", 100, "visible", 0.5));
+
+        warmCache.put(METHOD + ":" + portfolioParams.toString(), Boolean.TRUE);
+        warmCache.put(CacheKey.of(METHOD, portfolioParams), Boolean.TRUE);
+    }
+
+    @Benchmark
+    public String legacyKeySmall() {
+        return METHOD + ":" + smallParams.toString();
+    }
+
+    @Benchmark
+    public CacheKey canonicalKeySmall() {
+        return CacheKey.of(METHOD, smallParams);
+    }
+
+    @Benchmark
+    public String legacyKeyPortfolio() {
+        return METHOD + ":" + portfolioParams.toString();
+    }
+
+    @Benchmark
+    public CacheKey canonicalKeyPortfolio() {
+        return CacheKey.of(METHOD, portfolioParams);
+    }
+
+    /**
+     * Full hit path: build the key, hash it and compare it with the stored key
+     */
+    @Benchmark
+    public Object legacyHitPortfolio() {
+        return warmCache.get(METHOD + ":" + portfolioParams.toString());
+    }
+
+    @Benchmark
+    public Object canonicalHitPortfolio() {
+        return warmCache.get(CacheKey.of(METHOD, portfolioParams));
+    }
+}
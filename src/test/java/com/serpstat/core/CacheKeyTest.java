@@ -0,0 +1,125 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for canonical cache key generation
+ */
+@DisplayName("CacheKey Tests")
+class CacheKeyTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainsInfo";
+
+    @Test
+    @DisplayName("Should ignore map iteration order")
+    void shouldIgnoreMapOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("domain", "example.com");
+        first.put("se", "g_ua");
+        first.put("size", 100);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("size", 100);
+        second.put("se", "g_ua");
+        second.put("domain", "example.com");
+
+        assertThat(CacheKey.of(METHOD, first)).isEqualTo(CacheKey.of(METHOD, second));
+    }
+
+    @Test
+    @DisplayName("Should treat set-like list params as unordered")
+    void shouldTreatSetLikeListsAsUnordered() {
+        CacheKey first = CacheKey.of(METHOD, Map.of("domains", List.of("a.com", "b.com"), "se", "g_us"));
+        CacheKey second = CacheKey.of(METHOD, Map.of("domains", List.of("b.com", "a.com"), "se", "g_us"));
+
+        assertThat(first).isEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("Should keep order for ordinary list params")
+    void shouldKeepOrderForOrdinaryLists() {
+        CacheKey first = CacheKey.of(METHOD, Map.of("sort", List.of("traff", "keywords")));
+        CacheKey second = CacheKey.of(METHOD, Map.of("sort", List.of("keywords", "traff")));
+
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("Should fold default parameters into the key")
+    void shouldFoldDefaults() {
+        CacheKey implicit = CacheKey.of(METHOD, Map.of("domains", List.of("a.com")));
+        CacheKey explicit = CacheKey.of(METHOD, Map.of("domains", List.of("a.com"), "se", "g_us", "page", 1));
+        CacheKey other = CacheKey.of(METHOD, Map.of("domains", List.of("a.com"), "se", "g_ua"));
+
+        assertThat(implicit).isEqualTo(explicit);
+        assertThat(implicit).isNotEqualTo(other);
+    }
+
+    @Test
+    @DisplayName("Should treat null values as omitted")
+    void shouldTreatNullAsOmitted() {
+        Map<String, Object> withNull = new HashMap<>();
+        withNull.put("domain", "example.com");
+        withNull.put("filters", null);
+
+        assertThat(CacheKey.of(METHOD, withNull)).isEqualTo(CacheKey.of(METHOD, Map.of("domain", "example.com")));
+        assertThat(CacheKey.of(METHOD, null)).isEqualTo(CacheKey.of(METHOD, Map.of()));
+    }
+
+    @Test
+    @DisplayName("Should normalize integral numbers of different boxed types")
+    void shouldNormalizeNumbers() {
+        assertThat(CacheKey.of(METHOD, Map.of("size", 100)))
+                .isEqualTo(CacheKey.of(METHOD, Map.of("size", 100L)))
+                .isEqualTo(CacheKey.of(METHOD, Map.of("size", 100.0)));
+        assertThat(CacheKey.of(METHOD, Map.of("size", 100))).isNotEqualTo(CacheKey.of(METHOD, Map.of("size", "100")));
+    }
+
+    @Test
+    @DisplayName("Should canonicalize nested filter maps")
+    void shouldCanonicalizeNestedMaps() {
+        Map<String, Object> filtersA = new LinkedHashMap<>();
+        filtersA.put("traff", 10);
+        filtersA.put("visible", 0.5);
+        Map<String, Object> filtersB = new LinkedHashMap<>();
+        filtersB.put("visible", 0.5);
+        filtersB.put("traff", 10);
+
+        assertThat(CacheKey.of(METHOD, Map.of("filters", filtersA)))
+                .isEqualTo(CacheKey.of(METHOD, Map.of("filters", filtersB)));
+        assertThat(CacheKey.of(METHOD, Map.of("filters", filtersA)))
+                .isNotEqualTo(CacheKey.of(METHOD, Map.of("filters", Map.of("traff", 10))));
+    }
+
+    @Test
+    @DisplayName("Should distinguish methods, values and key placement")
+    void shouldDistinguishDifferentCalls() {
+        assertThat(CacheKey.of(METHOD, Map.of("domain", "a.com")))
+                .isNotEqualTo(CacheKey.of("SerpstatDomainProcedure.getRegionsCount", Map.of("domain", "a.com")))
+                .isNotEqualTo(CacheKey.of(METHOD, Map.of("domain", "b.com")))
+                .isNotEqualTo(CacheKey.of(METHOD, Map.of("url", "a.com")));
+        assertThat(CacheKey.of(METHOD, Map.of("a", "b", "c", "d")))
+                .isNotEqualTo(CacheKey.of(METHOD, Map.of("a", "d", "c", "b")));
+        assertThat(CacheKey.of(METHOD, Map.of("domains", List.of("a.com", "a.com"))))
+                .isNotEqualTo(CacheKey.of(METHOD, Map.of("domains", List.of("a.com"))));
+    }
+
+    @Test
+    @DisplayName("Should not collide across many distinct params")
+    void shouldNotCollideAcrossManyParams() {
+        Set<CacheKey> keys = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            keys.add(CacheKey.of(METHOD, Map.of("domain", "domain" + i + ".com", "page", i % 7 + 1)));
+        }
+        assertThat(keys).hasSize(20_000);
+    }
+}
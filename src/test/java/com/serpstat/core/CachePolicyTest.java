@@ -0,0 +1,198 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for per-method cache expiry and byte-weighted eviction
+ */
+@DisplayName("Cache Policy Tests")
+class CachePolicyTest {
+
+    private static final String STATS = "SerpstatLimitsProcedure.getStats";
+    private static final String DOMAIN_INFO = "SerpstatDomainProcedure.getDomainsInfo";
+    private static final String DOMAIN_KEYWORDS = "SerpstatDomainProcedure.getDomainKeywords";
+    private static final String PROJECTS = "ProjectProcedure.getProjects";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private StubSerpstatServer stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubSerpstatServer();
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"ok\"}}"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private SerpstatApiClient client(CachePolicyRegistry policies, long memoryCacheMaxBytes) {
+        return new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                .apiUrl(stub.url())
+                .cachePolicies(policies)
+                .memoryCacheMaxBytes(memoryCacheMaxBytes)
+                .build());
+    }
+
+    /**
+     * Page of near-incompressible rows, so its cached (deflated) size stays large
+     */
+    private static String randomPage(int rows) {
+        StringBuilder json = new StringBuilder("{\"id\":1,\"result\":{\"data\":[");
+        for (int i = 0; i < rows; i++) {
+            json.append(i == 0 ? "" : ",").append('"').append(UUID.randomUUID()).append('"');
+        }
+        return json.append("]}}").toString();
+    }
+
+    private static String keywordPage(int rows) {
+        StringBuilder json = new StringBuilder("{\"id\":1,\"result\":{\"data\":[");
+        for (int i = 0; i < rows; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"keyword\":\"keyword number ").append(i)
+                    .append("\",\"position\":").append(i % 100).append('}');
+        }
+        return json.append("]}}").toString();
+    }
+
+    @Test
+    @DisplayName("Should resolve built-in policies and fall back to the default")
+    void shouldResolveDefaultPolicies() {
+        CachePolicyRegistry registry = CachePolicyRegistry.defaults();
+
+        assertThat(registry.policyFor(STATS).getTtl()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(registry.policyFor("SerpstatDomainProcedure.getRegionsCount").getTtl()).isEqualTo(Duration.ofHours(12));
+        assertThat(registry.policyFor(PROJECTS).getTtl()).isEqualTo(Duration.ofMinutes(30));
+        assertThat(registry.policyFor(DOMAIN_INFO)).isSameAs(CachePolicyRegistry.DEFAULT_POLICY);
+    }
+
+    @Test
+    @DisplayName("Should count down the remaining lifetime from the fetch time")
+    void shouldComputeRemainingLifetime() {
+        CachePolicy policy = CachePolicy.expireAfter(Duration.ofMinutes(10));
+
+        assertThat(policy.remainingNanos(1_000, 1_000)).isEqualTo(Duration.ofMinutes(10).toNanos());
+        assertThat(policy.remainingNanos(0, Duration.ofMinutes(4).toMillis())).isEqualTo(Duration.ofMinutes(6).toNanos());
+        assertThat(policy.remainingNanos(0, Duration.ofHours(1).toMillis())).isZero();
+        assertThat(CachePolicy.untilInvalidated().remainingNanos(0, Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+        assertThat(CachePolicy.untilInvalidated().expiresAtMillis(System.currentTimeMillis())).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("Should mark entries stale only past the refresh interval")
+    void shouldDetectStaleness() {
+        CachePolicy policy = CachePolicy.expireAfter(Duration.ofHours(12)).refreshAfter(Duration.ofHours(6));
+
+        assertThat(policy.isStale(0, Duration.ofHours(5).toMillis())).isFalse();
+        assertThat(policy.isStale(0, Duration.ofHours(6).toMillis())).isTrue();
+        assertThat(CachePolicy.expireAfter(Duration.ofHours(12)).isStale(0, Long.MAX_VALUE)).isFalse();
+        assertThatThrownBy(() -> CachePolicy.expireAfter(Duration.ofMinutes(1)).refreshAfter(Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private int weigh(JsonNode result) throws Exception {
+        SerpstatApiResponse response = new SerpstatApiResponse(result, STATS, Map.of());
+        CompactResponse compact = CompactResponse.of(response,
+                result == null ? null : mapper.writeValueAsBytes(result));
+        return new ResponseWeigher().weigh(CacheKey.of(STATS, Map.of()), compact);
+    }
+
+    @Test
+    @DisplayName("Should weigh responses by the size of their compacted JSON")
+    void shouldWeighBySize() throws Exception {
+        int smallBytes = weigh(mapper.readTree("{\"left_lines\":1000}"));
+        int keywordBytes = weigh(mapper.readTree(keywordPage(1000)).get("result"));
+        int randomBytes = weigh(mapper.readTree(randomPage(1000)).get("result"));
+
+        assertThat(smallBytes).isLessThan(512);
+        assertThat(weigh(null)).isPositive().isLessThan(smallBytes);
+        // Repetitive rows deflate well; 1000 random UUIDs keep at least their 16 bytes of entropy each
+        assertThat(keywordBytes).isGreaterThan(smallBytes).isLessThan(randomBytes);
+        assertThat(randomBytes).isGreaterThan(16_000).isLessThan(40_000);
+    }
+
+    @Test
+    @DisplayName("Should expire entries after their method's TTL")
+    void shouldExpirePerMethod() throws Exception {
+        CachePolicyRegistry policies = CachePolicyRegistry.defaults()
+                .register(STATS, CachePolicy.expireAfter(Duration.ofMillis(100)));
+        SerpstatApiClient client = client(policies, 1024 * 1024);
+
+        client.callMethod(STATS, Map.of());
+        client.callMethod(DOMAIN_INFO, Map.of("domains", List.of("example.com")));
+        Thread.sleep(200);
+        client.callMethod(STATS, Map.of());
+        client.callMethod(DOMAIN_INFO, Map.of("domains", List.of("example.com")));
+
+        assertThat(stub.requestCount()).isEqualTo(3);
+        assertThat(client.getMetrics().getCacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should refresh the project list within minutes, in memory and on disk")
+    void shouldRefreshProjects() {
+        CachePolicy projects = CachePolicyRegistry.defaults().policyFor(PROJECTS);
+        long written = System.currentTimeMillis();
+
+        assertThat(projects.isStale(written, written + Duration.ofMinutes(4).toMillis())).isFalse();
+        assertThat(projects.isStale(written, written + Duration.ofMinutes(5).toMillis())).isTrue();
+        assertThat(projects.remainingNanos(written, written + Duration.ofMinutes(30).toMillis())).isZero();
+        // The disk tier gets the same TTL, so a restart does not bring back an old project list
+        assertThat(projects.expiresAtMillis(written)).isEqualTo(written + Duration.ofMinutes(30).toMillis());
+    }
+
+    @Test
+    @DisplayName("Should drop cached entries of a method when it is invalidated")
+    void shouldInvalidateMethod() throws Exception {
+        SerpstatApiClient client = client(CachePolicyRegistry.defaults(), 1024 * 1024);
+
+        client.callMethod(PROJECTS, Map.of("page", 1));
+        client.callMethod(PROJECTS, Map.of("page", 1));
+        assertThat(stub.requestCount()).isEqualTo(1);
+
+        client.invalidate(PROJECTS);
+        client.callMethod(PROJECTS, Map.of("page", 1));
+
+        assertThat(stub.requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should bound the cache in bytes rather than entries")
+    void shouldEvictByWeight() throws Exception {
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok(body.contains(DOMAIN_KEYWORDS)
+                ? randomPage(1000)
+                : "{\"id\":1,\"result\":{\"left_lines\":1000}}"));
+        SerpstatApiClient client = client(CachePolicyRegistry.defaults(), 32 * 1024);
+
+        // Many small responses fit comfortably
+        for (int i = 0; i < 20; i++) {
+            client.callMethod(DOMAIN_INFO, Map.of("domains", List.of("site" + i + ".com")));
+        }
+        client.cleanUpCache();
+        for (int i = 0; i < 20; i++) {
+            client.callMethod(DOMAIN_INFO, Map.of("domains", List.of("site" + i + ".com")));
+        }
+        assertThat(stub.requestCount()).isEqualTo(20);
+
+        // A couple of large pages push the budget over and evict entries
+        client.callMethod(DOMAIN_KEYWORDS, Map.of("domain", "a.com"));
+        client.callMethod(DOMAIN_KEYWORDS, Map.of("domain", "b.com"));
+        client.cleanUpCache();
+        client.callMethod(DOMAIN_KEYWORDS, Map.of("domain", "a.com"));
+        client.callMethod(DOMAIN_KEYWORDS, Map.of("domain", "b.com"));
+
+        assertThat(stub.requestCount()).isGreaterThan(22);
+    }
+}
@@ -0,0 +1,132 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for running a list-taking method over long lists in chunks
+ */
+@DisplayName("ChunkFetcher Tests")
+class ChunkFetcherTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainsInfo";
+    private static final Pattern DOMAIN = Pattern.compile("\"(site\\d+\\.com)\"");
+
+    /**
+     * Answers with one row per requested domain, failing any chunk that holds {@code failingDomain}
+     */
+    private static StubSerpstatServer.Reply domainsInfo(String body, String failingDomain) {
+        if (body.contains('"' + failingDomain + '"')) {
+            return StubSerpstatServer.Reply.ok("{\"id\":1,\"error\":{\"code\":-32602,\"message\":\"Chunk rejected\"}}");
+        }
+        StringBuilder rows = new StringBuilder();
+        int count = 0;
+        Matcher matcher = DOMAIN.matcher(body);
+        while (matcher.find()) {
+            rows.append(count++ == 0 ? "" : ",").append("{\"domain\":\"").append(matcher.group(1)).append("\"}");
+        }
+        return StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":[" + rows + "],"
+                + "\"summary_info\":{\"left_lines\":" + (1_000_000 - count) + "}}}");
+    }
+
+    private static SerpstatApiClient client(StubSerpstatServer stub) {
+        return new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                .apiUrl(stub.url())
+                .requestsPerSecond(50)
+                .build());
+    }
+
+    private static Map<String, Object> params(int domainCount) {
+        List<String> domains = new ArrayList<>();
+        for (int i = 0; i < domainCount; i++) {
+            domains.add("site" + i + ".com");
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("domains", domains);
+        params.put("se", "g_us");
+        return params;
+    }
+
+    @Test
+    @DisplayName("Should send a long list in chunks and merge the rows in list order")
+    void shouldMergeChunksInOrder() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> domainsInfo(body, "none"));
+            AtomicInteger progressNotes = new AtomicInteger();
+
+            SerpstatApiResponse response = new ChunkFetcher(client(stub)).fetch(METHOD, params(950), "domains", 100,
+                    (chunksFetched, chunksTotal, rowsFetched) -> {
+                        assertThat(chunksTotal).isEqualTo(10);
+                        progressNotes.incrementAndGet();
+                    });
+
+            JsonNode data = response.getResult().get("data");
+            assertThat(data).hasSize(950);
+            for (int i = 0; i < data.size(); i++) {
+                assertThat(data.get(i).get("domain").asText()).isEqualTo("site" + i + ".com");
+            }
+            assertThat(stub.requestCount()).isEqualTo(10);
+            assertThat(progressNotes).hasValue(10);
+            JsonNode summary = response.getResult().get("summary_info");
+            assertThat(summary.get("chunks_fetched").asInt()).isEqualTo(10);
+            assertThat(summary.get("left_lines").asLong()).isEqualTo(1_000_000 - 100);
+        }
+    }
+
+    @Test
+    @DisplayName("Should send a list that fits one call as is")
+    void shouldPassShortListThrough() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> domainsInfo(body, "none"));
+
+            SerpstatApiResponse response = new ChunkFetcher(client(stub)).fetch(METHOD, params(100), "domains", 100,
+                    (chunksFetched, chunksTotal, rowsFetched) -> { });
+
+            assertThat(response.getResult().get("data")).hasSize(100);
+            assertThat(response.getResult().get("summary_info").has("chunks_fetched")).isFalse();
+            assertThat(stub.requestCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the other chunks and list the items of a failed one")
+    void shouldListFailedItems() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> domainsInfo(body, "site150.com"));
+
+            SerpstatApiResponse response = new ChunkFetcher(client(stub)).fetch(METHOD, params(250), "domains", 100,
+                    (chunksFetched, chunksTotal, rowsFetched) -> { });
+
+            assertThat(response.getResult().get("data")).hasSize(150);
+            JsonNode summary = response.getResult().get("summary_info");
+            assertThat(summary.get("failed_items")).hasSize(100);
+            assertThat(summary.get("failed_items").get(0).asText()).isEqualTo("site100.com");
+            assertThat(summary.get("incomplete").asText()).startsWith("100 items failed");
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail when every chunk fails")
+    void shouldFailWhenAllChunksFail() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> StubSerpstatServer.Reply.ok(
+                    "{\"id\":1,\"error\":{\"code\":-32602,\"message\":\"Chunk rejected\"}}"));
+
+            assertThatThrownBy(() -> new ChunkFetcher(client(stub)).fetch(METHOD, params(250), "domains", 100,
+                    (chunksFetched, chunksTotal, rowsFetched) -> { }))
+                    .isInstanceOf(SerpstatApiException.class)
+                    .hasMessageContaining("Chunk rejected");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for failing fast while a Serpstat endpoint is down
+ */
+@DisplayName("CircuitBreaker Tests")
+class CircuitBreakerTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong time = new AtomicLong(1_000_000 * MILLI);
+    private final SerpstatApiMetrics metrics = new SerpstatApiMetrics();
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 3, Duration.ofSeconds(10), metrics, time::get);
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    @DisplayName("Should open after consecutive failures only")
+    void shouldOpenAfterConsecutiveFailures() {
+        fail(2);
+        breaker.onSuccess();
+        fail(2);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail(1);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getRetryIn()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(metrics.getCircuitTrips()).isEqualTo(1);
+        assertThat(metrics.getOpenCircuits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should let a single probe through after the open period and close on its success")
+    void shouldCloseAfterSuccessfulProbe() {
+        fail(3);
+        time.addAndGet(10_000 * MILLI);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(metrics.getOpenCircuits()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reopen for another period when the probe fails")
+    void shouldReopenAfterFailedProbe() {
+        fail(3);
+        time.addAndGet(10_000 * MILLI);
+        fail(1);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getRetryIn()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(metrics.getCircuitTrips()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should hand the probe slot back when the probe never went out")
+    void shouldReleaseAbandonedProbe() {
+        fail(3);
+        time.addAndGet(10_000 * MILLI);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onAbandoned();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should fail calls fast while Serpstat is down and recover once it answers")
+    void shouldFailFastInClient() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> new StubSerpstatServer.Reply(503, "unavailable", Duration.ZERO));
+            SerpstatApiClient client = new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .retryPolicy(RetryPolicy.none())
+                    .circuitFailureThreshold(2)
+                    .circuitOpenDuration(Duration.ofMillis(300))
+                    .build());
+            String method = "SerpstatDomainProcedure.getDomainsInfo";
+
+            for (int i = 0; i < 2; i++) {
+                Map<String, Object> params = Map.of("domains", "down" + i + ".com");
+                assertThatThrownBy(() -> client.callMethod(method, params)).hasMessageContaining("HTTP Error: 503");
+            }
+            assertThatThrownBy(() -> client.callMethod(method, Map.of("domains", "fast.com")))
+                    .isInstanceOf(SerpstatApiException.class)
+                    .extracting(e -> ((SerpstatApiException) e).getErrorType())
+                    .isEqualTo(SerpstatApiException.CIRCUIT_OPEN);
+            assertThat(stub.requestCount()).isEqualTo(2);
+            assertThat(client.getCircuitState(method)).isEqualTo(CircuitBreaker.State.OPEN);
+            assertThat(client.getMetrics().getCircuitRejections()).isEqualTo(1);
+            // Other endpoints keep their own circuit
+            assertThat(client.getCircuitState("SerpstatKeywordProcedure.getKeywords")).isEqualTo(CircuitBreaker.State.CLOSED);
+
+            Thread.sleep(400);
+            stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"back\"}}"));
+
+            assertThat(client.callMethod(method, Map.of("domains", "probe.com")).getResult().path("data").asText())
+                    .isEqualTo("back");
+            assertThat(client.getCircuitState(method)).isEqualTo(CircuitBreaker.State.CLOSED);
+            assertThat(client.getMetrics().snapshot()).containsEntry("open_circuits", 0L);
+        }
+    }
+}
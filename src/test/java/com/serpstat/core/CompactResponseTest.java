@@ -0,0 +1,103 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the compact in-memory form of cached responses
+ */
+@DisplayName("CompactResponse Tests")
+class CompactResponseTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainKeywords";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static String keywordPage(int rows) {
+        StringBuilder json = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < rows; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"domain\":\"example.com\",\"keyword\":\"купить ноутбук ").append(i)
+                    .append("\",\"found_results\":").append(1_000_000 + i * 7919)
+                    .append(",\"url\":\"https://example.com/catalog/laptops/page-").append(i)
+                    .append("\",\"position\":").append(i % 100)
+                    .append(",\"types\":[\"pic\",\"related_search\"],\"cost\":").append((i % 50) / 10.0)
+                    .append(",\"concurrency\":").append(i % 100)
+                    .append(",\"region_queries_count\":").append(12_000 - i)
+                    .append(",\"traff\":").append(i * 3).append('}');
+        }
+        return json.append("],\"summary_info\":{\"page\":1,\"left_lines\":999000}}").toString();
+    }
+
+    private CompactResponse compact(SerpstatApiResponse response) throws Exception {
+        byte[] json = response.getResult() == null ? null : mapper.writeValueAsBytes(response.getResult());
+        return CompactResponse.of(response, json);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the same response, keeping the fetch time")
+    void shouldRoundTrip() throws Exception {
+        JsonNode result = mapper.readTree(keywordPage(10));
+        Map<String, Object> params = Map.of("domain", "example.com");
+        SerpstatApiResponse original = new SerpstatApiResponse(result, METHOD, params, 1_234L);
+
+        SerpstatApiResponse restored = compact(original).inflate(mapper);
+
+        assertThat(restored.getResult()).isEqualTo(result);
+        assertThat(restored.getResult().path("data").get(3).path("keyword").asText()).isEqualTo("купить ноутбук 3");
+        assertThat(restored.getMethod()).isEqualTo(METHOD);
+        assertThat(restored.getRequestParams()).isEqualTo(params);
+        assertThat(restored.getTimestamp()).isEqualTo(1_234L);
+    }
+
+    @Test
+    @DisplayName("Should keep responses without a result")
+    void shouldHandleMissingResult() throws Exception {
+        SerpstatApiResponse restored = compact(new SerpstatApiResponse(null, METHOD, Map.of())).inflate(mapper);
+
+        assertThat(restored.getResult()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should take a fraction of the bytes of the JSON it keeps")
+    void shouldBeMuchSmallerThanJson() throws Exception {
+        for (int rows : List.of(100, 1000)) {
+            JsonNode result = mapper.readTree(keywordPage(rows));
+            int jsonBytes = mapper.writeValueAsBytes(result).length;
+            CompactResponse compact = compact(new SerpstatApiResponse(result, METHOD, Map.of()));
+
+            assertThat(compact.sizeBytes() * 4L).as("%d rows: JSON %d B, compact %d B", rows, jsonBytes,
+                    compact.sizeBytes()).isLessThan(jsonBytes);
+            assertThat(new ResponseWeigher().weigh(CacheKey.of(METHOD, Map.of()), compact))
+                    .isGreaterThan(compact.sizeBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should give every cache hit its own tree")
+    void shouldIsolateHitsFromEachOther() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"original\"}}"));
+            SerpstatApiClient client = new SerpstatApiClient("token", stub.url());
+
+            SerpstatApiResponse first = client.callMethod(METHOD, Map.of("domain", "example.com"));
+            ((ObjectNode) first.getResult()).put("data", "mutated by a formatter");
+            SerpstatApiResponse second = client.callMethod(METHOD, Map.of("domain", "example.com"));
+
+            assertThat(second.getResult().path("data").asText()).isEqualTo("original");
+            assertThat(stub.requestCount()).isEqualTo(1);
+            // Weights are applied by Caffeine's asynchronous maintenance
+            client.cleanUpCache();
+            assertThat(client.getCachedEntryCount()).isEqualTo(1);
+            assertThat(client.getCachedBytes()).isPositive();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for preflight credit estimation and budget enforcement
+ */
+@DisplayName("CreditBudgetManager Tests")
+class CreditBudgetManagerTest {
+
+    private static final String DOMAIN_KEYWORDS = "SerpstatDomainProcedure.getDomainKeywords";
+    private static final String DOMAINS_INFO = "SerpstatDomainProcedure.getDomainsInfo";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SerpstatApiMetrics metrics = new SerpstatApiMetrics();
+
+    private JsonNode rows(int count) throws Exception {
+        StringBuilder json = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"keyword\":\"k").append(i).append("\"}");
+        }
+        return objectMapper.readTree(json.append("]}").toString());
+    }
+
+    @Test
+    @DisplayName("Should estimate cost from method, size and list lengths")
+    void shouldEstimateCost() {
+        assertThat(CreditBudgetManager.estimate(DOMAIN_KEYWORDS, Map.of("size", 250))).isEqualTo(250);
+        assertThat(CreditBudgetManager.estimate(DOMAIN_KEYWORDS, Map.of())).isEqualTo(100);
+        assertThat(CreditBudgetManager.estimate(DOMAINS_INFO, Map.of("domains", List.of("a.com", "b.com"))))
+                .isEqualTo(10);
+        assertThat(CreditBudgetManager.estimate("SerpstatDomainProcedure.getCompetitors", Map.of("size", 4)))
+                .isEqualTo(20);
+        assertThat(CreditBudgetManager.estimate("SerpstatBacklinksProcedure.getSummaryV2", Map.of("query", "a.com")))
+                .isEqualTo(5);
+        assertThat(CreditBudgetManager.estimate("SerpstatLimitsProcedure.getStats", Map.of())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject a call that does not fit the global budget and spend nothing")
+    void shouldRejectOverGlobalBudget() throws Exception {
+        CreditBudgetManager budgets = new CreditBudgetManager(150, 0, Map.of(), metrics);
+
+        budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 100));
+
+        assertThatThrownBy(() -> budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 100)))
+                .isInstanceOf(SerpstatApiException.class)
+                .hasMessageContaining("global budget has 50 left")
+                .extracting(e -> ((SerpstatApiException) e).getErrorType())
+                .isEqualTo(SerpstatApiException.BUDGET_EXCEEDED);
+        assertThat(budgets.getGlobalCreditsLeft()).isEqualTo(50);
+        assertThat(metrics.getBudgetRejections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep separate budgets per session and roll back the global reservation")
+    @SuppressWarnings("try")
+    void shouldIsolateSessions() throws Exception {
+        CreditBudgetManager budgets = new CreditBudgetManager(1_000, 100, Map.of(), metrics);
+        Object alice = new Object();
+        Object bob = new Object();
+
+        try (CreditBudgetManager.Scope ignored = CreditBudgetManager.bind(alice, "getDomainKeywords")) {
+            budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 100));
+            assertThatThrownBy(() -> budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 1)))
+                    .hasMessageContaining("session budget");
+        }
+        try (CreditBudgetManager.Scope ignored = CreditBudgetManager.bind(bob, "getDomainKeywords")) {
+            assertThatCode(() -> budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 100))).doesNotThrowAnyException();
+        }
+
+        assertThat(budgets.getGlobalCreditsLeft()).isEqualTo(800);
+    }
+
+    @Test
+    @DisplayName("Should enforce per-tool budgets only for calls made by that tool")
+    @SuppressWarnings("try")
+    void shouldEnforceToolBudget() throws Exception {
+        CreditBudgetManager budgets = new CreditBudgetManager(0, 0, Map.of("getDomainsInfo", 10L), metrics);
+
+        try (CreditBudgetManager.Scope ignored = CreditBudgetManager.bind(null, "getDomainsInfo")) {
+            budgets.reserve(DOMAINS_INFO, Map.of("domains", List.of("a.com", "b.com")));
+            assertThatThrownBy(() -> budgets.reserve(DOMAINS_INFO, Map.of("domains", List.of("c.com"))))
+                    .hasMessageContaining("tool 'getDomainsInfo'");
+        }
+        assertThatCode(() -> budgets.reserve(DOMAINS_INFO, Map.of("domains", List.of("c.com"))))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should settle reservations to the rows returned and refund failed calls")
+    void shouldSettleToActualCost() throws Exception {
+        CreditBudgetManager budgets = new CreditBudgetManager(1_000, 0, Map.of(), metrics);
+
+        budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 100)).settle(DOMAIN_KEYWORDS, Map.of("size", 100), rows(7));
+        budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 500)).cancel();
+
+        assertThat(budgets.getGlobalCreditsLeft()).isEqualTo(993);
+        assertThat(metrics.getCreditsSpent()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should charge a hedge against the budgets of the call it backs up, on any thread")
+    @SuppressWarnings("try")
+    void shouldReserveHedgesAgainstSameBudgets() throws Exception {
+        CreditBudgetManager budgets = new CreditBudgetManager(1_000, 150, Map.of(), metrics);
+        Object session = new Object();
+        CreditBudgetManager.Reservation primary;
+        try (CreditBudgetManager.Scope ignored = CreditBudgetManager.bind(session, "getDomainKeywords")) {
+            primary = budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 60));
+        }
+
+        // Outside the scope, as on the timer thread that sends backups
+        CreditBudgetManager.Reservation backup = primary.again(DOMAIN_KEYWORDS);
+        assertThat(budgets.getGlobalCreditsLeft()).isEqualTo(880);
+        assertThatThrownBy(() -> primary.again(DOMAIN_KEYWORDS))
+                .hasMessageContaining("session budget has 30 left");
+
+        backup.settle(DOMAIN_KEYWORDS, Map.of("size", 60), null);
+        primary.settle(DOMAIN_KEYWORDS, Map.of("size", 60), rows(10));
+        assertThat(budgets.getGlobalCreditsLeft()).isEqualTo(930);
+        assertThat(metrics.getCreditsSpent()).isEqualTo(70);
+    }
+
+    @Test
+    @DisplayName("Should reject calls the account cannot pay for on top of calls in flight")
+    void shouldRespectAccountBalance() throws Exception {
+        AtomicLong account = new AtomicLong(-1);
+        CreditBudgetManager budgets = new CreditBudgetManager(0, 0, Map.of(), metrics, account::get);
+        assertThat(budgets.getAccountCreditsLeft()).isEqualTo(-1);
+
+        CreditBudgetManager.Reservation inFlight = budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 40));
+        account.set(100);
+
+        assertThat(budgets.getAccountCreditsLeft()).isEqualTo(60);
+        assertThatThrownBy(() -> budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 61)))
+                .hasMessageContaining("Not enough Serpstat credits left");
+
+        inFlight.settle(DOMAIN_KEYWORDS, Map.of(), rows(5));
+        account.set(95);
+        assertThat(budgets.getAccountCreditsLeft()).isEqualTo(95);
+        assertThatCode(() -> budgets.reserve(DOMAIN_KEYWORDS, Map.of("size", 61))).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should charge only upstream calls and reject over-budget calls before sending them")
+    void shouldGuardClientCalls() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> StubSerpstatServer.Reply.ok(
+                    "{\"id\":1,\"result\":{\"data\":[{\"domain\":\"a.com\"}],\"summary_info\":{\"left_lines\":9000}}}"));
+            SerpstatApiClient client = new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .creditBudget(8)
+                    .build());
+
+            client.callMethod(DOMAINS_INFO, Map.of("domains", List.of("a.com")));
+            client.callMethod(DOMAINS_INFO, Map.of("domains", List.of("a.com")));
+            assertThatThrownBy(() -> client.callMethod(DOMAINS_INFO, Map.of("domains", List.of("b.com"))))
+                    .isInstanceOf(SerpstatApiException.class)
+                    .extracting(e -> ((SerpstatApiException) e).getErrorType())
+                    .isEqualTo(SerpstatApiException.BUDGET_EXCEEDED);
+
+            assertThat(stub.requestCount()).isEqualTo(1);
+            assertThat(client.getCreditBudgets().getGlobalCreditsLeft()).isEqualTo(3);
+            assertThat(client.getCreditBudgets().getAccountCreditsLeft()).isEqualTo(9000);
+            assertThat(client.getMetrics().snapshot())
+                    .containsEntry("credits_spent", 5L)
+                    .containsEntry("budget_rejections", 1L);
+        }
+    }
+}
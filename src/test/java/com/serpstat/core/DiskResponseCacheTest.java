@@ -0,0 +1,200 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the persistent L2 response cache
+ */
+@DisplayName("DiskResponseCache Tests")
+class DiskResponseCacheTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainsInfo";
+    private static final int SEGMENT_BYTES = 64 * 1024;
+    private static final Duration NO_COMPACTION = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    private static CacheKey key(String domain) {
+        return CacheKey.of(METHOD, Map.of("domains", List.of(domain)));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private DiskResponseCache open(long maxBytes) throws Exception {
+        return new DiskResponseCache(directory, maxBytes, SEGMENT_BYTES, NO_COMPACTION);
+    }
+
+    @Test
+    @DisplayName("Should return stored payloads and miss unknown keys")
+    void shouldStoreAndLoad() throws Exception {
+        try (DiskResponseCache cache = open(1024 * 1024)) {
+            cache.put(key("a.com"), bytes("{\"data\":\"a\"}"), Duration.ofMinutes(5));
+
+            DiskResponseCache.Entry entry = cache.get(key("a.com"));
+            assertThat(entry).isNotNull();
+            assertThat(new String(entry.payload(), StandardCharsets.UTF_8)).isEqualTo("{\"data\":\"a\"}");
+            assertThat(entry.expiresAt()).isGreaterThan(entry.writtenAt());
+            assertThat(cache.get(key("b.com"))).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should come up warm after a clean restart using the hint file")
+    void shouldSurviveCleanRestart() throws Exception {
+        try (DiskResponseCache cache = open(1024 * 1024)) {
+            for (int i = 0; i < 100; i++) {
+                cache.put(key("domain" + i + ".com"), bytes("payload-" + i), Duration.ofMinutes(5));
+            }
+        }
+        assertThat(directory.resolve("index.hint")).exists();
+
+        try (DiskResponseCache reopened = open(1024 * 1024)) {
+            assertThat(reopened.size()).isEqualTo(100);
+            assertThat(new String(reopened.get(key("domain42.com")).payload(), StandardCharsets.UTF_8))
+                    .isEqualTo("payload-42");
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay records written after the last hint")
+    void shouldReplayRecordsAfterHint() throws Exception {
+        Path hint = directory.resolve("index.hint");
+        byte[] staleHint;
+        DiskResponseCache cache = open(1024 * 1024);
+        try {
+            cache.put(key("before.com"), bytes("before"), Duration.ofMinutes(5));
+            cache.compact(); // writes a hint
+            cache.put(key("after.com"), bytes("after"), Duration.ofMinutes(5));
+            cache.put(key("before.com"), bytes("updated"), Duration.ofMinutes(5));
+            staleHint = Files.readAllBytes(hint);
+        } finally {
+            cache.close();
+        }
+        // Simulate a crash: keep the hint from compact() instead of the one close() wrote
+        Files.write(hint, staleHint);
+
+        try (DiskResponseCache reopened = open(1024 * 1024)) {
+            assertThat(new String(reopened.get(key("after.com")).payload(), StandardCharsets.UTF_8)).isEqualTo("after");
+            assertThat(new String(reopened.get(key("before.com")).payload(), StandardCharsets.UTF_8)).isEqualTo("updated");
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index by scanning when no hint exists")
+    void shouldRecoverWithoutHint() throws Exception {
+        try (DiskResponseCache cache = open(1024 * 1024)) {
+            cache.put(key("a.com"), bytes("a"), Duration.ofMinutes(5));
+            cache.put(key("b.com"), bytes("b"), Duration.ofMinutes(5));
+        }
+        Files.delete(directory.resolve("index.hint"));
+
+        try (DiskResponseCache reopened = open(1024 * 1024)) {
+            assertThat(reopened.size()).isEqualTo(2);
+            assertThat(reopened.get(key("b.com"))).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not serve expired entries")
+    void shouldExpireEntries() throws Exception {
+        try (DiskResponseCache cache = open(1024 * 1024)) {
+            cache.put(key("short.com"), bytes("short"), Duration.ofMillis(50));
+            cache.put(key("long.com"), bytes("long"), Duration.ofMinutes(5));
+            Thread.sleep(100);
+
+            assertThat(cache.get(key("short.com"))).isNull();
+            assertThat(cache.get(key("long.com"))).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep invalidations across restarts")
+    void shouldPersistInvalidation() throws Exception {
+        try (DiskResponseCache cache = open(1024 * 1024)) {
+            cache.put(key("gone.com"), bytes("gone"), Duration.ofMinutes(5));
+            cache.compact();
+            cache.invalidate(key("gone.com"));
+            assertThat(cache.get(key("gone.com"))).isNull();
+        }
+        Files.delete(directory.resolve("index.hint"));
+
+        try (DiskResponseCache reopened = open(1024 * 1024)) {
+            assertThat(reopened.get(key("gone.com"))).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should compact mostly-dead segments and keep live data")
+    void shouldCompactDeadSegments() throws Exception {
+        byte[] payload = new byte[4 * 1024];
+        try (DiskResponseCache cache = open(10 * 1024 * 1024)) {
+            // Rewrite the same few keys many times: older segments end up almost entirely superseded
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < 5; i++) {
+                    payload[0] = (byte) round;
+                    cache.put(key("hot" + i + ".com"), payload, Duration.ofMinutes(5));
+                }
+            }
+            int segmentsBefore = cache.segmentCount();
+            cache.compact();
+
+            assertThat(segmentsBefore).isGreaterThan(1);
+            assertThat(cache.segmentCount()).isLessThan(segmentsBefore);
+            assertThat(cache.size()).isEqualTo(5);
+            assertThat(cache.get(key("hot3.com")).payload()[0]).isEqualTo((byte) 19);
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest segments above the size cap")
+    void shouldEnforceSizeCap() throws Exception {
+        byte[] payload = new byte[8 * 1024];
+        try (DiskResponseCache cache = open(3L * SEGMENT_BYTES)) {
+            for (int i = 0; i < 100; i++) {
+                cache.put(key("bulk" + i + ".com"), payload, Duration.ofMinutes(5));
+            }
+
+            assertThat(cache.segmentCount()).isLessThanOrEqualTo(3);
+            assertThat(cache.get(key("bulk0.com"))).isNull();
+            assertThat(cache.get(key("bulk99.com"))).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should let a restarted client serve responses without calling Serpstat")
+    void shouldWarmRestartedClient() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"paid\"}}"));
+            SerpstatApiClientConfig config = SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .diskCacheDirectory(directory)
+                    .build();
+            Map<String, Object> params = Map.of("domains", List.of("example.com"), "se", "g_us");
+
+            try (SerpstatApiClient first = new SerpstatApiClient("token", config)) {
+                first.callMethod(METHOD, params);
+            }
+            try (SerpstatApiClient restarted = new SerpstatApiClient("token", config)) {
+                SerpstatApiResponse response = restarted.callMethod(METHOD, params);
+
+                assertThat(response.getResult().path("data").asText()).isEqualTo("paid");
+                assertThat(restarted.getMetrics().getDiskCacheHits()).isEqualTo(1);
+            }
+            assertThat(stub.requestCount()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for short-lived caching of deterministic upstream errors
+ */
+@DisplayName("NegativeResponseCache Tests")
+class NegativeResponseCacheTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainsInfo";
+    private static final String UNKNOWN_DOMAIN =
+            "{\"id\":1,\"error\":{\"code\":32018,\"message\":\"Domain not found\"}}";
+
+    private final AtomicLong time = new AtomicLong();
+    private final NegativeResponseCache cache = new NegativeResponseCache(Duration.ofSeconds(60), time::get);
+    private final CacheKey key = CacheKey.of(METHOD, Map.of("domains", "nope.example"));
+
+    @Test
+    @DisplayName("Should remember JSON-RPC errors until their TTL runs out")
+    void shouldExpireEntries() {
+        cache.putIfDeterministic(key, new SerpstatApiException("Serpstat API Error: Domain not found", 32018,
+                SerpstatApiException.API_ERROR));
+
+        SerpstatApiException cached = cache.get(key);
+        assertThat(cached).hasMessage("Serpstat API Error: Domain not found");
+        assertThat(cached.getErrorCode()).isEqualTo(32018);
+        assertThat(cached.getErrorType()).isEqualTo(SerpstatApiException.API_ERROR);
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not cache transient failures")
+    void shouldSkipTransientFailures() {
+        cache.putIfDeterministic(key, new SerpstatApiException("HTTP Error: 429", 429, SerpstatApiException.HTTP_ERROR));
+        cache.putIfDeterministic(key, new SerpstatApiException("HTTP Error: 503", 503, SerpstatApiException.HTTP_ERROR));
+        cache.putIfDeterministic(key, new SerpstatApiException("Request failed: timeout", new IOException("timeout")));
+        cache.putIfDeterministic(key, new SerpstatApiException("Serpstat API Error: Internal error", -32603,
+                SerpstatApiException.API_ERROR));
+
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should fail a repeated bad call without going upstream again")
+    void shouldShortCircuitRepeatedErrors() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> StubSerpstatServer.Reply.ok(UNKNOWN_DOMAIN));
+            SerpstatApiClient client = new SerpstatApiClient("token", stub.url());
+
+            for (int i = 0; i < 3; i++) {
+                assertThatThrownBy(() -> client.callMethod(METHOD, Map.of("domains", "nope.example")))
+                        .isInstanceOf(SerpstatApiException.class)
+                        .hasMessageContaining("Domain not found");
+            }
+
+            assertThat(stub.requestCount()).isEqualTo(1);
+            assertThat(client.getMetrics().getNegativeCacheHits()).isEqualTo(2);
+            assertThat(client.getMetrics().getNegativeCacheMisses()).isEqualTo(1);
+
+            client.invalidate(METHOD);
+            assertThatThrownBy(() -> client.callMethod(METHOD, Map.of("domains", "nope.example")))
+                    .isInstanceOf(SerpstatApiException.class);
+            assertThat(stub.requestCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep sending calls that failed with a server error")
+    void shouldRetryServerErrors() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> new StubSerpstatServer.Reply(502, "Bad Gateway", Duration.ZERO));
+            SerpstatApiClient client = new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .retryPolicy(RetryPolicy.none())
+                    .build());
+
+            for (int i = 0; i < 2; i++) {
+                assertThatThrownBy(() -> client.callMethod(METHOD, Map.of("domains", "a.com")))
+                        .isInstanceOf(SerpstatApiException.class);
+            }
+
+            assertThat(stub.requestCount()).isEqualTo(2);
+            assertThat(client.getMetrics().snapshot()).containsEntry("negative_cache_hits", 0L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not fail one tenant's call with an error cached for another")
+    @SuppressWarnings("try")
+    void shouldKeepErrorsPerTenant() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith((token, body) -> token.equals("basic-plan")
+                    ? StubSerpstatServer.Reply.ok(
+                            "{\"id\":1,\"error\":{\"code\":32010,\"message\":\"Report not available on your plan\"}}")
+                    : StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"ok\"}}"));
+            SerpstatApiClient client = new SerpstatApiClient("server-token", stub.url());
+            Map<String, Object> params = Map.of("domains", "example.com");
+
+            try (TenantContext.Scope ignored = TenantContext.of(List.of("basic-plan")).bind()) {
+                assertThatThrownBy(() -> client.callMethod(METHOD, params))
+                        .hasMessageContaining("not available on your plan");
+                assertThatThrownBy(() -> client.callMethod(METHOD, params))
+                        .hasMessageContaining("not available on your plan");
+            }
+            SerpstatApiResponse response = client.callMethod(METHOD, params);
+
+            assertThat(response.getResult().path("data").asText()).isEqualTo("ok");
+            assertThat(stub.requestTokens()).containsExactly("basic-plan", "server-token");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for fetching and merging several pages of a listing
+ */
+@DisplayName("PageFetcher Tests")
+class PageFetcherTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainKeywords";
+    private static final Pattern PAGE = Pattern.compile("\"page\":(\\d+)");
+    private static final Pattern SIZE = Pattern.compile("\"size\":(\\d+)");
+
+    /**
+     * Serves a listing of {@code total} rows numbered from 0, answering {@code failingPage} with an error
+     */
+    private static StubSerpstatServer.Reply listing(String body, int total, int failingPage) {
+        int page = number(PAGE, body);
+        int size = number(SIZE, body);
+        if (page == failingPage) {
+            return StubSerpstatServer.Reply.ok("{\"id\":1,\"error\":{\"code\":-32602,\"message\":\"Page unavailable\"}}");
+        }
+        StringBuilder rows = new StringBuilder();
+        for (int row = (page - 1) * size; row < Math.min(total, page * size); row++) {
+            rows.append(rows.length() == 0 ? "" : ",").append("{\"row\":").append(row).append('}');
+        }
+        return StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":[" + rows + "],\"summary_info\":"
+                + "{\"page\":" + page + ",\"total\":" + total + ",\"left_lines\":1000000}}}");
+    }
+
+    private static int number(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        assertThat(matcher.find()).isTrue();
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static SerpstatApiClient client(StubSerpstatServer stub) {
+        return new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                .apiUrl(stub.url())
+                .requestsPerSecond(50)
+                .build());
+    }
+
+    private static Map<String, Object> params(int page, int size) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("domain", "example.com");
+        params.put("se", "g_us");
+        params.put("page", page);
+        params.put("size", size);
+        return params;
+    }
+
+    private static void assertRowsFrom(JsonNode data, int first) {
+        for (int i = 0; i < data.size(); i++) {
+            assertThat(data.get(i).get("row").asInt()).isEqualTo(first + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should merge every remaining page in order and report each one")
+    void shouldMergeAllPages() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> listing(body, 2_450, 0));
+            List<Integer> progress = new CopyOnWriteArrayList<>();
+
+            SerpstatApiResponse response = new PageFetcher(client(stub)).fetch(METHOD, params(1, 100), 50_000,
+                    (pagesFetched, pagesTotal, rowsFetched) -> {
+                        assertThat(pagesTotal).isEqualTo(25);
+                        progress.add(rowsFetched);
+                    });
+
+            JsonNode data = response.getResult().get("data");
+            assertThat(data).hasSize(2_450);
+            assertRowsFrom(data, 0);
+            assertThat(stub.requestCount()).isEqualTo(25);
+            assertThat(progress).hasSize(25).isSorted().endsWith(2_450);
+            JsonNode summary = response.getResult().get("summary_info");
+            assertThat(summary.get("pages_fetched").asInt()).isEqualTo(25);
+            assertThat(summary.get("page").asInt()).isEqualTo(1);
+            assertThat(summary.has("incomplete")).isFalse();
+            assertThat(summary.has("next_row")).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop at max rows counted from the requested page")
+    void shouldRespectMaxRows() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> listing(body, 10_000, 0));
+
+            SerpstatApiResponse response = new PageFetcher(client(stub)).fetch(METHOD, params(3, 100), 250,
+                    (pagesFetched, pagesTotal, rowsFetched) -> { });
+
+            JsonNode data = response.getResult().get("data");
+            assertThat(data).hasSize(250);
+            assertRowsFrom(data, 200);
+            assertThat(stub.requestCount()).isEqualTo(3);
+            assertThat(response.getResult().get("summary_info").get("page").asInt()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should send the sort of the first page with every page")
+    void shouldKeepSortOnEveryPage() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> listing(body, 10_000, 0));
+            Map<String, Object> params = params(1, 100);
+            params.put("sort", Map.of("position", "asc"));
+
+            new PageFetcher(client(stub)).fetch(METHOD, params, 300, (pagesFetched, pagesTotal, rowsFetched) -> { });
+
+            assertThat(stub.requestBodies()).hasSize(3)
+                    .allSatisfy(body -> assertThat(body).contains("\"sort\":{\"position\":\"asc\"}"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should point past the rows max rows cut off the last page")
+    void shouldReportNextRowAfterTruncatedPage() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> listing(body, 5_000, 0));
+
+            SerpstatApiResponse response = new PageFetcher(client(stub)).fetch(METHOD, params(1, 1_000), 1_500,
+                    (pagesFetched, pagesTotal, rowsFetched) -> { });
+
+            assertThat(response.getResult().get("data")).hasSize(1_500);
+            JsonNode summary = response.getResult().get("summary_info");
+            assertThat(summary.get("pages_fetched").asInt()).isEqualTo(2);
+            assertThat(summary.get("next_row").asLong()).isEqualTo(1_501);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not fetch further pages when the first one holds the whole listing")
+    void shouldStopAfterShortFirstPage() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> listing(body, 40, 0));
+
+            SerpstatApiResponse response = new PageFetcher(client(stub)).fetch(METHOD, params(1, 100), 50_000,
+                    (pagesFetched, pagesTotal, rowsFetched) -> { });
+
+            assertThat(response.getResult().get("data")).hasSize(40);
+            assertThat(stub.requestCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the pages before a failed one and say where it stopped")
+    void shouldReturnPartialResultOnFailure() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> listing(body, 1_000, 4));
+
+            SerpstatApiResponse response = new PageFetcher(client(stub)).fetch(METHOD, params(1, 100), 50_000,
+                    (pagesFetched, pagesTotal, rowsFetched) -> { });
+
+            JsonNode data = response.getResult().get("data");
+            assertThat(data).hasSize(300);
+            assertRowsFrom(data, 0);
+            JsonNode summary = response.getResult().get("summary_info");
+            assertThat(summary.get("pages_fetched").asInt()).isEqualTo(3);
+            assertThat(summary.get("incomplete").asText()).startsWith("stopped at page 4");
+            assertThat(summary.get("next_row").asLong()).isEqualTo(301);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail like a single call when the first page fails")
+    void shouldFailOnFirstPage() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> listing(body, 1_000, 1));
+
+            assertThatThrownBy(() -> new PageFetcher(client(stub)).fetch(METHOD, params(1, 100), 50_000,
+                    (pagesFetched, pagesTotal, rowsFetched) -> { }))
+                    .isInstanceOf(SerpstatApiException.class);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the lock-free token bucket rate limiter
+ */
+@DisplayName("RateLimiter Tests")
+class RateLimiterTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong time = new AtomicLong(1_000_000 * MILLI);
+
+    private RateLimiter fakeClockLimiter(int requests, int burst) {
+        return new RateLimiter(requests, Duration.ofSeconds(1), burst, time::get);
+    }
+
+    @Test
+    @DisplayName("Should grant the burst at once and then space permits evenly")
+    void shouldGrantBurstThenRefill() {
+        RateLimiter limiter = fakeClockLimiter(10, 3);
+
+        assertThat(limiter.reserve(Long.MAX_VALUE)).isZero();
+        assertThat(limiter.reserve(Long.MAX_VALUE)).isZero();
+        assertThat(limiter.reserve(Long.MAX_VALUE)).isZero();
+        assertThat(limiter.reserve(Long.MAX_VALUE)).isEqualTo(100 * MILLI);
+        assertThat(limiter.reserve(Long.MAX_VALUE)).isEqualTo(200 * MILLI);
+
+        time.addAndGet(1_000 * MILLI);
+        // Idle time refills the bucket, but never beyond the burst
+        assertThat(limiter.reserve(Long.MAX_VALUE)).isZero();
+        assertThat(limiter.reserve(Long.MAX_VALUE)).isZero();
+        assertThat(limiter.reserve(Long.MAX_VALUE)).isZero();
+        assertThat(limiter.reserve(Long.MAX_VALUE)).isEqualTo(100 * MILLI);
+    }
+
+    @Test
+    @DisplayName("Should refill continuously instead of per window")
+    void shouldRefillContinuously() {
+        RateLimiter limiter = fakeClockLimiter(10, 1);
+
+        assertThat(limiter.reserve(0)).isZero();
+        assertThat(limiter.reserve(0)).isEqualTo(-1);
+        time.addAndGet(50 * MILLI);
+        assertThat(limiter.reserve(0)).isEqualTo(-1);
+        time.addAndGet(50 * MILLI);
+        assertThat(limiter.reserve(0)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not book anything when the wait exceeds the deadline")
+    void shouldRespectDeadlines() throws Exception {
+        RateLimiter limiter = fakeClockLimiter(10, 1);
+        limiter.reserve(Long.MAX_VALUE);
+
+        assertThat(limiter.tryAcquire(Duration.ofMillis(10))).isFalse();
+        assertThat(limiter.acquireAsync(Duration.ofMillis(10)))
+                .failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(TimeoutException.class);
+        // Rejected attempts left the schedule untouched
+        assertThat(limiter.getEstimatedWait()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    @DisplayName("Should return the permit of a cancelled async waiter")
+    void shouldReleaseOnCancellation() {
+        RateLimiter limiter = fakeClockLimiter(10, 1);
+        limiter.reserve(Long.MAX_VALUE);
+
+        CompletableFuture<Void> waiter = limiter.acquireAsync();
+        assertThat(limiter.getEstimatedWait()).isEqualTo(Duration.ofMillis(200));
+        waiter.cancel(false);
+
+        assertThat(limiter.getEstimatedWait()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    @DisplayName("Should return the permit of an interrupted blocking waiter")
+    void shouldReleaseOnInterrupt() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, Duration.ofSeconds(10), 1);
+        limiter.acquire();
+
+        Thread waiter = new Thread(() -> assertThatThrownBy(limiter::acquire).isInstanceOf(InterruptedException.class));
+        waiter.start();
+        Thread.sleep(100);
+        waiter.interrupt();
+        waiter.join(1_000);
+
+        assertThat(waiter.isAlive()).isFalse();
+        assertThat(limiter.getEstimatedWait()).isLessThanOrEqualTo(Duration.ofSeconds(10));
+        assertThat(limiter.getEstimatedWait()).isGreaterThan(Duration.ofSeconds(9));
+    }
+
+    @Test
+    @DisplayName("Should not let a throttled caller hold up others")
+    void shouldNotBlockOtherCallers() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, Duration.ofSeconds(5), 1);
+        limiter.acquire();
+        Thread blocked = new Thread(limiter::waitIfNeeded);
+        blocked.start();
+        Thread.sleep(50);
+
+        long start = System.nanoTime();
+        boolean acquired = limiter.tryAcquire(Duration.ZERO);
+
+        // The other caller is parked for five seconds; this one gets its answer right away
+        assertThat(acquired).isFalse();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+        blocked.interrupt();
+        blocked.join(1_000);
+    }
+
+    @Test
+    @DisplayName("Should deliver the configured rate")
+    void shouldDeliverConfiguredRate() throws Exception {
+        RateLimiter limiter = new RateLimiter(50, Duration.ofSeconds(1), 1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 26; i++) {
+            limiter.acquire();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 25 intervals of 20 ms after the first, immediate permit
+        assertThat(elapsedMillis).isBetween(480L, 800L);
+    }
+
+    @Test
+    @DisplayName("Should never exceed burst plus rate under concurrent load")
+    void shouldHoldRateUnderContention() throws Exception {
+        int threads = 8;
+        int perThread = 25;
+        int burst = 5;
+        RateLimiter limiter = new RateLimiter(200, Duration.ofSeconds(1), burst);
+        List<Long> grants = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean async = t % 2 == 0;
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        if (async) {
+                            limiter.acquireAsync().get(10, TimeUnit.SECONDS);
+                        } else {
+                            limiter.acquire();
+                        }
+                        grants.add(System.nanoTime());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Long> sorted = new ArrayList<>(grants);
+        Collections.sort(sorted);
+        assertThat(sorted).hasSize(threads * perThread);
+        // Sliding 100 ms windows: at most burst + 20 permits (small slack for scheduling jitter)
+        long window = 100 * MILLI;
+        int maxInWindow = 0;
+        for (int from = 0, to = 0; from < sorted.size(); from++) {
+            while (to < sorted.size() && sorted.get(to) - sorted.get(from) < window) {
+                to++;
+            }
+            maxInWindow = Math.max(maxInWindow, to - from);
+        }
+        assertThat(maxInWindow).isLessThanOrEqualTo(burst + 20 + 3);
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(sorted.get(sorted.size() - 1) - sorted.get(0));
+        assertThat(totalMillis).isGreaterThanOrEqualTo((threads * perThread - burst) * 5L - 20);
+    }
+}
@@ -0,0 +1,78 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the former request body path ({@code valueToTree}, envelope
+ * {@code ObjectNode}, {@code writeValueAsString}, then UTF-8 encoding by {@code ofString}) with
+ * {@link RequestBodyWriter}. Run with the GC profiler to see bytes allocated per request:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main RequestBodyBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBodyBenchmark {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainsInfo";
+
+    /**
+     * Domains in the request: a typical single-domain call and a batch lookup
+     */
+    @Param({"1", "100"})
+    public int domains;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RequestBodyWriter writer = new RequestBodyWriter(mapper);
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < domains; i++) {
+            names.add("магазин-" + i + ".example.com");
+        }
+        params = new LinkedHashMap<>();
+        params.put("domains", names);
+        params.put("se", "g_ua");
+        params.put("filters", Map.of("traff_from", 100));
+    }
+
+    @Benchmark
+    public byte[] treeStringEncode() throws Exception {
+        ObjectNode requestBody = mapper.createObjectNode();
+        requestBody.put("id", 1);
+        requestBody.put("method", METHOD);
+        requestBody.set("params", mapper.valueToTree(params));
+        return mapper.writeValueAsString(requestBody).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] streamingWriter() throws Exception {
+        return writer.write(METHOD, params);
+    }
+}
@@ -0,0 +1,106 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for streaming JSON-RPC request envelopes to UTF-8 bytes
+ */
+@DisplayName("RequestBodyWriter Tests")
+class RequestBodyWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RequestBodyWriter writer = new RequestBodyWriter(mapper);
+
+    /**
+     * The envelope as the client used to build it: tree, String, then UTF-8
+     */
+    private byte[] viaTree(String method, Map<String, Object> params) throws Exception {
+        ObjectNode requestBody = mapper.createObjectNode();
+        requestBody.put("id", 1);
+        requestBody.put("method", method);
+        requestBody.set("params", mapper.valueToTree(params));
+        return mapper.writeValueAsString(requestBody).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should write the same bytes as the former tree-based serialization")
+    void shouldMatchTreeSerialization() throws Exception {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("domain", "пример.рф");
+        params.put("se", "g_ua");
+        params.put("page", 2);
+        params.put("size", 1000L);
+        params.put("minusKeywords", List.of("купить", "\"quoted\"", "tab\there"));
+        params.put("filters", Map.of("cost_from", 0.5, "right_spelling", true));
+        params.put("sort", null);
+
+        String method = "SerpstatDomainProcedure.getDomainKeywords";
+
+        assertThat(writer.write(method, params)).isEqualTo(viaTree(method, params));
+        assertThat(writer.write("SerpstatLimitsProcedure.getStats", Map.of()))
+                .isEqualTo(viaTree("SerpstatLimitsProcedure.getStats", Map.of()));
+    }
+
+    @Test
+    @DisplayName("Should keep characters outside the BMP intact")
+    void shouldKeepSupplementaryCharacters() throws Exception {
+        Map<String, Object> params = Map.of("keyword", "ракета 🚀");
+
+        // The UTF-8 generator escapes surrogate pairs (\uD83D\uDE80); the JSON value is the same
+        assertThat(mapper.readTree(writer.write("m", params)).path("params").path("keyword").asText())
+                .isEqualTo("ракета 🚀");
+        assertThat(mapper.readTree(writer.write("m", params))).isEqualTo(mapper.readTree(viaTree("m", params)));
+    }
+
+    @Test
+    @DisplayName("Should not leak bytes of an earlier, longer body into a reused buffer")
+    void shouldResetReusedBuffer() throws Exception {
+        String method = "SerpstatDomainProcedure.getDomainsInfo";
+        writer.write(method, Map.of("domains", List.of("a-very-long-domain-name-" + "x".repeat(100_000) + ".com")));
+
+        byte[] body = writer.write(method, Map.of("domains", List.of("b.com")));
+
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":1,\"method\":\"SerpstatDomainProcedure.getDomainsInfo\",\"params\":{\"domains\":[\"b.com\"]}}");
+    }
+
+    @Test
+    @DisplayName("Should keep bodies of concurrent callers apart")
+    void shouldIsolateThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        Map<String, Object> params = Map.of("domain", "d" + thread + "-" + i + ".com");
+                        if (!new String(writer.write("m", params), StandardCharsets.UTF_8).contains("d" + thread + "-" + i + ".com")) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
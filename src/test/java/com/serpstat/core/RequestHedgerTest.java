@@ -0,0 +1,180 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for backup requests on calls slower than their method's tail latency
+ */
+@DisplayName("RequestHedger Tests")
+class RequestHedgerTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainKeywords";
+
+    private final SerpstatApiMetrics metrics = new SerpstatApiMetrics();
+    private RateLimiter limiter = new RateLimiter(1_000, Duration.ofSeconds(1));
+    private final AtomicInteger backups = new AtomicInteger();
+
+    private static SerpstatApiResponse response(String data) {
+        return new SerpstatApiResponse(TextNode.valueOf(data), METHOD, Map.of());
+    }
+
+    private RequestHedger hedger(double maxHedgeRatio) {
+        return new RequestHedger(new HedgingPolicy(0.95, Duration.ofMillis(20), maxHedgeRatio), metrics);
+    }
+
+    private void warmUp(RequestHedger hedger) throws Exception {
+        for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+            hedger.send(METHOD, () -> CompletableFuture.completedFuture(response("fast")), this::backup).get();
+        }
+    }
+
+    private CompletableFuture<SerpstatApiResponse> backup() {
+        if (limiter.reserve(0) < 0) {
+            return null;
+        }
+        backups.incrementAndGet();
+        return CompletableFuture.completedFuture(response("backup"));
+    }
+
+    @Test
+    @DisplayName("Should not hedge before the method has a latency history")
+    void shouldWaitForHistory() throws Exception {
+        RequestHedger hedger = hedger(1.0);
+        CompletableFuture<SerpstatApiResponse> primary = new CompletableFuture<>();
+
+        CompletableFuture<SerpstatApiResponse> result = hedger.send(METHOD, () -> primary, this::backup);
+        Thread.sleep(100);
+        primary.complete(response("primary"));
+
+        assertThat(result.get().getResult().asText()).isEqualTo("primary");
+        assertThat(backups.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should take the backup's answer and cancel a straggling primary")
+    void shouldHedgeStragglers() throws Exception {
+        RequestHedger hedger = hedger(1.0);
+        warmUp(hedger);
+        CompletableFuture<SerpstatApiResponse> primary = new CompletableFuture<>();
+
+        SerpstatApiResponse answer = hedger.send(METHOD, () -> primary, this::backup).get(1, TimeUnit.SECONDS);
+
+        assertThat(answer.getResult().asText()).isEqualTo("backup");
+        assertThat(primary).isCancelled();
+        assertThat(metrics.getHedgedCalls()).isEqualTo(1);
+        assertThat(metrics.getHedgeWins()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should wait for the other request when one of them fails")
+    void shouldSurviveOneFailure() throws Exception {
+        RequestHedger hedger = hedger(1.0);
+        warmUp(hedger);
+        CompletableFuture<SerpstatApiResponse> primary = new CompletableFuture<>();
+        CompletableFuture<SerpstatApiResponse> backup = new CompletableFuture<>();
+
+        CompletableFuture<SerpstatApiResponse> result = hedger.send(METHOD, () -> primary, () -> backup);
+        Thread.sleep(100);
+        backup.completeExceptionally(new SerpstatApiException("HTTP Error: 503", 503, SerpstatApiException.HTTP_ERROR));
+        assertThat(result).isNotDone();
+        primary.complete(response("primary"));
+
+        assertThat(result.get().getResult().asText()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should fail only once both requests failed")
+    void shouldFailWhenBothFail() throws Exception {
+        RequestHedger hedger = hedger(1.0);
+        warmUp(hedger);
+        CompletableFuture<SerpstatApiResponse> primary = new CompletableFuture<>();
+        CompletableFuture<SerpstatApiResponse> backup = new CompletableFuture<>();
+
+        CompletableFuture<SerpstatApiResponse> result = hedger.send(METHOD, () -> primary, () -> backup);
+        Thread.sleep(100);
+        primary.completeExceptionally(new SerpstatApiException("first"));
+        backup.completeExceptionally(new SerpstatApiException("second"));
+
+        assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(SerpstatApiException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep backups within the configured share of calls")
+    void shouldCapHedgeRate() throws Exception {
+        RequestHedger hedger = hedger(0.05);
+        warmUp(hedger);
+
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<SerpstatApiResponse> primary = new CompletableFuture<>();
+            CompletableFuture<SerpstatApiResponse> result = hedger.send(METHOD, () -> primary, this::backup);
+            Thread.sleep(100);
+            primary.complete(response("primary"));
+            result.get();
+        }
+
+        // 23 calls at 5% earn a single backup
+        assertThat(backups.get()).isEqualTo(1);
+        assertThat(metrics.getSkippedHedges()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not hedge when no rate limit permit is free")
+    void shouldRespectRateLimit() throws Exception {
+        limiter = new RateLimiter(1, Duration.ofHours(1), 1);
+        RequestHedger hedger = hedger(1.0);
+        warmUp(hedger);
+        limiter.reserve(Long.MAX_VALUE);
+        CompletableFuture<SerpstatApiResponse> primary = new CompletableFuture<>();
+
+        CompletableFuture<SerpstatApiResponse> result = hedger.send(METHOD, () -> primary, this::backup);
+        Thread.sleep(100);
+        primary.complete(response("primary"));
+
+        assertThat(result.get().getResult().asText()).isEqualTo("primary");
+        assertThat(backups.get()).isZero();
+        assertThat(metrics.getSkippedHedges()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should answer a straggling Serpstat call from the backup request")
+    void shouldHedgeClientCalls() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            AtomicInteger stragglers = new AtomicInteger();
+            stub.respondWith(body -> {
+                StubSerpstatServer.Reply reply = StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"ok\"}}");
+                return body.contains("straggler") && stragglers.getAndIncrement() == 0
+                        ? reply.delayed(Duration.ofSeconds(3))
+                        : reply;
+            });
+            SerpstatApiClient client = new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .requestsPerSecond(100)
+                    .hedgingPolicy(new HedgingPolicy(0.95, Duration.ofMillis(50), 1.0))
+                    .build());
+            for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+                client.callMethod(METHOD, Map.of("domain", "warm" + i + ".com"));
+            }
+
+            long start = System.nanoTime();
+            SerpstatApiResponse answer = client.callMethod(METHOD, Map.of("domain", "straggler.com"));
+
+            assertThat(answer.getResult().path("data").asText()).isEqualTo("ok");
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+            assertThat(stragglers.get()).isEqualTo(2);
+            assertThat(client.getMetrics().getHedgeWins()).isEqualTo(1);
+        }
+    }
+}
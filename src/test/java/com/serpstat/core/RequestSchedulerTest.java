@@ -0,0 +1,112 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for handing out rate limit permits by lane
+ */
+@DisplayName("RequestScheduler Tests")
+class RequestSchedulerTest {
+
+    private final SerpstatApiMetrics metrics = new SerpstatApiMetrics();
+
+    private TokenPool exhaustedPool(int requestsPerSecond) {
+        TokenPool pool = new TokenPool(List.of("token"), SerpstatApiClientConfig.builder()
+                .requestsPerSecond(requestsPerSecond)
+                .adaptiveRateControl(false)
+                .build(), metrics);
+        while (pool.reserveNow() != null) {
+            // Use up the burst, so every call below has to queue
+        }
+        return pool;
+    }
+
+    private static List<CompletableFuture<TokenPool.Token>> enqueue(RequestScheduler scheduler,
+                                                                    RequestScheduler.Lane lane, int calls,
+                                                                    List<RequestScheduler.Lane> grants) {
+        List<CompletableFuture<TokenPool.Token>> tickets = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            CompletableFuture<TokenPool.Token> ticket = scheduler.acquire(lane, null);
+            ticket.thenRun(() -> grants.add(lane));
+            tickets.add(ticket);
+        }
+        return tickets;
+    }
+
+    @Test
+    @DisplayName("Should let an interactive call overtake a queued bulk job")
+    void shouldPrioritizeInteractive() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(exhaustedPool(20), Duration.ofSeconds(30), metrics);
+        List<RequestScheduler.Lane> grants = new CopyOnWriteArrayList<>();
+
+        enqueue(scheduler, RequestScheduler.Lane.BULK, 30, grants);
+        CompletableFuture<TokenPool.Token> interactive =
+                enqueue(scheduler, RequestScheduler.Lane.INTERACTIVE, 1, grants).get(0);
+
+        interactive.get(2, TimeUnit.SECONDS);
+        assertThat(grants.indexOf(RequestScheduler.Lane.INTERACTIVE)).isLessThanOrEqualTo(1);
+        assertThat(scheduler.getQueuedCount()).isGreaterThan(20);
+        assertThat(metrics.getScheduledCalls(RequestScheduler.Lane.INTERACTIVE)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should share permits between competing lanes by weight")
+    void shouldShareByWeight() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(exhaustedPool(50), Duration.ofSeconds(30), metrics);
+        List<RequestScheduler.Lane> grants = new CopyOnWriteArrayList<>();
+
+        enqueue(scheduler, RequestScheduler.Lane.BULK, 20, grants);
+        List<CompletableFuture<TokenPool.Token>> interactive =
+                enqueue(scheduler, RequestScheduler.Lane.INTERACTIVE, 20, grants);
+        CompletableFuture.allOf(interactive.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        List<RequestScheduler.Lane> firstTen = grants.subList(0, 10);
+        assertThat(firstTen.stream().filter(RequestScheduler.Lane.INTERACTIVE::equals).count())
+                .isBetween(7L, 9L);
+    }
+
+    @Test
+    @DisplayName("Should serve a call that waited past the starvation threshold first")
+    void shouldPreventStarvation() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(exhaustedPool(20), Duration.ofMillis(1), metrics);
+        List<RequestScheduler.Lane> grants = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<TokenPool.Token> prefetch =
+                enqueue(scheduler, RequestScheduler.Lane.PREFETCH, 1, grants).get(0);
+        Thread.sleep(5);
+        enqueue(scheduler, RequestScheduler.Lane.INTERACTIVE, 10, grants);
+
+        prefetch.get(2, TimeUnit.SECONDS);
+        assertThat(grants.get(0)).isEqualTo(RequestScheduler.Lane.PREFETCH);
+        assertThat(metrics.getMaxQueueTimeMillis(RequestScheduler.Lane.PREFETCH)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should give up the place of a cancelled or timed out call without spending its permit")
+    void shouldDropAbandonedCalls() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(exhaustedPool(10), Duration.ofSeconds(30), metrics);
+
+        CompletableFuture<TokenPool.Token> impatient =
+                scheduler.acquire(RequestScheduler.Lane.INTERACTIVE, Duration.ofMillis(10));
+        CompletableFuture<TokenPool.Token> cancelled = scheduler.acquire(RequestScheduler.Lane.INTERACTIVE, null);
+        CompletableFuture<TokenPool.Token> patient = scheduler.acquire(RequestScheduler.Lane.BULK, null);
+        cancelled.cancel(false);
+
+        assertThatThrownBy(() -> impatient.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(patient.get(1, TimeUnit.SECONDS)).isNotNull();
+        assertThat(scheduler.getQueuedCount()).isZero();
+        assertThat(metrics.getScheduledCalls(RequestScheduler.Lane.INTERACTIVE)).isZero();
+        assertThat(metrics.snapshot()).containsEntry("scheduled_calls_bulk", 1L);
+    }
+}
@@ -0,0 +1,85 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the former {@code ofString} + {@code readTree(String)} parsing with
+ * {@link SerpstatResponseParser}, on getDomainKeywords-shaped pages.
+ * <p>
+ * {@code *FullPage} measures parsing a whole page; {@code *FirstRow} measures time to the first row.
+ * Run with the GC profiler to see bytes allocated per page:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ResponseParsingBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseParsingBenchmark {
+
+    @Param({"500", "1000"})
+    public int rows;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SerpstatResponseParser parser = new SerpstatResponseParser(mapper);
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("{\"id\":\"1\",\"result\":{\"data\":[");
+        for (int i = 0; i < rows; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"domain\":\"example.com\",\"keyword\":\"купить ноутбук недорого ").append(i)
+                    .append("\",\"keyword_length\":4,\"found_results\":").append(1_000_000 + i)
+                    .append(",\"url\":\"https://example.com/catalog/laptops/page-").append(i)
+                    .append("\",\"position\":").append(i % 100)
+                    .append(",\"types\":[\"pic\",\"related_search\"],\"cost\":0.42,\"concurrency\":71")
+                    .append(",\"difficulty\":38.5,\"region_queries_count\":").append(12_000 - i)
+                    .append(",\"traff\":").append(i * 3).append(",\"intents\":[\"commercial\"]}");
+        }
+        json.append("],\"summary_info\":{\"page\":1,\"total\":250000,\"left_lines\":999000}}}");
+        body = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JsonNode stringTreeFullPage() throws Exception {
+        return mapper.readTree(new String(body, StandardCharsets.UTF_8)).get("result");
+    }
+
+    @Benchmark
+    public JsonNode streamingFullPage() throws Exception {
+        return parser.parseResult(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public JsonNode stringTreeFirstRow() throws Exception {
+        return mapper.readTree(new String(body, StandardCharsets.UTF_8)).get("result").get("data").get(0);
+    }
+
+    @Benchmark
+    public JsonNode streamingFirstRow() throws Exception {
+        try (SerpstatResponseParser.RowCursor cursor = parser.openRows(new ByteArrayInputStream(body))) {
+            return cursor.next();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for retrying failed idempotent calls with jittered exponential backoff
+ */
+@DisplayName("RetryPolicy Tests")
+class RetryPolicyTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainsInfo";
+    private static final String OK = "{\"id\":1,\"result\":{\"data\":\"ok\"}}";
+
+    private final RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(100), Duration.ofMillis(300), Duration.ofSeconds(5));
+
+    private StubSerpstatServer stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubSerpstatServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private SerpstatApiClient client(RetryPolicy retryPolicy) {
+        return new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                .apiUrl(stub.url())
+                .retryPolicy(retryPolicy)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should draw delays between zero and the exponentially growing, capped ceiling")
+    void shouldApplyFullJitter() {
+        long maxFirst = 0;
+        long maxThird = 0;
+        for (int i = 0; i < 1_000; i++) {
+            Duration first = policy.backoff(1);
+            Duration third = policy.backoff(3);
+            assertThat(first).isBetween(Duration.ZERO, Duration.ofMillis(100));
+            assertThat(third).isBetween(Duration.ZERO, Duration.ofMillis(300));
+            maxFirst = Math.max(maxFirst, first.toMillis());
+            maxThird = Math.max(maxThird, third.toMillis());
+        }
+        // Spread over the whole range rather than clustered at the ceiling
+        assertThat(maxFirst).isGreaterThan(50);
+        assertThat(maxThird).isGreaterThan(200);
+        assertThat(policy.backoff(100)).isLessThanOrEqualTo(Duration.ofMillis(300));
+    }
+
+    @Test
+    @DisplayName("Should retry only read methods and failures another attempt can fix")
+    void shouldClassifyFailures() {
+        assertThat(policy.isIdempotent(METHOD)).isTrue();
+        assertThat(policy.isIdempotent("ProjectProcedure.addProject")).isFalse();
+
+        assertThat(policy.isRetryable(new SerpstatApiException("HTTP Error: 503", 503, SerpstatApiException.HTTP_ERROR))).isTrue();
+        assertThat(policy.isRetryable(new SerpstatApiException("HTTP Error: 429", 429, SerpstatApiException.HTTP_ERROR))).isTrue();
+        assertThat(policy.isRetryable(new SerpstatApiException("HTTP Error: 403", 403, SerpstatApiException.HTTP_ERROR))).isFalse();
+        assertThat(policy.isRetryable(new SerpstatApiException("Serpstat API Error: bad", 32602, SerpstatApiException.API_ERROR))).isFalse();
+        assertThat(policy.isRetryable(new SerpstatApiException("Request failed", new HttpTimeoutException("timed out")))).isTrue();
+        assertThat(policy.isRetryable(new SerpstatApiException("Request failed", new IOException("reset")))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should recover from transient server errors without failing the call")
+    void shouldRetryTransientErrors() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        stub.respondWith(body -> attempts.incrementAndGet() <= 2
+                ? new StubSerpstatServer.Reply(503, "unavailable", Duration.ZERO)
+                : StubSerpstatServer.Reply.ok(OK));
+        SerpstatApiClient client = client(policy);
+
+        SerpstatApiResponse response = client.callMethod(METHOD, Map.of("domains", "example.com"));
+
+        assertThat(response.getResult().path("data").asText()).isEqualTo("ok");
+        assertThat(stub.requestCount()).isEqualTo(3);
+        assertThat(client.getMetrics().getRetries()).isEqualTo(2);
+        assertThat(client.getMetrics().getFailedCalls()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should give up after the maximum number of retries with the last error")
+    void shouldStopAfterMaxRetries() {
+        stub.respondWith(body -> new StubSerpstatServer.Reply(502, "bad gateway", Duration.ZERO));
+        SerpstatApiClient client = client(policy);
+
+        assertThatThrownBy(() -> client.callMethod(METHOD, Map.of()))
+                .isInstanceOf(SerpstatApiException.class)
+                .hasMessageContaining("HTTP Error: 502");
+        assertThat(stub.requestCount()).isEqualTo(4);
+        assertThat(client.getMetrics().getRetries()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should not retry past the deadline budget")
+    void shouldRespectBudget() {
+        stub.respondWith(body -> new StubSerpstatServer.Reply(500, "slow failure", Duration.ofMillis(300)));
+        SerpstatApiClient client = client(new RetryPolicy(10, Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofMillis(500)));
+
+        assertThatThrownBy(() -> client.callMethod(METHOD, Map.of())).isInstanceOf(SerpstatApiException.class);
+        assertThat(stub.requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should fail at once on errors a retry cannot fix")
+    void shouldNotRetryPermanentErrors() {
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok(
+                "{\"id\":1,\"error\":{\"code\":32602,\"message\":\"Invalid domain\"}}"));
+        SerpstatApiClient client = client(policy);
+
+        assertThatThrownBy(() -> client.callMethod(METHOD, Map.of())).hasMessageContaining("Invalid domain");
+        assertThatThrownBy(() -> client.callMethod("ProjectProcedure.addProject", Map.of()))
+                .hasMessageContaining("Invalid domain");
+        stub.respondWith(body -> new StubSerpstatServer.Reply(503, "unavailable", Duration.ZERO));
+        assertThatThrownBy(() -> client.callMethod("ProjectProcedure.delProject", Map.of()))
+                .hasMessageContaining("HTTP Error: 503");
+
+        assertThat(stub.requestCount()).isEqualTo(3);
+        assertThat(client.getMetrics().getRetries()).isZero();
+    }
+}
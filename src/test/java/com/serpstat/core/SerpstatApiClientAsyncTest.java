@@ -0,0 +1,107 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the non-blocking SerpstatApiClient.callMethodAsync path
+ */
+@DisplayName("SerpstatApiClient Async Tests")
+class SerpstatApiClientAsyncTest {
+
+    private StubSerpstatServer stub;
+    private SerpstatApiClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubSerpstatServer();
+        client = new SerpstatApiClient("test-async-token", stub.url());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("Should return a future without blocking the caller")
+    void shouldReturnFutureWithoutBlocking() throws Exception {
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"slow\"}}")
+                .delayed(Duration.ofMillis(300)));
+
+        long start = System.nanoTime();
+        CompletableFuture<SerpstatApiResponse> future =
+                client.callMethodAsync("SerpstatDomainProcedure.getDomainsInfo", Map.of("domain", "example.com"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMillis).isLessThan(200);
+        assertThat(future.get(5, TimeUnit.SECONDS).getResult().path("data").asText()).isEqualTo("slow");
+    }
+
+    @Test
+    @DisplayName("Should keep many calls in flight concurrently")
+    void shouldKeepManyCallsInFlight() throws Exception {
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"ok\"}}")
+                .delayed(Duration.ofMillis(200)));
+
+        long start = System.nanoTime();
+        List<CompletableFuture<SerpstatApiResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(client.callMethodAsync("test.method", Map.of("id", i)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Ten sequential 200 ms calls would take two seconds
+        assertThat(elapsedMillis).isLessThan(1500);
+        assertThat(stub.requestCount()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated async calls from cache")
+    void shouldServeRepeatedCallsFromCache() throws Exception {
+        Map<String, Object> params = Map.of("domain", "example.com");
+
+        client.callMethodAsync("test.method", params).get(5, TimeUnit.SECONDS);
+        CompletableFuture<SerpstatApiResponse> second = client.callMethodAsync("test.method", params);
+
+        assertThat(second).isDone();
+        assertThat(stub.requestCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail the future with SerpstatApiException on API error")
+    void shouldFailFutureOnApiError() {
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok(
+                "{\"id\":1,\"error\":{\"code\":-32602,\"message\":\"Invalid domain\"}}"));
+
+        CompletableFuture<SerpstatApiResponse> future = client.callMethodAsync("test.method", Map.of());
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(SerpstatApiException.class)
+                .hasMessageContaining("Invalid domain");
+    }
+
+    @Test
+    @DisplayName("Should keep callMethod throwing SerpstatApiException")
+    void shouldKeepSyncWrapperContract() {
+        stub.respondWith(body -> new StubSerpstatServer.Reply(500, "boom", Duration.ZERO));
+
+        assertThatThrownBy(() -> client.callMethod("test.method", Map.of()))
+                .isInstanceOf(SerpstatApiException.class)
+                .hasMessageContaining("HTTP Error: 500");
+    }
+}
@@ -0,0 +1,114 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for caching list calls per domain or keyword
+ */
+@DisplayName("SerpstatApiClient Entity Cache Tests")
+class SerpstatApiClientEntityCacheTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainsInfo";
+    private static final Pattern DOMAIN = Pattern.compile("\"([a-z]+\\.com)\"");
+
+    /**
+     * Answers with one row per requested domain, except for domains Serpstat does not know
+     */
+    private static StubSerpstatServer.Reply domainsInfo(String body) {
+        List<String> rows = new ArrayList<>();
+        Matcher matcher = DOMAIN.matcher(body);
+        while (matcher.find()) {
+            if (!matcher.group(1).startsWith("unknown")) {
+                rows.add("{\"domain\":\"" + matcher.group(1) + "\",\"visible\":1.5}");
+            }
+        }
+        return StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":[" + String.join(",", rows) + "],"
+                + "\"summary_info\":{\"left_lines\":1000000}}}");
+    }
+
+    private static SerpstatApiClient client(StubSerpstatServer stub) {
+        return new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                .apiUrl(stub.url())
+                .build());
+    }
+
+    private static List<String> domainsOf(SerpstatApiResponse response) {
+        List<String> domains = new ArrayList<>();
+        for (JsonNode row : response.getResult().get("data")) {
+            domains.add(row.get("domain").asText());
+        }
+        return domains;
+    }
+
+    private static List<String> requestedDomains(String body) {
+        List<String> domains = new ArrayList<>();
+        Matcher matcher = DOMAIN.matcher(body);
+        while (matcher.find()) {
+            domains.add(matcher.group(1));
+        }
+        return domains;
+    }
+
+    @Test
+    @DisplayName("Should fetch only the domains not cached yet and keep the requested order")
+    void shouldFetchOnlyMissingEntities() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(SerpstatApiClientEntityCacheTest::domainsInfo);
+            SerpstatApiClient client = client(stub);
+
+            client.callMethod(METHOD, Map.of("domains", List.of("alpha.com", "beta.com", "gamma.com"), "se", "g_us"));
+            SerpstatApiResponse response =
+                    client.callMethod(METHOD, Map.of("domains", List.of("delta.com", "alpha.com"), "se", "g_us"));
+
+            assertThat(domainsOf(response)).containsExactly("delta.com", "alpha.com");
+            assertThat(stub.requestCount()).isEqualTo(2);
+            assertThat(requestedDomains(stub.requestBodies().get(1))).containsExactly("delta.com");
+            assertThat(response.getResult().get("summary_info").get("left_lines").asLong()).isEqualTo(1_000_000);
+            assertThat(client.getMetrics().getEntityCacheHits()).isEqualTo(1);
+            assertThat(client.getMetrics().getEntityCacheMisses()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve a list made of cached domains without calling Serpstat")
+    void shouldAssembleFromCache() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(SerpstatApiClientEntityCacheTest::domainsInfo);
+            SerpstatApiClient client = client(stub);
+
+            client.callMethod(METHOD, Map.of("domains", List.of("alpha.com", "beta.com", "unknown.com")));
+            SerpstatApiResponse subset = client.callMethod(METHOD, Map.of("domains", List.of("unknown.com", "beta.com")));
+            SerpstatApiResponse single = client.callMethod(METHOD, Map.of("domains", List.of("alpha.com")));
+
+            assertThat(domainsOf(subset)).containsExactly("beta.com");
+            assertThat(domainsOf(single)).containsExactly("alpha.com");
+            assertThat(stub.requestCount()).isEqualTo(1);
+            assertThat(client.getMetrics().getCacheHits()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep entities of calls with different parameters apart")
+    void shouldKeyEntitiesByParameters() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(SerpstatApiClientEntityCacheTest::domainsInfo);
+            SerpstatApiClient client = client(stub);
+
+            client.callMethod(METHOD, Map.of("domains", List.of("alpha.com", "beta.com"), "se", "g_us"));
+            client.callMethod(METHOD, Map.of("domains", List.of("alpha.com", "beta.com"), "se", "g_uk"));
+
+            assertThat(stub.requestCount()).isEqualTo(2);
+            assertThat(client.getMetrics().getEntityCacheHits()).isZero();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Single-flight coalescing tests for SerpstatApiClient
+ */
+@DisplayName("SerpstatApiClient Single Flight Tests")
+class SerpstatApiClientSingleFlightTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainsInfo";
+
+    private StubSerpstatServer stub;
+    private SerpstatApiClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubSerpstatServer();
+        client = new SerpstatApiClient("test-single-flight-token", stub.url());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("Should send one upstream request for identical concurrent calls")
+    void shouldCoalesceIdenticalCalls() throws Exception {
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"shared\"}}")
+                .delayed(Duration.ofMillis(300)));
+        Map<String, Object> params = Map.of("domains", List.of("example.com"), "se", "g_us");
+
+        List<CompletableFuture<SerpstatApiResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(client.callMethodAsync(METHOD, params));
+        }
+
+        for (CompletableFuture<SerpstatApiResponse> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS).getResult().path("data").asText()).isEqualTo("shared");
+        }
+        assertThat(stub.requestCount()).isEqualTo(1);
+        assertThat(client.getMetrics().getCoalescedCalls()).isEqualTo(7);
+        assertThat(client.getMetrics().getUpstreamCalls()).isEqualTo(1);
+        assertThat(client.getInFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should deliver errors to every waiter without caching them as responses")
+    void shouldDeliverErrorsToAllWaiters() throws Exception {
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok(
+                "{\"id\":1,\"error\":{\"code\":-32602,\"message\":\"Unknown domain\"}}").delayed(Duration.ofMillis(200)));
+        Map<String, Object> params = Map.of("domains", List.of("missing.example"));
+
+        CompletableFuture<SerpstatApiResponse> first = client.callMethodAsync(METHOD, params);
+        CompletableFuture<SerpstatApiResponse> second = client.callMethodAsync(METHOD, params);
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(SerpstatApiException.class)
+                .hasMessageContaining("Unknown domain");
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(SerpstatApiException.class)
+                .hasMessageContaining("Unknown domain");
+        assertThat(stub.requestCount()).isEqualTo(1);
+
+        // The failure is not cached as a response: once its negative entry is gone the call goes upstream again
+        client.invalidate(METHOD);
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"recovered\"}}"));
+        assertThat(client.callMethod(METHOD, params).getResult().path("data").asText()).isEqualTo("recovered");
+        assertThat(stub.requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not cancel other waiters when one waiter cancels")
+    void shouldIsolateCancellation() throws Exception {
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"ok\"}}")
+                .delayed(Duration.ofMillis(200)));
+        Map<String, Object> params = Map.of("domain", "example.com");
+
+        CompletableFuture<SerpstatApiResponse> cancelled = client.callMethodAsync(METHOD, params);
+        CompletableFuture<SerpstatApiResponse> survivor = client.callMethodAsync(METHOD, params);
+        cancelled.cancel(true);
+
+        assertThat(survivor.get(5, TimeUnit.SECONDS).getResult().path("data").asText()).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("Should not coalesce calls with different parameters")
+    void shouldNotCoalesceDifferentCalls() throws Exception {
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{}}").delayed(Duration.ofMillis(100)));
+
+        CompletableFuture<SerpstatApiResponse> first = client.callMethodAsync(METHOD, Map.of("domain", "a.com"));
+        CompletableFuture<SerpstatApiResponse> second = client.callMethodAsync(METHOD, Map.of("domain", "b.com"));
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        assertThat(stub.requestCount()).isEqualTo(2);
+        assertThat(client.getMetrics().getCoalescedCalls()).isZero();
+    }
+}
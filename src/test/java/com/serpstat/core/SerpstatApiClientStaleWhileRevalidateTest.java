@@ -0,0 +1,124 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for serving stale cache entries while they are refreshed in the background
+ */
+@DisplayName("SerpstatApiClient Stale-While-Revalidate Tests")
+class SerpstatApiClientStaleWhileRevalidateTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getRegionsCount";
+    private static final Map<String, Object> PARAMS = Map.of("domain", "example.com");
+
+    private StubSerpstatServer stub;
+    private SerpstatApiClient client;
+    private final AtomicInteger version = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubSerpstatServer();
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok(
+                        "{\"id\":1,\"result\":{\"version\":" + version.incrementAndGet() + "}}")
+                .delayed(Duration.ofMillis(300)));
+        CachePolicyRegistry policies = CachePolicyRegistry.defaults()
+                .register(METHOD, CachePolicy.expireAfter(Duration.ofSeconds(30)).refreshAfter(Duration.ofMillis(100)));
+        client = new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                .apiUrl(stub.url())
+                .cachePolicies(policies)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private void awaitRefresh() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.getInFlightCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @Test
+    @DisplayName("Should serve a stale entry immediately and refresh it in the background")
+    void shouldServeStaleAndRefresh() throws Exception {
+        SerpstatApiResponse first = client.callMethod(METHOD, PARAMS);
+        assertThat(first.isStale()).isFalse();
+        Thread.sleep(150);
+
+        long start = System.nanoTime();
+        SerpstatApiResponse stale = client.callMethod(METHOD, PARAMS);
+
+        assertThat(millisSince(start)).isLessThan(200);
+        assertThat(stale.isStale()).isTrue();
+        assertThat(stale.getAgeMillis()).isGreaterThanOrEqualTo(100);
+        assertThat(stale.getResult().path("version").asInt()).isEqualTo(1);
+
+        awaitRefresh();
+        SerpstatApiResponse refreshed = client.callMethod(METHOD, PARAMS);
+
+        assertThat(refreshed.isStale()).isFalse();
+        assertThat(refreshed.getResult().path("version").asInt()).isEqualTo(2);
+        assertThat(stub.requestCount()).isEqualTo(2);
+        assertThat(client.getMetrics().getStaleHits()).isEqualTo(1);
+        assertThat(client.getMetrics().getBackgroundRefreshes()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should run one refresh no matter how many stale reads arrive")
+    void shouldRefreshOnce() throws Exception {
+        client.callMethod(METHOD, PARAMS);
+        Thread.sleep(150);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(client.callMethod(METHOD, PARAMS).isStale()).isTrue();
+        }
+        awaitRefresh();
+
+        assertThat(stub.requestCount()).isEqualTo(2);
+        assertThat(client.getMetrics().getStaleHits()).isEqualTo(20);
+        assertThat(client.getMetrics().getBackgroundRefreshes()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep serving the stale entry when the refresh fails")
+    void shouldKeepStaleEntryOnRefreshFailure() throws Exception {
+        client.callMethod(METHOD, PARAMS);
+        stub.respondWith(body -> new StubSerpstatServer.Reply(500, "unavailable", Duration.ZERO));
+        Thread.sleep(150);
+
+        assertThat(client.callMethod(METHOD, PARAMS).isStale()).isTrue();
+        awaitRefresh();
+        SerpstatApiResponse again = client.callMethod(METHOD, PARAMS);
+
+        assertThat(again.isStale()).isTrue();
+        assertThat(again.getResult().path("version").asInt()).isEqualTo(1);
+        assertThat(client.getMetrics().getFailedCalls()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not mark entries of methods without a refresh interval")
+    void shouldLeaveOtherMethodsAlone() throws Exception {
+        client.callMethod("SerpstatDomainProcedure.getDomainsInfo", PARAMS);
+        Thread.sleep(150);
+
+        assertThat(client.callMethod("SerpstatDomainProcedure.getDomainsInfo", PARAMS).isStale()).isFalse();
+        assertThat(stub.requestCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,177 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for per-tenant tokens, budgets and cache partitions
+ */
+@DisplayName("SerpstatApiClient Tenant Tests")
+@SuppressWarnings("try")
+class SerpstatApiClientTenantTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainKeywords";
+
+    private static StubSerpstatServer.Reply randomPayload() {
+        byte[] noise = new byte[3_000];
+        ThreadLocalRandom.current().nextBytes(noise);
+        return StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\""
+                + Base64.getEncoder().encodeToString(noise) + "\"}}");
+    }
+
+    @Test
+    @DisplayName("Should identify a tenant by its set of tokens")
+    void shouldIdentifyTenantByTokens() {
+        TenantContext tenant = TenantContext.of(List.of("alpha", "beta"));
+
+        assertThat(TenantContext.of(List.of("beta", "alpha", "beta")).getId()).isEqualTo(tenant.getId());
+        assertThat(TenantContext.of(List.of("alpha")).getId()).isNotEqualTo(tenant.getId());
+        assertThat(tenant.getId()).doesNotContain("alpha");
+        assertThatThrownBy(() -> TenantContext.of(List.of())).isInstanceOf(IllegalArgumentException.class);
+
+        try (TenantContext.Scope ignored = tenant.bind()) {
+            assertThat(TenantContext.current()).isSameAs(tenant);
+        }
+        assertThat(TenantContext.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should send a tenant's calls with its own token and never share its responses")
+    void shouldSendWithTenantToken() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            SerpstatApiClient client = new SerpstatApiClient("server-token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .build());
+            Map<String, Object> params = Map.of("domain", "example.com");
+
+            client.callMethod(METHOD, params);
+            try (TenantContext.Scope ignored = TenantContext.of(List.of("tenant-token")).bind()) {
+                client.callMethod(METHOD, params);
+                client.callMethod(METHOD, params);
+            }
+            try (TenantContext.Scope ignored = TenantContext.of(List.of("server-token")).bind()) {
+                client.callMethod(METHOD, params);
+            }
+
+            assertThat(stub.requestTokens()).containsExactly("server-token", "tenant-token");
+            assertThat(client.getTenantCount()).isEqualTo(1);
+            assertThat(client.getCachedEntryCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep separate credit budgets per tenant")
+    void shouldKeepBudgetsPerTenant() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            SerpstatApiClient client = new SerpstatApiClient("server-token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .creditBudget(100)
+                    .build());
+
+            try (TenantContext.Scope ignored = TenantContext.of(List.of("tenant-token")).bind()) {
+                client.callMethod(METHOD, Map.of("domain", "a.com"));
+                assertThatThrownBy(() -> client.callMethod(METHOD, Map.of("domain", "b.com")))
+                        .extracting(e -> ((SerpstatApiException) e).getErrorType())
+                        .isEqualTo(SerpstatApiException.BUDGET_EXCEEDED);
+            }
+            assertThatCode(() -> client.callMethod(METHOD, Map.of("domain", "b.com"))).doesNotThrowAnyException();
+            assertThat(client.getCreditBudgets().getGlobalCreditsLeft()).isEqualTo(99);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop a busy tenant from evicting another tenant's cached responses")
+    void shouldPartitionCache() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> randomPayload());
+            SerpstatApiClient client = new SerpstatApiClient("server-token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .requestsPerSecond(1_000)
+                    .adaptiveRateControl(false)
+                    .memoryCacheMaxBytes(96 * 1024)
+                    .build());
+            Map<String, Object> hot = Map.of("domain", "hot.com");
+
+            client.callMethod(METHOD, hot);
+            try (TenantContext.Scope ignored = TenantContext.of(List.of("noisy-token")).bind()) {
+                for (int i = 0; i < 60; i++) {
+                    client.callMethod(METHOD, Map.of("domain", "site" + i + ".com"));
+                }
+            }
+            client.cleanUpCache();
+            client.callMethod(METHOD, hot);
+
+            assertThat(stub.requestTokens().stream().filter("server-token"::equals).count()).isEqualTo(1);
+            assertThat(client.getCachedBytes()).isLessThanOrEqualTo(96 * 1024);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not admit a tenant until Serpstat has answered one of its calls")
+    void shouldAdmitTenantAfterSuccessfulCall() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith((token, body) -> token.startsWith("fake")
+                    ? new StubSerpstatServer.Reply(401, "Unauthorized", Duration.ZERO)
+                    : randomPayload());
+            SerpstatApiClient client = new SerpstatApiClient("server-token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .retryPolicy(RetryPolicy.none())
+                    .build());
+
+            for (int i = 0; i < 20; i++) {
+                try (TenantContext.Scope ignored = TenantContext.of(List.of("fake-" + i)).bind()) {
+                    assertThatThrownBy(() -> client.callMethod(METHOD, Map.of("domain", "a.com")))
+                            .isInstanceOf(SerpstatApiException.class);
+                }
+            }
+            assertThat(client.getTenantCount()).isZero();
+
+            try (TenantContext.Scope ignored = TenantContext.of(List.of("real-token")).bind()) {
+                client.callMethod(METHOD, Map.of("domain", "a.com"));
+                client.callMethod(METHOD, Map.of("domain", "a.com"));
+            }
+            assertThat(client.getTenantCount()).isEqualTo(1);
+            assertThat(stub.requestTokens().stream().filter("real-token"::equals).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the server's cache share and a bounded number of tenants however many join")
+    void shouldReserveDefaultShareAndBoundTenants() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> randomPayload());
+            SerpstatApiClient client = new SerpstatApiClient("server-token", SerpstatApiClientConfig.builder()
+                    .apiUrl(stub.url())
+                    .requestsPerSecond(1_000)
+                    .adaptiveRateControl(false)
+                    .memoryCacheMaxBytes(96 * 1024)
+                    .maxTenants(8)
+                    .build());
+
+            for (int i = 0; i < 5; i++) {
+                client.callMethod(METHOD, Map.of("domain", "hot" + i + ".com"));
+            }
+            for (int t = 0; t < 40; t++) {
+                try (TenantContext.Scope ignored = TenantContext.of(List.of("tenant-" + t, "extra-" + t)).bind()) {
+                    client.callMethod(METHOD, Map.of("domain", "site" + t + ".com"));
+                }
+            }
+            client.cleanUpCache();
+            for (int i = 0; i < 5; i++) {
+                client.callMethod(METHOD, Map.of("domain", "hot" + i + ".com"));
+            }
+
+            assertThat(stub.requestTokens().stream().filter("server-token"::equals).count()).isEqualTo(5);
+            assertThat(client.getTenantCount()).isLessThanOrEqualTo(8);
+            assertThat(client.getCachedBytes()).isLessThanOrEqualTo(96 * 1024);
+        }
+    }
+}
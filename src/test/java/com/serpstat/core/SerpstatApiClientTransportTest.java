@@ -0,0 +1,101 @@
+package com.serpstat.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the transport profile: HTTP version fallback and gzip-compressed responses
+ */
+@DisplayName("SerpstatApiClient Transport Tests")
+class SerpstatApiClientTransportTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainKeywords";
+
+    private StubSerpstatServer stub;
+    private String page;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubSerpstatServer();
+        StringBuilder json = new StringBuilder("{\"id\":1,\"result\":{\"data\":[");
+        for (int i = 0; i < 200; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"keyword\":\"купить ноутбук ").append(i).append("\",\"position\":").append(i % 100).append('}');
+        }
+        page = json.append("]}}").toString();
+        stub.respondWith(body -> StubSerpstatServer.Reply.ok(page));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private SerpstatApiClient client(boolean compression) {
+        return new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                .apiUrl(stub.url())
+                .compression(compression)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should ask for gzip and decode the compressed page while parsing")
+    void shouldDecodeGzip() throws Exception {
+        try (SerpstatApiClient client = client(true)) {
+            SerpstatApiResponse response = client.callMethod(METHOD, Map.of("domain", "example.com"));
+
+            assertThat(stub.acceptEncodings()).containsExactly("gzip");
+            assertThat(response.getResult().path("data")).hasSize(200);
+            assertThat(response.getResult().path("data").get(7).path("keyword").asText()).isEqualTo("купить ноутбук 7");
+            assertThat(stub.bytesSent()).isLessThan(page.getBytes(StandardCharsets.UTF_8).length / 4);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read identity bodies when compression is off or not applied")
+    void shouldReadUncompressedBodies() throws Exception {
+        try (SerpstatApiClient client = client(false)) {
+            assertThat(client.callMethod(METHOD, Map.of("domain", "a.com")).getResult().path("data")).hasSize(200);
+            assertThat(stub.acceptEncodings()).containsExactly("");
+        }
+
+        stub.compress(false);
+        try (SerpstatApiClient client = client(true)) {
+            assertThat(client.callMethod(METHOD, Map.of("domain", "b.com")).getResult().path("data")).hasSize(200);
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode compressed error bodies")
+    void shouldDecodeErrorBodies() {
+        stub.respondWith(body -> new StubSerpstatServer.Reply(403, "Недостаточно прав", Duration.ZERO));
+
+        try (SerpstatApiClient client = client(true)) {
+            assertThatThrownBy(() -> client.callMethod(METHOD, Map.of()))
+                    .isInstanceOf(SerpstatApiException.class)
+                    .hasMessageContaining("HTTP Error: 403 - Недостаточно прав");
+        }
+    }
+
+    @Test
+    @DisplayName("Should prefer HTTP/2 and fall back to HTTP/1.1 servers")
+    void shouldFallBackToHttp11() throws Exception {
+        SerpstatApiClientConfig config = SerpstatApiClientConfig.builder().apiUrl(stub.url()).build();
+        assertThat(config.getHttpVersion()).isEqualTo(HttpClient.Version.HTTP_2);
+
+        // The stub speaks HTTP/1.1 only
+        try (SerpstatApiClient client = new SerpstatApiClient("token", config)) {
+            assertThat(client.callMethod(METHOD, Map.of()).getResult().path("data")).hasSize(200);
+            assertThat(client.callMethod(METHOD, Map.of("page", 2)).getResult().path("data")).hasSize(200);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for parsing JSON-RPC envelopes from the response byte stream
+ */
+@DisplayName("SerpstatResponseParser Tests")
+class SerpstatResponseParserTest {
+
+    private final SerpstatResponseParser parser = new SerpstatResponseParser(new ObjectMapper());
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stream that fails the test if it is read past the given number of bytes
+     */
+    private static InputStream truncatedAfter(String json, int limit) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new ByteArrayInputStream(bytes, 0, bytes.length) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                if (pos >= limit) {
+                    throw new AssertionError("read past " + limit + " bytes");
+                }
+                return super.read(buffer, offset, Math.min(length, limit - pos));
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should return only the result subtree and skip other members")
+    void shouldParseResult() throws Exception {
+        JsonNode result = parser.parseResult(stream(
+                "{\"id\":1,\"meta\":{\"trace\":[1,2,3]},\"result\":{\"data\":[{\"keyword\":\"купить\"}]}}"));
+
+        assertThat(result.path("data").get(0).path("keyword").asText()).isEqualTo("купить");
+        assertThat(result.has("meta")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should fail on a JSON-RPC error without reading the rest of the body")
+    void shouldFailFastOnError() {
+        String json = "{\"id\":1,\"error\":{\"code\":-32001,\"message\":\"Invalid token\"}," + " ".repeat(10_000) + "}";
+        int errorEnd = json.indexOf('}') + 1;
+
+        assertThatThrownBy(() -> parser.parseResult(truncatedAfter(json, errorEnd + 1)))
+                .isInstanceOf(SerpstatApiException.class)
+                .hasMessage("Serpstat API Error: Invalid token");
+    }
+
+    @Test
+    @DisplayName("Should treat a null error member as success")
+    void shouldIgnoreNullError() throws Exception {
+        JsonNode result = parser.parseResult(stream("{\"id\":1,\"error\":null,\"result\":{\"ok\":true}}"));
+
+        assertThat(result.path("ok").asBoolean()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject bodies that are not a JSON object")
+    void shouldRejectNonObject() {
+        assertThatThrownBy(() -> parser.parseResult(stream("[1,2,3]")))
+                .isInstanceOf(SerpstatApiException.class);
+        assertThatThrownBy(() -> parser.parseResult(stream("<html>Bad gateway</html>")))
+                .isInstanceOf(Exception.class);
+    }
+
+    @Test
+    @DisplayName("Should iterate result rows one by one")
+    void shouldIterateRows() throws Exception {
+        String json = "{\"id\":1,\"result\":{\"summary_info\":{\"page\":1},\"data\":[{\"n\":1},{\"n\":2},{\"n\":3}]}}";
+        List<Integer> rows = new ArrayList<>();
+
+        try (SerpstatResponseParser.RowCursor cursor = parser.openRows(stream(json))) {
+            for (JsonNode row = cursor.next(); row != null; row = cursor.next()) {
+                rows.add(row.path("n").asInt());
+            }
+        }
+
+        assertThat(rows).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    @DisplayName("Should hand out the first row before the page is fully read")
+    void shouldStreamFirstRow() throws Exception {
+        StringBuilder json = new StringBuilder("{\"id\":1,\"result\":{\"data\":[{\"n\":0}");
+        for (int i = 1; i < 1000; i++) {
+            json.append(",{\"n\":").append(i).append('}');
+        }
+        json.append("]}}");
+
+        try (SerpstatResponseParser.RowCursor cursor = parser.openRows(truncatedAfter(json.toString(), 8000))) {
+            assertThat(cursor.next().path("n").asInt()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should give an empty cursor when there are no rows")
+    void shouldHandleMissingData() throws Exception {
+        try (SerpstatResponseParser.RowCursor cursor = parser.openRows(stream("{\"id\":1,\"result\":{\"left_lines\":5}}"))) {
+            assertThat(cursor.next()).isNull();
+        }
+        assertThatThrownBy(() -> parser.openRows(stream("{\"error\":{\"message\":\"Nope\"}}")))
+                .hasMessage("Serpstat API Error: Nope");
+    }
+}
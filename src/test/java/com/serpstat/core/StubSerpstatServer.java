@@ -0,0 +1,175 @@
+package com.serpstat.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Minimal local stand-in for the Serpstat API built on the JDK HTTP server.
+ * Every POST is answered by the configured responder; request bodies are recorded.
+ */
+class StubSerpstatServer implements AutoCloseable {
+
+    /**
+     * Canned reply of the stub
+     */
+    record Reply(int status, String body, Duration delay, Map<String, String> headers) {
+        Reply(int status, String body, Duration delay) {
+            this(status, body, delay, Map.of());
+        }
+
+        static Reply ok(String body) {
+            return new Reply(200, body, Duration.ZERO);
+        }
+
+        Reply delayed(Duration delay) {
+            return new Reply(status, body, delay, headers);
+        }
+
+        Reply withHeader(String name, String value) {
+            Map<String, String> withHeader = new HashMap<>(headers);
+            withHeader.put(name, value);
+            return new Reply(status, body, delay, withHeader);
+        }
+    }
+
+    private final HttpServer server;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+    private volatile boolean compression = true;
+    private volatile byte[][] lastGzip;
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+    private final List<String> tokens = new CopyOnWriteArrayList<>();
+    private volatile BiFunction<String, String, Reply> responder =
+            (token, body) -> Reply.ok("{\"id\":1,\"result\":{\"data\":\"test\"}}");
+
+    StubSerpstatServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/v4";
+    }
+
+    void respondWith(Function<String, Reply> responder) {
+        this.responder = (token, body) -> responder.apply(body);
+    }
+
+    /**
+     * Answers by the API token of the request as well as its body
+     */
+    void respondWith(BiFunction<String, String, Reply> responder) {
+        this.responder = responder;
+    }
+
+    int requestCount() {
+        return requestCount.get();
+    }
+
+    List<String> requestBodies() {
+        return requestBodies;
+    }
+
+    /**
+     * API token of each request, from its {@code token} query parameter
+     */
+    List<String> requestTokens() {
+        return tokens;
+    }
+
+    /**
+     * Whether replies are gzipped for clients that accept it (on by default, like Serpstat)
+     */
+    void compress(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Response body bytes written to the wire so far
+     */
+    long bytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Accept-Encoding header of each request, empty when absent
+     */
+    List<String> acceptEncodings() {
+        return acceptEncodings;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        requestCount.incrementAndGet();
+        requestBodies.add(body);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        acceptEncodings.add(acceptEncoding == null ? "" : acceptEncoding);
+        String query = exchange.getRequestURI().getQuery();
+        String token = query != null && query.startsWith("token=") ? query.substring("token=".length()) : "";
+        tokens.add(token);
+        Reply reply = responder.apply(token, body);
+        try {
+            if (!reply.delay().isZero()) {
+                Thread.sleep(reply.delay().toMillis());
+            }
+            byte[] bytes = reply.body().getBytes(StandardCharsets.UTF_8);
+            if (compression && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                bytes = gzip(bytes);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            bytesSent.addAndGet(bytes.length);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+            reply.headers().forEach(exchange.getResponseHeaders()::add);
+            exchange.sendResponseHeaders(reply.status(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Compresses a reply; the last result is reused, so replaying one page costs the stub no CPU
+     */
+    private byte[] gzip(byte[] bytes) throws IOException {
+        byte[][] last = lastGzip;
+        if (last != null && Arrays.equals(last[0], bytes)) {
+            return last[1];
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        }
+        lastGzip = new byte[][]{bytes, buffer.toByteArray()};
+        return lastGzip[1];
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,156 @@
+package com.serpstat.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for dispatching calls over several API tokens
+ */
+@DisplayName("TokenPool Tests")
+class TokenPoolTest {
+
+    private static final String METHOD = "SerpstatDomainProcedure.getDomainKeywords";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SerpstatApiMetrics metrics = new SerpstatApiMetrics();
+    private final SerpstatApiClientConfig fixedRate = SerpstatApiClientConfig.builder()
+            .requestsPerSecond(1)
+            .adaptiveRateControl(false)
+            .build();
+
+    @Test
+    @DisplayName("Should send each call with the token that has a permit free")
+    void shouldSelectTokenWithHeadroom() {
+        TokenPool pool = new TokenPool(List.of("alpha-token", "beta-token"), fixedRate, metrics);
+
+        TokenPool.Token first = pool.reserveNow();
+        TokenPool.Token second = pool.select();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(pool.reserveNow()).isSameAs(second);
+        assertThat(pool.reserveNow()).isNull();
+        assertThat(metrics.getEffectiveRate()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should sum the credits tokens report and drop tokens that ran out")
+    void shouldTrackCredits() throws Exception {
+        TokenPool pool = new TokenPool(List.of("alpha-token", "beta-token"), fixedRate, metrics);
+        TokenPool.Token alpha = pool.select();
+        TokenPool.Token beta = pool.select();
+
+        pool.onResponse(alpha, objectMapper.readTree("{\"summary_info\":{\"left_lines\":700}}"));
+        assertThat(pool.getCreditsLeft()).isEqualTo(TokenPool.UNKNOWN);
+
+        pool.onResponse(beta, objectMapper.readTree("{\"summary_info\":{\"left_lines\":300}}"));
+        assertThat(pool.getCreditsLeft()).isEqualTo(1_000);
+
+        pool.onResponse(beta, objectMapper.readTree("{\"summary_info\":{\"left_lines\":0}}"));
+        assertThat(beta.isActive()).isFalse();
+        assertThat(pool.getCreditsLeft()).isEqualTo(700);
+        assertThat(pool.select()).isSameAs(alpha);
+    }
+
+    @Test
+    @DisplayName("Should keep the last token in rotation whatever it fails with")
+    void shouldKeepLastToken() {
+        TokenPool pool = new TokenPool(List.of("alpha-token", "beta-token"), fixedRate, metrics);
+        SerpstatApiException unauthorized = new SerpstatApiException("HTTP Error: 401 - Unauthorized", 401,
+                SerpstatApiException.HTTP_ERROR);
+
+        pool.onFailure(pool.select(), unauthorized);
+        TokenPool.Token last = pool.select();
+        pool.onFailure(last, unauthorized);
+
+        assertThat(pool.getActiveCount()).isEqualTo(1);
+        assertThat(last.isActive()).isTrue();
+        assertThat(TokenPool.isTokenFailure(new SerpstatApiException("Serpstat API Error: Invalid token", 32001,
+                SerpstatApiException.API_ERROR))).isTrue();
+        assertThat(TokenPool.isTokenFailure(new SerpstatApiException("Serpstat API Error: Domain not found", 32018,
+                SerpstatApiException.API_ERROR))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should tell token failures by error code, not by the words in the message")
+    void shouldNotTakeCallErrorsMentioningTokensForTokenFailures() {
+        assertThat(TokenPool.isTokenFailure(new SerpstatApiException("Serpstat API Error: Access denied", -32001,
+                SerpstatApiException.API_ERROR))).isTrue();
+        assertThat(TokenPool.isTokenFailure(new SerpstatApiException(
+                "Serpstat API Error: Invalid keyword 'api token credits'", -32602,
+                SerpstatApiException.API_ERROR))).isFalse();
+        assertThat(TokenPool.isTokenFailure(new SerpstatApiException("Serpstat API Error: Invalid token", null,
+                SerpstatApiException.API_ERROR))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep every token when a call fails with an error that mentions tokens")
+    void shouldKeepTokensOnCallErrorMentioningToken() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith(body -> StubSerpstatServer.Reply.ok(
+                    "{\"id\":1,\"error\":{\"code\":-32602,\"message\":\"Domain token-credits.com not found\"}}"));
+            SerpstatApiClient client = new SerpstatApiClient(List.of("t1", "t2", "t3"),
+                    fixedRate.toBuilder().apiUrl(stub.url()).requestsPerSecond(50).build());
+
+            for (int i = 0; i < 3; i++) {
+                int call = i;
+                assertThatThrownBy(() -> client.callMethod(METHOD, Map.of("domain", "token-credits" + call + ".com")))
+                        .isInstanceOf(SerpstatApiException.class)
+                        .hasMessageContaining("token-credits.com");
+            }
+
+            assertThat(client.getActiveTokenCount()).isEqualTo(3);
+            assertThat(stub.requestCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should multiply throughput by the number of tokens")
+    void shouldScaleWithTokens() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            SerpstatApiClient client = new SerpstatApiClient(List.of("t1", "t2", "t3", "t4"),
+                    fixedRate.toBuilder().apiUrl(stub.url()).build());
+
+            long start = System.nanoTime();
+            CompletableFuture<?>[] calls = new CompletableFuture<?>[8];
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = client.callMethodAsync(METHOD, Map.of("domain", "site" + i + ".com"));
+            }
+            CompletableFuture.allOf(calls).get(10, TimeUnit.SECONDS);
+
+            // 8 calls at 1 req/s: one token needs 7 s, four tokens about 1 s
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(3_500);
+            assertThat(stub.requestTokens()).containsOnly("t1", "t2", "t3", "t4");
+            assertThat(stub.requestTokens().stream().distinct().count()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a rejected token and resend the call with another one")
+    void shouldFailOverFromRejectedToken() throws Exception {
+        try (StubSerpstatServer stub = new StubSerpstatServer()) {
+            stub.respondWith((token, body) -> token.equals("revoked")
+                    ? new StubSerpstatServer.Reply(401, "Unauthorized", Duration.ZERO)
+                    : StubSerpstatServer.Reply.ok("{\"id\":1,\"result\":{\"data\":\"ok\"}}"));
+            SerpstatApiClient client = new SerpstatApiClient(List.of("revoked", "valid"),
+                    fixedRate.toBuilder().apiUrl(stub.url()).requestsPerSecond(50).build());
+
+            for (int i = 0; i < 4; i++) {
+                SerpstatApiResponse response = client.callMethod(METHOD, Map.of("domain", "site" + i + ".com"));
+                assertThat(response.getResult().path("data").asText()).isEqualTo("ok");
+            }
+
+            assertThat(client.getActiveTokenCount()).isEqualTo(1);
+            assertThat(stub.requestTokens().stream().filter("revoked"::equals).count()).isLessThanOrEqualTo(1);
+            assertThat(client.getMetrics().getRetries()).isZero();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.serpstat.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH measurement of full uncached calls against {@link StubSerpstatServer} serving
+ * getDomainKeywords-shaped pages, with and without gzip. Reports latency per call, and prints the
+ * response bytes on the wire per call at the end of each run.
+ * <p>
+ * The stub speaks HTTP/1.1 only, so this measures compression and the executor path, not HTTP/2.
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main TransportBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// Without TCP_NODELAY the JDK stub server's small replies stall on delayed ACKs and hide the result
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class TransportBenchmark {
+
+    @Param({"true", "false"})
+    public boolean compression;
+
+    @Param({"1000"})
+    public int rows;
+
+    private StubSerpstatServer stub;
+    private SerpstatApiClient client;
+    private long page;
+
+    @Setup
+    public void setUp() throws Exception {
+        StringBuilder json = new StringBuilder("{\"id\":\"1\",\"result\":{\"data\":[");
+        for (int i = 0; i < rows; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"domain\":\"example.com\",\"keyword\":\"купить ноутбук недорого ").append(i)
+                    .append("\",\"keyword_length\":4,\"found_results\":").append(1_000_000 + i)
+                    .append(",\"url\":\"https://example.com/catalog/laptops/page-").append(i)
+                    .append("\",\"position\":").append(i % 100)
+                    .append(",\"types\":[\"pic\",\"related_search\"],\"cost\":0.42,\"concurrency\":71")
+                    .append(",\"difficulty\":38.5,\"region_queries_count\":").append(12_000 - i)
+                    .append(",\"traff\":").append(i * 3).append(",\"intents\":[\"commercial\"]}");
+        }
+        String body = json.append("],\"summary_info\":{\"page\":1,\"total\":250000,\"left_lines\":999000}}}").toString();
+
+        stub = new StubSerpstatServer();
+        stub.respondWith(request -> StubSerpstatServer.Reply.ok(body));
+        client = new SerpstatApiClient("token", SerpstatApiClientConfig.builder()
+                .apiUrl(stub.url())
+                .compression(compression)
+                .requestsPerSecond(1_000_000)
+                .adaptiveRateControl(false)
+                .retryPolicy(RetryPolicy.none())
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nResponse bytes on the wire per call: %d%n", stub.bytesSent() / stub.requestCount());
+        client.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public SerpstatApiResponse uncachedCall() throws Exception {
+        // A new page number per call, so every call goes upstream
+        return client.callMethod("SerpstatDomainProcedure.getDomainKeywords",
+                Map.of("domain", "example.com", "page", ++page));
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropCache() {
+        client.invalidate("SerpstatDomainProcedure.getDomainKeywords");
+    }
+}
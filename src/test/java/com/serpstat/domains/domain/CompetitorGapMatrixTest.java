@@ -0,0 +1,91 @@
+package com.serpstat.domains.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CompetitorGapMatrix class
+ * Tests pair planning under the credit cap and assembly of the gap matrix.
+ */
+@DisplayName("CompetitorGapMatrix Tests")
+class CompetitorGapMatrixTest {
+
+    private static final List<String> DOMAINS = List.of("ours.com", "rival.com", "other.com");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode gapResult(long total, String... keywords) throws Exception {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < keywords.length; i++) {
+            rows.append(i > 0 ? "," : "").append(String.format(
+                    "{\"keyword\":\"%s\",\"region_queries_count\":%d,\"found_results\":5}", keywords[i], (i + 1) * 10));
+        }
+        return objectMapper.readTree(String.format(
+                "{\"data\":[%s],\"summary_info\":{\"total\":%d,\"left_lines\":%d}}", rows, total, 1000 - total));
+    }
+
+    @Test
+    @DisplayName("Test every ordered pair is planned, the domain's own gaps first")
+    void testPlanOrder() {
+        List<CompetitorGapMatrix.Pair> pairs = new CompetitorGapMatrix(DOMAINS, "g_us", 10, 1000).plan();
+
+        assertEquals(6, pairs.size());
+        assertEquals(0, pairs.get(0).domain());
+        assertEquals(1, pairs.get(0).competitor());
+        assertEquals(0, pairs.get(1).domain());
+        assertEquals(0, pairs.get(2).competitor());
+        assertEquals(List.of("rival.com"), pairs.get(0).params().get("domains"));
+        assertEquals("ours.com", pairs.get(0).params().get("minusDomain"));
+        assertEquals(10, pairs.get(0).params().get("size"));
+        assertEquals(Map.of("region_queries_count", "desc"), pairs.get(0).params().get("sort"),
+                "Only a page sorted by volume holds the top keywords");
+    }
+
+    @Test
+    @DisplayName("Test pairs beyond the credit cap are skipped and reported")
+    void testCreditCap() {
+        CompetitorGapMatrix matrix = new CompetitorGapMatrix(DOMAINS, "g_us", 10, 25);
+        List<CompetitorGapMatrix.Pair> pairs = matrix.plan();
+
+        assertEquals(2, pairs.size(), "Two calls of 10 credits fit into 25");
+        JsonNode summary = matrix.toResult().get("summary_info");
+        assertEquals(20, summary.get("credits_reserved").asLong());
+        assertEquals(4, summary.get("skipped_pairs").size());
+    }
+
+    @Test
+    @DisplayName("Test gap counts fill the matrix and opportunities are sorted by volume")
+    void testResult() throws Exception {
+        CompetitorGapMatrix matrix = new CompetitorGapMatrix(DOMAINS, "g_us", 2, 1000);
+        List<CompetitorGapMatrix.Pair> pairs = matrix.plan();
+        matrix.record(pairs.get(0), gapResult(120, "a", "b", "c"));
+        matrix.record(pairs.get(1), gapResult(40, "d"));
+        matrix.fail(pairs.get(2), "Rate limit exceeded");
+
+        JsonNode result = matrix.toResult();
+        JsonNode gapMatrix = result.get("data").get("gap_matrix");
+
+        assertTrue(gapMatrix.get(0).get(0).isNull(), "Diagonal should be empty");
+        assertEquals(120, gapMatrix.get(0).get(1).asLong());
+        assertEquals(40, gapMatrix.get(0).get(2).asLong());
+        assertTrue(gapMatrix.get(1).get(0).isNull(), "Failed pair should be empty");
+
+        JsonNode firstPair = result.get("data").get("pairs").get(0);
+        assertEquals("rival.com", firstPair.get("competitor").asText());
+        assertEquals(2, firstPair.get("top_keywords").size());
+        assertEquals("c", firstPair.get("top_keywords").get(0).get("keyword").asText());
+        assertFalse(firstPair.get("top_keywords").get(0).has("found_results"));
+
+        JsonNode summary = result.get("summary_info");
+        assertEquals(2, summary.get("pairs_fetched").asInt());
+        assertEquals(1, summary.get("failed_pairs").size());
+        assertEquals(880, summary.get("left_lines").asLong());
+    }
+}
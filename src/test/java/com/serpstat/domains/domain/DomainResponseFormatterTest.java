@@ -90,6 +90,35 @@ class DomainResponseFormatterTest {
         assertEquals(1, testArray.size());
     }
 
+    @Test
+    @DisplayName("Test freshness marker for stale cached data")
+    void testFreshnessMarkerForStaleData() throws Exception {
+        // Arrange
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode resultNode = mapper.createObjectNode();
+        resultNode.set("data", mapper.createArrayNode());
+
+        SerpstatApiResponse staleResponse = mock(SerpstatApiResponse.class);
+        when(staleResponse.getResult()).thenReturn(resultNode);
+        when(staleResponse.isStale()).thenReturn(true);
+        when(staleResponse.getAgeMillis()).thenReturn(7_200_000L);
+
+        SerpstatApiResponse freshResponse = mock(SerpstatApiResponse.class);
+        when(freshResponse.getResult()).thenReturn(resultNode);
+
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("domains", List.of("example.com"));
+
+        // Act
+        JsonNode stale = mapper.readTree(DomainResponseFormatter.format(staleResponse, arguments, mapper));
+        JsonNode fresh = mapper.readTree(DomainResponseFormatter.format(freshResponse, arguments, mapper));
+
+        // Assert
+        assertTrue(stale.path("data_freshness").path("stale").asBoolean());
+        assertEquals(7200, stale.path("data_freshness").path("data_age_seconds").asLong());
+        assertFalse(fresh.has("data_freshness"));
+    }
+
     @Test
     @DisplayName("Test summary statistics calculation")
     void testSummaryStatisticsCalculation() throws Exception {
@@ -815,6 +844,37 @@ class DomainResponseFormatterTest {
         assertEquals(2, apiInfo.get("credits_used_this_request").asInt());
     }
 
+    @Test
+    @DisplayName("Test auto-paginated keywords cut inside a page continue from the first row not returned")
+    void testFormatDomainKeywordsTruncatedPage() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode resultNode = mapper.createObjectNode();
+        resultNode.set("data", mapper.createArrayNode());
+        ObjectNode summaryInfo = mapper.createObjectNode();
+        summaryInfo.put("total", 5000);
+        summaryInfo.put("page", 1);
+        summaryInfo.put("pages_fetched", 2);
+        summaryInfo.put("next_row", 1501);
+        resultNode.set("summary_info", summaryInfo);
+
+        SerpstatApiResponse mockResponse = mock(SerpstatApiResponse.class);
+        when(mockResponse.getResult()).thenReturn(resultNode);
+
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("domain", "example.com");
+        arguments.put("se", "g_us");
+        arguments.put("page", 1);
+        arguments.put("size", 1000);
+
+        JsonNode apiInfo = mapper.readTree(DomainResponseFormatter.formatDomainKeywords(mockResponse, arguments, mapper))
+                .get("api_info");
+
+        assertTrue(apiInfo.get("has_next_page").asBoolean());
+        assertEquals(1501, apiInfo.get("next_row").asLong());
+        assertEquals(2, apiInfo.get("next_page").asInt(), "Rows 1501-2000 sit on page 2, already fetched in part");
+        assertEquals(500, apiInfo.get("next_page_rows_already_returned").asInt());
+    }
+
     @Test
     @DisplayName("Test response structure validation")
     void testResponseStructureValidation() throws Exception {
@@ -146,7 +146,7 @@ class DomainSchemasTest {
 
         // Test domains array constraints
         assertEquals(1, domainsProperty.get("minItems").asInt(), "domains should have minItems 1");
-        assertEquals(100, domainsProperty.get("maxItems").asInt(), "domains should have maxItems 100");
+        assertEquals(10000, domainsProperty.get("maxItems").asInt(), "domains should have maxItems 10000");
         assertTrue(domainsProperty.get("uniqueItems").asBoolean(), "domains should have unique items");
 
         // Test that se property has enum of valid search engines
@@ -89,8 +89,8 @@ class DomainToolsTest {
         assertFalse(tools.isEmpty(), "Tools list should not be empty");
 
         // Test that we have the expected number of domain tools
-        // Based on DomainTools implementation, we should have 5 tools
-        assertEquals(5, tools.size(), "Should have 5 domain analysis tools");
+        // Based on DomainTools implementation, we should have 7 tools
+        assertEquals(7, tools.size(), "Should have 7 domain analysis tools");
         // Test that all tools have proper structure
         for (McpServerFeatures.SyncToolSpecification tool : tools) {
             assertNotNull(tool, "Tool specification should not be null");
@@ -101,9 +101,11 @@ class DomainToolsTest {
 
             // Test tool names are properly formatted
             assertFalse(tool.tool().name().isEmpty(), "Tool name should not be empty");
-            // Domain tools can start with either "domain_" or "get_domain" or "get_domains"
+            // Domain tools can start with either "domain_" or "get_domain" or "get_domains",
+            // except keyword_set_ops and competitor_gap_matrix, which compare several domains
             String toolName = tool.tool().name();
-            assertTrue(toolName.startsWith("domain_") || toolName.startsWith("get_domain"),
+            assertTrue(toolName.startsWith("domain_") || toolName.startsWith("get_domain")
+                            || toolName.equals("keyword_set_ops") || toolName.equals("competitor_gap_matrix"),
                     "Domain tool names should start with 'domain_' or 'get_domain', but was: " + toolName);
 
             // Test descriptions are meaningful
@@ -130,6 +132,8 @@ class DomainToolsTest {
         assertTrue(toolNames.contains("domain_keywords"), "Should have domain_keywords tool");
         assertTrue(toolNames.contains("get_domain_urls"), "Should have get_domain_urls tool");
         assertTrue(toolNames.contains("get_domains_uniq_keywords"), "Should have get_domains_uniq_keywords tool");
+        assertTrue(toolNames.contains("keyword_set_ops"), "Should have keyword_set_ops tool");
+        assertTrue(toolNames.contains("competitor_gap_matrix"), "Should have competitor_gap_matrix tool");
 
         // Test specific tool properties
         McpServerFeatures.SyncToolSpecification domainInfoTool = tools.stream()
@@ -171,10 +175,10 @@ class DomainToolsTest {
         assertEquals("Domain Analysis", domainName,
                 "Domain name should be 'Domain Analysis'");
 
-        // Test that tools list contains expected 5 tools
+        // Test that tools list contains expected 7 tools
         List<McpServerFeatures.SyncToolSpecification> tools = domainTools.getTools();
         assertNotNull(tools, "Tools list should not be null");
-        assertEquals(5, tools.size(), "Should have exactly 5 domain analysis tools");
+        assertEquals(7, tools.size(), "Should have exactly 7 domain analysis tools");
 
         // Extract tool names for validation
         List<String> toolNames = tools.stream()
@@ -243,7 +247,7 @@ class DomainToolsTest {
 
         // Test that all tool names are unique
         long uniqueToolNamesCount = toolNames.stream().distinct().count();
-        assertEquals(5, uniqueToolNamesCount, "All tool names should be unique");
+        assertEquals(7, uniqueToolNamesCount, "All tool names should be unique");
 
         // Test that inheritance allows access to base functionality
         // BaseToolHandler should provide access to the API client
@@ -264,11 +268,11 @@ class DomainToolsTest {
         assertEquals("Domain Analysis", domainName,
                 "getDomainName() should return 'Domain Analysis'");
 
-        // Test getTools() returns list of 5 tools
+        // Test getTools() returns list of 7 tools
         List<McpServerFeatures.SyncToolSpecification> tools = domainTools.getTools();
         assertNotNull(tools, "getTools() should not return null");
-        assertEquals(5, tools.size(),
-                "getTools() should return list of exactly 5 tools");
+        assertEquals(7, tools.size(),
+                "getTools() should return list of exactly 7 tools");
 
         // Extract tool names for verification
         List<String> toolNames = tools.stream()
@@ -276,7 +280,7 @@ class DomainToolsTest {
                 .toList();
 
         // Verify tool names: get_domains_info, domain_regions_count, domain_keywords,
-        // get_domain_urls, get_domains_uniq_keywords
+        // get_domain_urls, get_domains_uniq_keywords, keyword_set_ops, competitor_gap_matrix
         assertTrue(toolNames.contains("get_domains_info"),
                 "Tools should include get_domains_info");
         assertTrue(toolNames.contains("domain_regions_count"),
@@ -287,6 +291,10 @@ class DomainToolsTest {
                 "Tools should include get_domain_urls");
         assertTrue(toolNames.contains("get_domains_uniq_keywords"),
                 "Tools should include get_domains_uniq_keywords");
+        assertTrue(toolNames.contains("keyword_set_ops"),
+                "Tools should include keyword_set_ops");
+        assertTrue(toolNames.contains("competitor_gap_matrix"),
+                "Tools should include competitor_gap_matrix");
 
         // Verify each tool has valid description and schema
         for (McpServerFeatures.SyncToolSpecification tool : tools) {
@@ -322,7 +330,9 @@ class DomainToolsTest {
                 "domain_regions_count",
                 "domain_keywords",
                 "get_domain_urls",
-                "get_domains_uniq_keywords");
+                "get_domains_uniq_keywords",
+                "keyword_set_ops",
+                "competitor_gap_matrix");
 
         assertEquals(expectedToolNames, toolNames,
                 "Tools should be in expected order and contain all expected tools");
@@ -1035,6 +1045,63 @@ class DomainToolsTest {
         assertFalse(result.isError(), "Result with custom pagination should not be an error");
     }
 
+    @Test
+    @DisplayName("Test max_rows below a full page fetches pages of max_rows rows")
+    void testHandleDomainKeywordsMaxRowsPageSize() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode mockResult = mapper.readTree("{\"data\":[],\"summary_info\":{\"total\":5000,\"page\":1}}");
+        SerpstatApiResponse mockResponse = new SerpstatApiResponse(mockResult,
+                "SerpstatDomainProcedure.getDomainKeywords", Map.of());
+        when(mockApiClient.callMethod(eq("SerpstatDomainProcedure.getDomainKeywords"), any()))
+                .thenReturn(mockResponse);
+
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("domain", "example.com");
+        arguments.put("se", "g_us");
+        arguments.put("max_rows", 50);
+
+        java.lang.reflect.Method handleMethod = DomainTools.class
+                .getDeclaredMethod("handleDomainKeywords", McpSyncServerExchange.class, Map.class);
+        handleMethod.setAccessible(true);
+        CallToolResult result = (CallToolResult) handleMethod.invoke(domainTools, mockExchange, arguments);
+
+        assertFalse(result.isError(), "Result should not be an error");
+        verify(mockApiClient).callMethod(eq("SerpstatDomainProcedure.getDomainKeywords"),
+                argThat(params -> Integer.valueOf(50).equals(params.get("size"))));
+    }
+
+    @Test
+    @DisplayName("Test keyword set operations shrink the rows per domain to max_credits and flag truncation")
+    void testHandleKeywordSetOpsCreditCapAndTruncation() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode mockResult = mapper.readTree("{\"data\":[{\"keyword\":\"shoes\",\"region_queries_count\":100}],"
+                + "\"summary_info\":{\"total\":5000,\"page\":1}}");
+        SerpstatApiResponse mockResponse = new SerpstatApiResponse(mockResult,
+                "SerpstatDomainProcedure.getDomainKeywords", Map.of());
+        when(mockApiClient.callMethodAsync(eq("SerpstatDomainProcedure.getDomainKeywords"), any()))
+                .thenReturn(java.util.concurrent.CompletableFuture.completedFuture(mockResponse));
+
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("domains", List.of("example.com", "competitor.com"));
+        arguments.put("se", "g_us");
+        arguments.put("max_credits", 100);
+
+        java.lang.reflect.Method handleMethod = DomainTools.class
+                .getDeclaredMethod("handleKeywordSetOps", McpSyncServerExchange.class, Map.class);
+        handleMethod.setAccessible(true);
+        CallToolResult result = (CallToolResult) handleMethod.invoke(domainTools, mockExchange, arguments);
+
+        assertFalse(result.isError(), "Result should not be an error");
+        verify(mockApiClient, times(2)).callMethodAsync(eq("SerpstatDomainProcedure.getDomainKeywords"),
+                argThat(params -> Integer.valueOf(50).equals(params.get("size"))
+                        && Map.of("position", "asc").equals(params.get("sort"))));
+        JsonNode response = mapper.readTree(((TextContent) result.content().get(0)).text());
+        assertTrue(response.get("truncated").asBoolean(), "Domains with more keywords than fetched should be flagged");
+        assertEquals(50, response.get("max_rows_per_domain").asInt());
+        assertEquals(5000, response.get("domains").get(0).get("total").asLong());
+        assertTrue(response.get("domains").get(0).get("truncated").asBoolean());
+    }
+
     @Test
     @DisplayName("Test handle domains unique keywords request")
     void testHandleGetDomainsUniqKeywords() throws Exception {
@@ -1408,7 +1475,7 @@ class DomainToolsTest {
                     try {
                         List<McpServerFeatures.SyncToolSpecification> tools = domainTools.getTools();
                         assertNotNull(tools, "Tools should not be null in concurrent access");
-                        assertEquals(5, tools.size(), "Should have 5 tools");
+                        assertEquals(7, tools.size(), "Should have 7 tools");
                         successCount.incrementAndGet();
                     } catch (Exception e) {
                         fail("Concurrent tool access failed: " + e.getMessage());
@@ -1783,7 +1850,7 @@ class DomainToolsTest {
         for (int i = 0; i < 100; i++) {
             DomainTools tools = new DomainTools(mockApiClient);
             List<McpServerFeatures.SyncToolSpecification> toolSpecs = tools.getTools();
-            assertEquals(5, toolSpecs.size(), "Should always return 5 tools");
+            assertEquals(7, toolSpecs.size(), "Should always return 7 tools");
         }
 
         long endTime = System.nanoTime();
@@ -54,10 +54,10 @@ class DomainValidatorTest {
                 () -> DomainValidator.validateDomainsInfoRequest(emptyDomainsArgs));
         assertEquals("Parameter 'domains' cannot be empty", exception.getMessage());
 
-        // Test too many domains (> 100)
+        // Test too many domains (> 10000)
         Map<String, Object> tooManyDomainsArgs = new HashMap<>();
         List<String> manyDomains = new java.util.ArrayList<>();
-        for (int i = 0; i <= 100; i++) {
+        for (int i = 0; i <= DomainValidator.MAX_DOMAINS_INFO_DOMAINS; i++) {
             manyDomains.add("domain" + i + ".com");
         }
         tooManyDomainsArgs.put("domains", manyDomains);
@@ -65,7 +65,7 @@ class DomainValidatorTest {
 
         exception = assertThrows(ValidationException.class,
                 () -> DomainValidator.validateDomainsInfoRequest(tooManyDomainsArgs));
-        assertEquals("Maximum 100 domains allowed per request", exception.getMessage());
+        assertEquals("Maximum 10000 domains allowed per request", exception.getMessage());
 
         // Test invalid domain format
         Map<String, Object> invalidDomainArgs = new HashMap<>();
@@ -182,10 +182,10 @@ class DomainValidatorTest {
                 () -> DomainValidator.validateDomainsInfoRequest(emptyDomainsArgs));
         assertEquals("Parameter 'domains' cannot be empty", exception.getMessage());
         
-        // Test with > 100 domains (maximum 100 domains allowed per request)
+        // Test with > 10000 domains (longer lists are split into chunks of 100, up to 10000 domains)
         Map<String, Object> tooManyDomainsArgs = new HashMap<>();
         List<String> manyDomains = new ArrayList<>();
-        for (int i = 0; i <= 100; i++) { // 101 domains
+        for (int i = 0; i <= DomainValidator.MAX_DOMAINS_INFO_DOMAINS; i++) { // 10001 domains
             manyDomains.add("domain" + i + ".com");
         }
         tooManyDomainsArgs.put("domains", manyDomains);
@@ -193,7 +193,7 @@ class DomainValidatorTest {
         
         exception = assertThrows(ValidationException.class,
                 () -> DomainValidator.validateDomainsInfoRequest(tooManyDomainsArgs));
-        assertEquals("Maximum 100 domains allowed per request", exception.getMessage());
+        assertEquals("Maximum 10000 domains allowed per request", exception.getMessage());
         
         // Test with invalid domain format
         Map<String, Object> invalidDomainArgs = new HashMap<>();
@@ -927,7 +927,7 @@ class DomainValidatorTest {
         // Test domain list boundaries
         Map<String, Object> maxDomainsArgs = new HashMap<>();
         List<String> maxDomains = new ArrayList<>();
-        for (int i = 0; i < 100; i++) {
+        for (int i = 0; i < DomainValidator.MAX_DOMAINS_INFO_DOMAINS; i++) {
             maxDomains.add("example" + i + ".com");
         }
         maxDomainsArgs.put("domains", maxDomains);
@@ -935,10 +935,10 @@ class DomainValidatorTest {
         
         assertDoesNotThrow(() -> DomainValidator.validateDomainsInfoRequest(maxDomainsArgs));
         
-        // Test exceeding maximum domains (101 domains)
+        // Test exceeding maximum domains (10001 domains)
         Map<String, Object> tooManyDomainsArgs = new HashMap<>();
         List<String> tooManyDomains = new ArrayList<>();
-        for (int i = 0; i < 101; i++) {
+        for (int i = 0; i <= DomainValidator.MAX_DOMAINS_INFO_DOMAINS; i++) {
             tooManyDomains.add("example" + i + ".com");
         }
         tooManyDomainsArgs.put("domains", tooManyDomains);
@@ -946,7 +946,7 @@ class DomainValidatorTest {
         
         ValidationException tooManyException = assertThrows(ValidationException.class, 
             () -> DomainValidator.validateDomainsInfoRequest(tooManyDomainsArgs));
-        assertTrue(tooManyException.getMessage().contains("100"));
+        assertTrue(tooManyException.getMessage().contains("10000"));
         
         // Test empty vs null parameter handling
         Map<String, Object> emptyDomainsArgs = new HashMap<>();
@@ -1270,4 +1270,150 @@ class DomainValidatorTest {
         assertDoesNotThrow(() -> patternLatch.await(10, java.util.concurrent.TimeUnit.SECONDS));
         patternTestExecutor.shutdown();
     }
+
+    @Test
+    @DisplayName("Test domain keywords auto-pagination parameters")
+    void testValidateDomainKeywordsAutoPagination() {
+        Map<String, Object> allPagesArgs = new HashMap<>();
+        allPagesArgs.put("domain", "example.com");
+        allPagesArgs.put("se", "g_us");
+        allPagesArgs.put("all_pages", true);
+        allPagesArgs.put("max_rows", 20000);
+
+        assertDoesNotThrow(() -> DomainValidator.validateDomainKeywordsRequest(allPagesArgs),
+                "all_pages with max_rows should pass validation");
+
+        Map<String, Object> tooManyRowsArgs = new HashMap<>();
+        tooManyRowsArgs.put("domain", "example.com");
+        tooManyRowsArgs.put("se", "g_us");
+        tooManyRowsArgs.put("max_rows", DomainValidator.MAX_KEYWORD_ROWS + 1);
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateDomainKeywordsRequest(tooManyRowsArgs));
+        assertTrue(exception.getMessage().contains("max_rows"), "Invalid max_rows should be named");
+
+        Map<String, Object> invalidAllPagesArgs = new HashMap<>();
+        invalidAllPagesArgs.put("domain", "example.com");
+        invalidAllPagesArgs.put("se", "g_us");
+        invalidAllPagesArgs.put("all_pages", "yes");
+
+        exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateDomainKeywordsRequest(invalidAllPagesArgs));
+        assertTrue(exception.getMessage().contains("all_pages"), "Invalid all_pages should be named");
+    }
+
+    @Test
+    @DisplayName("Test keyword set operations validation")
+    void testValidateKeywordSetOpsRequest() {
+        Map<String, Object> validArgs = new HashMap<>();
+        validArgs.put("domains", List.of(" Example.com", "competitor.com"));
+        validArgs.put("se", "g_us");
+        validArgs.put("operation", "missing");
+        validArgs.put("max_rows_per_domain", 5000);
+        validArgs.put("top_k", 50);
+
+        assertDoesNotThrow(() -> DomainValidator.validateKeywordSetOpsRequest(validArgs),
+                "Valid keyword set operations request should pass validation");
+        assertEquals(List.of("example.com", "competitor.com"), validArgs.get("domains"),
+                "Domains should be normalized");
+
+        Map<String, Object> singleDomainArgs = new HashMap<>();
+        singleDomainArgs.put("domains", List.of("example.com"));
+        singleDomainArgs.put("se", "g_us");
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateKeywordSetOpsRequest(singleDomainArgs));
+        assertEquals("Parameter 'domains' must contain between 2 and 10 domains", exception.getMessage());
+
+        Map<String, Object> duplicateArgs = new HashMap<>();
+        duplicateArgs.put("domains", List.of("example.com", "EXAMPLE.com"));
+        duplicateArgs.put("se", "g_us");
+
+        exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateKeywordSetOpsRequest(duplicateArgs));
+        assertEquals("Duplicate domains are not allowed", exception.getMessage());
+
+        Map<String, Object> invalidOperationArgs = new HashMap<>();
+        invalidOperationArgs.put("domains", List.of("example.com", "competitor.com"));
+        invalidOperationArgs.put("se", "g_us");
+        invalidOperationArgs.put("operation", "xor");
+
+        exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateKeywordSetOpsRequest(invalidOperationArgs));
+        assertTrue(exception.getMessage().startsWith("Invalid operation"), "Invalid operation should be named");
+
+        Map<String, Object> tooManyRowsArgs = new HashMap<>();
+        tooManyRowsArgs.put("domains", List.of("example.com", "competitor.com"));
+        tooManyRowsArgs.put("se", "g_us");
+        tooManyRowsArgs.put("max_rows_per_domain", DomainValidator.MAX_KEYWORD_ROWS + 1);
+
+        exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateKeywordSetOpsRequest(tooManyRowsArgs));
+        assertEquals("Parameter 'max_rows_per_domain' must be between 1 and 50000", exception.getMessage());
+
+        Map<String, Object> invalidCreditsArgs = new HashMap<>();
+        invalidCreditsArgs.put("domains", List.of("example.com", "competitor.com"));
+        invalidCreditsArgs.put("se", "g_us");
+        invalidCreditsArgs.put("max_credits", 0);
+
+        exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateKeywordSetOpsRequest(invalidCreditsArgs));
+        assertEquals("Parameter 'max_credits' must be between 1 and 500000", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test competitor gap matrix validation")
+    void testValidateCompetitorGapMatrixRequest() {
+        Map<String, Object> validArgs = new HashMap<>();
+        validArgs.put("domain", "Example.com");
+        validArgs.put("se", "g_us");
+        validArgs.put("competitors", List.of("rival.com", " Other.com"));
+        validArgs.put("top_k", 20);
+        validArgs.put("max_credits", 500);
+
+        assertDoesNotThrow(() -> DomainValidator.validateCompetitorGapMatrixRequest(validArgs),
+                "Valid competitor gap matrix request should pass validation");
+        assertEquals("example.com", validArgs.get("domain"), "Domain should be normalized");
+        assertEquals(List.of("rival.com", "other.com"), validArgs.get("competitors"),
+                "Competitors should be normalized");
+
+        Map<String, Object> lookupArgs = new HashMap<>();
+        lookupArgs.put("domain", "example.com");
+        lookupArgs.put("se", "g_us");
+        lookupArgs.put("competitors_count", DomainValidator.MAX_GAP_MATRIX_COMPETITORS);
+
+        assertDoesNotThrow(() -> DomainValidator.validateCompetitorGapMatrixRequest(lookupArgs),
+                "Competitors may be looked up instead of given");
+
+        Map<String, Object> selfArgs = new HashMap<>();
+        selfArgs.put("domain", "example.com");
+        selfArgs.put("se", "g_us");
+        selfArgs.put("competitors", List.of("rival.com", "EXAMPLE.com"));
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateCompetitorGapMatrixRequest(selfArgs));
+        assertEquals("Parameter 'competitors' must not contain the domain itself", exception.getMessage());
+
+        Map<String, Object> tooManyArgs = new HashMap<>();
+        tooManyArgs.put("domain", "example.com");
+        tooManyArgs.put("se", "g_us");
+        List<String> tooMany = new ArrayList<>();
+        for (int i = 0; i <= DomainValidator.MAX_GAP_MATRIX_COMPETITORS; i++) {
+            tooMany.add("rival" + i + ".com");
+        }
+        tooManyArgs.put("competitors", tooMany);
+
+        exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateCompetitorGapMatrixRequest(tooManyArgs));
+        assertEquals("Parameter 'competitors' must contain between 1 and 9 domains", exception.getMessage());
+
+        Map<String, Object> invalidCreditsArgs = new HashMap<>();
+        invalidCreditsArgs.put("domain", "example.com");
+        invalidCreditsArgs.put("se", "g_us");
+        invalidCreditsArgs.put("max_credits", 0);
+
+        exception = assertThrows(ValidationException.class,
+                () -> DomainValidator.validateCompetitorGapMatrixRequest(invalidCreditsArgs));
+        assertEquals("Parameter 'max_credits' must be between 1 and 100000", exception.getMessage());
+    }
 }
@@ -0,0 +1,87 @@
+package com.serpstat.domains.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for KeywordSetOps class
+ * Tests the set operations, overlap matrix and keyword positions over several domains.
+ */
+@DisplayName("KeywordSetOps Tests")
+class KeywordSetOpsTest {
+
+    private static final List<String> DOMAINS = List.of("ours.com", "rival.com", "other.com");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode rows(String... keywords) throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < keywords.length; i++) {
+            String[] parts = keywords[i].split(":");
+            json.append(i > 0 ? "," : "").append(String.format(
+                    "{\"keyword\":\"%s\",\"region_queries_count\":%s,\"position\":%d}", parts[0], parts[1], i + 1));
+        }
+        return objectMapper.readTree(json.append("]").toString());
+    }
+
+    private KeywordSetOps setOps() throws Exception {
+        return new KeywordSetOps(DOMAINS, List.of(
+                rows("shoes:100", "boots:50", "socks:10"),
+                rows("Boots:50", "shoes:100", "laces:30"),
+                rows("shoes:100", "hats:70")));
+    }
+
+    private static List<String> keywordsOf(JsonNode result) {
+        List<String> keywords = new ArrayList<>();
+        result.get("data").forEach(row -> keywords.add(row.get("keyword").asText()));
+        return keywords;
+    }
+
+    @Test
+    @DisplayName("Test each operation selects the expected keywords, highest volume first")
+    void testOperations() throws Exception {
+        KeywordSetOps setOps = setOps();
+
+        assertEquals(List.of("shoes"), keywordsOf(setOps.apply("intersection", 100)));
+        assertEquals(List.of("shoes", "hats", "boots", "laces", "socks"), keywordsOf(setOps.apply("union", 100)));
+        assertEquals(List.of("socks"), keywordsOf(setOps.apply("difference", 100)));
+        assertEquals(List.of("hats", "laces"), keywordsOf(setOps.apply("missing", 100)));
+    }
+
+    @Test
+    @DisplayName("Test top_k limits returned keywords but not the match count")
+    void testTopK() throws Exception {
+        JsonNode result = setOps().apply("union", 2);
+
+        assertEquals(List.of("shoes", "hats"), keywordsOf(result));
+        assertEquals(5, result.get("summary_info").get("matching_keywords").asInt());
+        assertEquals(2, result.get("summary_info").get("keywords_returned").asInt());
+    }
+
+    @Test
+    @DisplayName("Test overlap matrix and per-domain positions")
+    void testOverlapMatrixAndPositions() throws Exception {
+        JsonNode result = setOps().apply("intersection", 100);
+
+        long[][] expected = {{3, 2, 1}, {2, 3, 1}, {1, 1, 2}};
+        JsonNode matrix = result.get("summary_info").get("overlap_matrix");
+        for (int a = 0; a < 3; a++) {
+            for (int b = 0; b < 3; b++) {
+                assertEquals(expected[a][b], matrix.get(a).get(b).asLong(), "overlap of " + a + " and " + b);
+            }
+        }
+
+        JsonNode shoes = result.get("data").get(0);
+        assertEquals(3, shoes.get("domains_count").asInt());
+        assertEquals(1, shoes.get("positions").get("ours.com").asInt());
+        assertEquals(2, shoes.get("positions").get("rival.com").asInt());
+        assertEquals(3, result.get("summary_info").get("domains").get(1).get("unique_keywords").asInt());
+    }
+}
@@ -0,0 +1,103 @@
+package com.serpstat.domains.keywords;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchKeywordMerger and KeywordHash
+ * Tests deduplication across seeds, stats accumulation and failure reporting.
+ */
+@DisplayName("BatchKeywordMerger Tests")
+class BatchKeywordMergerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode result(String rows) throws Exception {
+        return objectMapper.readTree("{\"data\":[" + rows + "],\"summary_info\":{\"left_lines\":1000}}");
+    }
+
+    private static List<String> keywordsOf(JsonNode merged) {
+        List<String> keywords = new ArrayList<>();
+        merged.get("data").forEach(row -> keywords.add(row.get("keyword").asText()));
+        return keywords;
+    }
+
+    @Test
+    @DisplayName("Test keyword hash ignores case, composition and whitespace runs")
+    void testKeywordHashNormalization() {
+        assertEquals(KeywordHash.of("running shoes"), KeywordHash.of("Running  Shoes "));
+        assertEquals(KeywordHash.of("caf\u00e9"), KeywordHash.of("cafe\u0301"));
+        assertNotEquals(KeywordHash.of("running shoes"), KeywordHash.of("runningshoes"));
+        assertNotEquals(KeywordHash.of("shoes"), KeywordHash.of("shoe"));
+    }
+
+    @Test
+    @DisplayName("Test duplicates across seeds are kept once, credited to the first seed")
+    void testDeduplicationAcrossSeeds() throws Exception {
+        BatchKeywordMerger merger = new BatchKeywordMerger(4);
+        merger.add("shoes", "keywords", result(
+                "{\"keyword\":\"running shoes\",\"region_queries_count\":5000,\"cost\":1.5,\"difficulty\":20},"
+                        + "{\"keyword\":\"trail shoes\",\"region_queries_count\":20000,\"cost\":2.5,\"difficulty\":60}"));
+        merger.add("sneakers", "related", result(
+                "{\"keyword\":\"Running Shoes\",\"region_queries_count\":5000,\"cost\":1.5,\"difficulty\":20},"
+                        + "{\"keyword\":\"white sneakers\",\"region_queries_count\":1000,\"cost\":0.5}"));
+
+        JsonNode merged = merger.toResult(10);
+        JsonNode summary = merged.get("summary_info");
+
+        assertEquals(List.of("trail shoes", "running shoes", "white sneakers"), keywordsOf(merged));
+        assertEquals("shoes", merged.get("data").get(1).get("seed").asText());
+        assertEquals("related", merged.get("data").get(2).get("source").asText());
+        assertEquals(4, summary.get("raw_keywords").asInt());
+        assertEquals(3, summary.get("unique_keywords").asInt());
+        assertEquals(1, summary.get("duplicates_removed").asInt());
+        assertEquals(26000, summary.get("total_search_volume").asLong());
+        assertEquals(1.5, summary.get("average_cost").asDouble());
+        assertEquals(2.5, summary.get("max_cost").asDouble());
+        assertEquals(40.0, summary.get("average_difficulty").asDouble());
+        assertEquals(1, summary.get("low_difficulty_keywords").asInt());
+        assertEquals(1, summary.get("high_volume_keywords").asInt());
+        assertEquals(1, summary.get("per_seed").get(1).get("new_unique_keywords").asInt());
+    }
+
+    @Test
+    @DisplayName("Test result limit keeps the highest volume keywords and stats cover all")
+    void testMaxResults() throws Exception {
+        BatchKeywordMerger merger = new BatchKeywordMerger(3);
+        merger.add("seed", "keywords", result(
+                "{\"keyword\":\"a\",\"region_queries_count\":10},"
+                        + "{\"keyword\":\"b\",\"region_queries_count\":30},"
+                        + "{\"keyword\":\"c\",\"region_queries_count\":20}"));
+
+        JsonNode merged = merger.toResult(2);
+
+        assertEquals(List.of("b", "c"), keywordsOf(merged));
+        assertEquals(3, merged.get("summary_info").get("unique_keywords").asInt());
+        assertEquals(2, merged.get("summary_info").get("keywords_returned").asInt());
+    }
+
+    @Test
+    @DisplayName("Test merged rows are copies and failures are reported")
+    void testCopiesAndFailures() throws Exception {
+        JsonNode response = result("{\"keyword\":\"a\",\"region_queries_count\":10}");
+        BatchKeywordMerger merger = new BatchKeywordMerger(1);
+        assertFalse(merger.hasResults());
+
+        merger.add("seed", "keywords", response);
+        merger.addFailure("other", "keywords", "Rate limit exceeded");
+        JsonNode merged = merger.toResult(10);
+
+        assertTrue(merger.hasResults());
+        assertFalse(response.get("data").get(0).has("seed"), "Source rows should not be changed");
+        JsonNode failed = merged.get("summary_info").get("failed_calls");
+        assertEquals(1, failed.size());
+        assertEquals("other", failed.get(0).get("seed").asText());
+    }
+}
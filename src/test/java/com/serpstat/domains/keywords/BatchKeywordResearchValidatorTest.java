@@ -0,0 +1,102 @@
+package com.serpstat.domains.keywords;
+
+import com.serpstat.core.ValidationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchKeywordResearchValidator class
+ * Tests validation and normalization of batch keyword research requests.
+ */
+@DisplayName("BatchKeywordResearchValidator Tests")
+class BatchKeywordResearchValidatorTest {
+
+    private static Map<String, Object> args(List<?> seeds) {
+        Map<String, Object> args = new HashMap<>();
+        args.put("seeds", seeds);
+        args.put("se", "g_us");
+        return args;
+    }
+
+    @Test
+    @DisplayName("Test valid request is accepted and seeds are normalized")
+    void testValidRequest() {
+        Map<String, Object> validArgs = args(List.of("  running shoes ", "sneakers"));
+        validArgs.put("mode", "both");
+        validArgs.put("size", 500);
+        validArgs.put("max_results", 10000);
+        validArgs.put("withIntents", true);
+
+        assertDoesNotThrow(() -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(validArgs));
+        assertEquals(List.of("running shoes", "sneakers"), validArgs.get("seeds"));
+    }
+
+    @Test
+    @DisplayName("Test seeds parameter validation")
+    void testSeedsValidation() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(args(null)));
+        assertEquals("Parameter 'seeds' is required", exception.getMessage());
+
+        exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(args(List.of())));
+        assertEquals("Parameter 'seeds' cannot be empty", exception.getMessage());
+
+        List<String> tooMany = new ArrayList<>();
+        for (int i = 0; i <= BatchKeywordResearchValidator.MAX_SEEDS; i++) {
+            tooMany.add("seed " + i);
+        }
+        exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(args(tooMany)));
+        assertEquals("Maximum 100 seeds allowed per request", exception.getMessage());
+
+        exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(args(Arrays.asList("a", 1))));
+        assertEquals("All items in 'seeds' must be strings", exception.getMessage());
+
+        exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(args(List.of("a", "  "))));
+        assertEquals("Seed at index 1 is empty", exception.getMessage());
+
+        exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(
+                        args(List.of("Running Shoes", "running  shoes"))));
+        assertTrue(exception.getMessage().startsWith("Duplicate seed"));
+    }
+
+    @Test
+    @DisplayName("Test mode, size and max_results validation")
+    void testOptionalParameters() {
+        Map<String, Object> badMode = args(List.of("shoes"));
+        badMode.put("mode", "all");
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(badMode));
+        assertTrue(exception.getMessage().startsWith("Invalid mode"));
+
+        Map<String, Object> badSize = args(List.of("shoes"));
+        badSize.put("size", 1001);
+        exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(badSize));
+        assertEquals("Parameter 'size' must be between 1 and 1000", exception.getMessage());
+
+        Map<String, Object> badMaxResults = args(List.of("shoes"));
+        badMaxResults.put("max_results", 0);
+        exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(badMaxResults));
+        assertEquals("Parameter 'max_results' must be between 1 and 10000", exception.getMessage());
+
+        Map<String, Object> badIntents = args(List.of("shoes"));
+        badIntents.put("withIntents", "yes");
+        exception = assertThrows(ValidationException.class,
+                () -> BatchKeywordResearchValidator.validateBatchKeywordResearchRequest(badIntents));
+        assertEquals("Parameter 'withIntents' must be a boolean", exception.getMessage());
+    }
+}
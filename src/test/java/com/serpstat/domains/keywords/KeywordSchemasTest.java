@@ -181,6 +181,44 @@ class KeywordSchemasTest {
                 "Schema should not allow additional properties");
     }
 
+    @Test
+    @DisplayName("Test BATCH_KEYWORD_RESEARCH_SCHEMA constant")
+    void testBatchKeywordResearchSchema() throws Exception {
+        // Test that schema is valid JSON
+        JsonNode schema = objectMapper.readTree(KeywordSchemas.BATCH_KEYWORD_RESEARCH_SCHEMA);
+        assertNotNull(schema, "BATCH_KEYWORD_RESEARCH_SCHEMA should be valid JSON");
+        assertEquals("object", schema.get("type").asText(), "Schema should be object type");
+
+        JsonNode properties = schema.get("properties");
+
+        // Test seeds property
+        JsonNode seedsProperty = properties.get("seeds");
+        assertEquals("array", seedsProperty.get("type").asText(), "seeds should be array type");
+        assertEquals(1, seedsProperty.get("minItems").asInt(), "seeds should have minItems 1");
+        assertEquals(BatchKeywordResearchValidator.MAX_SEEDS, seedsProperty.get("maxItems").asInt(),
+                "seeds maxItems should match the validator");
+        assertEquals(200, seedsProperty.get("items").get("maxLength").asInt(), "seeds should have maxLength 200");
+
+        // Test mode property
+        JsonNode modeProperty = properties.get("mode");
+        assertEquals(3, modeProperty.get("enum").size(), "mode should have 3 options");
+        assertEquals("keywords", modeProperty.get("default").asText(), "mode default should be keywords");
+
+        // Test max_results property
+        JsonNode maxResultsProperty = properties.get("max_results");
+        assertEquals(BatchKeywordResearchValidator.MAX_RESULTS, maxResultsProperty.get("maximum").asInt(),
+                "max_results maximum should match the validator");
+
+        // Test required fields
+        List<String> requiredFields = new ArrayList<>();
+        schema.get("required").forEach(node -> requiredFields.add(node.asText()));
+        assertEquals(List.of("seeds", "se"), requiredFields, "seeds and se should be required");
+
+        // Test additionalProperties
+        assertFalse(schema.get("additionalProperties").asBoolean(),
+                "Schema should not allow additional properties");
+    }
+
     @Test
     @DisplayName("Test schema property definitions")
     void testSchemaPropertyDefinitions() throws Exception {
@@ -191,6 +229,10 @@ class KeywordSchemasTest {
         // Test GET_RELATED_KEYWORDS_SCHEMA properties
         JsonNode getRelatedKeywordsSchema = objectMapper.readTree(KeywordSchemas.GET_RELATED_KEYWORDS_SCHEMA);
         testSchemaPropertyDefinitions(getRelatedKeywordsSchema, "GET_RELATED_KEYWORDS_SCHEMA");
+
+        // Test BATCH_KEYWORD_RESEARCH_SCHEMA properties
+        JsonNode batchKeywordResearchSchema = objectMapper.readTree(KeywordSchemas.BATCH_KEYWORD_RESEARCH_SCHEMA);
+        testSchemaPropertyDefinitions(batchKeywordResearchSchema, "BATCH_KEYWORD_RESEARCH_SCHEMA");
     }
 
     @Test
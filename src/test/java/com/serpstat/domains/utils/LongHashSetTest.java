@@ -0,0 +1,69 @@
+package com.serpstat.domains.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LongHashSet class
+ */
+@DisplayName("LongHashSet Tests")
+class LongHashSetTest {
+
+    @Test
+    @DisplayName("Test add reports new values only, including zero")
+    void testAddAndContains() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.isEmpty());
+
+        assertTrue(set.add(42L));
+        assertFalse(set.add(42L));
+        assertTrue(set.add(0L));
+        assertFalse(set.add(0L));
+        assertTrue(set.add(-1L));
+
+        assertTrue(set.contains(42L));
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(-1L));
+        assertFalse(set.contains(7L));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    @DisplayName("Test growing past the expected size keeps every value")
+    void testGrowth() {
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong();
+            assertEquals(expected.add(value), set.add(value));
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long value : expected) {
+            assertTrue(set.contains(value));
+        }
+    }
+
+    @Test
+    @DisplayName("Test toArray returns every value once")
+    void testToArray() {
+        LongHashSet set = new LongHashSet();
+        set.add(0L);
+        set.add(5L);
+        set.add(-9L);
+        set.add(5L);
+
+        long[] values = set.toArray();
+        Arrays.sort(values);
+
+        assertArrayEquals(new long[]{-9L, 0L, 5L}, values);
+    }
+}